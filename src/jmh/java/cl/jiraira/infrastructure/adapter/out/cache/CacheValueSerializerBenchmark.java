@@ -0,0 +1,55 @@
+package cl.jiraira.infrastructure.adapter.out.cache;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.springframework.data.redis.serializer.GenericJackson2JsonRedisSerializer;
+import org.springframework.data.redis.serializer.RedisSerializer;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compara el costo de codificar/decodificar una entrada de porcentaje con JSON y con el formato
+ * binario compacto. El tamaño en bytes de cada formato se imprime al iniciar cada trial.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class CacheValueSerializerBenchmark {
+
+    @Param({"json", "binary"})
+    public String encoding;
+
+    private RedisSerializer<Object> serializer;
+    private PercentageCacheEntry entry;
+    private byte[] encoded;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        serializer = "binary".equals(encoding)
+                ? new CompactBinaryRedisSerializer()
+                : new GenericJackson2JsonRedisSerializer();
+        entry = PercentageCacheEntry.of(new BigDecimal("10.25"), Duration.ofMinutes(25), Duration.ofMinutes(30),
+                System.currentTimeMillis());
+        encoded = serializer.serialize(entry);
+        System.out.printf("%n[%s] bytes por entrada: %d%n", encoding, encoded.length);
+    }
+
+    @Benchmark
+    public byte[] encode() {
+        return serializer.serialize(entry);
+    }
+
+    @Benchmark
+    public Object decode() {
+        return serializer.deserialize(encoded);
+    }
+}
@@ -0,0 +1,158 @@
+package cl.jiraira.infrastructure.adapter.out.persistence;
+
+import cl.jiraira.domain.model.ApiCall;
+import cl.jiraira.infrastructure.adapter.out.persistence.entity.ApiCallHistory;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.springframework.boot.Banner;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.autoconfigure.ImportAutoConfiguration;
+import org.springframework.boot.autoconfigure.context.PropertyPlaceholderAutoConfiguration;
+import org.springframework.boot.autoconfigure.domain.EntityScan;
+import org.springframework.boot.autoconfigure.flyway.FlywayAutoConfiguration;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceAutoConfiguration;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernateJpaAutoConfiguration;
+import org.springframework.boot.autoconfigure.transaction.TransactionAutoConfiguration;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.jpa.repository.config.EnableJpaRepositories;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import javax.sql.DataSource;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Filas por segundo al guardar el historial con {@link ApiCallHistoryPersistenceAdapter}: {@code save}
+ * por llamada (una transacción por fila) frente a {@code saveAll} de un lote del tamaño que usa el
+ * pipeline por defecto. Hibernate toma la secuencia pooled, {@code hibernate.jdbc.batch_size} y
+ * {@code order_inserts} de application.yml, y Flyway crea el esquema con las migraciones de la
+ * aplicación; en PostgreSQL lo hace en el schema {@value #SCHEMA}, que se elimina al terminar.
+ * <p>
+ * La base local se toma de {@code -Dbench.postgres.url}, {@code .user} y {@code .password}; la URL
+ * debe llevar {@code reWriteBatchedInserts=true}, igual que en la aplicación.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class HistoryInsertBenchmark {
+
+    /**
+     * Valor por defecto de {@code history.pipeline.batch-size}.
+     */
+    private static final int ROWS = 200;
+    private static final String SCHEMA = "bench_history";
+
+    @Param({"h2", "postgresql"})
+    public String database;
+
+    private ConfigurableApplicationContext context;
+    private ApiCallHistoryPersistenceAdapter adapter;
+    private JdbcTemplate jdbcTemplate;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = new SpringApplicationBuilder(PersistenceContext.class)
+                .web(WebApplicationType.NONE)
+                .bannerMode(Banner.Mode.OFF)
+                .logStartupInfo(false)
+                .run(arguments());
+        adapter = context.getBean(ApiCallHistoryPersistenceAdapter.class);
+        jdbcTemplate = new JdbcTemplate(context.getBean(DataSource.class));
+    }
+
+    /**
+     * Cada iteración parte con la tabla vacía: H2 en memoria guarda las filas en el heap y con
+     * millones de ellas mediría al recolector de basura en vez de los INSERT.
+     */
+    @TearDown(Level.Iteration)
+    public void truncate() {
+        jdbcTemplate.execute("TRUNCATE TABLE api_call_history");
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        if ("postgresql".equals(database)) {
+            jdbcTemplate.execute("DROP SCHEMA " + SCHEMA + " CASCADE");
+        }
+        context.close();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(ROWS)
+    public void save() {
+        for (int i = 0; i < ROWS; i++) {
+            adapter.save(call());
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(ROWS)
+    public void saveAll() {
+        List<ApiCall> batch = new ArrayList<>(ROWS);
+        for (int i = 0; i < ROWS; i++) {
+            batch.add(call());
+        }
+        adapter.saveAll(batch);
+    }
+
+    /**
+     * Como argumentos de línea de comandos, para que prevalezcan sobre la base de application.yml.
+     */
+    private String[] arguments() {
+        if ("h2".equals(database)) {
+            return new String[]{
+                    "--spring.datasource.url=jdbc:h2:mem:bench;DB_CLOSE_DELAY=-1",
+                    "--spring.datasource.driver-class-name=org.h2.Driver",
+                    "--spring.datasource.username=sa",
+                    "--spring.datasource.password=",
+                    "--spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect"
+            };
+        }
+        return new String[]{
+                "--spring.datasource.url=" + System.getProperty("bench.postgres.url",
+                        "jdbc:postgresql://localhost:5432/tenpo_db?reWriteBatchedInserts=true"),
+                "--spring.datasource.username=" + System.getProperty("bench.postgres.user", "postgres"),
+                "--spring.datasource.password=" + System.getProperty("bench.postgres.password", "postgres"),
+                "--spring.datasource.hikari.schema=" + SCHEMA,
+                "--spring.flyway.schemas=" + SCHEMA
+        };
+    }
+
+    private static ApiCall call() {
+        return ApiCall.builder()
+                .endpoint("/api/v1/calculations/calculate")
+                .method("POST")
+                .requestBody("{\"num1\":5,\"num2\":5}")
+                .responseBody("{\"result\":11.00,\"percentage\":10}")
+                .responseStatus(200)
+                .timestamp(LocalDateTime.now())
+                .executionTimeMs(12L)
+                .build();
+    }
+
+    /**
+     * Solo la capa de persistencia del historial, con la misma configuración que la aplicación.
+     */
+    @Configuration(proxyBeanMethods = false)
+    @ImportAutoConfiguration({PropertyPlaceholderAutoConfiguration.class, DataSourceAutoConfiguration.class,
+            FlywayAutoConfiguration.class, HibernateJpaAutoConfiguration.class, TransactionAutoConfiguration.class})
+    @EntityScan(basePackageClasses = ApiCallHistory.class)
+    @EnableJpaRepositories(basePackageClasses = ApiCallHistoryRepository.class)
+    @Import({ApiCallHistoryPersistenceAdapter.class, HistoryBodyStore.class})
+    static class PersistenceContext {
+    }
+}
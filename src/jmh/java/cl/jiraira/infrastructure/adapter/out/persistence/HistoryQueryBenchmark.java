@@ -0,0 +1,173 @@
+package cl.jiraira.infrastructure.adapter.out.persistence;
+
+import cl.jiraira.domain.model.HistoryFilter;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.infra.Blackhole;
+import org.postgresql.PGConnection;
+import org.postgresql.copy.CopyIn;
+
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Latencia de las consultas filtradas del historial sobre una tabla grande de PostgreSQL, con y sin
+ * los índices que crean las migraciones. Los datos se generan con una semilla fija: ~1% de respuestas
+ * 5xx, 5% de 429, tiempos de ejecución con cola larga y un registro por segundo hacia atrás desde
+ * {@link #NOW}. Las consultas se arman con {@link HistoryQuery}, igual que en la aplicación.
+ * <p>
+ * La base local se toma de {@code -Dbench.postgres.url}, {@code .user} y {@code .password}. Cargar
+ * 2 millones de filas toma alrededor de un minuto; la tabla se elimina al terminar.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class HistoryQueryBenchmark {
+
+    private static final LocalDateTime NOW = LocalDateTime.of(2025, 8, 1, 0, 0);
+    private static final String[] ENDPOINTS = {
+            "/api/v1/calculations/calculate", "/api/v1/history", "/api/v1/history/export", "/actuator/health"
+    };
+    private static final int PAGE_SIZE = 50;
+
+    @Param({"2000000"})
+    public int rows;
+
+    @Param({"false", "true"})
+    public boolean indexed;
+
+    private Connection connection;
+
+    @Setup(Level.Trial)
+    public void setUp() throws SQLException {
+        connection = DriverManager.getConnection(
+                System.getProperty("bench.postgres.url", "jdbc:postgresql://localhost:5432/tenpo_db"),
+                System.getProperty("bench.postgres.user", "postgres"),
+                System.getProperty("bench.postgres.password", "postgres"));
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("DROP TABLE IF EXISTS api_call_history_bench");
+            statement.execute("CREATE TABLE api_call_history_bench (id BIGINT PRIMARY KEY, timestamp TIMESTAMP NOT NULL, "
+                    + "endpoint VARCHAR(255) NOT NULL, method VARCHAR(255) NOT NULL, request_body TEXT, "
+                    + "response_body TEXT, response_status INTEGER, execution_time_ms BIGINT)");
+        }
+        generate();
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("CREATE INDEX ON api_call_history_bench (timestamp DESC, id DESC)");
+            if (indexed) {
+                statement.execute("CREATE INDEX ON api_call_history_bench (endpoint, timestamp DESC, id DESC)");
+                statement.execute("CREATE INDEX ON api_call_history_bench (execution_time_ms)");
+                // Mismos índices parcial y BRIN que la migración V1
+                statement.execute("CREATE INDEX ON api_call_history_bench (timestamp DESC, id DESC) WHERE response_status >= 500");
+                statement.execute("CREATE INDEX ON api_call_history_bench USING brin (timestamp) WITH (pages_per_range = 32)");
+            }
+            statement.execute("VACUUM ANALYZE api_call_history_bench");
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws SQLException {
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("DROP TABLE IF EXISTS api_call_history_bench");
+        }
+        connection.close();
+    }
+
+    @Benchmark
+    public void latestServerErrors(Blackhole blackhole) throws SQLException {
+        run(new HistoryFilter(null, null, null, null, null, 5, null), blackhole);
+    }
+
+    @Benchmark
+    public void latestForEndpoint(Blackhole blackhole) throws SQLException {
+        run(new HistoryFilter(null, null, "/api/v1/history/export", null, null, null, null), blackhole);
+    }
+
+    @Benchmark
+    public void slowCalls(Blackhole blackhole) throws SQLException {
+        run(new HistoryFilter(null, null, null, null, null, null, 30_000L), blackhole);
+    }
+
+    @Benchmark
+    public void oneHourRangeCount(Blackhole blackhole) throws SQLException {
+        // Rango antiguo: sin el BRIN el planificador debe recorrer la tabla completa
+        LocalDateTime from = NOW.minusSeconds(rows - 7200L);
+        try (PreparedStatement statement = connection.prepareStatement(
+                "SELECT count(*) FROM api_call_history_bench WHERE timestamp >= ? AND timestamp < ?")) {
+            statement.setObject(1, from);
+            statement.setObject(2, from.plusHours(1));
+            try (ResultSet resultSet = statement.executeQuery()) {
+                resultSet.next();
+                blackhole.consume(resultSet.getLong(1));
+            }
+        }
+    }
+
+    private void run(HistoryFilter filter, Blackhole blackhole) throws SQLException {
+        HistoryQuery query = HistoryQuery.select(HistoryQuery.SUMMARY_COLUMNS)
+                .where(filter)
+                .orderBy("timestamp DESC, id DESC")
+                .limit(PAGE_SIZE + 1);
+        try (PreparedStatement statement = connection.prepareStatement(
+                query.sql().replace("FROM api_call_history", "FROM api_call_history_bench"))) {
+            Object[] args = query.args();
+            for (int i = 0; i < args.length; i++) {
+                statement.setObject(i + 1, args[i]);
+            }
+            try (ResultSet resultSet = statement.executeQuery()) {
+                while (resultSet.next()) {
+                    blackhole.consume(resultSet.getLong(1));
+                }
+            }
+        }
+    }
+
+    private void generate() throws SQLException {
+        SplittableRandom random = new SplittableRandom(42);
+        DateTimeFormatter format = DateTimeFormatter.ISO_LOCAL_DATE_TIME;
+        CopyIn copyIn = connection.unwrap(PGConnection.class).getCopyAPI()
+                .copyIn("COPY api_call_history_bench FROM STDIN WITH (FORMAT csv)");
+        StringBuilder chunk = new StringBuilder(1 << 16);
+        for (int i = 0; i < rows; i++) {
+            String endpoint = ENDPOINTS[random.nextInt(100) < 85 ? 0 : 1 + random.nextInt(ENDPOINTS.length - 1)];
+            int roll = random.nextInt(1000);
+            int status = roll < 10 ? 500 + random.nextInt(4) : roll < 60 ? 429 : roll < 90 ? 400 : 200;
+            // Cola larga: la mayoría bajo 50 ms y unas pocas sobre varios segundos
+            long executionTime = (long) Math.min(60_000, Math.exp(random.nextDouble() * 11));
+            chunk.append(i + 1).append(',')
+                    .append(format.format(NOW.minusSeconds(rows - i))).append(',')
+                    .append(endpoint).append(',')
+                    .append(endpoint.endsWith("calculate") ? "POST" : "GET").append(',')
+                    .append("\"{\"\"num1\"\":5,\"\"num2\"\":5}\",,")
+                    .append(status).append(',')
+                    .append(executionTime).append('\n');
+            if (chunk.length() >= 1 << 16) {
+                write(copyIn, chunk);
+            }
+        }
+        write(copyIn, chunk);
+        copyIn.endCopy();
+    }
+
+    private static void write(CopyIn copyIn, StringBuilder chunk) throws SQLException {
+        byte[] bytes = chunk.toString().getBytes(StandardCharsets.UTF_8);
+        copyIn.writeToCopy(bytes, 0, bytes.length);
+        chunk.setLength(0);
+    }
+}
@@ -0,0 +1,48 @@
+package cl.jiraira.infrastructure.concurrent;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Costo de registrar una latencia cuando muchos hilos comparten el mismo histograma, que es el caso
+ * de un endpoint caliente. {@code epochMillis} bajo fuerza cambios de intervalo frecuentes sin que
+ * nadie los prepare.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Threads(16)
+public class LatencyHistogramBenchmark {
+
+    @Param({"1", "60000"})
+    public long epochMillis;
+
+    private WindowedLatencyHistogram histogram;
+    private long epochNanos;
+
+    @Setup
+    public void setUp() {
+        histogram = new WindowedLatencyHistogram(5);
+        epochNanos = TimeUnit.MILLISECONDS.toNanos(epochMillis);
+    }
+
+    @Benchmark
+    public void record() {
+        histogram.record(ThreadLocalRandom.current().nextLong(100, 50_000), System.nanoTime() / epochNanos);
+    }
+
+    @Benchmark
+    public long snapshotP99() {
+        return histogram.snapshot(System.nanoTime() / epochNanos).valueAtQuantile(0.99);
+    }
+}
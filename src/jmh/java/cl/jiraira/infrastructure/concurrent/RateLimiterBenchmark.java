@@ -0,0 +1,73 @@
+package cl.jiraira.infrastructure.concurrent;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Compara el limitador GCRA con el contador sincronizado anterior cuando muchos hilos compiten
+ * por el mismo cliente. {@code limit} bajo ejercita el camino de rechazo; alto, el de aceptación.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Threads(16)
+public class RateLimiterBenchmark {
+
+    @Param({"3", "2000000000"})
+    public int limit;
+
+    private GcraRateLimiter gcra;
+    private LegacyRequestCounter legacy;
+
+    @Setup
+    public void setUp() {
+        gcra = new GcraRateLimiter(limit, limit, System::nanoTime);
+        legacy = new LegacyRequestCounter();
+    }
+
+    @Benchmark
+    public boolean gcra() {
+        return gcra.tryAcquire();
+    }
+
+    @Benchmark
+    public boolean legacySynchronized() {
+        return legacy.tryAcquire(limit);
+    }
+
+    /**
+     * Copia del antiguo {@code RateLimitingConfig.RequestCounter}, de ventana fija de un minuto.
+     */
+    static class LegacyRequestCounter {
+        private LocalDateTime windowStart = LocalDateTime.now();
+        private final AtomicInteger count = new AtomicInteger(0);
+
+        synchronized boolean tryAcquire(int maxRequests) {
+            LocalDateTime now = LocalDateTime.now();
+
+            if (ChronoUnit.MINUTES.between(windowStart, now) >= 1) {
+                windowStart = now;
+                count.set(0);
+            }
+
+            if (count.get() < maxRequests) {
+                count.incrementAndGet();
+                return true;
+            }
+
+            return false;
+        }
+    }
+}
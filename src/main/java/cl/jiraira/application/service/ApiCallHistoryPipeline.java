@@ -0,0 +1,470 @@
+package cl.jiraira.application.service;
+
+import cl.jiraira.domain.model.ApiCall;
+import cl.jiraira.domain.port.out.ApiCallHistoryListener;
+import cl.jiraira.domain.port.out.ApiCallHistoryPort;
+import cl.jiraira.domain.port.out.ApiCallSpoolPort;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Cola acotada y sin locks para el historial de llamadas. Un único hilo escritor la drena y
+ * persiste en lotes, ya sea al juntar {@code batchSize} registros o al cumplirse {@code flushInterval}.
+ * Cuando la cola está llena se aplica la {@link OverflowPolicy} configurada.
+ * <p>
+ * Si la base rechaza un lote por sus datos (un valor que no cabe en la columna, una restricción) y no
+ * por estar caída, el lote se guarda de a una llamada y solo se descartan las que fallan.
+ * <p>
+ * Si hay un {@link ApiCallSpoolPort} disponible, los lotes que la base rechaza y las llamadas que
+ * no caben en la cola se escriben en el spool local. Las que no caben se entregan al hilo escritor
+ * en una segunda cola acotada, así la request nunca espera por el disco: el escritor las agrega al
+ * spool de a lotes. El mismo hilo reenvía el spool a la base cuando vuelve a estar disponible: un
+ * lote del spool tras cada lote de la cola guardado con éxito, o varios seguidos si la cola está vacía.
+ * <p>
+ * Cada llamada recibida se entrega también a los {@link ApiCallHistoryListener} registrados, antes de
+ * encolarla y aunque luego se descarte.
+ */
+@Component
+public class ApiCallHistoryPipeline {
+
+    private static final Logger logger = LoggerFactory.getLogger(ApiCallHistoryPipeline.class);
+    private static final long BLOCK_PARK_NANOS = TimeUnit.MICROSECONDS.toNanos(100);
+
+    public enum OverflowPolicy {
+        DROP_OLDEST,
+        DROP_NEWEST,
+        BLOCK
+    }
+
+    private final ApiCallHistoryPort apiCallHistoryPort;
+    private final ApiCallSpoolPort spool;
+    private final ApiCallHistoryListener[] listeners;
+    private final int capacity;
+    private final int batchSize;
+    private final long flushIntervalNanos;
+    private final OverflowPolicy overflowPolicy;
+    private final long blockTimeoutNanos;
+    private final long retryIntervalNanos;
+
+    private final ConcurrentLinkedQueue<ApiCall> queue = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger size = new AtomicInteger();
+    // Llamadas que no cupieron en la cola y esperan al escritor para ir al spool
+    private final ConcurrentLinkedQueue<ApiCall> overflow = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger overflowSize = new AtomicInteger();
+
+    private final Counter dropped;
+    private final Counter failed;
+    private final Counter rejected;
+    private final Counter spooled;
+    private final Counter replayed;
+    private final DistributionSummary batchSizes;
+    private final Timer flushLatency;
+
+    private volatile boolean running;
+    private volatile Thread writer;
+    // Solo lo usa el hilo escritor: antes de este instante no se intenta escribir en la base
+    private long retryAtNanos;
+
+    @Autowired
+    public ApiCallHistoryPipeline(ApiCallHistoryPort apiCallHistoryPort,
+                                  ObjectProvider<ApiCallSpoolPort> spool,
+                                  ObjectProvider<ApiCallHistoryListener> listeners,
+                                  MeterRegistry meterRegistry,
+                                  @Value("${history.pipeline.capacity:10000}") int capacity,
+                                  @Value("${history.pipeline.batch-size:200}") int batchSize,
+                                  @Value("${history.pipeline.flush-interval:500ms}") Duration flushInterval,
+                                  @Value("${history.pipeline.overflow-policy:DROP_OLDEST}") OverflowPolicy overflowPolicy,
+                                  @Value("${history.pipeline.block-timeout:50ms}") Duration blockTimeout,
+                                  @Value("${history.pipeline.retry-interval:5s}") Duration retryInterval) {
+        this(apiCallHistoryPort, spool.getIfAvailable(), listeners.orderedStream().toList(), meterRegistry, capacity,
+                batchSize, flushInterval, overflowPolicy, blockTimeout, retryInterval);
+    }
+
+    public ApiCallHistoryPipeline(ApiCallHistoryPort apiCallHistoryPort,
+                                  ApiCallSpoolPort spool,
+                                  MeterRegistry meterRegistry,
+                                  int capacity,
+                                  int batchSize,
+                                  Duration flushInterval,
+                                  OverflowPolicy overflowPolicy,
+                                  Duration blockTimeout,
+                                  Duration retryInterval) {
+        this(apiCallHistoryPort, spool, List.of(), meterRegistry, capacity, batchSize, flushInterval, overflowPolicy,
+                blockTimeout, retryInterval);
+    }
+
+    public ApiCallHistoryPipeline(ApiCallHistoryPort apiCallHistoryPort,
+                                  ApiCallSpoolPort spool,
+                                  List<ApiCallHistoryListener> listeners,
+                                  MeterRegistry meterRegistry,
+                                  int capacity,
+                                  int batchSize,
+                                  Duration flushInterval,
+                                  OverflowPolicy overflowPolicy,
+                                  Duration blockTimeout,
+                                  Duration retryInterval) {
+        if (capacity <= 0 || batchSize <= 0) {
+            throw new IllegalArgumentException("La capacidad y el tamaño de lote del historial deben ser mayores que cero");
+        }
+        this.apiCallHistoryPort = apiCallHistoryPort;
+        this.spool = spool;
+        this.listeners = listeners.toArray(ApiCallHistoryListener[]::new);
+        this.capacity = capacity;
+        this.batchSize = batchSize;
+        this.flushIntervalNanos = flushInterval.toNanos();
+        this.overflowPolicy = overflowPolicy;
+        this.blockTimeoutNanos = blockTimeout.toNanos();
+        this.retryIntervalNanos = retryInterval.toNanos();
+        this.retryAtNanos = System.nanoTime();
+
+        Gauge.builder("api.history.queue.depth", size, AtomicInteger::get)
+                .description("Llamadas API pendientes de persistir en el historial")
+                .register(meterRegistry);
+        this.dropped = Counter.builder("api.history.dropped")
+                .description("Llamadas API descartadas por cola llena")
+                .tag("policy", overflowPolicy.name())
+                .register(meterRegistry);
+        this.failed = Counter.builder("api.history.failed")
+                .description("Llamadas API perdidas por error al persistir el lote")
+                .register(meterRegistry);
+        this.rejected = Counter.builder("api.history.rejected")
+                .description("Llamadas API que la base rechazó por sus datos y se descartaron")
+                .register(meterRegistry);
+        this.spooled = Counter.builder("api.history.spooled")
+                .description("Llamadas API escritas en el spool local en lugar de la base")
+                .register(meterRegistry);
+        this.replayed = Counter.builder("api.history.spool.replayed")
+                .description("Llamadas API reenviadas desde el spool local a la base")
+                .register(meterRegistry);
+        this.batchSizes = DistributionSummary.builder("api.history.batch.size")
+                .description("Registros persistidos por lote")
+                .register(meterRegistry);
+        this.flushLatency = Timer.builder("api.history.flush")
+                .description("Tiempo en persistir un lote del historial")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Encola una llamada para persistirla en segundo plano. Retorna {@code false} si fue descartada.
+     */
+    public boolean submit(ApiCall apiCall) {
+        for (ApiCallHistoryListener listener : listeners) {
+            try {
+                listener.onApiCall(apiCall);
+            } catch (RuntimeException e) {
+                logger.warn("Error al notificar la llamada API a {}: {}", listener.getClass().getSimpleName(), e.getMessage());
+            }
+        }
+        if (size.incrementAndGet() > capacity) {
+            if (spool != null) {
+                size.decrementAndGet();
+                if (handOffToSpool(apiCall)) {
+                    return true;
+                }
+                size.incrementAndGet();
+            }
+            if (!makeRoom()) {
+                dropped.increment();
+                return false;
+            }
+        }
+        queue.offer(apiCall);
+        if (size.get() >= batchSize) {
+            wakeWriter();
+        }
+        return true;
+    }
+
+    public int queueDepth() {
+        return size.get();
+    }
+
+    @PostConstruct
+    public void start() {
+        if (running) {
+            return;
+        }
+        running = true;
+        Thread thread = new Thread(this::drainLoop, "api-call-history-writer");
+        thread.setDaemon(true);
+        writer = thread;
+        thread.start();
+    }
+
+    @PreDestroy
+    public void stop() {
+        running = false;
+        Thread thread = writer;
+        if (thread == null) {
+            return;
+        }
+        LockSupport.unpark(thread);
+        try {
+            thread.join(TimeUnit.SECONDS.toMillis(5));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        int pending = size.get() + overflowSize.get();
+        if (pending > 0) {
+            logger.warn("Se detuvo el escritor del historial con {} llamadas sin persistir", pending);
+        }
+    }
+
+    /**
+     * Deja la llamada para que el escritor la agregue al spool. La segunda cola admite hasta
+     * {@code capacity} llamadas; si también está llena se aplica la {@link OverflowPolicy}.
+     */
+    private boolean handOffToSpool(ApiCall apiCall) {
+        if (overflowSize.incrementAndGet() > capacity) {
+            overflowSize.decrementAndGet();
+            return false;
+        }
+        overflow.offer(apiCall);
+        wakeWriter();
+        return true;
+    }
+
+    private void wakeWriter() {
+        Thread current = writer;
+        if (current != null) {
+            LockSupport.unpark(current);
+        }
+    }
+
+    /**
+     * Se llama con el cupo ya reservado y la cola llena. Retorna {@code true} si el elemento nuevo
+     * puede entrar; si no, libera el cupo reservado.
+     */
+    private boolean makeRoom() {
+        switch (overflowPolicy) {
+            case DROP_OLDEST -> {
+                // Se cambia el más antiguo por el nuevo: el tamaño neto no varía
+                if (queue.poll() != null) {
+                    size.decrementAndGet();
+                    dropped.increment();
+                }
+                return true;
+            }
+            case BLOCK -> {
+                size.decrementAndGet();
+                long deadline = System.nanoTime() + blockTimeoutNanos;
+                while (System.nanoTime() - deadline < 0) {
+                    LockSupport.parkNanos(BLOCK_PARK_NANOS);
+                    if (size.incrementAndGet() <= capacity) {
+                        return true;
+                    }
+                    size.decrementAndGet();
+                }
+                return false;
+            }
+            default -> {
+                size.decrementAndGet();
+                return false;
+            }
+        }
+    }
+
+    private void drainLoop() {
+        List<ApiCall> batch = new ArrayList<>(batchSize);
+        long batchStartedAt = 0L;
+        while (running || size.get() > 0 || overflowSize.get() > 0) {
+            spoolOverflow();
+            ApiCall next;
+            while (batch.size() < batchSize && (next = queue.poll()) != null) {
+                size.decrementAndGet();
+                if (batch.isEmpty()) {
+                    batchStartedAt = System.nanoTime();
+                }
+                batch.add(next);
+            }
+
+            if (batch.isEmpty()) {
+                if (running && !replaySpool()) {
+                    LockSupport.parkNanos(this, flushIntervalNanos);
+                }
+                continue;
+            }
+
+            long age = System.nanoTime() - batchStartedAt;
+            if (batch.size() >= batchSize || age >= flushIntervalNanos || !running) {
+                boolean saved = flush(batch);
+                batch.clear();
+                if (saved && running) {
+                    // Con tráfico constante la cola casi nunca queda vacía: el spool tiene su turno tras cada lote
+                    replaySpool();
+                }
+            } else {
+                LockSupport.parkNanos(this, flushIntervalNanos - age);
+            }
+        }
+        if (!batch.isEmpty()) {
+            flush(batch);
+        }
+    }
+
+    /**
+     * Agrega al spool, de a lotes, las llamadas que no cupieron en la cola. Cada lote es una sola
+     * escritura en disco.
+     */
+    private void spoolOverflow() {
+        while (overflowSize.get() > 0) {
+            List<ApiCall> pending = new ArrayList<>(Math.min(batchSize, overflowSize.get()));
+            ApiCall next;
+            while (pending.size() < batchSize && (next = overflow.poll()) != null) {
+                overflowSize.decrementAndGet();
+                pending.add(next);
+            }
+            if (pending.isEmpty()) {
+                return;
+            }
+            toSpool(pending);
+        }
+    }
+
+    /**
+     * Retorna {@code true} si el lote quedó guardado en la base.
+     */
+    private boolean flush(List<ApiCall> batch) {
+        if (spool != null && System.nanoTime() - retryAtNanos < 0) {
+            // La base falló hace poco: se va directo al spool sin esperar otro timeout
+            toSpool(batch);
+            return false;
+        }
+        long start = System.nanoTime();
+        try {
+            apiCallHistoryPort.saveAll(List.copyOf(batch));
+            batchSizes.record(batch.size());
+            logger.debug("Lote de {} llamadas API guardado en el historial", batch.size());
+            return true;
+        } catch (Exception e) {
+            List<ApiCall> unsaved = batch;
+            Exception error = e;
+            if (!PersistenceErrors.isTransient(e)) {
+                logger.warn("La base rechazó el lote de {} llamadas API, se guardan de a una: {}", batch.size(), e.getMessage());
+                RowByRow result = saveOneByOne(batch);
+                if (result.unsaved().isEmpty()) {
+                    batchSizes.record(result.saved());
+                    return true;
+                }
+                unsaved = result.unsaved();
+                error = result.error();
+            }
+            retryAtNanos = System.nanoTime() + retryIntervalNanos;
+            if (spool != null) {
+                logger.warn("Error al guardar lote de {} llamadas API, se escribe en el spool local: {}", unsaved.size(), error.getMessage());
+                toSpool(unsaved);
+            } else {
+                failed.increment(unsaved.size());
+                logger.error("Error al guardar lote de {} llamadas API en el historial: {}", unsaved.size(), error.getMessage(), error);
+            }
+            return false;
+        } finally {
+            flushLatency.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    /**
+     * Guarda las llamadas de a una tras un error que no se resuelve reintentando: se descartan solo
+     * las que la base rechaza. Si aparece un error transitorio se detiene y retorna las que faltan,
+     * incluida la que falló.
+     */
+    private RowByRow saveOneByOne(List<ApiCall> calls) {
+        int saved = 0;
+        for (int i = 0; i < calls.size(); i++) {
+            ApiCall apiCall = calls.get(i);
+            try {
+                apiCallHistoryPort.save(apiCall);
+                saved++;
+            } catch (Exception e) {
+                if (PersistenceErrors.isTransient(e)) {
+                    return new RowByRow(saved, List.copyOf(calls.subList(i, calls.size())), e);
+                }
+                rejected.increment();
+                logger.error("La base rechazó la llamada API {} {}, se descarta: {}", apiCall.method(), apiCall.endpoint(), e.getMessage());
+            }
+        }
+        return new RowByRow(saved, List.of(), null);
+    }
+
+    private void toSpool(List<ApiCall> batch) {
+        if (spool.append(List.copyOf(batch))) {
+            spooled.increment(batch.size());
+        } else {
+            failed.increment(batch.size());
+            logger.error("No se pudo escribir el lote de {} llamadas API en el spool local", batch.size());
+        }
+    }
+
+    /**
+     * Reenvía a la base un lote del spool si la base está disponible. Retorna {@code true} si
+     * reenvió algo, para seguir drenando sin esperar.
+     */
+    private boolean replaySpool() {
+        if (spool == null || System.nanoTime() - retryAtNanos < 0 || !spool.hasPending()) {
+            return false;
+        }
+        List<ApiCall> pending = spool.readPending(batchSize);
+        if (pending.isEmpty()) {
+            return false;
+        }
+        try {
+            apiCallHistoryPort.saveAll(pending);
+            spool.acknowledge();
+            replayed.increment(pending.size());
+            logger.debug("Reenviadas {} llamadas API desde el spool local", pending.size());
+            return true;
+        } catch (Exception e) {
+            if (PersistenceErrors.isTransient(e)) {
+                retryAtNanos = System.nanoTime() + retryIntervalNanos;
+                logger.warn("La base sigue sin aceptar el historial, se reintentará el spool en {} ms: {}",
+                        TimeUnit.NANOSECONDS.toMillis(retryIntervalNanos), e.getMessage());
+                return false;
+            }
+            // Un lote que la base nunca aceptará no puede quedar bloqueando la cabeza del spool
+            logger.warn("La base rechazó un lote de {} llamadas del spool, se reenvían de a una: {}", pending.size(), e.getMessage());
+            return replayOneByOne(pending);
+        }
+    }
+
+    /**
+     * Reenvía de a una las llamadas de un lote del spool y lo confirma. Si la base se cae a mitad de
+     * camino, las que faltan se agregan al final del spool para no guardar dos veces las ya reenviadas;
+     * si no caben, el lote queda sin confirmar y se reintenta completo.
+     */
+    private boolean replayOneByOne(List<ApiCall> pending) {
+        RowByRow result = saveOneByOne(pending);
+        if (!result.unsaved().isEmpty()) {
+            retryAtNanos = System.nanoTime() + retryIntervalNanos;
+            logger.warn("La base dejó de aceptar el historial al reenviar el spool, se reintentará en {} ms: {}",
+                    TimeUnit.NANOSECONDS.toMillis(retryIntervalNanos), result.error().getMessage());
+            if (!spool.append(result.unsaved())) {
+                return false;
+            }
+        }
+        spool.acknowledge();
+        replayed.increment(result.saved());
+        return result.unsaved().isEmpty();
+    }
+
+    private record RowByRow(int saved, List<ApiCall> unsaved, Exception error) {
+    }
+}
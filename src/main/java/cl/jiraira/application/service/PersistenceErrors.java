@@ -0,0 +1,59 @@
+package cl.jiraira.application.service;
+
+import org.springframework.dao.NonTransientDataAccessResourceException;
+import org.springframework.dao.RecoverableDataAccessException;
+import org.springframework.dao.TransientDataAccessException;
+import org.springframework.transaction.CannotCreateTransactionException;
+
+import java.io.IOException;
+import java.sql.SQLException;
+import java.sql.SQLNonTransientConnectionException;
+import java.sql.SQLRecoverableException;
+import java.sql.SQLTransientException;
+
+/**
+ * Distingue los errores al escribir el historial que se resuelven reintentando (base caída, timeouts,
+ * conflictos de concurrencia) de los que se repetirán siempre con los mismos datos, como un valor
+ * demasiado largo para la columna o una restricción violada.
+ */
+final class PersistenceErrors {
+
+    private PersistenceErrors() {
+    }
+
+    static boolean isTransient(Throwable error) {
+        // El SQLState de la causa es más preciso que el tipo con que la envuelve cada adaptador
+        for (Throwable cause = error; cause != null; cause = cause.getCause()) {
+            if (cause instanceof SQLException sqlException) {
+                return isTransient(sqlException);
+            }
+        }
+        for (Throwable cause = error; cause != null; cause = cause.getCause()) {
+            if (cause instanceof TransientDataAccessException
+                    || cause instanceof RecoverableDataAccessException
+                    || cause instanceof NonTransientDataAccessResourceException
+                    || cause instanceof CannotCreateTransactionException
+                    || cause instanceof IOException) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static boolean isTransient(SQLException error) {
+        if (error instanceof SQLTransientException
+                || error instanceof SQLRecoverableException
+                || error instanceof SQLNonTransientConnectionException) {
+            return true;
+        }
+        String state = error.getSQLState();
+        if (state == null || state.length() < 2) {
+            return error.getNextException() != null && isTransient(error.getNextException());
+        }
+        return switch (state.substring(0, 2)) {
+            // Conexión, rollback por concurrencia, recursos insuficientes, intervención del operador, error de sistema
+            case "08", "40", "53", "57", "58" -> true;
+            default -> false;
+        };
+    }
+}
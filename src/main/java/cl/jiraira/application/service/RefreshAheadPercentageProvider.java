@@ -0,0 +1,253 @@
+package cl.jiraira.application.service;
+
+import cl.jiraira.domain.exception.PercentageUnavailableException;
+import cl.jiraira.domain.model.CachedPercentage;
+import cl.jiraira.domain.port.out.CachePort;
+import cl.jiraira.domain.port.out.PercentagePort;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Optional;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.LongSupplier;
+
+/**
+ * Mantiene en memoria el porcentaje vigente y lo refresca en segundo plano antes de que expire.
+ * Solo se bloquea al llamador cuando todavía no se ha cargado ningún valor.
+ * <p>
+ * Pasado el soft TTL se agenda un refresco (stale-while-revalidate); pasado el hard TTL el valor
+ * se sigue sirviendo como último valor conocido mientras no se logre refrescar. Tras un refresco
+ * fallido el siguiente intento espera un backoff exponencial, para no reintentar en cada request
+ * mientras el servicio externo siga caído.
+ */
+@Component
+public class RefreshAheadPercentageProvider {
+
+    private static final Logger logger = LoggerFactory.getLogger(RefreshAheadPercentageProvider.class);
+    private static final String PERCENTAGE_CACHE_KEY = "percentage";
+    private static final int MAX_ATTEMPTS = 3;
+    private static final Duration INITIAL_RETRY_BACKOFF = Duration.ofSeconds(1);
+    private static final Duration MAX_RETRY_BACKOFF = Duration.ofMinutes(1);
+
+    private final PercentagePort percentagePort;
+    private final CachePort cachePort;
+    private final Duration softTtl;
+    private final Duration hardTtl;
+    private final Executor refreshExecutor;
+    private final LongSupplier nanoClock;
+
+    private final AtomicReference<PercentageSnapshot> current = new AtomicReference<>();
+    private final AtomicBoolean refreshInProgress = new AtomicBoolean();
+    private final AtomicInteger consecutiveFailures = new AtomicInteger();
+    private volatile long nextAttemptAtNanos;
+    private final Object loadLock = new Object();
+
+    @Autowired
+    public RefreshAheadPercentageProvider(PercentagePort percentagePort,
+                                          CachePort cachePort,
+                                          @Value("${external.percentage-service.refresh.soft-ttl:25m}") Duration softTtl,
+                                          @Value("${external.percentage-service.refresh.hard-ttl:30m}") Duration hardTtl) {
+        this(percentagePort, cachePort, softTtl, hardTtl, newRefreshExecutor(), System::nanoTime);
+    }
+
+    public RefreshAheadPercentageProvider(PercentagePort percentagePort,
+                                          CachePort cachePort,
+                                          Duration softTtl,
+                                          Duration hardTtl,
+                                          Executor refreshExecutor,
+                                          LongSupplier nanoClock) {
+        if (hardTtl.isNegative() || hardTtl.isZero()) {
+            throw new IllegalArgumentException("El hard TTL del porcentaje debe ser mayor que cero");
+        }
+        if (softTtl.compareTo(hardTtl) > 0) {
+            throw new IllegalArgumentException("El soft TTL del porcentaje no puede superar al hard TTL");
+        }
+        this.percentagePort = percentagePort;
+        this.cachePort = cachePort;
+        this.softTtl = softTtl;
+        this.hardTtl = hardTtl;
+        this.refreshExecutor = refreshExecutor;
+        this.nanoClock = nanoClock;
+    }
+
+    /**
+     * Retorna el porcentaje vigente. Si está próximo a expirar se agenda un refresco en segundo plano
+     * y se sigue sirviendo el valor actual mientras tanto, salvo que se esté esperando el backoff de
+     * un refresco fallido.
+     */
+    public PercentageSnapshot getPercentage() {
+        PercentageSnapshot snapshot = current.get();
+        if (snapshot == null) {
+            return loadInitial();
+        }
+
+        long now = nanoClock.getAsLong();
+        if ((snapshot.stale() || now - snapshot.refreshAtNanos() >= 0) && retryAllowed(now)) {
+            scheduleRefresh();
+        }
+        if (!snapshot.stale() && now - snapshot.expiresAtNanos() >= 0) {
+            return snapshot.asStale();
+        }
+        return snapshot;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void warmUp() {
+        logger.info("Precargando porcentaje en segundo plano");
+        scheduleRefresh();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        if (refreshExecutor instanceof ExecutorService executorService) {
+            executorService.shutdownNow();
+        }
+    }
+
+    private PercentageSnapshot loadInitial() {
+        synchronized (loadLock) {
+            PercentageSnapshot loaded = current.get();
+            if (loaded != null) {
+                return loaded;
+            }
+
+            // Otra réplica pudo haber cargado el porcentaje en el caché compartido
+            Optional<CachedPercentage> shared = cachePort.getPercentageEntry(PERCENTAGE_CACHE_KEY);
+            if (shared.isPresent()) {
+                loaded = fromCache(shared.get());
+                current.set(loaded);
+                return loaded;
+            }
+
+            Exception lastException = null;
+            for (int attempt = 1; attempt <= MAX_ATTEMPTS; attempt++) {
+                try {
+                    loaded = fetchFromService();
+                    current.set(loaded);
+                    consecutiveFailures.set(0);
+                    return loaded;
+                } catch (Exception e) {
+                    lastException = e;
+                    logger.warn("Intento {} fallido al obtener porcentaje del servicio externo: {}", attempt, e.getMessage());
+                }
+            }
+
+            // Los reintentos pueden tardar varios timeouts: se vuelve a leer el caché compartido por si otra
+            // réplica lo cargó mientras tanto. Se sirve como último valor conocido porque el servicio sigue fallando
+            long now = nanoClock.getAsLong();
+            recordFailure(now);
+            Optional<CachedPercentage> cached = cachePort.getPercentageEntry(PERCENTAGE_CACHE_KEY);
+            if (cached.isEmpty()) {
+                logger.error("No hay porcentaje disponible en caché ni en el servicio externo tras {} intentos", MAX_ATTEMPTS);
+                throw new PercentageUnavailableException("No se pudo obtener el porcentaje dinámico ni existe valor previo en caché", lastException);
+            }
+
+            loaded = new PercentageSnapshot(cached.get().value(), true, now, now);
+            current.set(loaded);
+            return loaded;
+        }
+    }
+
+    private void scheduleRefresh() {
+        if (!refreshInProgress.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            refreshExecutor.execute(this::refresh);
+        } catch (RejectedExecutionException e) {
+            refreshInProgress.set(false);
+            logger.warn("No se pudo agendar el refresco del porcentaje: {}", e.getMessage());
+        }
+    }
+
+    private void refresh() {
+        try {
+            Optional<CachedPercentage> shared = cachePort.getPercentageEntry(PERCENTAGE_CACHE_KEY);
+            if (shared.isPresent() && !shared.get().isStale(Instant.now())) {
+                current.set(fromCache(shared.get()));
+                consecutiveFailures.set(0);
+                logger.debug("Porcentaje refrescado desde el caché compartido");
+                return;
+            }
+            current.set(fetchFromService());
+            consecutiveFailures.set(0);
+            logger.debug("Porcentaje refrescado en segundo plano");
+        } catch (Exception e) {
+            Duration backoff = recordFailure(nanoClock.getAsLong());
+            logger.warn("No se pudo refrescar el porcentaje en segundo plano, se mantiene el último valor y se reintentará en {}: {}",
+                    backoff, e.getMessage());
+        } finally {
+            refreshInProgress.set(false);
+        }
+    }
+
+    private boolean retryAllowed(long now) {
+        return consecutiveFailures.get() == 0 || now - nextAttemptAtNanos >= 0;
+    }
+
+    /**
+     * Registra un refresco fallido y agenda el siguiente intento con backoff exponencial acotado.
+     */
+    private Duration recordFailure(long now) {
+        int failures = consecutiveFailures.get() + 1;
+        Duration backoff = INITIAL_RETRY_BACKOFF.multipliedBy(1L << Math.min(failures - 1, 6));
+        if (backoff.compareTo(MAX_RETRY_BACKOFF) > 0) {
+            backoff = MAX_RETRY_BACKOFF;
+        }
+        nextAttemptAtNanos = now + backoff.toNanos();
+        consecutiveFailures.set(failures);
+        return backoff;
+    }
+
+    private PercentageSnapshot fetchFromService() {
+        BigDecimal percentage = percentagePort.getPercentage();
+        cachePort.putPercentage(PERCENTAGE_CACHE_KEY, percentage, softTtl, hardTtl);
+        long now = nanoClock.getAsLong();
+        return new PercentageSnapshot(percentage, false, now + softTtl.toNanos(), now + hardTtl.toNanos());
+    }
+
+    private PercentageSnapshot fromCache(CachedPercentage entry) {
+        long now = nanoClock.getAsLong();
+        long nowMillis = System.currentTimeMillis();
+        long refreshIn = Math.max(0L, entry.softExpiresAt().toEpochMilli() - nowMillis);
+        long expiresIn = Math.max(0L, entry.hardExpiresAt().toEpochMilli() - nowMillis);
+        return new PercentageSnapshot(entry.value(), false,
+                now + TimeUnit.MILLISECONDS.toNanos(refreshIn), now + TimeUnit.MILLISECONDS.toNanos(expiresIn));
+    }
+
+    private static ExecutorService newRefreshExecutor() {
+        return Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "percentage-refresh");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Valor del porcentaje junto a los instantes (en el reloj monotónico) en que debe refrescarse y
+     * en que expira. {@code stale} indica que proviene del caché de respaldo o que superó su hard TTL
+     * sin poder refrescarse.
+     */
+    public record PercentageSnapshot(BigDecimal value, boolean stale, long refreshAtNanos, long expiresAtNanos) {
+
+        PercentageSnapshot asStale() {
+            return new PercentageSnapshot(value, true, refreshAtNanos, expiresAtNanos);
+        }
+    }
+}
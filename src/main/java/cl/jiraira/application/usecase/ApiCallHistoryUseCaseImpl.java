@@ -1,14 +1,24 @@
 package cl.jiraira.application.usecase;
 
+import cl.jiraira.application.service.ApiCallHistoryPipeline;
+import cl.jiraira.domain.exception.ApiCallNotFoundException;
 import cl.jiraira.domain.model.ApiCall;
+import cl.jiraira.domain.model.ApiCallSummary;
+import cl.jiraira.domain.model.HistoryCursor;
+import cl.jiraira.domain.model.HistoryFilter;
+import cl.jiraira.domain.model.HistorySlice;
 import cl.jiraira.domain.port.in.ApiCallHistoryUseCase;
+import cl.jiraira.domain.port.out.ApiCallHistoryExportPort;
 import cl.jiraira.domain.port.out.ApiCallHistoryPort;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
-import org.springframework.scheduling.annotation.Async;
 import org.springframework.stereotype.Service;
 
+import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
 
 @Service
 public class ApiCallHistoryUseCaseImpl implements ApiCallHistoryUseCase {
@@ -16,35 +26,68 @@ public class ApiCallHistoryUseCaseImpl implements ApiCallHistoryUseCase {
     private static final Logger logger = LoggerFactory.getLogger(ApiCallHistoryUseCaseImpl.class);
 
     private final ApiCallHistoryPort apiCallHistoryPort;
+    private final ApiCallHistoryPipeline apiCallHistoryPipeline;
+    private final ApiCallHistoryExportPort apiCallHistoryExportPort;
 
-    public ApiCallHistoryUseCaseImpl(ApiCallHistoryPort apiCallHistoryPort) {
+    public ApiCallHistoryUseCaseImpl(ApiCallHistoryPort apiCallHistoryPort,
+                                     ApiCallHistoryPipeline apiCallHistoryPipeline,
+                                     ApiCallHistoryExportPort apiCallHistoryExportPort) {
         this.apiCallHistoryPort = apiCallHistoryPort;
+        this.apiCallHistoryPipeline = apiCallHistoryPipeline;
+        this.apiCallHistoryExportPort = apiCallHistoryExportPort;
     }
 
     @Override
-    @Async
     public void saveApiCall(ApiCall apiCall) {
-        logger.debug("Guardando historial de llamada API: {} {}", apiCall.method(), apiCall.endpoint());
+        if (!apiCallHistoryPipeline.submit(apiCall)) {
+            logger.debug("Historial descartado por cola llena: {} {}", apiCall.method(), apiCall.endpoint());
+        }
+    }
+
+    @Override
+    public List<ApiCallSummary> getHistory(int page, int size) {
+        logger.info("Obteniendo historial de API calls - página: {}, tamaño: {}", page, size);
 
         try {
-            apiCallHistoryPort.save(apiCall);
-            logger.debug("Historial guardado exitosamente para: {} {}", apiCall.method(), apiCall.endpoint());
+            List<ApiCallSummary> history = apiCallHistoryPort.findHistory(page, size);
+            logger.info("Se obtuvieron {} registros del historial", history.size());
+            return history;
         } catch (Exception e) {
-            logger.error("Error al guardar historial de API call: {}", e.getMessage(), e);
+            logger.error("Error al obtener historial de API calls: {}", e.getMessage(), e);
+            throw new RuntimeException("Error al obtener el historial de llamadas", e);
         }
     }
 
     @Override
-    public List<ApiCall> getHistory(int page, int size) {
-        logger.info("Obteniendo historial de API calls - página: {}, tamaño: {}", page, size);
+    public HistorySlice getHistory(HistoryFilter filter, HistoryCursor cursor, int size) {
+        logger.info("Obteniendo historial de API calls por cursor - filtro: {}, desde: {}, tamaño: {}", filter, cursor, size);
 
         try {
-            List<ApiCall> history = apiCallHistoryPort.findHistory(page, size);
-            logger.info("Se obtuvieron {} registros del historial", history.size());
+            HistorySlice history = apiCallHistoryPort.findHistory(filter, cursor, size);
+            logger.info("Se obtuvieron {} registros del historial", history.items().size());
             return history;
         } catch (Exception e) {
             logger.error("Error al obtener historial de API calls: {}", e.getMessage(), e);
             throw new RuntimeException("Error al obtener el historial de llamadas", e);
         }
     }
+
+    @Override
+    public ApiCall getApiCall(long id, LocalDateTime timestamp) {
+        logger.info("Obteniendo detalle de API call - id: {}, timestamp: {}", id, timestamp);
+        Optional<ApiCall> apiCall = timestamp == null
+                ? apiCallHistoryPort.findById(id)
+                : apiCallHistoryPort.findById(id, timestamp);
+        return apiCall.orElseThrow(() -> new ApiCallNotFoundException(id));
+    }
+
+    @Override
+    public long exportHistory(HistoryFilter filter, Consumer<ApiCall> sink) {
+        logger.info("Exportando historial de API calls - filtro: {}", filter);
+        long start = System.nanoTime();
+        long exported = apiCallHistoryExportPort.export(filter, sink);
+        logger.info("Se exportaron {} registros del historial en {} ms", exported,
+                TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+        return exported;
+    }
 }
@@ -0,0 +1,7 @@
+package cl.jiraira.domain.exception;
+
+public class ApiCallNotFoundException extends RuntimeException {
+    public ApiCallNotFoundException(long id) {
+        super("No existe una llamada API con id " + id);
+    }
+}
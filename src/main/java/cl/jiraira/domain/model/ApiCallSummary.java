@@ -0,0 +1,10 @@
+package cl.jiraira.domain.model;
+
+import java.time.LocalDateTime;
+
+/**
+ * Datos de una llamada API sin los cuerpos de request y response, para listados.
+ */
+public record ApiCallSummary(Long id, LocalDateTime timestamp, String endpoint, String method,
+                             Integer responseStatus, Long executionTimeMs) {
+}
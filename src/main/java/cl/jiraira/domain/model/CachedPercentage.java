@@ -0,0 +1,19 @@
+package cl.jiraira.domain.model;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+
+/**
+ * Porcentaje almacenado en caché junto a sus expiraciones: pasado {@code softExpiresAt} sigue siendo
+ * utilizable pero debe refrescarse; pasado {@code hardExpiresAt} ya no puede usarse.
+ */
+public record CachedPercentage(BigDecimal value, Instant softExpiresAt, Instant hardExpiresAt) {
+
+    public boolean isStale(Instant now) {
+        return !now.isBefore(softExpiresAt);
+    }
+
+    public boolean isExpired(Instant now) {
+        return !now.isBefore(hardExpiresAt);
+    }
+}
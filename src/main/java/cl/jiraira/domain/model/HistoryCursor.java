@@ -0,0 +1,51 @@
+package cl.jiraira.domain.model;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+import java.util.Objects;
+
+/**
+ * Posición en el historial ordenado por {@code (timestamp, id)} descendente. La siguiente página
+ * contiene los registros estrictamente anteriores a esta posición.
+ * <p>
+ * Se expone al cliente como un token opaco; su formato interno puede cambiar sin aviso.
+ */
+public record HistoryCursor(LocalDateTime timestamp, long id) {
+
+    private static final Base64.Encoder ENCODER = Base64.getUrlEncoder().withoutPadding();
+    private static final Base64.Decoder DECODER = Base64.getUrlDecoder();
+    private static final char SEPARATOR = '|';
+
+    public HistoryCursor {
+        Objects.requireNonNull(timestamp, "timestamp");
+    }
+
+    public static HistoryCursor after(ApiCallSummary apiCall) {
+        return new HistoryCursor(apiCall.timestamp(), apiCall.id());
+    }
+
+    public String encode() {
+        return ENCODER.encodeToString((timestamp.toString() + SEPARATOR + id).getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Decodifica un token generado por {@link #encode()}. Lanza {@link IllegalArgumentException} si
+     * el token no es válido.
+     */
+    public static HistoryCursor decode(String token) {
+        try {
+            String raw = new String(DECODER.decode(token), StandardCharsets.UTF_8);
+            int separator = raw.lastIndexOf(SEPARATOR);
+            if (separator < 0) {
+                throw new IllegalArgumentException("Cursor de historial inválido");
+            }
+            return new HistoryCursor(LocalDateTime.parse(raw.substring(0, separator)),
+                    Long.parseLong(raw.substring(separator + 1)));
+        } catch (DateTimeParseException | IllegalArgumentException e) {
+            // NumberFormatException es subclase de IllegalArgumentException
+            throw new IllegalArgumentException("Cursor de historial inválido", e);
+        }
+    }
+}
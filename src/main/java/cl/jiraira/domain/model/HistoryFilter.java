@@ -0,0 +1,67 @@
+package cl.jiraira.domain.model;
+
+import java.time.LocalDateTime;
+
+/**
+ * Filtros opcionales sobre el historial. Un campo {@code null} no filtra; {@code from} es inclusivo y
+ * {@code to} exclusivo. {@code statusClass} agrupa códigos por centena (5 = 5xx).
+ */
+public record HistoryFilter(LocalDateTime from, LocalDateTime to, String endpoint, String method,
+                            Integer status, Integer statusClass, Long minExecutionTimeMs) {
+
+    public static final HistoryFilter NONE = new HistoryFilter(null, null, null, null, null, null, null);
+
+    public HistoryFilter {
+        if (from != null && to != null && !from.isBefore(to)) {
+            throw new IllegalArgumentException("El inicio del rango debe ser anterior al término");
+        }
+        if (statusClass != null && (statusClass < 1 || statusClass > 5)) {
+            throw new IllegalArgumentException("La clase de estado debe estar entre 1 y 5");
+        }
+        if (minExecutionTimeMs != null && minExecutionTimeMs < 0) {
+            throw new IllegalArgumentException("El tiempo mínimo de ejecución no puede ser negativo");
+        }
+    }
+
+    /**
+     * El mismo filtro restringido además a llamadas desde {@code lowerBound} (inclusivo).
+     */
+    public HistoryFilter notBefore(LocalDateTime lowerBound) {
+        if (from != null && !from.isBefore(lowerBound)) {
+            return this;
+        }
+        return new HistoryFilter(lowerBound, to, endpoint, method, status, statusClass, minExecutionTimeMs);
+    }
+
+    public boolean isEmpty() {
+        return NONE.equals(this);
+    }
+
+    /**
+     * Evalúa el filtro en memoria sobre una llamada, con la misma semántica que las consultas.
+     */
+    public boolean matches(ApiCall apiCall) {
+        LocalDateTime timestamp = apiCall.timestamp();
+        if (from != null && (timestamp == null || timestamp.isBefore(from))) {
+            return false;
+        }
+        if (to != null && (timestamp == null || !timestamp.isBefore(to))) {
+            return false;
+        }
+        if (endpoint != null && !endpoint.equals(apiCall.endpoint())) {
+            return false;
+        }
+        if (method != null && !method.equals(apiCall.method())) {
+            return false;
+        }
+        Integer responseStatus = apiCall.responseStatus();
+        if (status != null && !status.equals(responseStatus)) {
+            return false;
+        }
+        if (statusClass != null && (responseStatus == null || responseStatus / 100 != statusClass)) {
+            return false;
+        }
+        return minExecutionTimeMs == null
+                || apiCall.executionTimeMs() != null && apiCall.executionTimeMs() >= minExecutionTimeMs;
+    }
+}
@@ -0,0 +1,13 @@
+package cl.jiraira.domain.model;
+
+import java.util.List;
+
+/**
+ * Página del historial obtenida por keyset, sin los cuerpos de cada llamada. {@code next} es {@code null} cuando no hay más registros.
+ */
+public record HistorySlice(List<ApiCallSummary> items, HistoryCursor next) {
+
+    public boolean hasNext() {
+        return next != null;
+    }
+}
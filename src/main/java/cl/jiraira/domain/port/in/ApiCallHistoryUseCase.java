@@ -1,11 +1,26 @@
 package cl.jiraira.domain.port.in;
 
 import cl.jiraira.domain.model.ApiCall;
+import cl.jiraira.domain.model.ApiCallSummary;
+import cl.jiraira.domain.model.HistoryCursor;
+import cl.jiraira.domain.model.HistoryFilter;
+import cl.jiraira.domain.model.HistorySlice;
 
+import java.time.LocalDateTime;
 import java.util.List;
+import java.util.function.Consumer;
 
 
 public interface ApiCallHistoryUseCase {
     void saveApiCall(ApiCall apiCall);
-    List<ApiCall> getHistory(int page, int size);
+    List<ApiCallSummary> getHistory(int page, int size);
+    HistorySlice getHistory(HistoryFilter filter, HistoryCursor cursor, int size);
+
+    /**
+     * Detalle de una llamada; con {@code timestamp} (el de su resumen) la búsqueda se limita a ese
+     * instante, y sin él se revisa todo el historial.
+     */
+    ApiCall getApiCall(long id, LocalDateTime timestamp);
+
+    long exportHistory(HistoryFilter filter, Consumer<ApiCall> sink);
 }
@@ -0,0 +1,76 @@
+package cl.jiraira.domain.port.out;
+
+import cl.jiraira.domain.model.ApiCall;
+import cl.jiraira.domain.model.ApiCallSummary;
+import cl.jiraira.domain.model.HistoryCursor;
+import cl.jiraira.domain.model.HistoryFilter;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+import java.util.function.Consumer;
+
+/**
+ * Almacenamiento frío del historial: llamadas antiguas que ya salieron de la base y se conservan en
+ * segmentos de solo lectura. Las consultas omiten los segmentos que por sus metadatos no pueden
+ * contener resultados.
+ */
+public interface ApiCallArchivePort {
+
+    /**
+     * Abre un segmento para escribir llamadas en orden cronológico. Un segmento con el mismo
+     * {@code segmentId} se reemplaza recién al confirmar el nuevo.
+     */
+    SegmentWriter openSegment(String segmentId);
+
+    /**
+     * Retorna hasta {@code limit} resúmenes que cumplen el filtro y son anteriores a {@code cursor},
+     * ordenados por {@code (timestamp, id)} descendente.
+     */
+    List<ApiCallSummary> findHistory(HistoryFilter filter, HistoryCursor cursor, int limit);
+
+    Optional<ApiCall> findById(long id);
+
+    /**
+     * Busca la llamada solo en los segmentos cuyo rango de fechas incluye {@code timestamp}.
+     */
+    Optional<ApiCall> findById(long id, LocalDateTime timestamp);
+
+    /**
+     * Entrega a {@code sink} las llamadas que cumplen el filtro, segmento por segmento en orden
+     * cronológico, y retorna cuántas se entregaron.
+     */
+    long export(HistoryFilter filter, Consumer<ApiCall> sink);
+
+    /**
+     * Fija los segmentos publicados en este momento: una exportación hecha sobre la vista no ve los
+     * segmentos que se publiquen después, y {@link Snapshot#contains} responde sobre esos mismos segmentos.
+     */
+    Snapshot snapshot();
+
+    interface Snapshot {
+
+        long export(HistoryFilter filter, Consumer<ApiCall> sink);
+
+        /**
+         * Indica si alguno de los segmentos de la vista contiene la llamada con ese id.
+         */
+        boolean contains(long id);
+    }
+
+    interface SegmentWriter extends AutoCloseable {
+
+        void append(ApiCall apiCall);
+
+        /**
+         * Publica el segmento de forma atómica; hasta entonces no es visible para las consultas.
+         */
+        void commit();
+
+        /**
+         * Descarta el segmento si no se confirmó.
+         */
+        @Override
+        void close();
+    }
+}
@@ -0,0 +1,18 @@
+package cl.jiraira.domain.port.out;
+
+import cl.jiraira.domain.model.ApiCall;
+import cl.jiraira.domain.model.HistoryFilter;
+
+import java.util.function.Consumer;
+
+/**
+ * Lectura secuencial del historial completo para exportaciones. Los registros se entregan uno a uno
+ * en orden cronológico, sin acumularlos en memoria.
+ */
+public interface ApiCallHistoryExportPort {
+
+    /**
+     * Entrega a {@code sink} cada llamada que cumple el filtro y retorna cuántas se entregaron.
+     */
+    long export(HistoryFilter filter, Consumer<ApiCall> sink);
+}
@@ -0,0 +1,12 @@
+package cl.jiraira.domain.port.out;
+
+import cl.jiraira.domain.model.ApiCall;
+
+/**
+ * Recibe cada llamada que entra al pipeline del historial, antes de persistirla. Se invoca en el
+ * hilo de la request, así que las implementaciones no deben bloquear ni hacer I/O.
+ */
+public interface ApiCallHistoryListener {
+
+    void onApiCall(ApiCall apiCall);
+}
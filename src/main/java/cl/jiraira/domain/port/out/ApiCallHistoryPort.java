@@ -1,11 +1,33 @@
 package cl.jiraira.domain.port.out;
 
 import cl.jiraira.domain.model.ApiCall;
+import cl.jiraira.domain.model.ApiCallSummary;
+import cl.jiraira.domain.model.HistoryCursor;
+import cl.jiraira.domain.model.HistoryFilter;
+import cl.jiraira.domain.model.HistorySlice;
 
+import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Optional;
 
 public interface ApiCallHistoryPort {
     void save(ApiCall apiCall);
 
-    List<ApiCall> findHistory(int page, int size);
+    void saveAll(List<ApiCall> apiCalls);
+
+    List<ApiCallSummary> findHistory(int page, int size);
+
+    /**
+     * Retorna hasta {@code size} registros que cumplen el filtro y son anteriores a {@code cursor}
+     * (o los más recientes si es {@code null}), sin contar el total de registros.
+     */
+    HistorySlice findHistory(HistoryFilter filter, HistoryCursor cursor, int size);
+
+    Optional<ApiCall> findById(long id);
+
+    /**
+     * Busca la llamada por su clave completa {@code (id, timestamp)}: en una tabla particionada solo
+     * se revisa la partición de ese timestamp en vez de todas.
+     */
+    Optional<ApiCall> findById(long id, LocalDateTime timestamp);
 }
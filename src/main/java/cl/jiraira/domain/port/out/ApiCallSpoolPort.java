@@ -0,0 +1,35 @@
+package cl.jiraira.domain.port.out;
+
+import cl.jiraira.domain.model.ApiCall;
+
+import java.util.List;
+import java.util.OptionalLong;
+
+/**
+ * Almacenamiento local y durable para llamadas API que no se pudieron persistir en la base.
+ * Se lee en orden de llegada: {@link #readPending(int)} entrega un lote y {@link #acknowledge()}
+ * lo marca como procesado.
+ */
+public interface ApiCallSpoolPort {
+
+    /**
+     * Agrega las llamadas al spool. Retorna {@code false} si no caben o no se pudieron escribir.
+     */
+    boolean append(List<ApiCall> apiCalls);
+
+    List<ApiCall> readPending(int maxRecords);
+
+    /**
+     * Confirma el último lote entregado por {@link #readPending(int)}.
+     */
+    void acknowledge();
+
+    boolean hasPending();
+
+    long pendingBytes();
+
+    /**
+     * Momento (epoch millis) en que se agregó la llamada pendiente más antigua, si existe.
+     */
+    OptionalLong oldestPendingAppendedAt();
+}
@@ -1,6 +1,9 @@
 package cl.jiraira.domain.port.out;
 
+import cl.jiraira.domain.model.CachedPercentage;
+
 import java.math.BigDecimal;
+import java.time.Duration;
 import java.util.Optional;
 
 /**
@@ -8,7 +11,21 @@ import java.util.Optional;
  */
 public interface CachePort {
     void putPercentage(String key, BigDecimal percentage);
-    void putPercentage(String key, BigDecimal percentage, long expirationMinutes);
+
+    default void putPercentage(String key, BigDecimal percentage, long expirationMinutes) {
+        Duration ttl = Duration.ofMinutes(expirationMinutes);
+        putPercentage(key, percentage, ttl, ttl);
+    }
+
+    /**
+     * Guarda el porcentaje con expiración propia: pasado {@code softTtl} se considera obsoleto
+     * (se sigue sirviendo mientras se refresca) y pasado {@code hardTtl} se descarta.
+     */
+    void putPercentage(String key, BigDecimal percentage, Duration softTtl, Duration hardTtl);
+
     Optional<BigDecimal> getPercentage(String key);
+
+    Optional<CachedPercentage> getPercentageEntry(String key);
+
     void evictPercentage(String key);
 }
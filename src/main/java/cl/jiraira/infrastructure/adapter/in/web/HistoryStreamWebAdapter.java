@@ -0,0 +1,61 @@
+package cl.jiraira.infrastructure.adapter.in.web;
+
+import cl.jiraira.domain.model.HistoryFilter;
+import cl.jiraira.infrastructure.adapter.in.web.dto.HistoryFilterRequest;
+import cl.jiraira.infrastructure.adapter.in.web.stream.HistoryStreamBroadcaster;
+import cl.jiraira.infrastructure.adapter.in.web.stream.SubscriberLimitExceededException;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springdoc.core.annotations.ParameterObject;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+@RestController
+@RequestMapping("/api/v1/history")
+@Tag(name = "API Call History", description = "API para consultar el historial de llamadas")
+public class HistoryStreamWebAdapter {
+
+    private static final Logger logger = LoggerFactory.getLogger(HistoryStreamWebAdapter.class);
+    static final String RETRY_AFTER_SECONDS = "30";
+
+    private final HistoryStreamBroadcaster historyStreamBroadcaster;
+
+    public HistoryStreamWebAdapter(HistoryStreamBroadcaster historyStreamBroadcaster) {
+        this.historyStreamBroadcaster = historyStreamBroadcaster;
+    }
+
+    @GetMapping("/stream")
+    @Operation(
+        summary = "Seguir el historial en vivo",
+        description = "Abre un stream Server-Sent Events con cada llamada a la API a medida que se registra, sin " +
+                     "consultar la base. Cada llamada llega como evento 'api-call' con los campos del detalle (sin id, " +
+                     "porque aún no se persiste). Si el cliente no lee a tiempo se descartan llamadas y recibe un " +
+                     "evento 'dropped' con cuántas perdió. Admite los mismos filtros que el historial."
+    )
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Stream abierto"),
+        @ApiResponse(responseCode = "400", description = "Filtros inválidos"),
+        @ApiResponse(responseCode = "503", description = "Se alcanzó el máximo de clientes conectados")
+    })
+    public ResponseEntity<SseEmitter> streamHistory(@ParameterObject HistoryFilterRequest filterRequest) {
+        HistoryFilter filter = filterRequest.toDomain();
+        try {
+            return ResponseEntity.ok(historyStreamBroadcaster.subscribe(filter));
+        } catch (SubscriberLimitExceededException e) {
+            // Sin body: el cliente pidió text/event-stream y un ErrorResponse JSON no se podría negociar
+            logger.warn(e.getMessage());
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                    .header(HttpHeaders.RETRY_AFTER, RETRY_AFTER_SECONDS)
+                    .build();
+        }
+    }
+}
@@ -1,21 +1,39 @@
 package cl.jiraira.infrastructure.adapter.in.web;
 
 import cl.jiraira.domain.model.ApiCall;
+import cl.jiraira.domain.model.ApiCallSummary;
+import cl.jiraira.domain.model.HistoryCursor;
+import cl.jiraira.domain.model.HistoryFilter;
+import cl.jiraira.domain.model.HistorySlice;
 import cl.jiraira.domain.port.in.ApiCallHistoryUseCase;
 import cl.jiraira.infrastructure.adapter.in.web.dto.ApiCallHistoryResponse;
+import cl.jiraira.infrastructure.adapter.in.web.dto.ApiCallSummaryResponse;
 import cl.jiraira.infrastructure.adapter.in.web.dto.ErrorResponse;
+import cl.jiraira.infrastructure.adapter.in.web.dto.HistoryFilterRequest;
+import cl.jiraira.infrastructure.adapter.in.web.export.HistoryExportFormat;
+import cl.jiraira.infrastructure.adapter.in.web.export.HistoryExportWriter;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.media.Content;
+import io.swagger.v3.oas.annotations.headers.Header;
 import io.swagger.v3.oas.annotations.media.Schema;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springdoc.core.annotations.ParameterObject;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.stream.Collectors;
 
@@ -25,28 +43,36 @@ import java.util.stream.Collectors;
 public class HistoryWebAdapter {
 
     private static final Logger logger = LoggerFactory.getLogger(HistoryWebAdapter.class);
+    static final String NEXT_CURSOR_HEADER = "X-Next-Cursor";
 
     private final ApiCallHistoryUseCase apiCallHistoryUseCase;
+    private final JsonFactory jsonFactory;
 
-    public HistoryWebAdapter(ApiCallHistoryUseCase apiCallHistoryUseCase) {
+    public HistoryWebAdapter(ApiCallHistoryUseCase apiCallHistoryUseCase, ObjectMapper objectMapper) {
         this.apiCallHistoryUseCase = apiCallHistoryUseCase;
+        this.jsonFactory = objectMapper.getFactory();
     }
 
     @GetMapping
     @Operation(
         summary = "Obtener historial de llamadas API",
         description = "Retorna el historial paginado de todas las llamadas realizadas a los endpoints de la API. " +
-                     "Incluye detalles como fecha/hora, endpoint, parámetros, respuesta y errores."
+                     "Incluye fecha/hora, endpoint, método, estado y duración; los parámetros y la respuesta " +
+                     "se obtienen con GET /api/v1/history/{id}. " +
+                     "Sin 'page' se pagina por cursor: el header " + NEXT_CURSOR_HEADER + " trae el cursor de la " +
+                     "siguiente página y no se envía en la última; los filtros deben repetirse en cada página. " +
+                     "'page' se mantiene por compatibilidad y no admite filtros."
     )
     @ApiResponses(value = {
         @ApiResponse(
             responseCode = "200",
             description = "Historial obtenido exitosamente",
-            content = @Content(schema = @Schema(implementation = ApiCallHistoryResponse.class))
+            headers = @Header(name = NEXT_CURSOR_HEADER, description = "Cursor opaco de la siguiente página"),
+            content = @Content(schema = @Schema(implementation = ApiCallSummaryResponse.class))
         ),
         @ApiResponse(
             responseCode = "400",
-            description = "Parámetros de paginación inválidos",
+            description = "Parámetros de paginación o filtros inválidos",
             content = @Content(schema = @Schema(implementation = ErrorResponse.class))
         ),
         @ApiResponse(
@@ -55,27 +81,132 @@ public class HistoryWebAdapter {
             content = @Content(schema = @Schema(implementation = ErrorResponse.class))
         )
     })
-    public ResponseEntity<List<ApiCallHistoryResponse>> getHistory(
-            @Parameter(description = "Número de página (0-indexed)", example = "0")
-            @RequestParam(defaultValue = "0") int page,
+    public ResponseEntity<List<ApiCallSummaryResponse>> getHistory(
+            @Parameter(description = "Cursor opaco retornado en " + NEXT_CURSOR_HEADER + " por la página anterior")
+            @RequestParam(required = false) String cursor,
+
+            @Parameter(description = "Número de página (0-indexed). Paginación por offset, más lenta en páginas profundas", example = "0")
+            @RequestParam(required = false) Integer page,
 
             @Parameter(description = "Tamaño de página", example = "10")
-            @RequestParam(defaultValue = "10") int size) {
+            @RequestParam(defaultValue = "10") int size,
+
+            @ParameterObject HistoryFilterRequest filterRequest) {
 
-        logger.info("Consultando historial - página: {}, tamaño: {}", page, size);
+        HistoryFilter filter = filterRequest.toDomain();
+        logger.info("Consultando historial - cursor: {}, página: {}, tamaño: {}, filtro: {}", cursor, page, size, filter);
 
-        if (page < 0 || size <= 0 || size > 100) {
+        if ((page != null && page < 0) || size <= 0 || size > 100) {
             throw new IllegalArgumentException("Parámetros de paginación inválidos. Page debe ser >= 0 y size debe estar entre 1 y 100");
         }
+        if (page != null && cursor != null) {
+            throw new IllegalArgumentException("Parámetros de paginación inválidos. No se puede usar page y cursor a la vez");
+        }
+        if (page != null && !filter.isEmpty()) {
+            throw new IllegalArgumentException("Los filtros solo se admiten con paginación por cursor");
+        }
 
-        List<ApiCall> history = apiCallHistoryUseCase.getHistory(page, size);
-        List<ApiCallHistoryResponse> response = history.stream()
-                .map(this::toResponse)
-                .collect(Collectors.toList());
+        if (page != null) {
+            List<ApiCallSummaryResponse> response = toResponses(apiCallHistoryUseCase.getHistory(page, size));
+            logger.info("Historial obtenido: {} elementos en página {}", response.size(), page);
+            return ResponseEntity.ok(response);
+        }
+
+        HistorySlice slice = apiCallHistoryUseCase.getHistory(filter, cursor == null ? null : HistoryCursor.decode(cursor), size);
+        List<ApiCallSummaryResponse> response = toResponses(slice.items());
+        logger.info("Historial obtenido: {} elementos, hay más: {}", response.size(), slice.hasNext());
+
+        ResponseEntity.BodyBuilder builder = ResponseEntity.ok();
+        if (slice.hasNext()) {
+            builder.header(NEXT_CURSOR_HEADER, slice.next().encode());
+        }
+        return builder.body(response);
+    }
+
+    @GetMapping("/export")
+    @Operation(
+        summary = "Exportar historial de llamadas API",
+        description = "Escribe el historial completo (con parámetros y respuesta) directamente en la respuesta, " +
+                     "en NDJSON o CSV y en orden cronológico, sin límite de registros. Permite filtrar por rango " +
+                     "de fechas ('from' inclusivo, 'to' exclusivo), endpoint, método, código o clase de estado " +
+                     "y tiempo mínimo de ejecución."
+    )
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Exportación en curso"),
+        @ApiResponse(
+            responseCode = "400",
+            description = "Formato o filtros inválidos",
+            content = @Content(schema = @Schema(implementation = ErrorResponse.class))
+        )
+    })
+    public ResponseEntity<StreamingResponseBody> exportHistory(
+            @Parameter(description = "Formato de salida: ndjson o csv", example = "ndjson")
+            @RequestParam(defaultValue = "ndjson") String format,
+
+            @ParameterObject HistoryFilterRequest filterRequest) {
+
+        HistoryExportFormat exportFormat = HistoryExportFormat.parse(format);
+        HistoryFilter filter = filterRequest.toDomain();
+        logger.info("Exportando historial - formato: {}, filtro: {}", exportFormat, filter);
+
+        StreamingResponseBody body = out -> {
+            try (HistoryExportWriter writer = exportFormat.open(out, jsonFactory)) {
+                apiCallHistoryUseCase.exportHistory(filter, writer::write);
+            }
+        };
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType(exportFormat.contentType()))
+                .header(HttpHeaders.CONTENT_DISPOSITION, ContentDisposition.attachment()
+                        .filename("api-call-history." + exportFormat.extension())
+                        .build()
+                        .toString())
+                .body(body);
+    }
 
-        logger.info("Historial obtenido: {} elementos en página {}", response.size(), page);
+    @GetMapping("/{id}")
+    @Operation(
+        summary = "Obtener detalle de una llamada API",
+        description = "Retorna una llamada del historial con sus parámetros y respuesta completos. Con 'timestamp' " +
+                     "(el del listado) la búsqueda se limita a ese instante; sin él se revisa todo el historial."
+    )
+    @ApiResponses(value = {
+        @ApiResponse(
+            responseCode = "200",
+            description = "Llamada encontrada",
+            content = @Content(schema = @Schema(implementation = ApiCallHistoryResponse.class))
+        ),
+        @ApiResponse(
+            responseCode = "404",
+            description = "No existe una llamada con ese id",
+            content = @Content(schema = @Schema(implementation = ErrorResponse.class))
+        )
+    })
+    public ResponseEntity<ApiCallHistoryResponse> getApiCall(
+            @Parameter(description = "Id de la llamada", example = "1")
+            @PathVariable long id,
+
+            @Parameter(description = "Timestamp de la llamada tal como aparece en el listado", example = "2025-08-06T10:00:00")
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime timestamp) {
 
-        return ResponseEntity.ok(response);
+        logger.info("Consultando detalle del historial - id: {}, timestamp: {}", id, timestamp);
+        return ResponseEntity.ok(toResponse(apiCallHistoryUseCase.getApiCall(id, timestamp)));
+    }
+
+    private List<ApiCallSummaryResponse> toResponses(List<ApiCallSummary> history) {
+        return history.stream()
+                .map(this::toSummaryResponse)
+                .collect(Collectors.toList());
+    }
+
+    private ApiCallSummaryResponse toSummaryResponse(ApiCallSummary apiCall) {
+        ApiCallSummaryResponse response = new ApiCallSummaryResponse();
+        response.setId(apiCall.id());
+        response.setEndpoint(apiCall.endpoint());
+        response.setMethod(apiCall.method());
+        response.setStatusCode(apiCall.responseStatus());
+        response.setTimestamp(apiCall.timestamp());
+        response.setExecutionTimeMs(apiCall.executionTimeMs());
+        return response;
     }
 
     private ApiCallHistoryResponse toResponse(ApiCall apiCall) {
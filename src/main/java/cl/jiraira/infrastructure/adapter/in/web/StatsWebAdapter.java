@@ -0,0 +1,63 @@
+package cl.jiraira.infrastructure.adapter.in.web;
+
+import cl.jiraira.infrastructure.adapter.in.web.dto.EndpointStatsResponse;
+import cl.jiraira.infrastructure.adapter.in.web.dto.StatsResponse;
+import cl.jiraira.infrastructure.concurrent.WindowedLatencyHistogram.Snapshot;
+import cl.jiraira.infrastructure.config.LatencyStatsConfig;
+import cl.jiraira.infrastructure.config.LatencyStatsConfig.EndpointLatency;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+@RestController
+@RequestMapping("/api/v1/stats")
+@Tag(name = "Stats", description = "API para consultar las latencias recientes de la API")
+public class StatsWebAdapter {
+
+    private final LatencyStatsConfig latencyStatsConfig;
+
+    public StatsWebAdapter(LatencyStatsConfig latencyStatsConfig) {
+        this.latencyStatsConfig = latencyStatsConfig;
+    }
+
+    @GetMapping
+    @Operation(
+        summary = "Latencias recientes por endpoint",
+        description = "Devuelve cantidad de llamadas, media, percentiles 50/90/99 y máximo, en milisegundos, de cada " +
+                     "endpoint, método y clase de status en la ventana deslizante configurada. Se calcula en memoria " +
+                     "sin consultar el historial e incluye también las llamadas que el historial no registra. Los " +
+                     "percentiles tienen un error relativo de hasta ~3%."
+    )
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Latencias obtenidas exitosamente")
+    })
+    public ResponseEntity<StatsResponse> getStats() {
+        StatsResponse response = StatsResponse.builder()
+                .windowSeconds(latencyStatsConfig.window().toSeconds())
+                .endpoints(latencyStatsConfig.snapshot().stream()
+                        .map(StatsWebAdapter::toResponse)
+                        .toList())
+                .build();
+        return ResponseEntity.ok(response);
+    }
+
+    private static EndpointStatsResponse toResponse(EndpointLatency latency) {
+        Snapshot snapshot = latency.snapshot();
+        return EndpointStatsResponse.builder()
+                .endpoint(latency.endpoint())
+                .method(latency.method())
+                .status(latency.status())
+                .count(snapshot.count())
+                .meanMs(snapshot.meanMicros() / 1000.0)
+                .p50Ms(snapshot.valueAtQuantile(LatencyStatsConfig.P50) / 1000.0)
+                .p90Ms(snapshot.valueAtQuantile(LatencyStatsConfig.P90) / 1000.0)
+                .p99Ms(snapshot.valueAtQuantile(LatencyStatsConfig.P99) / 1000.0)
+                .maxMs(snapshot.maxMicros() / 1000.0)
+                .build();
+    }
+}
@@ -0,0 +1,41 @@
+package cl.jiraira.infrastructure.adapter.in.web.dto;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import lombok.*;
+
+@Setter
+@Getter
+@ToString
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class EndpointStatsResponse {
+
+    @JsonProperty("endpoint")
+    private String endpoint;
+
+    @JsonProperty("method")
+    private String method;
+
+    @JsonProperty("status")
+    private String status;
+
+    @JsonProperty("count")
+    private Long count;
+
+    @JsonProperty("meanMs")
+    private Double meanMs;
+
+    @JsonProperty("p50Ms")
+    private Double p50Ms;
+
+    @JsonProperty("p90Ms")
+    private Double p90Ms;
+
+    @JsonProperty("p99Ms")
+    private Double p99Ms;
+
+    @JsonProperty("maxMs")
+    private Double maxMs;
+
+}
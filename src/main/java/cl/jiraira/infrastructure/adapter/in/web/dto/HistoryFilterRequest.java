@@ -0,0 +1,47 @@
+package cl.jiraira.infrastructure.adapter.in.web.dto;
+
+import cl.jiraira.domain.model.HistoryFilter;
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.*;
+import org.springframework.format.annotation.DateTimeFormat;
+
+import java.time.LocalDateTime;
+
+/**
+ * Filtros del historial recibidos como query params. Todos son opcionales.
+ */
+@Setter
+@Getter
+@NoArgsConstructor
+@AllArgsConstructor
+@ToString
+@Builder
+public class HistoryFilterRequest {
+
+    @Schema(description = "Fecha/hora inicial (inclusive)", example = "2025-08-01T00:00:00")
+    @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME)
+    private LocalDateTime from;
+
+    @Schema(description = "Fecha/hora final (exclusive)", example = "2025-08-02T00:00:00")
+    @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME)
+    private LocalDateTime to;
+
+    @Schema(description = "Endpoint exacto", example = "/api/v1/calculations/calculate")
+    private String endpoint;
+
+    @Schema(description = "Método HTTP", example = "POST")
+    private String method;
+
+    @Schema(description = "Código de estado HTTP exacto", example = "503")
+    private Integer status;
+
+    @Schema(description = "Clase de código de estado: 1 a 5 (5 = 5xx)", example = "5")
+    private Integer statusClass;
+
+    @Schema(description = "Tiempo mínimo de ejecución en milisegundos", example = "1000")
+    private Long minExecutionTimeMs;
+
+    public HistoryFilter toDomain() {
+        return new HistoryFilter(from, to, endpoint, method, status, statusClass, minExecutionTimeMs);
+    }
+}
@@ -0,0 +1,22 @@
+package cl.jiraira.infrastructure.adapter.in.web.dto;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import lombok.*;
+
+import java.util.List;
+
+@Setter
+@Getter
+@ToString
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class StatsResponse {
+
+    @JsonProperty("windowSeconds")
+    private Long windowSeconds;
+
+    @JsonProperty("endpoints")
+    private List<EndpointStatsResponse> endpoints;
+
+}
@@ -0,0 +1,94 @@
+package cl.jiraira.infrastructure.adapter.in.web.export;
+
+import cl.jiraira.domain.model.ApiCall;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * CSV según RFC 4180: los valores con coma, comillas o saltos de línea van entre comillas dobles y
+ * un valor nulo queda como campo vacío.
+ */
+final class CsvHistoryExportWriter implements HistoryExportWriter {
+
+    static final String HEADER = "id,timestamp,endpoint,method,statusCode,executionTimeMs,parameters,response";
+    private static final int BUFFER_CHARS = 64 * 1024;
+
+    private final Writer writer;
+
+    CsvHistoryExportWriter(OutputStream out) throws IOException {
+        this.writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8), BUFFER_CHARS);
+        writer.write(HEADER);
+        writer.write("\r\n");
+    }
+
+    @Override
+    public void write(ApiCall apiCall) {
+        try {
+            writeValue(apiCall.id());
+            writer.write(',');
+            writeValue(apiCall.timestamp());
+            writer.write(',');
+            writeText(apiCall.endpoint());
+            writer.write(',');
+            writeText(apiCall.method());
+            writer.write(',');
+            writeValue(apiCall.responseStatus());
+            writer.write(',');
+            writeValue(apiCall.executionTimeMs());
+            writer.write(',');
+            writeText(apiCall.requestBody());
+            writer.write(',');
+            writeText(apiCall.responseBody());
+            writer.write("\r\n");
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private void writeValue(Object value) throws IOException {
+        if (value != null) {
+            writer.write(value.toString());
+        }
+    }
+
+    private void writeText(String value) throws IOException {
+        if (value == null) {
+            return;
+        }
+        if (!needsQuotes(value)) {
+            writer.write(value);
+            return;
+        }
+        writer.write('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == '"') {
+                writer.write('"');
+            }
+            writer.write(c);
+        }
+        writer.write('"');
+    }
+
+    private static boolean needsQuotes(String value) {
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == ',' || c == '"' || c == '\n' || c == '\r') {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    @Override
+    public void close() throws IOException {
+        // Solo se vacía el buffer: el stream es de la respuesta HTTP y lo cierra el contenedor
+        writer.flush();
+    }
+}
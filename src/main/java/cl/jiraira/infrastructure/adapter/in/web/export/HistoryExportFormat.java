@@ -0,0 +1,44 @@
+package cl.jiraira.infrastructure.adapter.in.web.export;
+
+import com.fasterxml.jackson.core.JsonFactory;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Locale;
+
+public enum HistoryExportFormat {
+
+    NDJSON("application/x-ndjson", "ndjson"),
+    CSV("text/csv", "csv");
+
+    private final String contentType;
+    private final String extension;
+
+    HistoryExportFormat(String contentType, String extension) {
+        this.contentType = contentType;
+        this.extension = extension;
+    }
+
+    public String contentType() {
+        return contentType;
+    }
+
+    public String extension() {
+        return extension;
+    }
+
+    public HistoryExportWriter open(OutputStream out, JsonFactory jsonFactory) throws IOException {
+        return switch (this) {
+            case NDJSON -> new NdjsonHistoryExportWriter(out, jsonFactory);
+            case CSV -> new CsvHistoryExportWriter(out);
+        };
+    }
+
+    public static HistoryExportFormat parse(String value) {
+        try {
+            return valueOf(value.toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Formato de exportación inválido: " + value + ". Valores permitidos: ndjson, csv");
+        }
+    }
+}
@@ -0,0 +1,15 @@
+package cl.jiraira.infrastructure.adapter.in.web.export;
+
+import cl.jiraira.domain.model.ApiCall;
+
+import java.io.Closeable;
+
+/**
+ * Escribe llamadas del historial de a una sobre la respuesta HTTP. Los errores de escritura (por
+ * ejemplo, el cliente cerró la conexión) se propagan como {@link java.io.UncheckedIOException} para
+ * cortar la lectura de la base.
+ */
+public interface HistoryExportWriter extends Closeable {
+
+    void write(ApiCall apiCall);
+}
@@ -0,0 +1,57 @@
+package cl.jiraira.infrastructure.adapter.in.web.export;
+
+import cl.jiraira.domain.model.ApiCall;
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+
+/**
+ * Un objeto JSON por línea, con los mismos campos que {@code ApiCallHistoryResponse}. Se usa el
+ * {@link JsonGenerator} directamente para no crear un DTO ni un árbol por fila.
+ */
+final class NdjsonHistoryExportWriter implements HistoryExportWriter {
+
+    private final JsonGenerator generator;
+
+    NdjsonHistoryExportWriter(OutputStream out, JsonFactory jsonFactory) throws IOException {
+        this.generator = jsonFactory.createGenerator(out, JsonEncoding.UTF8);
+        // El stream es de la respuesta HTTP: lo cierra el contenedor
+        this.generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+    }
+
+    @Override
+    public void write(ApiCall apiCall) {
+        try {
+            generator.writeStartObject();
+            writeNumber("id", apiCall.id());
+            generator.writeStringField("endpoint", apiCall.endpoint());
+            generator.writeStringField("method", apiCall.method());
+            generator.writeStringField("parameters", apiCall.requestBody());
+            generator.writeStringField("response", apiCall.responseBody());
+            writeNumber("statusCode", apiCall.responseStatus() == null ? null : apiCall.responseStatus().longValue());
+            generator.writeStringField("timestamp", apiCall.timestamp() == null ? null : apiCall.timestamp().toString());
+            writeNumber("executionTimeMs", apiCall.executionTimeMs());
+            generator.writeEndObject();
+            generator.writeRaw('\n');
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private void writeNumber(String field, Long value) throws IOException {
+        if (value == null) {
+            generator.writeNullField(field);
+        } else {
+            generator.writeNumberField(field, value);
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        generator.close();
+    }
+}
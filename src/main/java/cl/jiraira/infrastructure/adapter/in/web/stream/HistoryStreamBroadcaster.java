@@ -0,0 +1,239 @@
+package cl.jiraira.infrastructure.adapter.in.web.stream;
+
+import cl.jiraira.domain.model.ApiCall;
+import cl.jiraira.domain.model.HistoryFilter;
+import cl.jiraira.domain.port.out.ApiCallHistoryListener;
+import cl.jiraira.infrastructure.adapter.in.web.dto.ApiCallHistoryResponse;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Transmite en vivo las llamadas que entran al pipeline del historial a los suscriptores de
+ * {@code GET /api/v1/history/stream}, sin pasar por la base.
+ * <p>
+ * Cada suscriptor tiene una cola acotada que se llena en el hilo de la request (solo se evalúa su
+ * filtro y se encola) y se vacía en un hilo virtual propio, que es el único que escribe en su
+ * conexión. Si el cliente no lee al ritmo del tráfico su cola se llena y las llamadas nuevas se
+ * descartan para él; al vaciarse la cola recibe un evento {@code dropped} con cuántas perdió.
+ */
+@Component
+public class HistoryStreamBroadcaster implements ApiCallHistoryListener {
+
+    private static final Logger logger = LoggerFactory.getLogger(HistoryStreamBroadcaster.class);
+
+    static final String API_CALL_EVENT = "api-call";
+    static final String DROPPED_EVENT = "dropped";
+
+    private static final Subscriber[] NO_SUBSCRIBERS = new Subscriber[0];
+
+    private final ObjectMapper objectMapper;
+    private final int maxSubscribers;
+    private final int bufferSize;
+    private final long timeoutMs;
+    private final Executor senders;
+    private final Counter sent;
+    private final Counter dropped;
+
+    // Copia al escribir: el hilo de la request la recorre sin locks ni iteradores
+    private volatile Subscriber[] subscribers = NO_SUBSCRIBERS;
+
+    @Autowired
+    public HistoryStreamBroadcaster(ObjectMapper objectMapper,
+                                    MeterRegistry meterRegistry,
+                                    @Value("${history.stream.max-subscribers:16}") int maxSubscribers,
+                                    @Value("${history.stream.buffer-size:256}") int bufferSize,
+                                    @Value("${history.stream.timeout:30m}") Duration timeout) {
+        this(objectMapper, meterRegistry, maxSubscribers, bufferSize, timeout, Executors.newVirtualThreadPerTaskExecutor());
+    }
+
+    public HistoryStreamBroadcaster(ObjectMapper objectMapper, MeterRegistry meterRegistry, int maxSubscribers,
+                                    int bufferSize, Duration timeout, Executor senders) {
+        this.objectMapper = objectMapper;
+        this.maxSubscribers = maxSubscribers;
+        this.bufferSize = bufferSize;
+        this.timeoutMs = timeout.toMillis();
+        this.senders = senders;
+
+        Gauge.builder("api.history.stream.subscribers", this, broadcaster -> broadcaster.subscribers.length)
+                .description("Clientes conectados al stream del historial")
+                .register(meterRegistry);
+        this.sent = Counter.builder("api.history.stream.sent")
+                .description("Llamadas API enviadas a clientes del stream del historial")
+                .register(meterRegistry);
+        this.dropped = Counter.builder("api.history.stream.dropped")
+                .description("Llamadas API descartadas para clientes del stream que no leen a tiempo")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Registra un suscriptor que recibirá las llamadas que cumplan {@code filter} desde ahora.
+     *
+     * @throws SubscriberLimitExceededException si ya hay {@code max-subscribers} conectados
+     */
+    public SseEmitter subscribe(HistoryFilter filter) {
+        SseEmitter emitter = new SseEmitter(timeoutMs);
+        Subscriber subscriber = new Subscriber(emitter, filter, bufferSize);
+        synchronized (this) {
+            if (subscribers.length >= maxSubscribers) {
+                throw new SubscriberLimitExceededException(maxSubscribers);
+            }
+            Subscriber[] updated = Arrays.copyOf(subscribers, subscribers.length + 1);
+            updated[subscribers.length] = subscriber;
+            subscribers = updated;
+        }
+        emitter.onCompletion(() -> unsubscribe(subscriber));
+        emitter.onTimeout(() -> unsubscribe(subscriber));
+        emitter.onError(e -> unsubscribe(subscriber));
+        logger.info("Nuevo cliente del stream del historial - filtro: {}, conectados: {}", filter, subscribers.length);
+        return emitter;
+    }
+
+    @Override
+    public void onApiCall(ApiCall apiCall) {
+        for (Subscriber subscriber : subscribers) {
+            if (subscriber.filter.matches(apiCall)) {
+                subscriber.offer(apiCall);
+            }
+        }
+    }
+
+    /**
+     * Comentario periódico a cada cliente: mantiene viva la conexión a través de proxies y detecta
+     * los clientes que se desconectaron sin avisar.
+     */
+    @Scheduled(fixedDelayString = "${history.stream.heartbeat:PT15S}")
+    public void heartbeat() {
+        for (Subscriber subscriber : subscribers) {
+            subscriber.heartbeatDue = true;
+            subscriber.schedule();
+        }
+    }
+
+    int subscriberCount() {
+        return subscribers.length;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        Subscriber[] current;
+        synchronized (this) {
+            current = subscribers;
+            subscribers = NO_SUBSCRIBERS;
+        }
+        for (Subscriber subscriber : current) {
+            subscriber.emitter.complete();
+        }
+        if (senders instanceof ExecutorService executorService) {
+            executorService.shutdown();
+        }
+    }
+
+    private synchronized void unsubscribe(Subscriber subscriber) {
+        int index = Arrays.asList(subscribers).indexOf(subscriber);
+        if (index < 0) {
+            return;
+        }
+        Subscriber[] updated = new Subscriber[subscribers.length - 1];
+        System.arraycopy(subscribers, 0, updated, 0, index);
+        System.arraycopy(subscribers, index + 1, updated, index, updated.length - index);
+        subscribers = updated;
+        logger.info("Cliente del stream del historial desconectado, conectados: {}", updated.length);
+    }
+
+    private final class Subscriber {
+
+        private final SseEmitter emitter;
+        private final HistoryFilter filter;
+        private final ArrayBlockingQueue<ApiCall> buffer;
+        private final AtomicLong droppedSinceSent = new AtomicLong();
+        private final AtomicBoolean draining = new AtomicBoolean();
+        private volatile boolean heartbeatDue;
+
+        private Subscriber(SseEmitter emitter, HistoryFilter filter, int bufferSize) {
+            this.emitter = emitter;
+            this.filter = filter;
+            this.buffer = new ArrayBlockingQueue<>(bufferSize);
+        }
+
+        void offer(ApiCall apiCall) {
+            if (!buffer.offer(apiCall)) {
+                droppedSinceSent.incrementAndGet();
+                dropped.increment();
+            }
+            schedule();
+        }
+
+        void schedule() {
+            if (draining.compareAndSet(false, true)) {
+                senders.execute(this::drain);
+            }
+        }
+
+        private void drain() {
+            try {
+                do {
+                    sendPending();
+                    draining.set(false);
+                    // Lo encolado justo antes de soltar la marca lo envía este mismo hilo si nadie lo tomó
+                } while ((!buffer.isEmpty() || heartbeatDue || droppedSinceSent.get() > 0)
+                        && draining.compareAndSet(false, true));
+            } catch (IOException | IllegalStateException e) {
+                // Cliente desconectado: el contenedor notifica el error y se quita de la lista
+                logger.debug("No se pudo escribir en el stream del historial: {}", e.getMessage());
+                unsubscribe(this);
+                emitter.completeWithError(e);
+            }
+        }
+
+        private void sendPending() throws IOException {
+            if (heartbeatDue) {
+                heartbeatDue = false;
+                emitter.send(SseEmitter.event().comment("heartbeat"));
+            }
+            ApiCall apiCall;
+            while ((apiCall = buffer.poll()) != null) {
+                emitter.send(SseEmitter.event().name(API_CALL_EVENT).data(toJson(apiCall), MediaType.APPLICATION_JSON));
+                sent.increment();
+            }
+            // Las descartadas llegaron con la cola llena: son posteriores a todo lo que se acaba de enviar
+            long lost = droppedSinceSent.getAndSet(0);
+            if (lost > 0) {
+                emitter.send(SseEmitter.event().name(DROPPED_EVENT).data("{\"dropped\":" + lost + "}", MediaType.APPLICATION_JSON));
+            }
+        }
+
+        private String toJson(ApiCall apiCall) throws JsonProcessingException {
+            return objectMapper.writeValueAsString(ApiCallHistoryResponse.builder()
+                    .endpoint(apiCall.endpoint())
+                    .method(apiCall.method())
+                    .parameters(apiCall.requestBody())
+                    .response(apiCall.responseBody())
+                    .statusCode(apiCall.responseStatus())
+                    .timestamp(apiCall.timestamp())
+                    .executionTimeMs(apiCall.executionTimeMs())
+                    .build());
+        }
+    }
+}
@@ -0,0 +1,7 @@
+package cl.jiraira.infrastructure.adapter.in.web.stream;
+
+public class SubscriberLimitExceededException extends RuntimeException {
+    public SubscriberLimitExceededException(int maxSubscribers) {
+        super("Se alcanzó el máximo de " + maxSubscribers + " clientes conectados al stream del historial");
+    }
+}
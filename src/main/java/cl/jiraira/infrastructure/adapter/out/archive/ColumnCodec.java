@@ -0,0 +1,106 @@
+package cl.jiraira.infrastructure.adapter.out.archive;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+
+/**
+ * Codificación de valores dentro de una columna: enteros como varint (LEB128) con zigzag para los
+ * deltas y los opcionales, donde 0 representa {@code null}; los strings como largo + 1 y UTF-8.
+ */
+final class ColumnCodec {
+
+    static final long NULL = Long.MIN_VALUE;
+
+    private ColumnCodec() {
+    }
+
+    static void writeVarLong(OutputStream out, long value) throws IOException {
+        while ((value & ~0x7FL) != 0) {
+            out.write((int) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+        out.write((int) value);
+    }
+
+    static long readVarLong(InputStream in) throws IOException {
+        long value = 0;
+        for (int shift = 0; shift < 64; shift += 7) {
+            int b = in.read();
+            if (b < 0) {
+                throw new EOFException("Columna del segmento truncada");
+            }
+            value |= (long) (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return value;
+            }
+        }
+        throw new IOException("Varint inválido en la columna del segmento");
+    }
+
+    static void writeDelta(OutputStream out, long delta) throws IOException {
+        writeVarLong(out, (delta << 1) ^ (delta >> 63));
+    }
+
+    static long readDelta(InputStream in) throws IOException {
+        long encoded = readVarLong(in);
+        return (encoded >>> 1) ^ -(encoded & 1);
+    }
+
+    static void writeNullable(OutputStream out, Long value) throws IOException {
+        writeVarLong(out, value == null ? 0 : ((value << 1) ^ (value >> 63)) + 1);
+    }
+
+    /**
+     * Retorna {@link #NULL} cuando el valor escrito era {@code null}.
+     */
+    static long readNullable(InputStream in) throws IOException {
+        long encoded = readVarLong(in);
+        if (encoded == 0) {
+            return NULL;
+        }
+        encoded--;
+        return (encoded >>> 1) ^ -(encoded & 1);
+    }
+
+    static void writeString(OutputStream out, String value) throws IOException {
+        if (value == null) {
+            writeVarLong(out, 0);
+            return;
+        }
+        byte[] utf8 = value.getBytes(StandardCharsets.UTF_8);
+        writeVarLong(out, utf8.length + 1L);
+        out.write(utf8);
+    }
+
+    static String readString(InputStream in) throws IOException {
+        int length = (int) readVarLong(in) - 1;
+        if (length < 0) {
+            return null;
+        }
+        return new String(in.readNBytes(length), StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Avanza sobre un string sin decodificarlo.
+     */
+    static void skipString(InputStream in) throws IOException {
+        long length = readVarLong(in) - 1;
+        if (length > 0) {
+            in.skipNBytes(length);
+        }
+    }
+
+    static long toMicros(LocalDateTime timestamp) {
+        return timestamp.toEpochSecond(ZoneOffset.UTC) * 1_000_000L + timestamp.getNano() / 1_000;
+    }
+
+    static LocalDateTime fromMicros(long micros) {
+        return LocalDateTime.ofEpochSecond(Math.floorDiv(micros, 1_000_000L),
+                (int) Math.floorMod(micros, 1_000_000L) * 1_000, ZoneOffset.UTC);
+    }
+}
@@ -0,0 +1,449 @@
+package cl.jiraira.infrastructure.adapter.out.archive;
+
+import cl.jiraira.domain.model.ApiCall;
+import cl.jiraira.domain.model.ApiCallSummary;
+import cl.jiraira.domain.model.HistoryCursor;
+import cl.jiraira.domain.model.HistoryFilter;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayInputStream;
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Optional;
+import java.util.function.Consumer;
+import java.util.function.IntPredicate;
+import java.util.zip.InflaterInputStream;
+
+/**
+ * Segmento columnar de solo lectura con llamadas archivadas, ordenadas por {@code (timestamp, id)}.
+ * <pre>
+ * [magic][versión][columna 0 deflate]...[columna N deflate][footer][largo del footer][magic]
+ * </pre>
+ * El footer guarda la cantidad de filas, los rangos de timestamp e id, los diccionarios de endpoint y
+ * método y la posición de cada columna. Se carga al abrir el segmento y permite descartarlo sin leer
+ * sus columnas; las consultas de resúmenes no descomprimen los cuerpos.
+ */
+final class ColumnarSegment {
+
+    static final int MAGIC = 0x41434853; // "ACHS"
+    static final byte VERSION = 1;
+    static final int TRAILER_BYTES = Integer.BYTES + Integer.BYTES;
+    private static final int READ_BUFFER_BYTES = 64 * 1024;
+    // ids, timestamps, estados y tiempos como long; endpoint y método como int
+    private static final long SUMMARY_BYTES_PER_ROW = 4 * Long.BYTES + 2 * Integer.BYTES;
+
+    /**
+     * Columnas en el orden en que se escriben.
+     */
+    enum Column {
+        ID, TIMESTAMP, ENDPOINT, METHOD, STATUS, EXECUTION_TIME, REQUEST_BODY, RESPONSE_BODY
+    }
+
+    private final Path path;
+    private final long sizeBytes;
+    private final int rowCount;
+    private final long minMicros;
+    private final long maxMicros;
+    private final long minId;
+    private final long maxId;
+    private final List<String> endpoints;
+    private final List<String> methods;
+    private final long[] offsets;
+
+    private ColumnarSegment(Path path, long sizeBytes, DataInputStream footer) throws IOException {
+        this.path = path;
+        this.sizeBytes = sizeBytes;
+        this.rowCount = footer.readInt();
+        this.minMicros = footer.readLong();
+        this.maxMicros = footer.readLong();
+        this.minId = footer.readLong();
+        this.maxId = footer.readLong();
+        this.endpoints = readDictionary(footer);
+        this.methods = readDictionary(footer);
+        int columns = Column.values().length;
+        this.offsets = new long[columns];
+        for (int i = 0; i < columns; i++) {
+            offsets[i] = footer.readLong();
+            // Largo comprimido de la columna: el stream deflate ya marca su fin
+            footer.readLong();
+        }
+    }
+
+    static ColumnarSegment open(Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size < Integer.BYTES + 1 + TRAILER_BYTES) {
+                throw new IOException("Segmento demasiado corto: " + path);
+            }
+            ByteBuffer trailer = ByteBuffer.allocate(TRAILER_BYTES);
+            channel.read(trailer, size - TRAILER_BYTES);
+            trailer.flip();
+            int footerLength = trailer.getInt();
+            if (trailer.getInt() != MAGIC || footerLength <= 0 || footerLength > size - TRAILER_BYTES) {
+                throw new IOException("Segmento sin footer válido: " + path);
+            }
+            ByteBuffer footer = ByteBuffer.allocate(footerLength);
+            channel.read(footer, size - TRAILER_BYTES - footerLength);
+            try (DataInputStream in = new DataInputStream(new ByteArrayInputStream(footer.array()))) {
+                return new ColumnarSegment(path, size, in);
+            }
+        }
+    }
+
+    Path path() {
+        return path;
+    }
+
+    long sizeBytes() {
+        return sizeBytes;
+    }
+
+    int rowCount() {
+        return rowCount;
+    }
+
+    LocalDateTime minTimestamp() {
+        return ColumnCodec.fromMicros(minMicros);
+    }
+
+    LocalDateTime maxTimestamp() {
+        return ColumnCodec.fromMicros(maxMicros);
+    }
+
+    boolean mayContainId(long id) {
+        return rowCount > 0 && id >= minId && id <= maxId;
+    }
+
+    /**
+     * Descarta el segmento solo con su footer: rango de tiempo, diccionarios y cursor.
+     */
+    boolean mayContain(HistoryFilter filter, HistoryCursor cursor) {
+        if (rowCount == 0) {
+            return false;
+        }
+        if (filter.from() != null && maxMicros < ColumnCodec.toMicros(filter.from())) {
+            return false;
+        }
+        if (filter.to() != null && minMicros >= ColumnCodec.toMicros(filter.to())) {
+            return false;
+        }
+        if (cursor != null && minMicros > ColumnCodec.toMicros(cursor.timestamp())) {
+            return false;
+        }
+        if (filter.endpoint() != null && !endpoints.contains(filter.endpoint())) {
+            return false;
+        }
+        return filter.method() == null || methods.contains(filter.method());
+    }
+
+    /**
+     * Decodifica las columnas del resumen (sin cuerpos).
+     */
+    Summaries readSummaries() throws IOException {
+        long[] ids = new long[rowCount];
+        long[] micros = new long[rowCount];
+        int[] endpointCodes = new int[rowCount];
+        int[] methodCodes = new int[rowCount];
+        long[] statuses = new long[rowCount];
+        long[] executionTimes = new long[rowCount];
+        try (InputStream in = column(Column.ID)) {
+            long previous = 0;
+            for (int row = 0; row < rowCount; row++) {
+                previous += ColumnCodec.readDelta(in);
+                ids[row] = previous;
+            }
+        }
+        try (InputStream in = column(Column.TIMESTAMP)) {
+            long previous = 0;
+            for (int row = 0; row < rowCount; row++) {
+                previous += ColumnCodec.readDelta(in);
+                micros[row] = previous;
+            }
+        }
+        try (InputStream in = column(Column.ENDPOINT)) {
+            for (int row = 0; row < rowCount; row++) {
+                endpointCodes[row] = (int) ColumnCodec.readVarLong(in);
+            }
+        }
+        try (InputStream in = column(Column.METHOD)) {
+            for (int row = 0; row < rowCount; row++) {
+                methodCodes[row] = (int) ColumnCodec.readVarLong(in);
+            }
+        }
+        try (InputStream in = column(Column.STATUS)) {
+            for (int row = 0; row < rowCount; row++) {
+                statuses[row] = ColumnCodec.readNullable(in);
+            }
+        }
+        try (InputStream in = column(Column.EXECUTION_TIME)) {
+            for (int row = 0; row < rowCount; row++) {
+                executionTimes[row] = ColumnCodec.readNullable(in);
+            }
+        }
+        return new Summaries(ids, micros, endpointCodes, methodCodes, statuses, executionTimes);
+    }
+
+    /**
+     * Decodifica solo la columna de ids, en el orden de las filas.
+     */
+    long[] readIds() throws IOException {
+        long[] ids = new long[rowCount];
+        try (InputStream in = column(Column.ID)) {
+            long previous = 0;
+            for (int row = 0; row < rowCount; row++) {
+                previous += ColumnCodec.readDelta(in);
+                ids[row] = previous;
+            }
+        }
+        return ids;
+    }
+
+    /**
+     * Busca la llamada con el id dado leyendo primero solo la columna de ids; las demás columnas se
+     * recorren hasta esa fila sin guardar las anteriores.
+     */
+    Optional<ApiCall> find(long id) throws IOException {
+        int match = -1;
+        try (InputStream in = column(Column.ID)) {
+            long previous = 0;
+            for (int row = 0; row < rowCount && match < 0; row++) {
+                previous += ColumnCodec.readDelta(in);
+                if (previous == id) {
+                    match = row;
+                }
+            }
+        }
+        if (match < 0) {
+            return Optional.empty();
+        }
+        try (RowReader reader = new RowReader()) {
+            reader.skip(match);
+            reader.readSummary();
+            return Optional.of(reader.bodies(true));
+        }
+    }
+
+    /**
+     * Entrega a {@code sink}, en el orden del segmento, las llamadas que cumplen el filtro y retorna
+     * cuántas entregó. Lee todas las columnas a la vez fila por fila, así la memoria no depende del
+     * tamaño del segmento; los cuerpos de las filas descartadas se saltan sin decodificar.
+     */
+    long scan(HistoryFilter filter, Consumer<ApiCall> sink) throws IOException {
+        RowMatcher matcher = new RowMatcher(filter);
+        long matched = 0;
+        try (RowReader reader = new RowReader()) {
+            for (int row = 0; row < rowCount; row++) {
+                reader.readSummary();
+                if (matcher.test(reader.micros, reader.endpointCode, reader.methodCode, reader.status, reader.executionTime)) {
+                    sink.accept(reader.bodies(true));
+                    matched++;
+                } else {
+                    reader.bodies(false);
+                }
+            }
+        }
+        return matched;
+    }
+
+    private InputStream column(Column column) throws IOException {
+        FileChannel channel = FileChannel.open(path, StandardOpenOption.READ);
+        channel.position(offsets[column.ordinal()]);
+        return new BufferedInputStream(new InflaterInputStream(
+                new BufferedInputStream(Channels.newInputStream(channel), READ_BUFFER_BYTES)), READ_BUFFER_BYTES);
+    }
+
+    private static List<String> readDictionary(DataInputStream in) throws IOException {
+        String[] values = new String[in.readInt()];
+        for (int i = 0; i < values.length; i++) {
+            values[i] = in.readUTF();
+        }
+        return Arrays.asList(values);
+    }
+
+    static boolean isSegmentFile(Path path) {
+        return Files.isRegularFile(path) && path.getFileName().toString().endsWith(ColumnarSegmentArchive.SEGMENT_SUFFIX);
+    }
+
+    /**
+     * Columnas del resumen ya decodificadas. Los opcionales usan {@link ColumnCodec#NULL}.
+     */
+    final class Summaries {
+
+        private final long[] ids;
+        private final long[] micros;
+        private final int[] endpointCodes;
+        private final int[] methodCodes;
+        private final long[] statuses;
+        private final long[] executionTimes;
+
+        private Summaries(long[] ids, long[] micros, int[] endpointCodes, int[] methodCodes,
+                          long[] statuses, long[] executionTimes) {
+            this.ids = ids;
+            this.micros = micros;
+            this.endpointCodes = endpointCodes;
+            this.methodCodes = methodCodes;
+            this.statuses = statuses;
+            this.executionTimes = executionTimes;
+        }
+
+        long id(int row) {
+            return ids[row];
+        }
+
+        long micros(int row) {
+            return micros[row];
+        }
+
+        /**
+         * Memoria aproximada de las columnas decodificadas, para acotar el caché.
+         */
+        int weightBytes() {
+            return (int) Math.min(Integer.MAX_VALUE, ids.length * SUMMARY_BYTES_PER_ROW);
+        }
+
+        /**
+         * Predicado por fila equivalente al SQL de {@code HistoryQuery}; endpoint y método se comparan
+         * por su código de diccionario.
+         */
+        IntPredicate matcher(HistoryFilter filter) {
+            RowMatcher matcher = new RowMatcher(filter);
+            return row -> matcher.test(micros[row], endpointCodes[row], methodCodes[row], statuses[row], executionTimes[row]);
+        }
+
+        ApiCallSummary summary(int row) {
+            return new ApiCallSummary(ids[row], ColumnCodec.fromMicros(micros[row]),
+                    endpoints.get(endpointCodes[row]), methods.get(methodCodes[row]),
+                    statuses[row] == ColumnCodec.NULL ? null : (int) statuses[row],
+                    executionTimes[row] == ColumnCodec.NULL ? null : executionTimes[row]);
+        }
+    }
+
+    /**
+     * Evalúa el filtro sobre los valores de una fila; endpoint y método se comparan por su código de diccionario.
+     */
+    private final class RowMatcher {
+
+        private final HistoryFilter filter;
+        private final long from;
+        private final long to;
+        private final int endpointCode;
+        private final int methodCode;
+        private final long minStatus;
+        private final long maxStatus;
+
+        private RowMatcher(HistoryFilter filter) {
+            this.filter = filter;
+            this.from = filter.from() == null ? Long.MIN_VALUE : ColumnCodec.toMicros(filter.from());
+            this.to = filter.to() == null ? Long.MAX_VALUE : ColumnCodec.toMicros(filter.to());
+            this.endpointCode = filter.endpoint() == null ? -1 : endpoints.indexOf(filter.endpoint());
+            this.methodCode = filter.method() == null ? -1 : methods.indexOf(filter.method());
+            this.minStatus = filter.statusClass() == null ? Long.MIN_VALUE : filter.statusClass() * 100L;
+            this.maxStatus = filter.statusClass() == null ? Long.MAX_VALUE : (filter.statusClass() + 1) * 100L;
+        }
+
+        boolean test(long micros, int endpoint, int method, long status, long executionTime) {
+            if (micros < from || micros >= to) {
+                return false;
+            }
+            if (endpointCode >= 0 && endpoint != endpointCode) {
+                return false;
+            }
+            if (methodCode >= 0 && method != methodCode) {
+                return false;
+            }
+            if ((filter.status() != null || filter.statusClass() != null) && status == ColumnCodec.NULL) {
+                return false;
+            }
+            if ((filter.status() != null && status != filter.status()) || status < minStatus || status >= maxStatus) {
+                return false;
+            }
+            return filter.minExecutionTimeMs() == null
+                    || (executionTime != ColumnCodec.NULL && executionTime >= filter.minExecutionTimeMs());
+        }
+    }
+
+    /**
+     * Recorre todas las columnas en paralelo, una fila a la vez.
+     */
+    private final class RowReader implements AutoCloseable {
+
+        private final InputStream[] columns = new InputStream[Column.values().length];
+        private long id;
+        private long micros;
+        private int endpointCode;
+        private int methodCode;
+        private long status;
+        private long executionTime;
+
+        private RowReader() throws IOException {
+            try {
+                for (Column column : Column.values()) {
+                    columns[column.ordinal()] = column(column);
+                }
+            } catch (IOException e) {
+                close();
+                throw e;
+            }
+        }
+
+        void readSummary() throws IOException {
+            id += ColumnCodec.readDelta(columns[Column.ID.ordinal()]);
+            micros += ColumnCodec.readDelta(columns[Column.TIMESTAMP.ordinal()]);
+            endpointCode = (int) ColumnCodec.readVarLong(columns[Column.ENDPOINT.ordinal()]);
+            methodCode = (int) ColumnCodec.readVarLong(columns[Column.METHOD.ordinal()]);
+            status = ColumnCodec.readNullable(columns[Column.STATUS.ordinal()]);
+            executionTime = ColumnCodec.readNullable(columns[Column.EXECUTION_TIME.ordinal()]);
+        }
+
+        /**
+         * Lee los cuerpos de la fila actual y retorna la llamada, o los salta y retorna {@code null}.
+         */
+        ApiCall bodies(boolean read) throws IOException {
+            InputStream requests = columns[Column.REQUEST_BODY.ordinal()];
+            InputStream responses = columns[Column.RESPONSE_BODY.ordinal()];
+            if (!read) {
+                ColumnCodec.skipString(requests);
+                ColumnCodec.skipString(responses);
+                return null;
+            }
+            return new ApiCall(id, endpoints.get(endpointCode), methods.get(methodCode),
+                    ColumnCodec.readString(requests), ColumnCodec.readString(responses),
+                    status == ColumnCodec.NULL ? null : (int) status, ColumnCodec.fromMicros(micros),
+                    executionTime == ColumnCodec.NULL ? null : executionTime);
+        }
+
+        void skip(int rows) throws IOException {
+            for (int row = 0; row < rows; row++) {
+                readSummary();
+                bodies(false);
+            }
+        }
+
+        @Override
+        public void close() throws IOException {
+            IOException failure = null;
+            for (InputStream column : columns) {
+                try {
+                    if (column != null) {
+                        column.close();
+                    }
+                } catch (IOException e) {
+                    failure = e;
+                }
+            }
+            if (failure != null) {
+                throw failure;
+            }
+        }
+    }
+}
@@ -0,0 +1,274 @@
+package cl.jiraira.infrastructure.adapter.out.archive;
+
+import cl.jiraira.domain.model.ApiCall;
+import cl.jiraira.domain.model.ApiCallSummary;
+import cl.jiraira.domain.model.HistoryCursor;
+import cl.jiraira.domain.model.HistoryFilter;
+import cl.jiraira.domain.port.out.ApiCallArchivePort;
+import cl.jiraira.infrastructure.adapter.out.archive.ColumnarSegment.Summaries;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.Consumer;
+import java.util.function.IntPredicate;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+
+/**
+ * Archivo frío del historial en segmentos columnares comprimidos dentro de un directorio local. Los
+ * footers de todos los segmentos se mantienen en memoria; las consultas solo abren los segmentos
+ * cuyo rango de tiempo, diccionarios o rango de ids pueden contener resultados.
+ * <p>
+ * Los listados usan las columnas de resumen decodificadas, que se guardan en un caché acotado por
+ * {@code summary-cache-size}; el detalle y la exportación recorren el segmento sin decodificarlo entero.
+ */
+@Component
+@ConditionalOnProperty(name = "history.archive.enabled", havingValue = "true")
+public class ColumnarSegmentArchive implements ApiCallArchivePort {
+
+    private static final Logger logger = LoggerFactory.getLogger(ColumnarSegmentArchive.class);
+
+    static final String SEGMENT_SUFFIX = ".seg";
+    private static final Pattern SEGMENT_ID = Pattern.compile("[A-Za-z0-9_.-]+");
+    private static final Comparator<ApiCallSummary> NEWEST_FIRST = Comparator
+            .comparing(ApiCallSummary::timestamp).thenComparingLong(ApiCallSummary::id).reversed();
+
+    private final Path directory;
+    // Resúmenes decodificados: paginar un segmento con cursor no vuelve a descomprimirlo en cada página
+    private final Cache<ColumnarSegment, Summaries> summaryCache;
+    private volatile List<ColumnarSegment> segments = List.of();
+
+    public ColumnarSegmentArchive(@Value("${history.archive.directory:${java.io.tmpdir}/api-call-archive}") Path directory,
+                                  @Value("${history.archive.summary-cache-size:64MB}") DataSize summaryCacheSize,
+                                  MeterRegistry meterRegistry) {
+        this.directory = directory;
+        this.summaryCache = Caffeine.newBuilder()
+                .maximumWeight(summaryCacheSize.toBytes())
+                .weigher((ColumnarSegment segment, Summaries summaries) -> summaries.weightBytes())
+                .build();
+        try {
+            Files.createDirectories(directory);
+            load();
+        } catch (IOException e) {
+            throw new UncheckedIOException("No se pudo abrir el archivo del historial en " + directory, e);
+        }
+
+        Gauge.builder("api.history.archive.segments", this, archive -> archive.segments.size())
+                .description("Segmentos del historial archivados fuera de la base")
+                .register(meterRegistry);
+        Gauge.builder("api.history.archive.size", this, archive -> archive.segments.stream().mapToLong(ColumnarSegment::sizeBytes).sum())
+                .description("Tamaño en disco de los segmentos archivados")
+                .baseUnit("bytes")
+                .register(meterRegistry);
+    }
+
+    @Override
+    public SegmentWriter openSegment(String segmentId) {
+        if (!SEGMENT_ID.matcher(segmentId).matches()) {
+            throw new IllegalArgumentException("Identificador de segmento inválido: " + segmentId);
+        }
+        return new ColumnarSegmentWriter(directory.resolve(segmentId + SEGMENT_SUFFIX), this::publish);
+    }
+
+    @Override
+    public List<ApiCallSummary> findHistory(HistoryFilter filter, HistoryCursor cursor, int limit) {
+        List<ColumnarSegment> candidates = segments.stream()
+                .filter(segment -> segment.mayContain(filter, cursor))
+                .sorted(Comparator.comparing(ColumnarSegment::maxTimestamp).reversed())
+                .toList();
+        List<ApiCallSummary> found = new ArrayList<>();
+        for (ColumnarSegment segment : candidates) {
+            // Los candidatos van del más reciente al más antiguo: si este no alcanza al último
+            // resultado, ninguno de los siguientes lo hará
+            if (found.size() >= limit && segment.maxTimestamp().isBefore(found.get(limit - 1).timestamp())) {
+                break;
+            }
+            collect(segment, filter, cursor, limit, found);
+            found.sort(NEWEST_FIRST);
+            if (found.size() > limit) {
+                found.subList(limit, found.size()).clear();
+            }
+        }
+        return found;
+    }
+
+    @Override
+    public Optional<ApiCall> findById(long id) {
+        return find(id, null);
+    }
+
+    @Override
+    public Optional<ApiCall> findById(long id, LocalDateTime timestamp) {
+        return find(id, timestamp).filter(found -> timestamp.equals(found.timestamp()));
+    }
+
+    private Optional<ApiCall> find(long id, LocalDateTime timestamp) {
+        for (ColumnarSegment segment : segments) {
+            if (!segment.mayContainId(id) || (timestamp != null
+                    && (timestamp.isBefore(segment.minTimestamp()) || timestamp.isAfter(segment.maxTimestamp())))) {
+                continue;
+            }
+            try {
+                Optional<ApiCall> found = segment.find(id);
+                if (found.isPresent()) {
+                    return found;
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException("No se pudo leer el segmento " + segment.path(), e);
+            }
+        }
+        return Optional.empty();
+    }
+
+    @Override
+    public long export(HistoryFilter filter, Consumer<ApiCall> sink) {
+        return snapshot().export(filter, sink);
+    }
+
+    @Override
+    public Snapshot snapshot() {
+        return new SegmentSnapshot(segments);
+    }
+
+    private void collect(ColumnarSegment segment, HistoryFilter filter, HistoryCursor cursor, int limit, List<ApiCallSummary> found) {
+        Summaries summaries = summaryCache.get(segment, ColumnarSegmentArchive::readSummaries);
+        IntPredicate matches = summaries.matcher(filter);
+        long cursorMicros = cursor == null ? Long.MAX_VALUE : ColumnCodec.toMicros(cursor.timestamp());
+        long cursorId = cursor == null ? Long.MAX_VALUE : cursor.id();
+        int collected = 0;
+        // Las filas están ordenadas por (timestamp, id): se recorren desde la más reciente
+        for (int row = segment.rowCount() - 1; row >= 0 && collected < limit; row--) {
+            long micros = summaries.micros(row);
+            if (micros > cursorMicros || (micros == cursorMicros && summaries.id(row) >= cursorId)) {
+                continue;
+            }
+            if (matches.test(row)) {
+                found.add(summaries.summary(row));
+                collected++;
+            }
+        }
+    }
+
+    private static Summaries readSummaries(ColumnarSegment segment) {
+        try {
+            return segment.readSummaries();
+        } catch (IOException e) {
+            throw new UncheckedIOException("No se pudo leer el segmento " + segment.path(), e);
+        }
+    }
+
+    private synchronized void publish(Path path) {
+        try {
+            ColumnarSegment published = ColumnarSegment.open(path);
+            List<ColumnarSegment> updated = new ArrayList<>(segments.size() + 1);
+            for (ColumnarSegment segment : segments) {
+                if (!segment.path().equals(path)) {
+                    updated.add(segment);
+                } else {
+                    summaryCache.invalidate(segment);
+                }
+            }
+            updated.add(published);
+            segments = List.copyOf(updated);
+            logger.info("Segmento {} archivado con {} llamadas entre {} y {}", path.getFileName(),
+                    published.rowCount(), published.minTimestamp(), published.maxTimestamp());
+        } catch (IOException e) {
+            throw new UncheckedIOException("No se pudo abrir el segmento recién archivado " + path, e);
+        }
+    }
+
+    /**
+     * Vista sobre una lista fija de segmentos. Los ids de cada segmento se ordenan la primera vez que
+     * se consultan, y solo si el id cae en su rango, para no recorrer el segmento completo en cada llamada.
+     */
+    private static final class SegmentSnapshot implements Snapshot {
+
+        private final List<ColumnarSegment> segments;
+        private final Map<ColumnarSegment, long[]> sortedIds = new HashMap<>();
+
+        private SegmentSnapshot(List<ColumnarSegment> segments) {
+            this.segments = segments;
+        }
+
+        @Override
+        public long export(HistoryFilter filter, Consumer<ApiCall> sink) {
+            List<ColumnarSegment> candidates = segments.stream()
+                    .filter(segment -> segment.mayContain(filter, null))
+                    .sorted(Comparator.comparing(ColumnarSegment::minTimestamp))
+                    .toList();
+            long exported = 0;
+            for (ColumnarSegment segment : candidates) {
+                try {
+                    exported += segment.scan(filter, sink);
+                } catch (IOException e) {
+                    throw new UncheckedIOException("No se pudo leer el segmento " + segment.path(), e);
+                }
+            }
+            return exported;
+        }
+
+        @Override
+        public boolean contains(long id) {
+            for (ColumnarSegment segment : segments) {
+                if (!segment.mayContainId(id)) {
+                    continue;
+                }
+                long[] ids = sortedIds.computeIfAbsent(segment, SegmentSnapshot::readSortedIds);
+                if (Arrays.binarySearch(ids, id) >= 0) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        private static long[] readSortedIds(ColumnarSegment segment) {
+            try {
+                long[] ids = segment.readIds();
+                Arrays.sort(ids);
+                return ids;
+            } catch (IOException e) {
+                throw new UncheckedIOException("No se pudo leer el segmento " + segment.path(), e);
+            }
+        }
+    }
+
+    private void load() throws IOException {
+        List<ColumnarSegment> loaded = new ArrayList<>();
+        try (Stream<Path> files = Files.list(directory)) {
+            for (Path file : files.toList()) {
+                if (file.getFileName().toString().endsWith(".tmp")) {
+                    // Escritura interrumpida antes de publicarse
+                    Files.deleteIfExists(file);
+                } else if (ColumnarSegment.isSegmentFile(file)) {
+                    try {
+                        loaded.add(ColumnarSegment.open(file));
+                    } catch (IOException e) {
+                        logger.warn("Se omite el segmento {} por estar dañado: {}", file.getFileName(), e.getMessage());
+                    }
+                }
+            }
+        }
+        segments = List.copyOf(loaded);
+        logger.info("Archivo del historial con {} segmentos en {}", loaded.size(), directory);
+    }
+}
@@ -0,0 +1,224 @@
+package cl.jiraira.infrastructure.adapter.out.archive;
+
+import cl.jiraira.domain.model.ApiCall;
+import cl.jiraira.domain.port.out.ApiCallArchivePort;
+import cl.jiraira.infrastructure.adapter.out.archive.ColumnarSegment.Column;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.Consumer;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
+
+/**
+ * Escribe un {@link ColumnarSegment}. Cada columna se comprime a su propio archivo temporal mientras
+ * llegan las filas, de modo que la memoria no depende del tamaño del segmento; al confirmar se
+ * concatenan junto al footer, se sincroniza a disco y se publica con un rename atómico.
+ */
+final class ColumnarSegmentWriter implements ApiCallArchivePort.SegmentWriter {
+
+    private static final int WRITE_BUFFER_BYTES = 64 * 1024;
+
+    private final Path target;
+    private final Consumer<Path> onCommit;
+    private final Path[] columnFiles = new Path[Column.values().length];
+    private final OutputStream[] columns = new OutputStream[Column.values().length];
+    private final Deflater[] deflaters = new Deflater[Column.values().length];
+    private final Map<String, Integer> endpoints = new LinkedHashMap<>();
+    private final Map<String, Integer> methods = new LinkedHashMap<>();
+
+    private int rowCount;
+    private long previousId;
+    private long previousMicros;
+    private long minMicros = Long.MAX_VALUE;
+    private long maxMicros = Long.MIN_VALUE;
+    private long minId = Long.MAX_VALUE;
+    private long maxId = Long.MIN_VALUE;
+    private boolean finished;
+
+    ColumnarSegmentWriter(Path target, Consumer<Path> onCommit) {
+        this.target = target;
+        this.onCommit = onCommit;
+        try {
+            for (Column column : Column.values()) {
+                Path file = target.resolveSibling(target.getFileName() + "." + column.name().toLowerCase() + ".tmp");
+                columnFiles[column.ordinal()] = file;
+                deflaters[column.ordinal()] = new Deflater(Deflater.BEST_SPEED);
+                columns[column.ordinal()] = new DeflaterOutputStream(
+                        new BufferedOutputStream(Files.newOutputStream(file), WRITE_BUFFER_BYTES),
+                        deflaters[column.ordinal()], WRITE_BUFFER_BYTES);
+            }
+        } catch (IOException e) {
+            close();
+            throw new UncheckedIOException("No se pudo crear el segmento " + target, e);
+        }
+    }
+
+    @Override
+    public void append(ApiCall apiCall) {
+        if (finished) {
+            throw new IllegalStateException("El segmento ya fue cerrado");
+        }
+        long micros = ColumnCodec.toMicros(apiCall.timestamp());
+        if (rowCount > 0 && (micros < previousMicros || (micros == previousMicros && apiCall.id() <= previousId))) {
+            throw new IllegalArgumentException("Las llamadas del segmento deben llegar ordenadas por (timestamp, id)");
+        }
+        try {
+            ColumnCodec.writeDelta(columns[Column.ID.ordinal()], apiCall.id() - previousId);
+            ColumnCodec.writeDelta(columns[Column.TIMESTAMP.ordinal()], micros - previousMicros);
+            ColumnCodec.writeVarLong(columns[Column.ENDPOINT.ordinal()], code(endpoints, apiCall.endpoint()));
+            ColumnCodec.writeVarLong(columns[Column.METHOD.ordinal()], code(methods, apiCall.method()));
+            ColumnCodec.writeNullable(columns[Column.STATUS.ordinal()],
+                    apiCall.responseStatus() == null ? null : apiCall.responseStatus().longValue());
+            ColumnCodec.writeNullable(columns[Column.EXECUTION_TIME.ordinal()], apiCall.executionTimeMs());
+            ColumnCodec.writeString(columns[Column.REQUEST_BODY.ordinal()], apiCall.requestBody());
+            ColumnCodec.writeString(columns[Column.RESPONSE_BODY.ordinal()], apiCall.responseBody());
+        } catch (IOException e) {
+            throw new UncheckedIOException("No se pudo escribir en el segmento " + target, e);
+        }
+        previousId = apiCall.id();
+        previousMicros = micros;
+        minMicros = Math.min(minMicros, micros);
+        maxMicros = Math.max(maxMicros, micros);
+        minId = Math.min(minId, apiCall.id());
+        maxId = Math.max(maxId, apiCall.id());
+        rowCount++;
+    }
+
+    /**
+     * Un segmento sin filas no se publica.
+     */
+    @Override
+    public void commit() {
+        if (finished) {
+            throw new IllegalStateException("El segmento ya fue cerrado");
+        }
+        finished = true;
+        Path tmp = target.resolveSibling(target.getFileName() + ".tmp");
+        try {
+            closeColumns();
+            if (rowCount == 0) {
+                return;
+            }
+            long[] offsets = new long[columns.length];
+            long[] lengths = new long[columns.length];
+            try (FileChannel out = FileChannel.open(tmp, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING,
+                    StandardOpenOption.WRITE)) {
+                ByteBuffer header = ByteBuffer.allocate(Integer.BYTES + 1).putInt(ColumnarSegment.MAGIC).put(ColumnarSegment.VERSION);
+                out.write(header.flip());
+                for (int i = 0; i < columns.length; i++) {
+                    offsets[i] = out.position();
+                    try (FileChannel in = FileChannel.open(columnFiles[i], StandardOpenOption.READ)) {
+                        long size = in.size();
+                        for (long copied = 0; copied < size; ) {
+                            copied += in.transferTo(copied, size - copied, out);
+                        }
+                        lengths[i] = size;
+                    }
+                    out.position(offsets[i] + lengths[i]);
+                }
+                byte[] footer = footer(offsets, lengths);
+                out.write(ByteBuffer.wrap(footer));
+                out.write(ByteBuffer.allocate(ColumnarSegment.TRAILER_BYTES).putInt(footer.length).putInt(ColumnarSegment.MAGIC).flip());
+                out.force(true);
+            }
+            Files.move(tmp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            throw new UncheckedIOException("No se pudo confirmar el segmento " + target, e);
+        } finally {
+            deleteQuietly(tmp);
+            for (Path file : columnFiles) {
+                deleteQuietly(file);
+            }
+        }
+        onCommit.accept(target);
+    }
+
+    @Override
+    public void close() {
+        if (finished) {
+            return;
+        }
+        finished = true;
+        try {
+            closeColumns();
+        } catch (IOException ignored) {
+            // Se descarta el segmento de todas formas
+        }
+        for (Path file : columnFiles) {
+            deleteQuietly(file);
+        }
+    }
+
+    private byte[] footer(long[] offsets, long[] lengths) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(512);
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            out.writeInt(rowCount);
+            out.writeLong(minMicros);
+            out.writeLong(maxMicros);
+            out.writeLong(minId);
+            out.writeLong(maxId);
+            writeDictionary(out, endpoints);
+            writeDictionary(out, methods);
+            for (int i = 0; i < offsets.length; i++) {
+                out.writeLong(offsets[i]);
+                out.writeLong(lengths[i]);
+            }
+        }
+        return bytes.toByteArray();
+    }
+
+    private void closeColumns() throws IOException {
+        IOException failure = null;
+        for (int i = 0; i < columns.length; i++) {
+            try {
+                if (columns[i] != null) {
+                    columns[i].close();
+                }
+            } catch (IOException e) {
+                failure = e;
+            } finally {
+                // Un Deflater propio no se libera al cerrar el stream
+                if (deflaters[i] != null) {
+                    deflaters[i].end();
+                }
+            }
+        }
+        if (failure != null) {
+            throw failure;
+        }
+    }
+
+    private static int code(Map<String, Integer> dictionary, String value) {
+        return dictionary.computeIfAbsent(value, key -> dictionary.size());
+    }
+
+    private static void writeDictionary(DataOutputStream out, Map<String, Integer> dictionary) throws IOException {
+        out.writeInt(dictionary.size());
+        for (String value : dictionary.keySet()) {
+            out.writeUTF(value);
+        }
+    }
+
+    private static void deleteQuietly(Path file) {
+        try {
+            if (file != null) {
+                Files.deleteIfExists(file);
+            }
+        } catch (IOException ignored) {
+            // Un temporal huérfano se limpia al iniciar el archivo
+        }
+    }
+}
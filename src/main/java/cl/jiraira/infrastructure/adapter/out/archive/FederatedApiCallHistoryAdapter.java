@@ -0,0 +1,99 @@
+package cl.jiraira.infrastructure.adapter.out.archive;
+
+import cl.jiraira.domain.model.ApiCall;
+import cl.jiraira.domain.model.ApiCallSummary;
+import cl.jiraira.domain.model.HistoryCursor;
+import cl.jiraira.domain.model.HistoryFilter;
+import cl.jiraira.domain.model.HistorySlice;
+import cl.jiraira.domain.port.out.ApiCallArchivePort;
+import cl.jiraira.domain.port.out.ApiCallHistoryPort;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+
+/**
+ * Historial repartido entre la base (reciente) y el archivo frío. Las escrituras van solo a la base;
+ * las consultas por keyset combinan ambos orígenes por {@code (timestamp, id)} descendente.
+ * <p>
+ * La paginación por número de página se mantiene solo sobre la base.
+ */
+public class FederatedApiCallHistoryAdapter implements ApiCallHistoryPort {
+
+    private static final Comparator<ApiCallSummary> NEWEST_FIRST = Comparator
+            .comparing(ApiCallSummary::timestamp).thenComparingLong(ApiCallSummary::id).reversed();
+
+    private final ApiCallHistoryPort hot;
+    private final ApiCallArchivePort archive;
+
+    public FederatedApiCallHistoryAdapter(ApiCallHistoryPort hot, ApiCallArchivePort archive) {
+        this.hot = hot;
+        this.archive = archive;
+    }
+
+    @Override
+    public void save(ApiCall apiCall) {
+        hot.save(apiCall);
+    }
+
+    @Override
+    public void saveAll(List<ApiCall> apiCalls) {
+        hot.saveAll(apiCalls);
+    }
+
+    @Override
+    public List<ApiCallSummary> findHistory(int page, int size) {
+        return hot.findHistory(page, size);
+    }
+
+    @Override
+    public HistorySlice findHistory(HistoryFilter filter, HistoryCursor cursor, int size) {
+        HistorySlice recent = hot.findHistory(filter, cursor, size);
+        HistoryFilter archiveFilter = filter;
+        if (recent.hasNext()) {
+            // La base ya llenó la página y hay más: del archivo solo sirven llamadas no anteriores a la
+            // última, así los segmentos más antiguos se descartan por su footer sin leerlos
+            archiveFilter = filter.notBefore(recent.items().get(recent.items().size() - 1).timestamp());
+        }
+        // Un registro extra del archivo indica si hay página siguiente
+        List<ApiCallSummary> archived = archive.findHistory(archiveFilter, cursor, size + 1);
+        if (archived.isEmpty()) {
+            return recent;
+        }
+
+        List<ApiCallSummary> merged = new ArrayList<>(recent.items().size() + archived.size());
+        Set<Long> ids = new HashSet<>();
+        // Si el archivado se interrumpió antes de borrar la partición, una llamada puede estar en ambos
+        for (ApiCallSummary summary : recent.items()) {
+            if (ids.add(summary.id())) {
+                merged.add(summary);
+            }
+        }
+        for (ApiCallSummary summary : archived) {
+            if (ids.add(summary.id())) {
+                merged.add(summary);
+            }
+        }
+        merged.sort(NEWEST_FIRST);
+
+        if (merged.size() <= size && !recent.hasNext()) {
+            return new HistorySlice(List.copyOf(merged), null);
+        }
+        List<ApiCallSummary> items = List.copyOf(merged.subList(0, Math.min(size, merged.size())));
+        return new HistorySlice(items, HistoryCursor.after(items.get(items.size() - 1)));
+    }
+
+    @Override
+    public Optional<ApiCall> findById(long id) {
+        return hot.findById(id).or(() -> archive.findById(id));
+    }
+
+    @Override
+    public Optional<ApiCall> findById(long id, LocalDateTime timestamp) {
+        return hot.findById(id, timestamp).or(() -> archive.findById(id, timestamp));
+    }
+}
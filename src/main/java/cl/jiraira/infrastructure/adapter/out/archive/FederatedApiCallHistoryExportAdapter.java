@@ -0,0 +1,40 @@
+package cl.jiraira.infrastructure.adapter.out.archive;
+
+import cl.jiraira.domain.model.ApiCall;
+import cl.jiraira.domain.model.HistoryFilter;
+import cl.jiraira.domain.port.out.ApiCallArchivePort;
+import cl.jiraira.domain.port.out.ApiCallHistoryExportPort;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+
+/**
+ * Exporta primero las llamadas archivadas, que son las más antiguas, y luego las de la base.
+ * <p>
+ * Una partición archivada sigue en la base hasta que se elimina, así que de la base se omiten las
+ * llamadas que ya están en los segmentos exportados.
+ */
+public class FederatedApiCallHistoryExportAdapter implements ApiCallHistoryExportPort {
+
+    private final ApiCallHistoryExportPort hot;
+    private final ApiCallArchivePort archive;
+
+    public FederatedApiCallHistoryExportAdapter(ApiCallHistoryExportPort hot, ApiCallArchivePort archive) {
+        this.hot = hot;
+        this.archive = archive;
+    }
+
+    @Override
+    public long export(HistoryFilter filter, Consumer<ApiCall> sink) {
+        ApiCallArchivePort.Snapshot archived = archive.snapshot();
+        long exported = archived.export(filter, sink);
+        AtomicLong fromHot = new AtomicLong();
+        hot.export(filter, apiCall -> {
+            if (!archived.contains(apiCall.id())) {
+                sink.accept(apiCall);
+                fromHot.incrementAndGet();
+            }
+        });
+        return exported + fromHot.get();
+    }
+}
@@ -0,0 +1,145 @@
+package cl.jiraira.infrastructure.adapter.out.cache;
+
+import org.springframework.data.redis.serializer.GenericJackson2JsonRedisSerializer;
+import org.springframework.data.redis.serializer.RedisSerializer;
+import org.springframework.data.redis.serializer.SerializationException;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * Serializador binario compacto para los valores del caché. Los tipos numéricos se escriben con
+ * ancho fijo y {@link BigDecimal} como escala + valor sin escala, sin pasar por {@code double}.
+ * Los tipos no soportados se delegan a JSON, y los valores que no traen la marca binaria se leen
+ * como JSON para convivir con entradas escritas antes del cambio de formato.
+ */
+public class CompactBinaryRedisSerializer implements RedisSerializer<Object> {
+
+    static final byte MAGIC = (byte) 0xCB;
+
+    private static final byte TAG_BIG_DECIMAL = 1;
+    private static final byte TAG_PERCENTAGE_ENTRY = 2;
+    private static final byte TAG_LONG = 3;
+    private static final byte TAG_INTEGER = 4;
+    private static final byte TAG_DOUBLE = 5;
+    private static final byte TAG_BOOLEAN = 6;
+    private static final byte TAG_STRING = 7;
+    private static final byte TAG_JSON = 8;
+
+    private static final int HEADER_SIZE = 2;
+
+    private final RedisSerializer<Object> fallback;
+
+    public CompactBinaryRedisSerializer() {
+        this(new GenericJackson2JsonRedisSerializer());
+    }
+
+    public CompactBinaryRedisSerializer(RedisSerializer<Object> fallback) {
+        this.fallback = fallback;
+    }
+
+    @Override
+    public byte[] serialize(Object value) throws SerializationException {
+        if (value == null) {
+            return new byte[0];
+        }
+        if (value instanceof PercentageCacheEntry entry) {
+            ByteBuffer buffer = header(TAG_PERCENTAGE_ENTRY, decimalSize(entry.value()) + 2 * Long.BYTES);
+            writeDecimal(buffer, entry.value());
+            buffer.putLong(entry.softExpiresAtMillis());
+            buffer.putLong(entry.hardExpiresAtMillis());
+            return buffer.array();
+        }
+        if (value instanceof BigDecimal decimal) {
+            ByteBuffer buffer = header(TAG_BIG_DECIMAL, decimalSize(decimal));
+            writeDecimal(buffer, decimal);
+            return buffer.array();
+        }
+        if (value instanceof Long number) {
+            return header(TAG_LONG, Long.BYTES).putLong(number).array();
+        }
+        if (value instanceof Integer number) {
+            return header(TAG_INTEGER, Integer.BYTES).putInt(number).array();
+        }
+        if (value instanceof Double number) {
+            return header(TAG_DOUBLE, Double.BYTES).putDouble(number).array();
+        }
+        if (value instanceof Boolean flag) {
+            return header(TAG_BOOLEAN, 1).put((byte) (flag ? 1 : 0)).array();
+        }
+        if (value instanceof String text) {
+            byte[] utf8 = text.getBytes(StandardCharsets.UTF_8);
+            return header(TAG_STRING, utf8.length).put(utf8).array();
+        }
+        byte[] json = fallback.serialize(value);
+        return header(TAG_JSON, json.length).put(json).array();
+    }
+
+    @Override
+    public Object deserialize(byte[] bytes) throws SerializationException {
+        if (bytes == null || bytes.length == 0) {
+            return null;
+        }
+        if (bytes[0] != MAGIC || bytes.length < HEADER_SIZE) {
+            return fallback.deserialize(bytes);
+        }
+
+        ByteBuffer buffer = ByteBuffer.wrap(bytes, HEADER_SIZE, bytes.length - HEADER_SIZE);
+        try {
+            return switch (bytes[1]) {
+                case TAG_BIG_DECIMAL -> readDecimal(buffer);
+                case TAG_PERCENTAGE_ENTRY -> new PercentageCacheEntry(readDecimal(buffer), buffer.getLong(), buffer.getLong());
+                case TAG_LONG -> buffer.getLong();
+                case TAG_INTEGER -> buffer.getInt();
+                case TAG_DOUBLE -> buffer.getDouble();
+                case TAG_BOOLEAN -> buffer.get() != 0;
+                case TAG_STRING -> new String(bytes, HEADER_SIZE, bytes.length - HEADER_SIZE, StandardCharsets.UTF_8);
+                case TAG_JSON -> fallback.deserialize(Arrays.copyOfRange(bytes, HEADER_SIZE, bytes.length));
+                default -> throw new SerializationException("Tipo binario desconocido en caché: " + bytes[1]);
+            };
+        } catch (BufferUnderflowException e) {
+            throw new SerializationException("Valor binario truncado en caché", e);
+        }
+    }
+
+    private static ByteBuffer header(byte tag, int payloadSize) {
+        return ByteBuffer.allocate(HEADER_SIZE + payloadSize).put(MAGIC).put(tag);
+    }
+
+    /**
+     * Escala (int) seguida de un marcador de ancho: 0 y el valor sin escala en un long cuando cabe,
+     * o 1, el largo y los bytes en complemento a dos cuando no.
+     */
+    private static int decimalSize(BigDecimal decimal) {
+        BigInteger unscaled = decimal.unscaledValue();
+        if (unscaled.bitLength() < Long.SIZE) {
+            return Integer.BYTES + 1 + Long.BYTES;
+        }
+        return Integer.BYTES + 1 + Integer.BYTES + unscaled.toByteArray().length;
+    }
+
+    private static void writeDecimal(ByteBuffer buffer, BigDecimal decimal) {
+        BigInteger unscaled = decimal.unscaledValue();
+        buffer.putInt(decimal.scale());
+        if (unscaled.bitLength() < Long.SIZE) {
+            buffer.put((byte) 0).putLong(unscaled.longValue());
+        } else {
+            byte[] magnitude = unscaled.toByteArray();
+            buffer.put((byte) 1).putInt(magnitude.length).put(magnitude);
+        }
+    }
+
+    private static BigDecimal readDecimal(ByteBuffer buffer) {
+        int scale = buffer.getInt();
+        if (buffer.get() == 0) {
+            return BigDecimal.valueOf(buffer.getLong(), scale);
+        }
+        byte[] magnitude = new byte[buffer.getInt()];
+        buffer.get(magnitude);
+        return new BigDecimal(new BigInteger(magnitude), scale);
+    }
+}
@@ -0,0 +1,78 @@
+package cl.jiraira.infrastructure.adapter.out.cache;
+
+import cl.jiraira.domain.model.CachedPercentage;
+import cl.jiraira.domain.port.out.CachePort;
+import cl.jiraira.infrastructure.adapter.out.cache.invalidation.CacheInvalidationBus;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Caché compartido en memoria para cuando no hay Redis configurado. Respeta el TTL de cada entrada.
+ */
+@Component
+@Qualifier("sharedCache")
+@ConditionalOnExpression("'${spring.data.redis.host:}' == ''")
+public class InMemoryCacheAdapter implements CachePort {
+
+    private static final Logger logger = LoggerFactory.getLogger(InMemoryCacheAdapter.class);
+
+    private final ConcurrentMap<String, PercentageCacheEntry> entries = new ConcurrentHashMap<>();
+    private final CacheInvalidationBus invalidationBus;
+    private final Duration defaultSoftTtl;
+    private final Duration defaultHardTtl;
+
+    public InMemoryCacheAdapter(CacheInvalidationBus invalidationBus,
+                                @Value("${external.percentage-service.refresh.soft-ttl:25m}") Duration defaultSoftTtl,
+                                @Value("${external.percentage-service.refresh.hard-ttl:30m}") Duration defaultHardTtl) {
+        this.invalidationBus = invalidationBus;
+        this.defaultSoftTtl = defaultSoftTtl;
+        this.defaultHardTtl = defaultHardTtl;
+    }
+
+    @Override
+    public void putPercentage(String key, BigDecimal percentage) {
+        putPercentage(key, percentage, defaultSoftTtl, defaultHardTtl);
+    }
+
+    @Override
+    public void putPercentage(String key, BigDecimal percentage, Duration softTtl, Duration hardTtl) {
+        entries.put(key, PercentageCacheEntry.of(percentage, softTtl, hardTtl, System.currentTimeMillis()));
+        invalidationBus.publish(key);
+        logger.info("Porcentaje guardado en caché en memoria: {}% con key: {} y hard ttl: {}", percentage, key, hardTtl);
+    }
+
+    @Override
+    public Optional<BigDecimal> getPercentage(String key) {
+        return getPercentageEntry(key).map(CachedPercentage::value);
+    }
+
+    @Override
+    public Optional<CachedPercentage> getPercentageEntry(String key) {
+        PercentageCacheEntry entry = entries.get(key);
+        if (entry == null) {
+            return Optional.empty();
+        }
+        if (entry.isExpired(System.currentTimeMillis())) {
+            entries.remove(key, entry);
+            logger.debug("Entrada de caché expirada para key: {}", key);
+            return Optional.empty();
+        }
+        return Optional.of(entry.toDomain());
+    }
+
+    @Override
+    public void evictPercentage(String key) {
+        entries.remove(key);
+        invalidationBus.publish(key);
+    }
+}
@@ -0,0 +1,27 @@
+package cl.jiraira.infrastructure.adapter.out.cache;
+
+import cl.jiraira.domain.model.CachedPercentage;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.Instant;
+
+/**
+ * Representación almacenada de un porcentaje en caché; las expiraciones van en epoch millis.
+ */
+public record PercentageCacheEntry(BigDecimal value, long softExpiresAtMillis, long hardExpiresAtMillis) {
+
+    public static PercentageCacheEntry of(BigDecimal value, Duration softTtl, Duration hardTtl, long nowMillis) {
+        long hardExpiresAt = nowMillis + hardTtl.toMillis();
+        long softExpiresAt = Math.min(hardExpiresAt, nowMillis + softTtl.toMillis());
+        return new PercentageCacheEntry(value, softExpiresAt, hardExpiresAt);
+    }
+
+    public boolean isExpired(long nowMillis) {
+        return nowMillis >= hardExpiresAtMillis;
+    }
+
+    public CachedPercentage toDomain() {
+        return new CachedPercentage(value, Instant.ofEpochMilli(softExpiresAtMillis), Instant.ofEpochMilli(hardExpiresAtMillis));
+    }
+}
@@ -1,56 +1,59 @@
 package cl.jiraira.infrastructure.adapter.out.cache;
 
+import cl.jiraira.domain.model.CachedPercentage;
 import cl.jiraira.domain.port.out.CachePort;
+import cl.jiraira.infrastructure.adapter.out.cache.invalidation.CacheInvalidationBus;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
-import org.springframework.cache.Cache;
-import org.springframework.cache.CacheManager;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
+import org.springframework.data.redis.core.RedisTemplate;
 import org.springframework.stereotype.Component;
 
 import java.math.BigDecimal;
+import java.time.Duration;
 import java.util.Optional;
 
 /**
- * Adaptador para el manejo de caché Redis
+ * Adaptador para el manejo de caché Redis. Cada entrada se guarda con su propio TTL
+ * ({@code SET ... PX}) y lleva además su expiración blanda para stale-while-revalidate.
  */
 @Component
+@Qualifier("sharedCache")
+@ConditionalOnExpression("'${spring.data.redis.host:}' != ''")
 public class RedisCacheAdapter implements CachePort {
 
     private static final Logger logger = LoggerFactory.getLogger(RedisCacheAdapter.class);
-    private static final String CACHE_NAME = "percentage";
+    private static final String KEY_PREFIX = "percentage:entry:";
 
-    private final CacheManager cacheManager;
+    private final RedisTemplate<String, Object> redisTemplate;
+    private final CacheInvalidationBus invalidationBus;
+    private final Duration defaultSoftTtl;
+    private final Duration defaultHardTtl;
 
-    public RedisCacheAdapter(CacheManager cacheManager) {
-        this.cacheManager = cacheManager;
+    public RedisCacheAdapter(RedisTemplate<String, Object> redisTemplate,
+                             CacheInvalidationBus invalidationBus,
+                             @Value("${external.percentage-service.refresh.soft-ttl:25m}") Duration defaultSoftTtl,
+                             @Value("${external.percentage-service.refresh.hard-ttl:30m}") Duration defaultHardTtl) {
+        this.redisTemplate = redisTemplate;
+        this.invalidationBus = invalidationBus;
+        this.defaultSoftTtl = defaultSoftTtl;
+        this.defaultHardTtl = defaultHardTtl;
     }
 
     @Override
     public void putPercentage(String key, BigDecimal percentage) {
-        try {
-            Cache cache = cacheManager.getCache(CACHE_NAME);
-            if (cache != null) {
-                cache.put(key, percentage.doubleValue());
-                logger.info("Porcentaje guardado en caché: {}% con key: {}", percentage, key);
-            } else {
-                logger.warn("Cache '{}' no está disponible", CACHE_NAME);
-            }
-        } catch (Exception e) {
-            logger.error("Error al guardar porcentaje en caché: {}", e.getMessage(), e);
-        }
+        putPercentage(key, percentage, defaultSoftTtl, defaultHardTtl);
     }
 
     @Override
-    public void putPercentage(String key, BigDecimal percentage, long ttl) {
+    public void putPercentage(String key, BigDecimal percentage, Duration softTtl, Duration hardTtl) {
         try {
-            Cache cache = cacheManager.getCache(CACHE_NAME);
-            if (cache != null) {
-                cache.put(key, percentage.doubleValue());
-                logger.info("Porcentaje guardado en caché: {}% con key: {} y ttl: {}", percentage, key, ttl);
-                // Nota: Spring Cache no maneja TTL por clave directamente. Si necesitas TTL, considera usar RedisTemplate.
-            } else {
-                logger.warn("Cache '{}' no está disponible", CACHE_NAME);
-            }
+            PercentageCacheEntry entry = PercentageCacheEntry.of(percentage, softTtl, hardTtl, System.currentTimeMillis());
+            redisTemplate.opsForValue().set(KEY_PREFIX + key, entry, hardTtl);
+            invalidationBus.publish(key);
+            logger.info("Porcentaje guardado en caché: {}% con key: {}, soft ttl: {} y hard ttl: {}", percentage, key, softTtl, hardTtl);
         } catch (Exception e) {
             logger.error("Error al guardar porcentaje en caché con TTL: {}", e.getMessage(), e);
         }
@@ -58,16 +61,16 @@ public class RedisCacheAdapter implements CachePort {
 
     @Override
     public Optional<BigDecimal> getPercentage(String key) {
+        return getPercentageEntry(key).map(CachedPercentage::value);
+    }
+
+    @Override
+    public Optional<CachedPercentage> getPercentageEntry(String key) {
         try {
-            Cache cache = cacheManager.getCache(CACHE_NAME);
-            if (cache != null) {
-                Cache.ValueWrapper cachedValue = cache.get(key);
-                if (cachedValue != null && cachedValue.get() != null) {
-                    Double percentage = (Double) cachedValue.get();
-                    BigDecimal result = BigDecimal.valueOf(percentage);
-                    logger.info("Porcentaje obtenido del caché: {}% con key: {}", result, key);
-                    return Optional.of(result);
-                }
+            Object cachedValue = redisTemplate.opsForValue().get(KEY_PREFIX + key);
+            if (cachedValue instanceof PercentageCacheEntry entry && !entry.isExpired(System.currentTimeMillis())) {
+                logger.info("Porcentaje obtenido del caché: {}% con key: {}", entry.value(), key);
+                return Optional.of(entry.toDomain());
             }
             logger.info("No se encontró valor en caché para key: {}", key);
             return Optional.empty();
@@ -80,11 +83,9 @@ public class RedisCacheAdapter implements CachePort {
     @Override
     public void evictPercentage(String key) {
         try {
-            Cache cache = cacheManager.getCache(CACHE_NAME);
-            if (cache != null) {
-                cache.evict(key);
-                logger.info("Porcentaje eliminado del caché con key: {}", key);
-            }
+            redisTemplate.delete(KEY_PREFIX + key);
+            invalidationBus.publish(key);
+            logger.info("Porcentaje eliminado del caché con key: {}", key);
         } catch (Exception e) {
             logger.error("Error al eliminar porcentaje del caché: {}", e.getMessage(), e);
         }
@@ -0,0 +1,144 @@
+package cl.jiraira.infrastructure.adapter.out.cache;
+
+import cl.jiraira.domain.model.CachedPercentage;
+import cl.jiraira.domain.port.out.CachePort;
+import cl.jiraira.infrastructure.adapter.out.cache.invalidation.CacheInvalidation;
+import cl.jiraira.infrastructure.adapter.out.cache.invalidation.CacheInvalidationBus;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Caché de dos niveles: un L1 acotado en memoria delante del caché compartido (L2, Redis).
+ * El L1 tiene un TTL más corto que el L2 y además se invalida cuando otra réplica modifica el L2.
+ */
+public class TieredCacheAdapter implements CachePort {
+
+    private static final Logger logger = LoggerFactory.getLogger(TieredCacheAdapter.class);
+    private static final String METRIC_GETS = "percentage.cache.gets";
+
+    private final Cache<String, CachedPercentage> nearCache;
+    private final CachePort sharedCache;
+    private final String nodeId;
+
+    private final Counter l1Hits;
+    private final Counter l1Misses;
+    private final Counter l2Hits;
+    private final Counter l2Misses;
+    private final Counter l1Loads;
+    private final Counter invalidationsReceived;
+    private final Timer invalidationLag;
+
+    public TieredCacheAdapter(CachePort sharedCache,
+                              long maximumSize,
+                              Duration nearCacheTtl,
+                              CacheInvalidationBus invalidationBus,
+                              MeterRegistry meterRegistry) {
+        this.sharedCache = sharedCache;
+        this.nodeId = invalidationBus.nodeId();
+        this.nearCache = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(nearCacheTtl)
+                .build();
+
+        this.l1Hits = gets(meterRegistry, "l1", "hit");
+        this.l1Misses = gets(meterRegistry, "l1", "miss");
+        this.l2Hits = gets(meterRegistry, "l2", "hit");
+        this.l2Misses = gets(meterRegistry, "l2", "miss");
+        this.l1Loads = Counter.builder("percentage.cache.loads")
+                .description("Valores cargados en el L1 desde el caché compartido")
+                .tag("tier", "l1")
+                .register(meterRegistry);
+        Gauge.builder("percentage.cache.size", nearCache, Cache::estimatedSize)
+                .tag("tier", "l1")
+                .register(meterRegistry);
+        this.invalidationsReceived = Counter.builder("percentage.cache.invalidations")
+                .description("Invalidaciones del L1 recibidas desde otras réplicas")
+                .register(meterRegistry);
+        this.invalidationLag = Timer.builder("percentage.cache.invalidation.lag")
+                .description("Tiempo entre la publicación de una invalidación y su aplicación en el L1")
+                .register(meterRegistry);
+
+        invalidationBus.subscribe(this::onInvalidation);
+    }
+
+    @Override
+    public void putPercentage(String key, BigDecimal percentage) {
+        sharedCache.putPercentage(key, percentage);
+        // El TTL por defecto lo define el L2; la próxima lectura cargará la entrada desde ahí
+        nearCache.invalidate(key);
+    }
+
+    @Override
+    public void putPercentage(String key, BigDecimal percentage, Duration softTtl, Duration hardTtl) {
+        sharedCache.putPercentage(key, percentage, softTtl, hardTtl);
+        Instant now = Instant.now();
+        nearCache.put(key, new CachedPercentage(percentage, min(now.plus(softTtl), now.plus(hardTtl)), now.plus(hardTtl)));
+    }
+
+    @Override
+    public Optional<BigDecimal> getPercentage(String key) {
+        return getPercentageEntry(key).map(CachedPercentage::value);
+    }
+
+    @Override
+    public Optional<CachedPercentage> getPercentageEntry(String key) {
+        CachedPercentage nearValue = nearCache.getIfPresent(key);
+        if (nearValue != null && !nearValue.isExpired(Instant.now())) {
+            l1Hits.increment();
+            return Optional.of(nearValue);
+        }
+        l1Misses.increment();
+
+        Optional<CachedPercentage> sharedValue = sharedCache.getPercentageEntry(key);
+        if (sharedValue.isPresent()) {
+            l2Hits.increment();
+            nearCache.put(key, sharedValue.get());
+            l1Loads.increment();
+            logger.debug("Porcentaje cargado en L1 desde el caché compartido con key: {}", key);
+        } else {
+            l2Misses.increment();
+            nearCache.invalidate(key);
+        }
+        return sharedValue;
+    }
+
+    @Override
+    public void evictPercentage(String key) {
+        nearCache.invalidate(key);
+        sharedCache.evictPercentage(key);
+    }
+
+    private void onInvalidation(CacheInvalidation invalidation) {
+        if (nodeId.equals(invalidation.origin())) {
+            return;
+        }
+        nearCache.invalidate(invalidation.key());
+        invalidationsReceived.increment();
+        invalidationLag.record(Math.max(0L, System.currentTimeMillis() - invalidation.publishedAtMillis()), TimeUnit.MILLISECONDS);
+        logger.debug("L1 invalidado por réplica {} para key: {}", invalidation.origin(), invalidation.key());
+    }
+
+    private static Instant min(Instant first, Instant second) {
+        return first.isBefore(second) ? first : second;
+    }
+
+    private static Counter gets(MeterRegistry meterRegistry, String tier, String result) {
+        return Counter.builder(METRIC_GETS)
+                .description("Lecturas del porcentaje en caché por nivel")
+                .tag("tier", tier)
+                .tag("result", result)
+                .register(meterRegistry);
+    }
+}
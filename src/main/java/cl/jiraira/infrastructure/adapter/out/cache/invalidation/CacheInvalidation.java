@@ -0,0 +1,25 @@
+package cl.jiraira.infrastructure.adapter.out.cache.invalidation;
+
+/**
+ * Aviso de que una clave del caché compartido cambió y debe descartarse de los L1 de las demás réplicas.
+ */
+public record CacheInvalidation(String origin, String key, long publishedAtMillis) {
+
+    private static final char SEPARATOR = '|';
+
+    public String encode() {
+        return origin + SEPARATOR + publishedAtMillis + SEPARATOR + key;
+    }
+
+    public static CacheInvalidation decode(String message) {
+        int first = message.indexOf(SEPARATOR);
+        int second = first < 0 ? -1 : message.indexOf(SEPARATOR, first + 1);
+        if (second < 0) {
+            throw new IllegalArgumentException("Mensaje de invalidación inválido: " + message);
+        }
+        return new CacheInvalidation(
+                message.substring(0, first),
+                message.substring(second + 1),
+                Long.parseLong(message.substring(first + 1, second)));
+    }
+}
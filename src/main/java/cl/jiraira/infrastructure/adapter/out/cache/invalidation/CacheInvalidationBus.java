@@ -0,0 +1,22 @@
+package cl.jiraira.infrastructure.adapter.out.cache.invalidation;
+
+import java.util.function.Consumer;
+
+/**
+ * Canal por el que las réplicas se avisan de cambios en el caché compartido.
+ */
+public interface CacheInvalidationBus {
+
+    /**
+     * Identificador de esta réplica; permite ignorar los avisos propios.
+     */
+    String nodeId();
+
+    void publish(CacheInvalidation invalidation);
+
+    void subscribe(Consumer<CacheInvalidation> listener);
+
+    default void publish(String key) {
+        publish(new CacheInvalidation(nodeId(), key, System.currentTimeMillis()));
+    }
+}
@@ -0,0 +1,41 @@
+package cl.jiraira.infrastructure.adapter.out.cache.invalidation;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+
+/**
+ * Bus de invalidación dentro de la JVM, usado cuando el caché compartido es en memoria.
+ */
+public class LocalCacheInvalidationBus implements CacheInvalidationBus {
+
+    private static final Logger logger = LoggerFactory.getLogger(LocalCacheInvalidationBus.class);
+
+    private final String nodeId = UUID.randomUUID().toString();
+    private final List<Consumer<CacheInvalidation>> listeners = new CopyOnWriteArrayList<>();
+
+    @Override
+    public String nodeId() {
+        return nodeId;
+    }
+
+    @Override
+    public void publish(CacheInvalidation invalidation) {
+        for (Consumer<CacheInvalidation> listener : listeners) {
+            try {
+                listener.accept(invalidation);
+            } catch (Exception e) {
+                logger.error("Error al procesar invalidación de caché para key {}: {}", invalidation.key(), e.getMessage(), e);
+            }
+        }
+    }
+
+    @Override
+    public void subscribe(Consumer<CacheInvalidation> listener) {
+        listeners.add(listener);
+    }
+}
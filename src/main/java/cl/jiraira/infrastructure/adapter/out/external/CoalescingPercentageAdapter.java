@@ -0,0 +1,45 @@
+package cl.jiraira.infrastructure.adapter.out.external;
+
+import cl.jiraira.domain.port.out.PercentagePort;
+import cl.jiraira.infrastructure.concurrent.SingleFlight;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+
+import java.math.BigDecimal;
+
+/**
+ * Decorador que garantiza a lo sumo una consulta en curso al servicio de porcentajes por JVM.
+ * Los llamadores concurrentes comparten el resultado (o el error) de la consulta en curso.
+ */
+public class CoalescingPercentageAdapter implements PercentagePort {
+
+    private static final String PERCENTAGE_KEY = "percentage";
+
+    private final PercentagePort delegate;
+    private final SingleFlight<String, BigDecimal> singleFlight = new SingleFlight<>();
+
+    public CoalescingPercentageAdapter(PercentagePort delegate, MeterRegistry meterRegistry) {
+        this.delegate = delegate;
+        FunctionCounter.builder("percentage.fetch", singleFlight, SingleFlight::issuedCount)
+                .description("Consultas al servicio de porcentajes efectivamente emitidas")
+                .tag("outcome", "issued")
+                .register(meterRegistry);
+        FunctionCounter.builder("percentage.fetch", singleFlight, SingleFlight::coalescedCount)
+                .description("Consultas al servicio de porcentajes resueltas por una consulta en curso")
+                .tag("outcome", "coalesced")
+                .register(meterRegistry);
+    }
+
+    @Override
+    public BigDecimal getPercentage() {
+        return singleFlight.execute(PERCENTAGE_KEY, delegate::getPercentage);
+    }
+
+    public long issuedCount() {
+        return singleFlight.issuedCount();
+    }
+
+    public long coalescedCount() {
+        return singleFlight.coalescedCount();
+    }
+}
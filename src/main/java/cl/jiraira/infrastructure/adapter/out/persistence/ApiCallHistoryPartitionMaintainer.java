@@ -0,0 +1,317 @@
+package cl.jiraira.infrastructure.adapter.out.persistence;
+
+import cl.jiraira.domain.port.out.ApiCallArchivePort;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.time.DayOfWeek;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.temporal.TemporalAdjusters;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Supplier;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Mantiene las particiones por rango de {@code timestamp} de {@code api_call_history} en PostgreSQL:
+ * crea por adelantado las de los próximos {@code premake} intervalos y elimina, desacopla o archiva
+ * las que quedaron completas fuera de la retención.
+ * <p>
+ * Las filas que llegaron a la partición DEFAULT (historial heredado, spool reenviado tarde) se mueven
+ * a su partición al crearla. Cada corrida toma un advisory lock para que una sola réplica la ejecute.
+ * Tras eliminar o archivar particiones se borran los cuerpos de {@code api_call_body} que ya nadie
+ * referencia; con DETACH se conservan porque las tablas desacopladas siguen apuntando a ellos.
+ */
+@Component
+public class ApiCallHistoryPartitionMaintainer {
+
+    private static final Logger logger = LoggerFactory.getLogger(ApiCallHistoryPartitionMaintainer.class);
+
+    static final String PARENT_TABLE = "api_call_history";
+    static final String DEFAULT_PARTITION = "api_call_history_default";
+    private static final long ADVISORY_LOCK_KEY = 0x6170695f68697374L;
+    private static final Pattern RANGE_BOUND = Pattern.compile("FROM \\('([^']+)'\\) TO \\('([^']+)'\\)");
+    private static final DateTimeFormatter NAME_SUFFIX = DateTimeFormatter.ofPattern("yyyyMMdd");
+    private static final DateTimeFormatter BOUND_LITERAL = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
+    private static final int ARCHIVE_FETCH_SIZE = 1000;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final JdbcTemplate archiveReader;
+    private final TransactionTemplate transactionTemplate;
+    private final Interval interval;
+    private final int premake;
+    private final Duration retention;
+    private final RetentionMode retentionMode;
+    private final HistoryBodyStore bodyStore;
+    private final ApiCallArchivePort archive;
+    private final Supplier<LocalDateTime> clock;
+
+    private volatile Boolean partitioned;
+
+    @Autowired
+    public ApiCallHistoryPartitionMaintainer(JdbcTemplate jdbcTemplate,
+                                             PlatformTransactionManager transactionManager,
+                                             @Value("${history.partitions.interval:DAY}") Interval interval,
+                                             @Value("${history.partitions.premake:7}") int premake,
+                                             @Value("${history.partitions.retention:90d}") Duration retention,
+                                             @Value("${history.partitions.retention-mode:DROP}") RetentionMode retentionMode,
+                                             HistoryBodyStore bodyStore,
+                                             ObjectProvider<ApiCallArchivePort> archive) {
+        this(jdbcTemplate, transactionManager, interval, premake, retention, retentionMode, bodyStore, archive.getIfAvailable(),
+                LocalDateTime::now);
+    }
+
+    public ApiCallHistoryPartitionMaintainer(JdbcTemplate jdbcTemplate,
+                                             PlatformTransactionManager transactionManager,
+                                             Interval interval,
+                                             int premake,
+                                             Duration retention,
+                                             RetentionMode retentionMode,
+                                             HistoryBodyStore bodyStore,
+                                             ApiCallArchivePort archive,
+                                             Supplier<LocalDateTime> clock) {
+        if (premake < 0) {
+            throw new IllegalArgumentException("La cantidad de particiones a crear por adelantado no puede ser negativa");
+        }
+        if (retention.isNegative()) {
+            throw new IllegalArgumentException("La retención del historial no puede ser negativa");
+        }
+        if (retentionMode == RetentionMode.ARCHIVE && archive == null) {
+            throw new IllegalStateException("La retención ARCHIVE requiere history.archive.enabled=true");
+        }
+        this.jdbcTemplate = jdbcTemplate;
+        this.archiveReader = new JdbcTemplate(jdbcTemplate.getDataSource());
+        this.archiveReader.setFetchSize(ARCHIVE_FETCH_SIZE);
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.interval = interval;
+        this.premake = premake;
+        this.retention = retention;
+        this.retentionMode = retentionMode;
+        this.bodyStore = bodyStore;
+        this.archive = archive;
+        this.clock = clock;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onStartup() {
+        maintain();
+    }
+
+    @Scheduled(cron = "${history.partitions.maintenance-cron:0 5 * * * *}")
+    public void scheduledMaintenance() {
+        maintain();
+    }
+
+    /**
+     * Ejecuta una corrida de mantenimiento. No hace nada si la base no es PostgreSQL o si la tabla no
+     * está particionada (por ejemplo, con H2 en los tests).
+     */
+    public void maintain() {
+        if (!isPartitioned()) {
+            return;
+        }
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                Boolean locked = jdbcTemplate.queryForObject("SELECT pg_try_advisory_xact_lock(?)", Boolean.class, ADVISORY_LOCK_KEY);
+                if (!Boolean.TRUE.equals(locked)) {
+                    logger.debug("Otra instancia está manteniendo las particiones del historial");
+                    return;
+                }
+                LocalDateTime now = clock.get();
+                LocalDateTime cutoff = retention.isZero() ? null : now.minus(retention);
+                List<Partition> partitions = listPartitions();
+                createPartitions(partitions, now, cutoff);
+                if (cutoff != null) {
+                    applyRetention(partitions, cutoff);
+                    if (retentionMode != RetentionMode.DETACH) {
+                        bodyStore.deleteUnusedBefore(cutoff);
+                    }
+                }
+            });
+        } catch (RuntimeException e) {
+            logger.error("No se pudieron mantener las particiones del historial: {}", e.getMessage(), e);
+        }
+    }
+
+    private void createPartitions(List<Partition> partitions, LocalDateTime now, LocalDateTime cutoff) {
+        if (cutoff != null && retentionMode == RetentionMode.DROP) {
+            // Se eliminarían en esta misma corrida; no vale la pena crearles partición
+            int deleted = jdbcTemplate.update("DELETE FROM " + DEFAULT_PARTITION + " WHERE timestamp < ?", Timestamp.valueOf(cutoff));
+            if (deleted > 0) {
+                logger.info("Eliminadas {} llamadas fuera de la retención desde la partición DEFAULT", deleted);
+            }
+        }
+
+        LocalDateTime oldestPending = jdbcTemplate.queryForObject(
+                "SELECT MIN(timestamp) FROM " + DEFAULT_PARTITION, LocalDateTime.class);
+        LocalDateTime start = interval.floor(oldestPending != null && oldestPending.isBefore(now) ? oldestPending : now);
+        LocalDateTime end = interval.floor(now);
+        for (int i = 0; i <= premake; i++) {
+            end = interval.next(end);
+        }
+
+        for (LocalDateTime from = start; from.isBefore(end); from = interval.next(from)) {
+            LocalDateTime to = interval.next(from);
+            if (overlapsAny(partitions, from, to)) {
+                // Ocurre al cambiar el intervalo; el tramo queda en DEFAULT hasta el siguiente límite libre
+                continue;
+            }
+            partitions.add(createPartition(from, to));
+        }
+    }
+
+    private Partition createPartition(LocalDateTime from, LocalDateTime to) {
+        String name = availableName(PARENT_TABLE + "_p" + from.format(NAME_SUFFIX));
+        jdbcTemplate.execute("CREATE TABLE " + name + " (LIKE " + PARENT_TABLE + " INCLUDING DEFAULTS)");
+        // ATTACH falla si DEFAULT tiene filas del rango, así que se mueven antes a la tabla nueva
+        int moved = jdbcTemplate.update("WITH moved AS (DELETE FROM " + DEFAULT_PARTITION
+                        + " WHERE timestamp >= ? AND timestamp < ? RETURNING *) INSERT INTO " + name + " SELECT * FROM moved",
+                Timestamp.valueOf(from), Timestamp.valueOf(to));
+        jdbcTemplate.execute("ALTER TABLE " + PARENT_TABLE + " ATTACH PARTITION " + name
+                + " FOR VALUES FROM ('" + from.format(BOUND_LITERAL) + "') TO ('" + to.format(BOUND_LITERAL) + "')");
+        if (moved > 0) {
+            logger.info("Creada la partición {} [{}, {}) con {} llamadas movidas desde DEFAULT", name, from, to, moved);
+        } else {
+            logger.info("Creada la partición {} [{}, {})", name, from, to);
+        }
+        return new Partition(name, from, to);
+    }
+
+    private void applyRetention(List<Partition> partitions, LocalDateTime cutoff) {
+        for (Partition partition : partitions) {
+            if (partition.to().isAfter(cutoff)) {
+                continue;
+            }
+            if (retentionMode == RetentionMode.DETACH) {
+                jdbcTemplate.execute("ALTER TABLE " + PARENT_TABLE + " DETACH PARTITION " + partition.name());
+                logger.info("Desacoplada la partición {} [{}, {}) por retención", partition.name(), partition.from(), partition.to());
+            } else if (retentionMode == RetentionMode.ARCHIVE) {
+                long archived = archivePartition(partition);
+                jdbcTemplate.execute("DROP TABLE " + partition.name());
+                logger.info("Archivada la partición {} [{}, {}) con {} llamadas", partition.name(), partition.from(), partition.to(), archived);
+            } else {
+                jdbcTemplate.execute("DROP TABLE " + partition.name());
+                logger.info("Eliminada la partición {} [{}, {}) por retención", partition.name(), partition.from(), partition.to());
+            }
+        }
+    }
+
+    /**
+     * Copia la partición a un segmento del archivo frío con el mismo nombre, de modo que repetir el
+     * archivado tras una caída reemplaza el segmento en lugar de duplicarlo. Se publica antes del
+     * DROP: si la transacción falla, las llamadas quedan en ambos lados y las consultas las deduplican.
+     */
+    private long archivePartition(Partition partition) {
+        long[] archived = new long[1];
+        try (ApiCallArchivePort.SegmentWriter writer = archive.openSegment(partition.name())) {
+            archiveReader.query("SELECT " + HistoryQuery.ALL_COLUMNS + " FROM " + partition.name() + " ORDER BY timestamp, id",
+                    (RowCallbackHandler) resultSet -> {
+                        writer.append(JdbcApiCallHistoryExportAdapter.toDomain(resultSet, bodyStore));
+                        archived[0]++;
+                    });
+            writer.commit();
+        }
+        return archived[0];
+    }
+
+    List<Partition> listPartitions() {
+        List<Partition> partitions = new ArrayList<>();
+        jdbcTemplate.query("""
+                SELECT c.relname, pg_get_expr(c.relpartbound, c.oid)
+                FROM pg_inherits i
+                JOIN pg_class c ON c.oid = i.inhrelid
+                WHERE i.inhparent = CAST(? AS regclass)
+                """, resultSet -> {
+            Matcher bound = RANGE_BOUND.matcher(resultSet.getString(2));
+            if (bound.find()) {
+                partitions.add(new Partition(resultSet.getString(1), parseBound(bound.group(1)), parseBound(bound.group(2))));
+            }
+        }, PARENT_TABLE);
+        return partitions;
+    }
+
+    private boolean isPartitioned() {
+        Boolean current = partitioned;
+        if (current == null) {
+            String product = jdbcTemplate.execute((ConnectionCallback<String>) connection ->
+                    connection.getMetaData().getDatabaseProductName());
+            current = "PostgreSQL".equals(product) && Boolean.TRUE.equals(jdbcTemplate.queryForObject(
+                    "SELECT EXISTS (SELECT 1 FROM pg_class WHERE oid = to_regclass(?) AND relkind = 'p')",
+                    Boolean.class, PARENT_TABLE));
+            if (!current) {
+                logger.info("{} no es una tabla particionada; se omite el mantenimiento de particiones", PARENT_TABLE);
+            }
+            partitioned = current;
+        }
+        return current;
+    }
+
+    /**
+     * Una tabla desacoplada conserva su nombre; si llegan filas tardías a ese rango la partición nueva
+     * necesita otro.
+     */
+    private String availableName(String base) {
+        String name = base;
+        for (int suffix = 1; jdbcTemplate.queryForObject("SELECT to_regclass(?) IS NOT NULL", Boolean.class, name); suffix++) {
+            name = base + "_" + suffix;
+        }
+        return name;
+    }
+
+    private static boolean overlapsAny(List<Partition> partitions, LocalDateTime from, LocalDateTime to) {
+        for (Partition partition : partitions) {
+            if (partition.from().isBefore(to) && from.isBefore(partition.to())) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static LocalDateTime parseBound(String literal) {
+        return LocalDateTime.parse(literal.replace(' ', 'T'));
+    }
+
+    record Partition(String name, LocalDateTime from, LocalDateTime to) {
+    }
+
+    /**
+     * Tamaño de cada partición. Las semanas comienzan el lunes.
+     */
+    public enum Interval {
+        DAY, WEEK;
+
+        LocalDateTime floor(LocalDateTime timestamp) {
+            LocalDateTime day = timestamp.toLocalDate().atStartOfDay();
+            return this == DAY ? day : day.with(TemporalAdjusters.previousOrSame(DayOfWeek.MONDAY));
+        }
+
+        LocalDateTime next(LocalDateTime start) {
+            return this == DAY ? start.plusDays(1) : start.plusWeeks(1);
+        }
+    }
+
+    /**
+     * {@code DROP} elimina las particiones vencidas; {@code DETACH} las deja como tablas sueltas
+     * para archivarlas fuera de la aplicación; {@code ARCHIVE} las mueve al archivo frío, donde
+     * siguen disponibles para las consultas.
+     */
+    public enum RetentionMode {
+        DROP, DETACH, ARCHIVE
+    }
+}
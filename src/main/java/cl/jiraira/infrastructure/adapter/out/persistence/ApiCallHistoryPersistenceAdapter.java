@@ -1,16 +1,26 @@
 package cl.jiraira.infrastructure.adapter.out.persistence;
 
 import cl.jiraira.domain.model.ApiCall;
+import cl.jiraira.domain.model.ApiCallSummary;
+import cl.jiraira.domain.model.HistoryCursor;
+import cl.jiraira.domain.model.HistoryFilter;
+import cl.jiraira.domain.model.HistorySlice;
 import cl.jiraira.domain.port.out.ApiCallHistoryPort;
+import cl.jiraira.infrastructure.adapter.out.persistence.HistoryBodyStore.StoredBodies;
 import cl.jiraira.infrastructure.adapter.out.persistence.entity.ApiCallHistory;
-import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
 import org.springframework.stereotype.Component;
 
+import javax.sql.DataSource;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.List;
-import java.util.stream.Collectors;
+import java.util.Optional;
 
 /**
  * Adaptador de persistencia para el historial de API calls
@@ -18,34 +28,95 @@ import java.util.stream.Collectors;
 @Component
 public class ApiCallHistoryPersistenceAdapter implements ApiCallHistoryPort {
 
+    private static final RowMapper<ApiCallSummary> SUMMARY_MAPPER = (resultSet, rowNum) -> {
+        Timestamp timestamp = resultSet.getTimestamp(2);
+        int status = resultSet.getInt(5);
+        Integer responseStatus = resultSet.wasNull() ? null : status;
+        long executionTime = resultSet.getLong(6);
+        Long executionTimeMs = resultSet.wasNull() ? null : executionTime;
+        return new ApiCallSummary(resultSet.getLong(1), timestamp.toLocalDateTime(), resultSet.getString(3),
+                resultSet.getString(4), responseStatus, executionTimeMs);
+    };
+
     private final ApiCallHistoryRepository repository;
+    private final JdbcTemplate jdbcTemplate;
+    private final HistoryBodyStore bodyStore;
 
-    public ApiCallHistoryPersistenceAdapter(ApiCallHistoryRepository repository) {
+    public ApiCallHistoryPersistenceAdapter(ApiCallHistoryRepository repository, DataSource dataSource,
+                                            HistoryBodyStore bodyStore) {
         this.repository = repository;
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+        this.bodyStore = bodyStore;
     }
 
     @Override
     public void save(ApiCall apiCall) {
+        saveAll(List.of(apiCall));
+    }
+
+    @Override
+    public void saveAll(List<ApiCall> apiCalls) {
+        List<StoredBodies> bodies = bodyStore.storeAll(apiCalls);
+        List<ApiCallHistory> entities = new ArrayList<>(apiCalls.size());
+        for (int i = 0; i < apiCalls.size(); i++) {
+            entities.add(toEntity(apiCalls.get(i), bodies.get(i)));
+        }
+        repository.saveAll(entities);
+    }
+
+    private ApiCallHistory toEntity(ApiCall apiCall, StoredBodies bodies) {
         ApiCallHistory entity = new ApiCallHistory();
         entity.setEndpoint(apiCall.endpoint());
         entity.setMethod(apiCall.method());
-        entity.setRequestBody(apiCall.requestBody());
-        entity.setResponseBody(apiCall.responseBody());
+        entity.setRequestBody(bodies.request().inline());
+        entity.setRequestBodyHash(bodies.request().hash());
+        entity.setResponseBody(bodies.response().inline());
+        entity.setResponseBodyHash(bodies.response().hash());
         entity.setResponseStatus(apiCall.responseStatus());
         entity.setTimestamp(apiCall.timestamp());
         entity.setExecutionTimeMs(apiCall.executionTimeMs());
+        return entity;
+    }
 
-        repository.save(entity);
+    @Override
+    public List<ApiCallSummary> findHistory(int page, int size) {
+        Pageable pageable = PageRequest.of(page, size, Sort.by("timestamp").descending().and(Sort.by("id").descending()));
+        return repository.findSummaries(pageable).getContent();
     }
 
     @Override
-    public List<ApiCall> findHistory(int page, int size) {
-        Pageable pageable = PageRequest.of(page, size, Sort.by("timestamp").descending());
-        Page<ApiCallHistory> historyPage = repository.findAll(pageable);
+    public HistorySlice findHistory(HistoryFilter filter, HistoryCursor cursor, int size) {
+        // Se pide un registro extra solo para saber si existe una página siguiente
+        List<ApiCallSummary> rows;
+        if (filter.isEmpty()) {
+            Pageable limit = PageRequest.ofSize(size + 1);
+            rows = cursor == null
+                    ? repository.findLatest(limit)
+                    : repository.findBefore(cursor.timestamp(), cursor.id(), limit);
+        } else {
+            HistoryQuery query = HistoryQuery.select(HistoryQuery.SUMMARY_COLUMNS)
+                    .where(filter)
+                    .before(cursor)
+                    .orderBy("timestamp DESC, id DESC")
+                    .limit(size + 1);
+            rows = jdbcTemplate.query(query.sql(), SUMMARY_MAPPER, query.args());
+        }
+
+        if (rows.size() <= size) {
+            return new HistorySlice(rows, null);
+        }
+        List<ApiCallSummary> items = rows.subList(0, size);
+        return new HistorySlice(List.copyOf(items), HistoryCursor.after(items.get(size - 1)));
+    }
 
-        return historyPage.getContent().stream()
-                .map(this::toDomain)
-                .collect(Collectors.toList());
+    @Override
+    public Optional<ApiCall> findById(long id) {
+        return repository.findById(id).map(this::toDomain);
+    }
+
+    @Override
+    public Optional<ApiCall> findById(long id, LocalDateTime timestamp) {
+        return repository.findByIdAndTimestamp(id, timestamp).map(this::toDomain);
     }
 
     private ApiCall toDomain(ApiCallHistory entity) {
@@ -53,8 +124,8 @@ public class ApiCallHistoryPersistenceAdapter implements ApiCallHistoryPort {
                 entity.getId(),
                 entity.getEndpoint(),
                 entity.getMethod(),
-                entity.getRequestBody(),
-                entity.getResponseBody(),
+                bodyStore.resolve(entity.getRequestBody(), entity.getRequestBodyHash()),
+                bodyStore.resolve(entity.getResponseBody(), entity.getResponseBodyHash()),
                 entity.getResponseStatus(),
                 entity.getTimestamp(),
                 entity.getExecutionTimeMs()
@@ -1,11 +1,18 @@
 package cl.jiraira.infrastructure.adapter.out.persistence;
 
+import cl.jiraira.domain.model.ApiCallSummary;
 import cl.jiraira.infrastructure.adapter.out.persistence.entity.ApiCallHistory;
-import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
 /**
  * Repository para el manejo de persistencia del historial de API calls
  */
@@ -13,7 +20,33 @@ import org.springframework.stereotype.Repository;
 public interface ApiCallHistoryRepository extends JpaRepository<ApiCallHistory, Long> {
 
     /**
-     * Encuentra el historial paginado ordenado por timestamp
+     * Resumen del historial paginado por offset. Retorna un {@link Slice} para no ejecutar el
+     * {@code count(*)} que requiere un {@code Page}.
+     */
+    @Query("select new cl.jiraira.domain.model.ApiCallSummary(h.id, h.timestamp, h.endpoint, h.method, h.responseStatus, h.executionTimeMs) "
+            + "from ApiCallHistory h")
+    Slice<ApiCallSummary> findSummaries(Pageable pageable);
+
+    /**
+     * Resumen de los registros más recientes, recorriendo el índice de listado desde el inicio.
+     * Solo se leen columnas incluidas en el índice, sin tocar los cuerpos TEXT.
+     */
+    @Query("select new cl.jiraira.domain.model.ApiCallSummary(h.id, h.timestamp, h.endpoint, h.method, h.responseStatus, h.executionTimeMs) "
+            + "from ApiCallHistory h order by h.timestamp desc, h.id desc")
+    List<ApiCallSummary> findLatest(Pageable limit);
+
+    /**
+     * Resumen de los registros estrictamente anteriores a {@code (timestamp, id)}. La condición
+     * {@code timestamp <= :timestamp} permite posicionarse en el índice sin leer las filas ya vistas.
+     */
+    @Query("select new cl.jiraira.domain.model.ApiCallSummary(h.id, h.timestamp, h.endpoint, h.method, h.responseStatus, h.executionTimeMs) "
+            + "from ApiCallHistory h "
+            + "where h.timestamp <= :timestamp and (h.timestamp < :timestamp or h.id < :id) "
+            + "order by h.timestamp desc, h.id desc")
+    List<ApiCallSummary> findBefore(@Param("timestamp") LocalDateTime timestamp, @Param("id") long id, Pageable limit);
+
+    /**
+     * Búsqueda por la clave primaria completa; con la tabla particionada toca una sola partición.
      */
-    Page<ApiCallHistory> findAll(Pageable pageable);
+    Optional<ApiCallHistory> findByIdAndTimestamp(long id, LocalDateTime timestamp);
 }
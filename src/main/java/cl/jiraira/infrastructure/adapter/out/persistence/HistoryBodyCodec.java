@@ -0,0 +1,119 @@
+package cl.jiraira.infrastructure.adapter.out.persistence;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+/**
+ * Formato de los cuerpos guardados en {@code api_call_body}: un byte con la codificación seguido del
+ * contenido. Se usa deflate con un diccionario de los fragmentos JSON que más se repiten en la API,
+ * que es lo que permite comprimir payloads de pocas decenas de bytes; si comprimido no es más chico
+ * se guarda tal cual. El diccionario es parte del formato: cambiarlo requiere otra codificación.
+ */
+final class HistoryBodyCodec {
+
+    static final byte RAW = 0;
+    static final byte DEFLATE_JSON_V1 = 1;
+
+    static final int HASH_BYTES = 16;
+
+    // Los fragmentos más frecuentes van al final: deflate los alcanza con distancias más cortas
+    private static final byte[] DICTIONARY = ("{\"timestamp\":\"\",\"status\":,\"error\":\"\",\"message\":\"\",\"path\":\"/api/v1/"
+            + "Too Many Requests\",\"Bad Request\",\"Internal Server Error\",\"Not Found\","
+            + "[{\"id\":,\"endpoint\":\"/api/v1/history\",\"method\":\"GET\",\"statusCode\":200,\"timestamp\":\"2025-"
+            + "T00:00:00\",\"executionTimeMs\":},\"parameters\":\"\",\"response\":\"page=0&size=10"
+            + "\"details\":\"\",\"result\":,\"percentage\":10.0,"
+            + "{\"endpoint\":\"/api/v1/calculations/calculate\",\"method\":\"POST\",\"statusCode\":200,"
+            + "{\"num1\":,\"num2\":}").getBytes(StandardCharsets.UTF_8);
+
+    private HistoryBodyCodec() {
+    }
+
+    static byte[] encode(byte[] utf8) {
+        Deflater deflater = new Deflater(Deflater.BEST_SPEED);
+        try {
+            deflater.setDictionary(DICTIONARY);
+            deflater.setInput(utf8);
+            deflater.finish();
+            // Solo sirve si queda más chico que el original
+            byte[] out = new byte[1 + utf8.length];
+            out[0] = DEFLATE_JSON_V1;
+            int length = 1;
+            while (!deflater.finished() && length < out.length) {
+                length += deflater.deflate(out, length, out.length - length);
+            }
+            if (deflater.finished() && length < out.length) {
+                return Arrays.copyOf(out, length);
+            }
+        } finally {
+            deflater.end();
+        }
+        byte[] raw = new byte[1 + utf8.length];
+        raw[0] = RAW;
+        System.arraycopy(utf8, 0, raw, 1, utf8.length);
+        return raw;
+    }
+
+    static String decode(byte[] content) {
+        return switch (content[0]) {
+            case RAW -> new String(content, 1, content.length - 1, StandardCharsets.UTF_8);
+            case DEFLATE_JSON_V1 -> inflate(content);
+            default -> throw new IllegalStateException("Codificación de cuerpo desconocida: " + content[0]);
+        };
+    }
+
+    /**
+     * Primeros {@value #HASH_BYTES} bytes del SHA-256 del cuerpo en UTF-8.
+     */
+    static byte[] hash(byte[] utf8) {
+        try {
+            return Arrays.copyOf(MessageDigest.getInstance("SHA-256").digest(utf8), HASH_BYTES);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 no disponible", e);
+        }
+    }
+
+    private static String inflate(byte[] content) {
+        Inflater inflater = new Inflater();
+        try {
+            inflater.setInput(content, 1, content.length - 1);
+            ByteArrayOutputStream out = new ByteArrayOutputStream(content.length * 4);
+            byte[] chunk = new byte[Math.max(256, content.length * 4)];
+            while (!inflater.finished()) {
+                int inflated = inflater.inflate(chunk);
+                if (inflated == 0 && inflater.needsDictionary()) {
+                    inflater.setDictionary(DICTIONARY);
+                } else if (inflated == 0 && inflater.needsInput()) {
+                    throw new IllegalStateException("Cuerpo comprimido incompleto");
+                }
+                out.write(chunk, 0, inflated);
+            }
+            return out.toString(StandardCharsets.UTF_8);
+        } catch (DataFormatException e) {
+            throw new IllegalStateException("Cuerpo comprimido dañado", e);
+        } finally {
+            inflater.end();
+        }
+    }
+
+    /**
+     * Hash como clave de mapas y caches, sin copiar el arreglo.
+     */
+    record BodyHash(long high, long low) {
+
+        static BodyHash of(byte[] hash) {
+            ByteBuffer buffer = ByteBuffer.wrap(hash);
+            return new BodyHash(buffer.getLong(), buffer.getLong());
+        }
+
+        byte[] bytes() {
+            return ByteBuffer.allocate(HASH_BYTES).putLong(high).putLong(low).array();
+        }
+    }
+}
@@ -0,0 +1,279 @@
+package cl.jiraira.infrastructure.adapter.out.persistence;
+
+import cl.jiraira.domain.model.ApiCall;
+import cl.jiraira.infrastructure.adapter.out.persistence.HistoryBodyCodec.BodyHash;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+import java.nio.charset.StandardCharsets;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Cuerpos del historial direccionados por contenido: con {@code history.bodies.storage=CONTENT_ADDRESSED}
+ * cada cuerpo distinto se guarda una sola vez, comprimido, en {@code api_call_body} y la fila del
+ * historial solo lleva su hash. Los cuerpos más cortos que {@code inline-threshold} siguen en la fila,
+ * porque el hash ocuparía más que ellos. La lectura es transparente para ambos formatos, así que las
+ * filas escritas antes de cambiar de modo se siguen leyendo igual.
+ * <p>
+ * Cada blob guarda {@code last_used}, el timestamp de las filas que lo referencian con una resolución
+ * de {@link #TOUCH_INTERVAL}: la base solo lo actualiza cuando queda más atrasado que eso, y en memoria
+ * se recuerda el último timestamp escrito por hash para no volver a la base dentro de ese intervalo.
+ * Así ninguna fila tiene un timestamp posterior a {@code last_used + 2 * TOUCH_INTERVAL}, que es el
+ * margen que usa {@link #deleteUnusedBefore}.
+ */
+@Component
+public class HistoryBodyStore {
+
+    private static final Logger logger = LoggerFactory.getLogger(HistoryBodyStore.class);
+
+    public enum Storage {INLINE, CONTENT_ADDRESSED}
+
+    /**
+     * Frecuencia con que se actualiza {@code last_used} de un blob que se sigue usando.
+     */
+    static final Duration TOUCH_INTERVAL = Duration.ofDays(1);
+    private static final long DECODED_CACHE_CHARS = 4L * 1024 * 1024;
+
+    private static final String POSTGRES_UPSERT = "INSERT INTO api_call_body (hash, content, last_used) VALUES (?, ?, ?) "
+            + "ON CONFLICT (hash) DO UPDATE SET last_used = EXCLUDED.last_used "
+            + "WHERE api_call_body.last_used < EXCLUDED.last_used - INTERVAL '" + TOUCH_INTERVAL.toDays() + " day'";
+    private static final String MERGE_UPSERT = "MERGE INTO api_call_body b USING (VALUES (CAST(? AS VARBINARY(16)), "
+            + "CAST(? AS BLOB), CAST(? AS TIMESTAMP(6)))) AS s (hash, content, last_used) ON b.hash = s.hash "
+            + "WHEN MATCHED AND b.last_used < s.last_used - INTERVAL '" + TOUCH_INTERVAL.toDays() + "' DAY "
+            + "THEN UPDATE SET last_used = s.last_used "
+            + "WHEN NOT MATCHED THEN INSERT (hash, content, last_used) VALUES (s.hash, s.content, s.last_used)";
+
+    /**
+     * Cuerpo listo para la fila del historial: el texto si va en la fila o el hash si va en {@code api_call_body}.
+     */
+    public record StoredBody(String inline, byte[] hash) {
+
+        static final StoredBody NONE = new StoredBody(null, null);
+    }
+
+    public record StoredBodies(StoredBody request, StoredBody response) {
+    }
+
+    private final JdbcTemplate jdbcTemplate;
+    private final Storage storage;
+    private final int inlineThreshold;
+    private final String upsertSql;
+    private final Cache<BodyHash, LocalDateTime> written;
+    private final Cache<BodyHash, String> decoded;
+    private final LongAdder rawBytes = new LongAdder();
+    private final LongAdder writtenBytes = new LongAdder();
+    private final LongAdder deduplicated = new LongAdder();
+
+    @Autowired
+    public HistoryBodyStore(DataSource dataSource,
+                            @Value("${history.bodies.storage:INLINE}") Storage storage,
+                            @Value("${history.bodies.inline-threshold:32}") int inlineThreshold,
+                            @Value("${history.bodies.cache-size:10000}") long cacheSize,
+                            ObjectProvider<MeterRegistry> meterRegistry) {
+        this(dataSource, storage, inlineThreshold, cacheSize, meterRegistry.getIfAvailable(SimpleMeterRegistry::new));
+    }
+
+    public HistoryBodyStore(DataSource dataSource, Storage storage, int inlineThreshold, long cacheSize,
+                            MeterRegistry meterRegistry) {
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+        this.storage = storage;
+        this.inlineThreshold = inlineThreshold;
+        String product = jdbcTemplate.execute((ConnectionCallback<String>) connection ->
+                connection.getMetaData().getDatabaseProductName());
+        this.upsertSql = "PostgreSQL".equals(product) ? POSTGRES_UPSERT : MERGE_UPSERT;
+        this.written = Caffeine.newBuilder()
+                .maximumSize(cacheSize)
+                .build();
+        this.decoded = Caffeine.newBuilder()
+                .maximumWeight(DECODED_CACHE_CHARS)
+                .weigher((BodyHash key, String body) -> body.length())
+                .build();
+
+        FunctionCounter.builder("api.history.bodies.raw", rawBytes, LongAdder::sum)
+                .description("Bytes de cuerpos del historial guardados por hash, antes de deduplicar y comprimir")
+                .baseUnit("bytes")
+                .register(meterRegistry);
+        FunctionCounter.builder("api.history.bodies.written", writtenBytes, LongAdder::sum)
+                .description("Bytes comprimidos de cuerpos nuevos enviados a api_call_body")
+                .baseUnit("bytes")
+                .register(meterRegistry);
+        FunctionCounter.builder("api.history.bodies.deduplicated", deduplicated, LongAdder::sum)
+                .description("Cuerpos que ya estaban guardados y no se volvieron a escribir")
+                .register(meterRegistry);
+        if (storage == Storage.CONTENT_ADDRESSED) {
+            logger.info("Cuerpos del historial direccionados por contenido (en la fila si miden menos de {} bytes)", inlineThreshold);
+        }
+    }
+
+    public Storage storage() {
+        return storage;
+    }
+
+    /**
+     * Prepara los cuerpos de un lote y escribe en {@code api_call_body} los que aún no están. Se
+     * llama antes de insertar las filas, así ninguna queda con un hash sin su blob.
+     */
+    public List<StoredBodies> storeAll(List<ApiCall> apiCalls) {
+        List<StoredBodies> stored = new ArrayList<>(apiCalls.size());
+        if (storage == Storage.INLINE) {
+            for (ApiCall apiCall : apiCalls) {
+                stored.add(new StoredBodies(inline(apiCall.requestBody()), inline(apiCall.responseBody())));
+            }
+            return stored;
+        }
+
+        Map<BodyHash, PendingBlob> pending = new HashMap<>();
+        for (ApiCall apiCall : apiCalls) {
+            LocalDateTime usedAt = apiCall.timestamp() != null ? apiCall.timestamp() : LocalDateTime.now();
+            stored.add(new StoredBodies(reference(apiCall.requestBody(), usedAt, pending),
+                    reference(apiCall.responseBody(), usedAt, pending)));
+        }
+        if (!pending.isEmpty()) {
+            write(pending);
+        }
+        return stored;
+    }
+
+    /**
+     * Texto de un cuerpo leído de la fila: el propio texto o, si la fila tiene hash, el blob
+     * descomprimido. Los blobs repetidos se descomprimen una sola vez.
+     */
+    public String resolve(String inline, byte[] hash) {
+        if (hash == null) {
+            return inline;
+        }
+        return decoded.get(BodyHash.of(hash), this::load);
+    }
+
+    /**
+     * Elimina los blobs que ninguna fila con timestamp desde {@code cutoff} puede referenciar.
+     */
+    public int deleteUnusedBefore(LocalDateTime cutoff) {
+        LocalDateTime threshold = cutoff.minus(TOUCH_INTERVAL.multipliedBy(2));
+        int deleted = jdbcTemplate.update("DELETE FROM api_call_body WHERE last_used < ?", Timestamp.valueOf(threshold));
+        if (deleted > 0) {
+            logger.info("Eliminados {} cuerpos del historial sin uso desde {}", deleted, threshold);
+        }
+        return deleted;
+    }
+
+    private StoredBody reference(String body, LocalDateTime usedAt, Map<BodyHash, PendingBlob> pending) {
+        if (body == null) {
+            return StoredBody.NONE;
+        }
+        byte[] utf8 = body.getBytes(StandardCharsets.UTF_8);
+        if (utf8.length < inlineThreshold) {
+            return new StoredBody(body, null);
+        }
+        rawBytes.add(utf8.length);
+        byte[] hash = HistoryBodyCodec.hash(utf8);
+        BodyHash key = BodyHash.of(hash);
+        PendingBlob blob = pending.get(key);
+        LocalDateTime lastWritten;
+        if (blob != null) {
+            blob.touch(usedAt);
+            deduplicated.increment();
+        } else if ((lastWritten = written.getIfPresent(key)) != null && !usedAt.isAfter(lastWritten.plus(TOUCH_INTERVAL))) {
+            deduplicated.increment();
+        } else {
+            pending.put(key, new PendingBlob(hash, utf8, usedAt));
+        }
+        return new StoredBody(null, hash);
+    }
+
+    private void write(Map<BodyHash, PendingBlob> pending) {
+        // Orden fijo de hashes: dos réplicas que escriben los mismos blobs no se bloquean mutuamente
+        List<PendingBlob> blobs = new ArrayList<>(pending.values());
+        blobs.sort(Comparator.comparing(PendingBlob::hash, Arrays::compareUnsigned));
+        List<Object[]> rows = new ArrayList<>(blobs.size());
+        for (PendingBlob blob : blobs) {
+            byte[] content = HistoryBodyCodec.encode(blob.utf8());
+            writtenBytes.add(content.length);
+            rows.add(new Object[]{blob.hash(), content, Timestamp.valueOf(blob.lastUsed())});
+        }
+        jdbcTemplate.batchUpdate(upsertSql, rows);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            // Dentro de una transacción los blobs existen solo si confirma: tras un rollback deben volver a escribirse
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    remember(pending);
+                }
+            });
+        } else {
+            remember(pending);
+        }
+    }
+
+    private void remember(Map<BodyHash, PendingBlob> pending) {
+        pending.forEach((key, blob) -> written.asMap().merge(key, blob.lastUsed(),
+                (previous, current) -> current.isAfter(previous) ? current : previous));
+    }
+
+    private String load(BodyHash key) {
+        List<byte[]> content = jdbcTemplate.query("SELECT content FROM api_call_body WHERE hash = ?",
+                (resultSet, rowNum) -> resultSet.getBytes(1), (Object) key.bytes());
+        if (content.isEmpty()) {
+            throw new IllegalStateException("No existe el cuerpo del historial referenciado");
+        }
+        return HistoryBodyCodec.decode(content.get(0));
+    }
+
+    private static StoredBody inline(String body) {
+        return body == null ? StoredBody.NONE : new StoredBody(body, null);
+    }
+
+    private static final class PendingBlob {
+
+        private final byte[] hash;
+        private final byte[] utf8;
+        private LocalDateTime lastUsed;
+
+        private PendingBlob(byte[] hash, byte[] utf8, LocalDateTime lastUsed) {
+            this.hash = hash;
+            this.utf8 = utf8;
+            this.lastUsed = lastUsed;
+        }
+
+        byte[] hash() {
+            return hash;
+        }
+
+        byte[] utf8() {
+            return utf8;
+        }
+
+        LocalDateTime lastUsed() {
+            return lastUsed;
+        }
+
+        void touch(LocalDateTime usedAt) {
+            if (usedAt.isAfter(lastUsed)) {
+                lastUsed = usedAt;
+            }
+        }
+    }
+}
@@ -0,0 +1,99 @@
+package cl.jiraira.infrastructure.adapter.out.persistence;
+
+import cl.jiraira.domain.model.HistoryCursor;
+import cl.jiraira.domain.model.HistoryFilter;
+
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Arma el SQL sobre {@code api_call_history} con solo los predicados que el filtro necesita, para que
+ * el planificador pueda elegir el índice que corresponde a cada combinación (por ejemplo, el índice
+ * parcial de errores cuando se pide la clase 5xx).
+ */
+final class HistoryQuery {
+
+    static final String SUMMARY_COLUMNS = "id, timestamp, endpoint, method, response_status, execution_time_ms";
+    static final String ALL_COLUMNS = "id, timestamp, endpoint, method, request_body, response_body, "
+            + "response_status, execution_time_ms, request_body_hash, response_body_hash";
+
+    private final StringBuilder sql;
+    private final List<Object> args = new ArrayList<>(8);
+    private String separator = " WHERE ";
+
+    private HistoryQuery(String columns) {
+        this.sql = new StringBuilder(256).append("SELECT ").append(columns).append(" FROM api_call_history");
+    }
+
+    static HistoryQuery select(String columns) {
+        return new HistoryQuery(columns);
+    }
+
+    HistoryQuery where(HistoryFilter filter) {
+        if (filter.from() != null) {
+            predicate("timestamp >= ?", Timestamp.valueOf(filter.from()));
+        }
+        if (filter.to() != null) {
+            predicate("timestamp < ?", Timestamp.valueOf(filter.to()));
+        }
+        if (filter.endpoint() != null) {
+            predicate("endpoint = ?", filter.endpoint());
+        }
+        if (filter.method() != null) {
+            predicate("method = ?", filter.method());
+        }
+        if (filter.status() != null) {
+            predicate("response_status = ?", filter.status());
+        }
+        if (filter.statusClass() != null) {
+            // Rango cerrado y no división: así el predicado implica el del índice parcial (>= 500)
+            predicate("response_status >= ?", filter.statusClass() * 100);
+            predicate("response_status < ?", (filter.statusClass() + 1) * 100);
+        }
+        if (filter.minExecutionTimeMs() != null) {
+            predicate("execution_time_ms >= ?", filter.minExecutionTimeMs());
+        }
+        return this;
+    }
+
+    /**
+     * Posiciona la consulta después del cursor en orden {@code (timestamp, id)} descendente.
+     */
+    HistoryQuery before(HistoryCursor cursor) {
+        if (cursor != null) {
+            Timestamp timestamp = Timestamp.valueOf(cursor.timestamp());
+            sql.append(separator).append("timestamp <= ? AND (timestamp < ? OR id < ?)");
+            args.add(timestamp);
+            args.add(timestamp);
+            args.add(cursor.id());
+            separator = " AND ";
+        }
+        return this;
+    }
+
+    HistoryQuery orderBy(String order) {
+        sql.append(" ORDER BY ").append(order);
+        return this;
+    }
+
+    HistoryQuery limit(int limit) {
+        sql.append(" LIMIT ?");
+        args.add(limit);
+        return this;
+    }
+
+    String sql() {
+        return sql.toString();
+    }
+
+    Object[] args() {
+        return args.toArray();
+    }
+
+    private void predicate(String condition, Object value) {
+        sql.append(separator).append(condition);
+        args.add(value);
+        separator = " AND ";
+    }
+}
@@ -0,0 +1,80 @@
+package cl.jiraira.infrastructure.adapter.out.persistence;
+
+import cl.jiraira.domain.model.ApiCall;
+import cl.jiraira.domain.model.HistoryFilter;
+import cl.jiraira.domain.port.out.ApiCallHistoryExportPort;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.util.function.Consumer;
+
+/**
+ * Exporta el historial con un cursor JDBC de solo avance. PostgreSQL solo respeta el fetch size
+ * dentro de una transacción, por eso la consulta corre en una transacción de solo lectura: así el
+ * driver trae {@code fetchSize} filas por viaje en lugar del resultado completo. Los cuerpos guardados
+ * por hash se resuelven con el {@link HistoryBodyStore}, que descomprime una sola vez los repetidos.
+ */
+@Component
+public class JdbcApiCallHistoryExportAdapter implements ApiCallHistoryExportPort {
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final HistoryBodyStore bodyStore;
+
+    public JdbcApiCallHistoryExportAdapter(DataSource dataSource,
+                                           PlatformTransactionManager transactionManager,
+                                           HistoryBodyStore bodyStore,
+                                           @Value("${history.export.fetch-size:1000}") int fetchSize) {
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+        this.jdbcTemplate.setFetchSize(fetchSize);
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setReadOnly(true);
+        this.bodyStore = bodyStore;
+    }
+
+    @Override
+    public long export(HistoryFilter filter, Consumer<ApiCall> sink) {
+        HistoryQuery query = HistoryQuery.select(HistoryQuery.ALL_COLUMNS)
+                .where(filter)
+                .orderBy("timestamp, id");
+
+        Long exported = transactionTemplate.execute(status -> {
+            long[] count = new long[1];
+            jdbcTemplate.query(query.sql(), (RowCallbackHandler) resultSet -> {
+                sink.accept(toDomain(resultSet, bodyStore));
+                count[0]++;
+            }, query.args());
+            return count[0];
+        });
+        return exported == null ? 0L : exported;
+    }
+
+    /**
+     * Convierte una fila con {@link HistoryQuery#ALL_COLUMNS}.
+     */
+    static ApiCall toDomain(ResultSet resultSet, HistoryBodyStore bodyStore) throws SQLException {
+        Timestamp timestamp = resultSet.getTimestamp(2);
+        int status = resultSet.getInt(7);
+        Integer responseStatus = resultSet.wasNull() ? null : status;
+        long executionTime = resultSet.getLong(8);
+        Long executionTimeMs = resultSet.wasNull() ? null : executionTime;
+        return new ApiCall(
+                resultSet.getLong(1),
+                resultSet.getString(3),
+                resultSet.getString(4),
+                bodyStore.resolve(resultSet.getString(5), resultSet.getBytes(9)),
+                bodyStore.resolve(resultSet.getString(6), resultSet.getBytes(10)),
+                responseStatus,
+                timestamp == null ? null : timestamp.toLocalDateTime(),
+                executionTimeMs
+        );
+    }
+}
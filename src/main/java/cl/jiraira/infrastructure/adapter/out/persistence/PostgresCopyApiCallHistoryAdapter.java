@@ -0,0 +1,192 @@
+package cl.jiraira.infrastructure.adapter.out.persistence;
+
+import cl.jiraira.domain.model.ApiCall;
+import cl.jiraira.domain.model.ApiCallSummary;
+import cl.jiraira.domain.model.HistoryCursor;
+import cl.jiraira.domain.model.HistoryFilter;
+import cl.jiraira.domain.model.HistorySlice;
+import cl.jiraira.domain.port.out.ApiCallHistoryPort;
+import cl.jiraira.infrastructure.adapter.out.persistence.HistoryBodyStore.StoredBodies;
+import cl.jiraira.infrastructure.adapter.out.persistence.entity.ApiCallHistory;
+import org.postgresql.PGConnection;
+import org.postgresql.copy.CopyIn;
+import org.springframework.dao.DataAccessResourceFailureException;
+
+import javax.sql.DataSource;
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.LocalDateTime;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Ingesta masiva del historial con {@code COPY ... FROM STDIN} de PostgreSQL. Los ids se reservan en
+ * bloques de la misma secuencia que usa Hibernate, así conviven con el adaptador JPA. Las consultas
+ * se delegan al adaptador JPA. Los cuerpos direccionados por contenido se escriben en
+ * {@code api_call_body} antes del COPY, y la fila lleva solo su hash.
+ */
+public class PostgresCopyApiCallHistoryAdapter implements ApiCallHistoryPort {
+
+    private static final String COPY_SQL = "COPY api_call_history "
+            + "(id, timestamp, endpoint, method, request_body, response_body, response_status, execution_time_ms, "
+            + "request_body_hash, response_body_hash) "
+            + "FROM STDIN WITH (FORMAT csv)";
+    private static final String RESERVE_IDS_SQL = "SELECT nextval('" + ApiCallHistory.ID_SEQUENCE + "') FROM generate_series(1, ?)";
+    private static final int CHUNK_BYTES = 64 * 1024;
+
+    private static final HexFormat HEX = HexFormat.of();
+
+    private final DataSource dataSource;
+    private final ApiCallHistoryPort queryDelegate;
+    private final HistoryBodyStore bodyStore;
+
+    public PostgresCopyApiCallHistoryAdapter(DataSource dataSource, ApiCallHistoryPort queryDelegate,
+                                             HistoryBodyStore bodyStore) {
+        this.dataSource = dataSource;
+        this.queryDelegate = queryDelegate;
+        this.bodyStore = bodyStore;
+    }
+
+    @Override
+    public void save(ApiCall apiCall) {
+        saveAll(List.of(apiCall));
+    }
+
+    @Override
+    public void saveAll(List<ApiCall> apiCalls) {
+        if (apiCalls.isEmpty()) {
+            return;
+        }
+        List<StoredBodies> bodies = bodyStore.storeAll(apiCalls);
+        try (Connection connection = dataSource.getConnection()) {
+            long[] ids = reserveIds(connection, apiCalls.size());
+            CopyIn copyIn = connection.unwrap(PGConnection.class).getCopyAPI().copyIn(COPY_SQL);
+            try {
+                StringBuilder rows = new StringBuilder(CHUNK_BYTES);
+                for (int i = 0; i < apiCalls.size(); i++) {
+                    appendRow(rows, ids[i], apiCalls.get(i), bodies.get(i));
+                    if (rows.length() >= CHUNK_BYTES) {
+                        write(copyIn, rows);
+                    }
+                }
+                write(copyIn, rows);
+                copyIn.endCopy();
+            } finally {
+                if (copyIn.isActive()) {
+                    copyIn.cancelCopy();
+                }
+            }
+        } catch (SQLException e) {
+            throw new DataAccessResourceFailureException("Error al copiar el historial de llamadas a PostgreSQL", e);
+        }
+    }
+
+    @Override
+    public List<ApiCallSummary> findHistory(int page, int size) {
+        return queryDelegate.findHistory(page, size);
+    }
+
+    @Override
+    public HistorySlice findHistory(HistoryFilter filter, HistoryCursor cursor, int size) {
+        return queryDelegate.findHistory(filter, cursor, size);
+    }
+
+    @Override
+    public Optional<ApiCall> findById(long id) {
+        return queryDelegate.findById(id);
+    }
+
+    @Override
+    public Optional<ApiCall> findById(long id, LocalDateTime timestamp) {
+        return queryDelegate.findById(id, timestamp);
+    }
+
+    /**
+     * Con el optimizador pooled cada nextval {@code v} reserva los ids (v - allocationSize, v]. Los
+     * valores menores al tamaño del bloque Hibernate los interpreta distinto, así que se descartan.
+     */
+    private long[] reserveIds(Connection connection, int count) throws SQLException {
+        long[] ids = new long[count];
+        int assigned = 0;
+        while (assigned < count) {
+            int blocks = (count - assigned + ApiCallHistory.ID_ALLOCATION_SIZE - 1) / ApiCallHistory.ID_ALLOCATION_SIZE;
+            try (PreparedStatement statement = connection.prepareStatement(RESERVE_IDS_SQL)) {
+                statement.setInt(1, blocks);
+                try (ResultSet resultSet = statement.executeQuery()) {
+                    while (resultSet.next() && assigned < count) {
+                        long high = resultSet.getLong(1);
+                        if (high < ApiCallHistory.ID_ALLOCATION_SIZE) {
+                            continue;
+                        }
+                        for (long id = high - ApiCallHistory.ID_ALLOCATION_SIZE + 1; id <= high && assigned < count; id++) {
+                            ids[assigned++] = id;
+                        }
+                    }
+                }
+            }
+        }
+        return ids;
+    }
+
+    private static void appendRow(StringBuilder rows, long id, ApiCall apiCall, StoredBodies bodies) {
+        LocalDateTime timestamp = apiCall.timestamp() != null ? apiCall.timestamp() : LocalDateTime.now();
+        rows.append(id).append(',');
+        rows.append(timestamp).append(',');
+        appendQuoted(rows, apiCall.endpoint()).append(',');
+        appendQuoted(rows, apiCall.method()).append(',');
+        appendQuoted(rows, bodies.request().inline()).append(',');
+        appendQuoted(rows, bodies.response().inline()).append(',');
+        if (apiCall.responseStatus() != null) {
+            rows.append(apiCall.responseStatus());
+        }
+        rows.append(',');
+        if (apiCall.executionTimeMs() != null) {
+            rows.append(apiCall.executionTimeMs());
+        }
+        rows.append(',');
+        appendBytea(rows, bodies.request().hash()).append(',');
+        appendBytea(rows, bodies.response().hash());
+        rows.append('\n');
+    }
+
+    /**
+     * En CSV un campo vacío sin comillas es NULL; entre comillas es un string vacío.
+     */
+    private static StringBuilder appendQuoted(StringBuilder rows, String value) {
+        if (value == null) {
+            return rows;
+        }
+        rows.append('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == '"') {
+                rows.append('"');
+            }
+            rows.append(c);
+        }
+        return rows.append('"');
+    }
+
+    /**
+     * bytea en formato hex; en CSV la barra invertida no es un escape.
+     */
+    private static StringBuilder appendBytea(StringBuilder rows, byte[] value) {
+        if (value == null) {
+            return rows;
+        }
+        return HEX.formatHex(rows.append("\\x"), value);
+    }
+
+    private static void write(CopyIn copyIn, StringBuilder rows) throws SQLException {
+        if (rows.isEmpty()) {
+            return;
+        }
+        byte[] bytes = rows.toString().getBytes(StandardCharsets.UTF_8);
+        copyIn.writeToCopy(bytes, 0, bytes.length);
+        rows.setLength(0);
+    }
+}
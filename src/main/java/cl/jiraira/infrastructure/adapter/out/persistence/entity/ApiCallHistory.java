@@ -3,12 +3,24 @@ package cl.jiraira.infrastructure.adapter.out.persistence.entity;
 import jakarta.persistence.*;
 import java.time.LocalDateTime;
 
+/**
+ * El esquema (particionado por rango de {@code timestamp} en PostgreSQL e índices) lo administran
+ * las migraciones de {@code db/migration}; Hibernate no genera DDL.
+ */
 @Entity
 @Table(name = "api_call_history")
 public class ApiCallHistory {
 
+    /**
+     * Secuencia con optimizador pooled: Hibernate reserva {@value #ID_ALLOCATION_SIZE} ids por cada
+     * nextval, lo que permite agrupar los INSERT en batches JDBC (IDENTITY los deshabilita).
+     */
+    public static final String ID_SEQUENCE = "api_call_history_seq";
+    public static final int ID_ALLOCATION_SIZE = 50;
+
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = ID_SEQUENCE)
+    @SequenceGenerator(name = ID_SEQUENCE, sequenceName = ID_SEQUENCE, allocationSize = ID_ALLOCATION_SIZE)
     private Long id;
 
     @Column(nullable = false)
@@ -26,6 +38,15 @@ public class ApiCallHistory {
     @Column(columnDefinition = "TEXT")
     private String responseBody;
 
+    /**
+     * Hash del cuerpo guardado en {@code api_call_body}; en ese caso la columna de texto queda nula.
+     */
+    @Column
+    private byte[] requestBodyHash;
+
+    @Column
+    private byte[] responseBodyHash;
+
     @Column
     private Integer responseStatus;
 
@@ -34,7 +55,9 @@ public class ApiCallHistory {
 
     @PrePersist
     protected void onCreate() {
-        timestamp = LocalDateTime.now();
+        if (timestamp == null) {
+            timestamp = LocalDateTime.now();
+        }
     }
 
     // Constructors
@@ -100,6 +123,22 @@ public class ApiCallHistory {
         this.responseBody = responseBody;
     }
 
+    public byte[] getRequestBodyHash() {
+        return requestBodyHash;
+    }
+
+    public void setRequestBodyHash(byte[] requestBodyHash) {
+        this.requestBodyHash = requestBodyHash;
+    }
+
+    public byte[] getResponseBodyHash() {
+        return responseBodyHash;
+    }
+
+    public void setResponseBodyHash(byte[] responseBodyHash) {
+        this.responseBodyHash = responseBodyHash;
+    }
+
     public Integer getResponseStatus() {
         return responseStatus;
     }
@@ -0,0 +1,14 @@
+package cl.jiraira.infrastructure.adapter.out.ratelimit;
+
+/**
+ * Token bucket compartido por todas las réplicas. Entrega los tokens en lotes para que cada
+ * réplica pueda consumirlos localmente sin un round trip por request.
+ */
+public interface DistributedTokenBucket {
+
+    /**
+     * Reserva hasta {@code requested} tokens del bucket {@code key} y retorna cuántos se concedieron
+     * (0 si el bucket está vacío). Lanza una excepción si el almacén compartido no está disponible.
+     */
+    int lease(String key, int requestsPerMinute, int burst, int requested);
+}
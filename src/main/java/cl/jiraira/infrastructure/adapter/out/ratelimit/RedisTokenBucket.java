@@ -0,0 +1,54 @@
+package cl.jiraira.infrastructure.adapter.out.ratelimit;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * Token bucket sobre Redis. La recarga y la reserva se hacen en un script Lua atómico usando el
+ * reloj del servidor, de modo que todas las réplicas comparten la misma vista del bucket.
+ */
+@Component
+@ConditionalOnExpression("${rate-limit.distributed.enabled:false} and '${spring.data.redis.host:}' != ''")
+public class RedisTokenBucket implements DistributedTokenBucket {
+
+    private static final String KEY_PREFIX = "rate-limit:";
+
+    private static final RedisScript<Long> LEASE_SCRIPT = new DefaultRedisScript<>("""
+            local capacity = tonumber(ARGV[1])
+            local refill_per_ms = tonumber(ARGV[2])
+            local requested = tonumber(ARGV[3])
+            local time = redis.call('TIME')
+            local now = tonumber(time[1]) * 1000 + math.floor(tonumber(time[2]) / 1000)
+            local bucket = redis.call('HMGET', KEYS[1], 'tokens', 'ts')
+            local tokens = tonumber(bucket[1])
+            local ts = tonumber(bucket[2])
+            if tokens == nil or ts == nil then
+              tokens = capacity
+              ts = now
+            end
+            tokens = math.min(capacity, tokens + math.max(0, now - ts) * refill_per_ms)
+            local granted = math.min(requested, math.floor(tokens))
+            redis.call('HSET', KEYS[1], 'tokens', tostring(tokens - granted), 'ts', tostring(now))
+            redis.call('PEXPIRE', KEYS[1], math.ceil(capacity / refill_per_ms))
+            return granted
+            """, Long.class);
+
+    private final StringRedisTemplate redisTemplate;
+
+    public RedisTokenBucket(StringRedisTemplate redisTemplate) {
+        this.redisTemplate = redisTemplate;
+    }
+
+    @Override
+    public int lease(String key, int requestsPerMinute, int burst, int requested) {
+        double refillPerMillis = requestsPerMinute / 60_000.0;
+        Long granted = redisTemplate.execute(LEASE_SCRIPT, List.of(KEY_PREFIX + key),
+                Integer.toString(burst), Double.toString(refillPerMillis), Integer.toString(requested));
+        return granted != null ? granted.intValue() : 0;
+    }
+}
@@ -0,0 +1,86 @@
+package cl.jiraira.infrastructure.adapter.out.spool;
+
+import cl.jiraira.domain.model.ApiCall;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+
+/**
+ * Codificación binaria de una {@link ApiCall} para el spool. Cada campo opcional lleva un byte de
+ * presencia; los strings van como largo + UTF-8.
+ */
+final class ApiCallRecordCodec {
+
+    private ApiCallRecordCodec() {
+    }
+
+    static byte[] encode(ApiCall apiCall) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(256);
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            writeString(out, apiCall.endpoint());
+            writeString(out, apiCall.method());
+            writeString(out, apiCall.requestBody());
+            writeString(out, apiCall.responseBody());
+            out.writeBoolean(apiCall.responseStatus() != null);
+            if (apiCall.responseStatus() != null) {
+                out.writeInt(apiCall.responseStatus());
+            }
+            out.writeBoolean(apiCall.timestamp() != null);
+            if (apiCall.timestamp() != null) {
+                out.writeLong(apiCall.timestamp().toEpochSecond(ZoneOffset.UTC));
+                out.writeInt(apiCall.timestamp().getNano());
+            }
+            out.writeBoolean(apiCall.executionTimeMs() != null);
+            if (apiCall.executionTimeMs() != null) {
+                out.writeLong(apiCall.executionTimeMs());
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return bytes.toByteArray();
+    }
+
+    static ApiCall decode(byte[] payload) {
+        try (DataInputStream in = new DataInputStream(new ByteArrayInputStream(payload))) {
+            String endpoint = readString(in);
+            String method = readString(in);
+            String requestBody = readString(in);
+            String responseBody = readString(in);
+            Integer responseStatus = in.readBoolean() ? in.readInt() : null;
+            LocalDateTime timestamp = in.readBoolean()
+                    ? LocalDateTime.ofEpochSecond(in.readLong(), in.readInt(), ZoneOffset.UTC)
+                    : null;
+            Long executionTimeMs = in.readBoolean() ? in.readLong() : null;
+            return new ApiCall(null, endpoint, method, requestBody, responseBody, responseStatus, timestamp, executionTimeMs);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static void writeString(DataOutputStream out, String value) throws IOException {
+        if (value == null) {
+            out.writeInt(-1);
+            return;
+        }
+        byte[] utf8 = value.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(utf8.length);
+        out.write(utf8);
+    }
+
+    private static String readString(DataInputStream in) throws IOException {
+        int length = in.readInt();
+        if (length < 0) {
+            return null;
+        }
+        byte[] utf8 = new byte[length];
+        in.readFully(utf8);
+        return new String(utf8, StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,372 @@
+package cl.jiraira.infrastructure.adapter.out.spool;
+
+import cl.jiraira.domain.model.ApiCall;
+import cl.jiraira.domain.port.out.ApiCallSpoolPort;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.OptionalLong;
+import java.util.TreeMap;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+import java.util.zip.CRC32C;
+
+/**
+ * Spool append-only sobre segmentos de tamaño fijo mapeados en memoria. Cada registro lleva
+ * {@code [largo][crc32c][agregado en][payload]}; un largo 0 marca el fin de los datos. La posición
+ * de lectura confirmada se guarda en un archivo de checkpoint que se reemplaza de forma atómica.
+ * <p>
+ * Al iniciar, cada segmento se recorre hasta el primer registro incompleto o con CRC inválido, que
+ * se considera una escritura truncada por una caída y se descarta.
+ */
+@Component
+@ConditionalOnProperty(name = "history.spool.enabled", havingValue = "true")
+public class MappedFileApiCallSpool implements ApiCallSpoolPort {
+
+    private static final Logger logger = LoggerFactory.getLogger(MappedFileApiCallSpool.class);
+
+    static final int HEADER_BYTES = Integer.BYTES + Integer.BYTES + Long.BYTES;
+    private static final String SEGMENT_PREFIX = "segment-";
+    private static final String SEGMENT_SUFFIX = ".spool";
+    private static final String CHECKPOINT_FILE = "checkpoint";
+
+    private final Path directory;
+    private final int segmentBytes;
+    private final long maxBytes;
+    private final TreeMap<Long, Segment> segments = new TreeMap<>();
+
+    private Segment tail;
+    private long readSegmentId;
+    private int readOffset;
+    private long pendingEndSegmentId;
+    private int pendingEndOffset;
+
+    public MappedFileApiCallSpool(@Value("${history.spool.directory:${java.io.tmpdir}/api-call-spool}") Path directory,
+                                  @Value("${history.spool.segment-size:16MB}") DataSize segmentSize,
+                                  @Value("${history.spool.max-size:1GB}") DataSize maxSize,
+                                  MeterRegistry meterRegistry) {
+        this.directory = directory;
+        this.segmentBytes = (int) Math.min(Integer.MAX_VALUE, segmentSize.toBytes());
+        this.maxBytes = maxSize.toBytes();
+        try {
+            Files.createDirectories(directory);
+            recover();
+        } catch (IOException e) {
+            throw new UncheckedIOException("No se pudo abrir el spool del historial en " + directory, e);
+        }
+
+        Gauge.builder("api.history.spool.size", this, MappedFileApiCallSpool::pendingBytes)
+                .description("Bytes pendientes de reenviar a la base en el spool local")
+                .baseUnit("bytes")
+                .register(meterRegistry);
+        Gauge.builder("api.history.spool.oldest.age", this, MappedFileApiCallSpool::oldestPendingAgeSeconds)
+                .description("Antigüedad de la llamada más antigua aún no reenviada desde el spool")
+                .baseUnit("seconds")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Escribe todas las llamadas o ninguna: el espacio se verifica antes de escribir el primer registro
+     * y, si falla la apertura de un segmento a mitad de camino, se deshace lo escrito. Fuerza el
+     * contenido a disco una vez por llamada, no por registro.
+     */
+    @Override
+    public synchronized boolean append(List<ApiCall> apiCalls) {
+        List<byte[]> payloads = new ArrayList<>(apiCalls.size());
+        long totalBytes = 0;
+        try {
+            for (ApiCall apiCall : apiCalls) {
+                byte[] payload = ApiCallRecordCodec.encode(apiCall);
+                int recordBytes = HEADER_BYTES + payload.length;
+                if (recordBytes > segmentBytes) {
+                    logger.warn("Registro del historial demasiado grande para el spool ({} bytes), se descarta el lote", recordBytes);
+                    return false;
+                }
+                payloads.add(payload);
+                totalBytes += recordBytes;
+            }
+        } catch (RuntimeException e) {
+            logger.error("Error al codificar llamadas para el spool del historial: {}", e.getMessage(), e);
+            return false;
+        }
+        if (pendingBytes() + totalBytes > maxBytes) {
+            logger.warn("Spool del historial lleno, se descarta un lote de {} llamadas ({} bytes)", payloads.size(), totalBytes);
+            return false;
+        }
+
+        Segment start = tail;
+        int startOffset = start.writeOffset;
+        long appendedAt = System.currentTimeMillis();
+        try {
+            for (byte[] payload : payloads) {
+                if (tail.writeOffset + HEADER_BYTES + payload.length > segmentBytes) {
+                    tail.buffer.force();
+                    tail = openSegment(tail.id + 1);
+                }
+                writeRecord(tail, payload, appendedAt);
+            }
+            tail.buffer.force();
+            return true;
+        } catch (IOException | RuntimeException e) {
+            logger.error("Error al escribir en el spool del historial, se descarta el lote: {}", e.getMessage(), e);
+            rollBack(start, startOffset);
+            return false;
+        }
+    }
+
+    @Override
+    public synchronized List<ApiCall> readPending(int maxRecords) {
+        List<ApiCall> pending = new ArrayList<>(Math.min(maxRecords, 256));
+        long segmentId = readSegmentId;
+        int offset = readOffset;
+        Segment segment = segments.get(segmentId);
+        while (segment != null && pending.size() < maxRecords) {
+            if (offset >= segment.writeOffset) {
+                Map.Entry<Long, Segment> next = segments.higherEntry(segmentId);
+                if (next == null) {
+                    break;
+                }
+                segmentId = next.getKey();
+                segment = next.getValue();
+                offset = 0;
+                continue;
+            }
+            int length = segment.buffer.getInt(offset);
+            byte[] payload = new byte[length];
+            segment.buffer.get(offset + HEADER_BYTES, payload);
+            pending.add(ApiCallRecordCodec.decode(payload));
+            offset += HEADER_BYTES + length;
+        }
+        pendingEndSegmentId = segmentId;
+        pendingEndOffset = offset;
+        return pending;
+    }
+
+    @Override
+    public synchronized void acknowledge() {
+        readSegmentId = pendingEndSegmentId;
+        readOffset = pendingEndOffset;
+        try {
+            writeCheckpoint();
+            // Los segmentos ya leídos por completo se eliminan, salvo el que se está escribiendo
+            while (!segments.isEmpty() && segments.firstKey() < readSegmentId) {
+                Segment consumed = segments.pollFirstEntry().getValue();
+                consumed.channel.close();
+                Files.deleteIfExists(segmentPath(consumed.id));
+            }
+        } catch (IOException e) {
+            logger.error("Error al actualizar el checkpoint del spool del historial: {}", e.getMessage(), e);
+        }
+    }
+
+    @Override
+    public synchronized boolean hasPending() {
+        Segment segment = segments.get(readSegmentId);
+        return segment != null && (readOffset < segment.writeOffset || segments.lastKey() > readSegmentId);
+    }
+
+    @Override
+    public synchronized long pendingBytes() {
+        long pending = 0;
+        for (Segment segment : segments.tailMap(readSegmentId, true).values()) {
+            pending += segment.writeOffset - (segment.id == readSegmentId ? readOffset : 0);
+        }
+        return pending;
+    }
+
+    @Override
+    public synchronized OptionalLong oldestPendingAppendedAt() {
+        long segmentId = readSegmentId;
+        int offset = readOffset;
+        for (Segment segment : segments.tailMap(segmentId, true).values()) {
+            int start = segment.id == segmentId ? offset : 0;
+            if (start < segment.writeOffset) {
+                return OptionalLong.of(segment.buffer.getLong(start + Integer.BYTES + Integer.BYTES));
+            }
+        }
+        return OptionalLong.empty();
+    }
+
+    @PreDestroy
+    public synchronized void close() {
+        for (Segment segment : segments.values()) {
+            try {
+                segment.buffer.force();
+                segment.channel.close();
+            } catch (IOException e) {
+                logger.warn("Error al cerrar el segmento {} del spool: {}", segment.id, e.getMessage());
+            }
+        }
+    }
+
+    private double oldestPendingAgeSeconds() {
+        OptionalLong oldest = oldestPendingAppendedAt();
+        return oldest.isPresent()
+                ? TimeUnit.MILLISECONDS.toSeconds(Math.max(0L, System.currentTimeMillis() - oldest.getAsLong()))
+                : 0.0;
+    }
+
+    private void recover() throws IOException {
+        List<Long> ids;
+        try (Stream<Path> files = Files.list(directory)) {
+            ids = files.map(path -> path.getFileName().toString())
+                    .filter(name -> name.startsWith(SEGMENT_PREFIX) && name.endsWith(SEGMENT_SUFFIX))
+                    .map(name -> Long.parseLong(name.substring(SEGMENT_PREFIX.length(), name.length() - SEGMENT_SUFFIX.length())))
+                    .sorted()
+                    .toList();
+        }
+        for (long id : ids) {
+            Segment segment = openSegment(id);
+            segment.writeOffset = scanValidEnd(segment.buffer);
+        }
+        if (segments.isEmpty()) {
+            openSegment(0L);
+        }
+        tail = segments.lastEntry().getValue();
+
+        readCheckpoint();
+        if (segments.get(readSegmentId) == null || readOffset > segments.get(readSegmentId).writeOffset) {
+            readSegmentId = segments.firstKey();
+            readOffset = 0;
+        }
+        if (hasPending()) {
+            logger.warn("Spool del historial con {} bytes pendientes de reenviar", pendingBytes());
+        }
+    }
+
+    private Segment openSegment(long id) throws IOException {
+        FileChannel channel = FileChannel.open(segmentPath(id),
+                StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, segmentBytes);
+        Segment segment = new Segment(id, channel, buffer);
+        segments.put(id, segment);
+        return segment;
+    }
+
+    /**
+     * Vuelve el final del spool a {@code offset} dentro de {@code segment} y elimina los segmentos
+     * abiertos después, para que un lote a medio escribir no se reenvíe.
+     */
+    private void rollBack(Segment segment, int offset) {
+        while (segments.lastKey() > segment.id) {
+            Segment opened = segments.pollLastEntry().getValue();
+            try {
+                opened.channel.close();
+                Files.deleteIfExists(segmentPath(opened.id));
+            } catch (IOException e) {
+                logger.warn("Error al eliminar el segmento {} del spool: {}", opened.id, e.getMessage());
+            }
+        }
+        segment.writeOffset = offset;
+        if (offset + Integer.BYTES <= segmentBytes) {
+            segment.buffer.putInt(offset, 0);
+        }
+        tail = segment;
+    }
+
+    private static int scanValidEnd(MappedByteBuffer buffer) {
+        int offset = 0;
+        while (offset + HEADER_BYTES <= buffer.capacity()) {
+            int length = buffer.getInt(offset);
+            if (length <= 0 || offset + HEADER_BYTES + length > buffer.capacity()) {
+                break;
+            }
+            if (buffer.getInt(offset + Integer.BYTES) != crc(buffer, offset + HEADER_BYTES, length)) {
+                break;
+            }
+            offset += HEADER_BYTES + length;
+        }
+        return offset;
+    }
+
+    private void writeRecord(Segment segment, byte[] payload, long appendedAt) {
+        int offset = segment.writeOffset;
+        MappedByteBuffer buffer = segment.buffer;
+        buffer.put(offset + HEADER_BYTES, payload);
+        buffer.putLong(offset + Integer.BYTES + Integer.BYTES, appendedAt);
+        buffer.putInt(offset + Integer.BYTES, crc(buffer, offset + HEADER_BYTES, payload.length));
+        buffer.putInt(offset, payload.length);
+        int end = offset + HEADER_BYTES + payload.length;
+        if (end + Integer.BYTES <= segmentBytes) {
+            // Marca de fin por si quedaron restos de una escritura truncada más adelante
+            buffer.putInt(end, 0);
+        }
+        segment.writeOffset = end;
+    }
+
+    private static int crc(ByteBuffer buffer, int offset, int length) {
+        CRC32C crc = new CRC32C();
+        crc.update(buffer.slice(offset, length));
+        return (int) crc.getValue();
+    }
+
+    private void readCheckpoint() throws IOException {
+        Path checkpoint = directory.resolve(CHECKPOINT_FILE);
+        if (!Files.exists(checkpoint)) {
+            return;
+        }
+        ByteBuffer content = ByteBuffer.wrap(Files.readAllBytes(checkpoint));
+        if (content.remaining() != Long.BYTES + Integer.BYTES + Integer.BYTES) {
+            logger.warn("Checkpoint del spool inválido, se reenviará desde el inicio");
+            return;
+        }
+        long segmentId = content.getLong();
+        int offset = content.getInt();
+        if (content.getInt() != crc(ByteBuffer.wrap(content.array()), 0, Long.BYTES + Integer.BYTES)) {
+            logger.warn("Checkpoint del spool con CRC inválido, se reenviará desde el inicio");
+            return;
+        }
+        readSegmentId = segmentId;
+        readOffset = offset;
+    }
+
+    private void writeCheckpoint() throws IOException {
+        ByteBuffer content = ByteBuffer.allocate(Long.BYTES + Integer.BYTES + Integer.BYTES);
+        content.putLong(readSegmentId).putInt(readOffset);
+        content.putInt(crc(ByteBuffer.wrap(content.array()), 0, Long.BYTES + Integer.BYTES));
+        Path temporary = directory.resolve(CHECKPOINT_FILE + ".tmp");
+        try (FileChannel channel = FileChannel.open(temporary, StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            channel.write(content.flip());
+            channel.force(true);
+        }
+        Files.move(temporary, directory.resolve(CHECKPOINT_FILE),
+                StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+    }
+
+    private Path segmentPath(long id) {
+        return directory.resolve(String.format("%s%020d%s", SEGMENT_PREFIX, id, SEGMENT_SUFFIX));
+    }
+
+    private static final class Segment {
+        private final long id;
+        private final FileChannel channel;
+        private final MappedByteBuffer buffer;
+        private int writeOffset;
+
+        private Segment(long id, FileChannel channel, MappedByteBuffer buffer) {
+            this.id = id;
+            this.channel = channel;
+            this.buffer = buffer;
+        }
+    }
+}
@@ -0,0 +1,60 @@
+package cl.jiraira.infrastructure.concurrent;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+/**
+ * Limitador GCRA (token bucket sin contador) libre de locks. El único estado es el TAT (instante
+ * teórico de la próxima llegada) sobre un reloj monotónico en nanosegundos, y cada permiso
+ * concedido cuesta un solo CAS.
+ */
+public class GcraRateLimiter {
+
+    private final long emissionIntervalNanos;
+    private final long toleranceNanos;
+    private final LongSupplier nanoClock;
+    private final AtomicLong theoreticalArrival;
+
+    public GcraRateLimiter(long permitsPerMinute, int burst, LongSupplier nanoClock) {
+        if (permitsPerMinute <= 0) {
+            throw new IllegalArgumentException("El límite de requests por minuto debe ser mayor que cero");
+        }
+        if (burst <= 0) {
+            throw new IllegalArgumentException("El burst debe ser mayor que cero");
+        }
+        this.emissionIntervalNanos = Math.max(1L, TimeUnit.MINUTES.toNanos(1) / permitsPerMinute);
+        this.toleranceNanos = emissionIntervalNanos * (burst - 1);
+        this.nanoClock = nanoClock;
+        this.theoreticalArrival = new AtomicLong(nanoClock.getAsLong());
+    }
+
+    /**
+     * Intenta consumir un permiso. Retorna {@code true} si la request cabe en el rate + burst configurado.
+     */
+    public boolean tryAcquire() {
+        return acquire() >= 0;
+    }
+
+    /**
+     * Intenta consumir un permiso sin reservar memoria. Si se concede retorna los permisos que aún
+     * quedan disponibles de inmediato (0 o más); si se rechaza retorna, en negativo, los nanosegundos
+     * que faltan para el próximo permiso.
+     */
+    public long acquire() {
+        long now = nanoClock.getAsLong();
+        while (true) {
+            long tat = theoreticalArrival.get();
+            // Comparaciones por diferencia para tolerar el overflow de System.nanoTime
+            long delay = tat - now;
+            if (delay > toleranceNanos) {
+                return -(delay - toleranceNanos);
+            }
+            long next = (delay > 0 ? tat : now) + emissionIntervalNanos;
+            if (theoreticalArrival.compareAndSet(tat, next)) {
+                long ahead = next - now;
+                return ahead > toleranceNanos ? 0 : (toleranceNanos - ahead) / emissionIntervalNanos + 1;
+            }
+        }
+    }
+}
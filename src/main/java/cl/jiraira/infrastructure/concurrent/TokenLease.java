@@ -0,0 +1,33 @@
+package cl.jiraira.infrastructure.concurrent;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Lote de tokens reservados en un almacén compartido que se consumen localmente hasta agotarse
+ * o hasta que vence el lease; los tokens no usados al vencer se descartan.
+ */
+public class TokenLease {
+
+    private final AtomicInteger remaining = new AtomicInteger();
+    private volatile long expiresAtNanos;
+
+    public boolean tryTake(long nowNanos) {
+        if (nowNanos - expiresAtNanos >= 0) {
+            return false;
+        }
+        while (true) {
+            int current = remaining.get();
+            if (current <= 0) {
+                return false;
+            }
+            if (remaining.compareAndSet(current, current - 1)) {
+                return true;
+            }
+        }
+    }
+
+    public void refill(int tokens, long expiresAtNanos) {
+        this.expiresAtNanos = expiresAtNanos;
+        remaining.set(tokens);
+    }
+}
@@ -0,0 +1,168 @@
+package cl.jiraira.infrastructure.concurrent;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Histograma log-lineal de latencias en microsegundos, de memoria fija y libre de locks, sobre una
+ * ventana deslizante de {@code slots} intervalos consecutivos.
+ * <p>
+ * Los valores bajo {@value #SUB_BUCKETS} µs tienen un bucket cada uno; sobre eso cada potencia de dos
+ * se divide en {@code SUB_BUCKETS / 2} buckets iguales, así el error relativo de un percentil es a lo
+ * más 1/32 (~3%) en todo el rango, hasta {@link #MAX_VALUE} µs (~71 minutos). Registrar un valor son
+ * tres operaciones atómicas sobre arreglos ya reservados, sin locks ni objetos nuevos.
+ * <p>
+ * Los intervalos se guardan en un anillo de {@code slots + 1}: el sobrante es el próximo intervalo,
+ * que {@link #prepare} deja limpio antes de que empiece, así las lecturas y escrituras nunca compiten
+ * con la limpieza. Si nadie lo preparó, el primer registro del intervalo lo limpia.
+ */
+public class WindowedLatencyHistogram {
+
+    static final int SUB_BUCKET_BITS = 6;
+    static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+    private static final int HALF_SUB_BUCKETS = SUB_BUCKETS >> 1;
+    public static final long MAX_VALUE = (1L << 32) - 1;
+    static final int BUCKETS = bucketIndex(MAX_VALUE) + 1;
+
+    private final int slots;
+    private final int ring;
+    private final AtomicLongArray counts;
+    private final AtomicLongArray sums;
+    private final AtomicLongArray maxima;
+    private final AtomicLongArray epochs;
+
+    public WindowedLatencyHistogram(int slots) {
+        if (slots <= 0) {
+            throw new IllegalArgumentException("La ventana de latencias debe tener al menos un intervalo");
+        }
+        this.slots = slots;
+        this.ring = slots + 1;
+        this.counts = new AtomicLongArray(ring * BUCKETS);
+        this.sums = new AtomicLongArray(ring);
+        this.maxima = new AtomicLongArray(ring);
+        this.epochs = new AtomicLongArray(ring);
+        for (int slot = 0; slot < ring; slot++) {
+            epochs.set(slot, Long.MIN_VALUE);
+        }
+    }
+
+    /**
+     * Registra una latencia en el intervalo {@code epoch}. Los valores fuera de rango se acotan y los
+     * de un intervalo que ya salió del anillo se descartan.
+     */
+    public void record(long micros, long epoch) {
+        int slot = slotOf(epoch);
+        if (epochs.get(slot) != epoch && !claim(slot, epoch)) {
+            return;
+        }
+        long value = Math.min(Math.max(micros, 0L), MAX_VALUE);
+        counts.incrementAndGet(slot * BUCKETS + bucketIndex(value));
+        sums.addAndGet(slot, value);
+        long max;
+        while (value > (max = maxima.get(slot)) && !maxima.compareAndSet(slot, max, value)) {
+            // Otro hilo subió el máximo: se vuelve a comparar
+        }
+    }
+
+    /**
+     * Limpia el intervalo {@code epoch} antes de que empiece a recibir registros.
+     */
+    public void prepare(long epoch) {
+        int slot = slotOf(epoch);
+        if (epochs.get(slot) != epoch) {
+            claim(slot, epoch);
+        }
+    }
+
+    /**
+     * Suma los intervalos de la ventana que termina en {@code epoch} (incluido el actual, aún abierto).
+     */
+    public Snapshot snapshot(long epoch) {
+        long[] buckets = new long[BUCKETS];
+        long count = 0;
+        long sum = 0;
+        long max = 0;
+        for (long current = epoch - slots + 1; current <= epoch; current++) {
+            int slot = slotOf(current);
+            if (epochs.get(slot) != current) {
+                continue;
+            }
+            int base = slot * BUCKETS;
+            for (int bucket = 0; bucket < BUCKETS; bucket++) {
+                long bucketCount = counts.get(base + bucket);
+                buckets[bucket] += bucketCount;
+                count += bucketCount;
+            }
+            sum += sums.get(slot);
+            max = Math.max(max, maxima.get(slot));
+        }
+        return new Snapshot(count, sum, max, buckets);
+    }
+
+    /**
+     * Asigna el lugar al intervalo {@code epoch}, limpiándolo. Devuelve si al terminar el lugar es de ese intervalo.
+     */
+    private boolean claim(int slot, long epoch) {
+        long previous = epochs.get(slot);
+        // Un hilo atrasado con un intervalo viejo no retrocede el anillo
+        if (previous < epoch && epochs.compareAndSet(slot, previous, epoch)) {
+            int base = slot * BUCKETS;
+            for (int bucket = 0; bucket < BUCKETS; bucket++) {
+                counts.set(base + bucket, 0L);
+            }
+            sums.set(slot, 0L);
+            maxima.set(slot, 0L);
+        }
+        return epochs.get(slot) == epoch;
+    }
+
+    private int slotOf(long epoch) {
+        return (int) Math.floorMod(epoch, (long) ring);
+    }
+
+    static int bucketIndex(long value) {
+        if (value < SUB_BUCKETS) {
+            return (int) value;
+        }
+        // value >>> shift queda en [SUB_BUCKETS / 2, SUB_BUCKETS): la mitad alta de los sub-buckets
+        int shift = 63 - Long.numberOfLeadingZeros(value) - (SUB_BUCKET_BITS - 1);
+        return (shift << (SUB_BUCKET_BITS - 1)) + (int) (value >>> shift);
+    }
+
+    /**
+     * Mayor valor que cae en el mismo bucket que los del índice dado.
+     */
+    static long highestEquivalentValue(int index) {
+        if (index < SUB_BUCKETS) {
+            return index;
+        }
+        int shift = (index >> (SUB_BUCKET_BITS - 1)) - 1;
+        long subBucket = (index & (HALF_SUB_BUCKETS - 1)) + HALF_SUB_BUCKETS;
+        return ((subBucket + 1) << shift) - 1;
+    }
+
+    /**
+     * Contenido de la ventana en un instante. Los percentiles se informan como el mayor valor de su
+     * bucket, acotado al máximo observado.
+     */
+    public record Snapshot(long count, long sumMicros, long maxMicros, long[] buckets) {
+
+        public double meanMicros() {
+            return count == 0 ? 0.0 : (double) sumMicros / count;
+        }
+
+        public long valueAtQuantile(double quantile) {
+            if (count == 0) {
+                return 0L;
+            }
+            long rank = Math.max(1L, (long) Math.ceil(quantile * count));
+            long seen = 0;
+            for (int index = 0; index < buckets.length; index++) {
+                seen += buckets[index];
+                if (seen >= rank) {
+                    return Math.min(highestEquivalentValue(index), maxMicros);
+                }
+            }
+            return maxMicros;
+        }
+    }
+}
@@ -1,17 +1,26 @@
 package cl.jiraira.infrastructure.config;
 
+import cl.jiraira.domain.port.out.CachePort;
+import cl.jiraira.infrastructure.adapter.out.cache.CompactBinaryRedisSerializer;
+import cl.jiraira.infrastructure.adapter.out.cache.TieredCacheAdapter;
+import cl.jiraira.infrastructure.adapter.out.cache.invalidation.CacheInvalidationBus;
+import cl.jiraira.infrastructure.adapter.out.cache.invalidation.LocalCacheInvalidationBus;
+import cl.jiraira.infrastructure.adapter.out.cache.invalidation.RedisCacheInvalidationBus;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.context.annotation.Primary;
 import org.springframework.data.redis.connection.RedisConnectionFactory;
 import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
 import org.springframework.data.redis.serializer.GenericJackson2JsonRedisSerializer;
+import org.springframework.data.redis.serializer.RedisSerializer;
 import org.springframework.data.redis.serializer.StringRedisSerializer;
-import org.springframework.cache.CacheManager;
-import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
-import org.springframework.data.redis.cache.RedisCacheManager;
-import org.springframework.data.redis.cache.RedisCacheConfiguration;
 import org.springframework.web.reactive.function.client.WebClient;
 
 import java.time.Duration;
@@ -19,36 +28,62 @@ import java.time.Duration;
 @Configuration
 public class CacheConfig {
 
+    private static final String REDIS_INVALIDATION =
+            "'${cache.near.invalidation.transport:redis}' == 'redis' and '${spring.data.redis.host:}' != ''";
+
     @Bean
     @ConditionalOnProperty(name = "spring.data.redis.host")
-    public RedisTemplate<String, Object> redisTemplate(RedisConnectionFactory connectionFactory) {
+    public RedisTemplate<String, Object> redisTemplate(RedisConnectionFactory connectionFactory,
+                                                       RedisSerializer<Object> cacheValueSerializer) {
         RedisTemplate<String, Object> template = new RedisTemplate<>();
         template.setConnectionFactory(connectionFactory);
         template.setKeySerializer(new StringRedisSerializer());
-        template.setValueSerializer(new GenericJackson2JsonRedisSerializer());
+        template.setValueSerializer(cacheValueSerializer);
         template.setHashKeySerializer(new StringRedisSerializer());
-        template.setHashValueSerializer(new GenericJackson2JsonRedisSerializer());
+        template.setHashValueSerializer(cacheValueSerializer);
         return template;
     }
 
     @Bean
     @ConditionalOnProperty(name = "spring.data.redis.host")
-    @Primary
-    public CacheManager redisCacheManager(RedisConnectionFactory connectionFactory) {
-        RedisCacheConfiguration config = RedisCacheConfiguration.defaultCacheConfig()
-                .entryTtl(Duration.ofMinutes(30))
-                .serializeKeysWith(org.springframework.data.redis.serializer.RedisSerializationContext.SerializationPair.fromSerializer(new StringRedisSerializer()))
-                .serializeValuesWith(org.springframework.data.redis.serializer.RedisSerializationContext.SerializationPair.fromSerializer(new GenericJackson2JsonRedisSerializer()));
-
-        return RedisCacheManager.builder(connectionFactory)
-                .cacheDefaults(config)
-                .build();
+    public RedisSerializer<Object> cacheValueSerializer(@Value("${cache.redis.value-encoding:binary}") String valueEncoding) {
+        return switch (valueEncoding.toLowerCase()) {
+            case "binary" -> new CompactBinaryRedisSerializer();
+            case "json" -> new GenericJackson2JsonRedisSerializer();
+            default -> throw new IllegalStateException("Codificación de valores de caché no soportada: " + valueEncoding);
+        };
+    }
+
+    @Bean
+    @ConditionalOnExpression(REDIS_INVALIDATION)
+    public RedisMessageListenerContainer cacheInvalidationListenerContainer(RedisConnectionFactory connectionFactory) {
+        RedisMessageListenerContainer container = new RedisMessageListenerContainer();
+        container.setConnectionFactory(connectionFactory);
+        return container;
+    }
+
+    @Bean
+    @ConditionalOnExpression(REDIS_INVALIDATION)
+    public CacheInvalidationBus redisCacheInvalidationBus(StringRedisTemplate stringRedisTemplate,
+                                                          RedisMessageListenerContainer cacheInvalidationListenerContainer,
+                                                          @Value("${cache.near.invalidation.channel:cache-invalidation}") String channel) {
+        return new RedisCacheInvalidationBus(stringRedisTemplate, cacheInvalidationListenerContainer, channel);
+    }
+
+    @Bean
+    @ConditionalOnExpression("!(" + REDIS_INVALIDATION + ")")
+    public CacheInvalidationBus localCacheInvalidationBus() {
+        return new LocalCacheInvalidationBus();
     }
 
     @Bean
-    @ConditionalOnProperty(name = "spring.data.redis.host", havingValue = "", matchIfMissing = true)
-    public CacheManager inMemoryCacheManager() {
-        return new ConcurrentMapCacheManager("percentage");
+    @Primary
+    public CachePort cachePort(@Qualifier("sharedCache") CachePort sharedCache,
+                               CacheInvalidationBus invalidationBus,
+                               MeterRegistry meterRegistry,
+                               @Value("${cache.near.maximum-size:1000}") long maximumSize,
+                               @Value("${cache.near.ttl:1m}") Duration nearCacheTtl) {
+        return new TieredCacheAdapter(sharedCache, maximumSize, nearCacheTtl, invalidationBus, meterRegistry);
     }
 
     @Bean
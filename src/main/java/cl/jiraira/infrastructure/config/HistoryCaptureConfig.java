@@ -0,0 +1,177 @@
+package cl.jiraira.infrastructure.config;
+
+import cl.jiraira.infrastructure.config.HistoryCaptureProperties.Mode;
+import cl.jiraira.infrastructure.config.HistoryCaptureProperties.Policy;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.function.DoubleSupplier;
+import java.util.function.LongSupplier;
+
+/**
+ * Políticas de captura del historial por prefijo de ruta. La decisión se toma una vez por request,
+ * al entrar al filtro de captura (o al interceptor si el filtro no corre), y queda en el atributo
+ * {@link #DECISION_ATTRIBUTE}; el interceptor la completa al terminar con el status y la latencia.
+ * Cada request reserva solo su decisión, que guarda también el instante de inicio: con ella se mide
+ * la latencia de todas las llamadas, se registren o no.
+ */
+@Configuration
+@EnableConfigurationProperties(HistoryCaptureProperties.class)
+public class HistoryCaptureConfig {
+
+    private static final Logger logger = LoggerFactory.getLogger(HistoryCaptureConfig.class);
+
+    public static final String DECISION_ATTRIBUTE = HistoryCaptureConfig.class.getName() + ".decision";
+
+    private static final int MAX_STATUS = 600;
+
+    private final RoutePolicy[] policies;
+    private final boolean[] ignoredStatuses = new boolean[MAX_STATUS];
+    private final LongSupplier nanoClock;
+    private final DoubleSupplier random;
+    private final Counter recorded;
+    private final Counter skipped;
+
+    @Autowired
+    public HistoryCaptureConfig(HistoryCaptureProperties properties, ObjectProvider<MeterRegistry> meterRegistry) {
+        this(properties, meterRegistry.getIfAvailable(SimpleMeterRegistry::new), System::nanoTime, () -> ThreadLocalRandom.current().nextDouble());
+    }
+
+    public HistoryCaptureConfig(HistoryCaptureProperties properties, MeterRegistry meterRegistry,
+                                LongSupplier nanoClock, DoubleSupplier random) {
+        List<RoutePolicy> ordered = new ArrayList<>();
+        properties.routes().forEach(route -> ordered.add(RoutePolicy.of(route.path(), route.toPolicy())));
+        // El prefijo más largo gana; la política por defecto queda al final
+        ordered.sort(Comparator.comparingInt((RoutePolicy policy) -> policy.pathPrefix().length()).reversed());
+        ordered.add(RoutePolicy.of("/", properties.policy()));
+        this.policies = ordered.toArray(RoutePolicy[]::new);
+        for (int status : properties.ignoredStatuses()) {
+            if (status >= 0 && status < MAX_STATUS) {
+                ignoredStatuses[status] = true;
+            }
+        }
+        this.nanoClock = nanoClock;
+        this.random = random;
+        this.recorded = Counter.builder("api.history.capture.decisions")
+                .description("Llamadas a la API registradas o descartadas por las políticas de captura")
+                .tag("outcome", "recorded")
+                .register(meterRegistry);
+        this.skipped = Counter.builder("api.history.capture.decisions")
+                .description("Llamadas a la API registradas o descartadas por las políticas de captura")
+                .tag("outcome", "skipped")
+                .register(meterRegistry);
+        logger.info("Políticas de captura del historial: {}", ordered);
+    }
+
+    /**
+     * Decide al llegar la request si se capturan sus cuerpos y si ya quedó muestreada.
+     */
+    public CaptureDecision decide(String path) {
+        RoutePolicy policy = policyFor(path);
+        long startNanos = nanoClock.getAsLong();
+        return switch (policy.mode()) {
+            case FULL, METADATA -> new CaptureDecision(policy, true, policy.mode() == Mode.FULL, false, startNanos);
+            case TAIL -> new CaptureDecision(policy, false, true, false, startNanos);
+            case SAMPLED -> random.getAsDouble() < policy.sampleRate()
+                    ? new CaptureDecision(policy, true, true, false, startNanos)
+                    // Descartada: sin cuerpos, y solo se registra si falla o es lenta
+                    : new CaptureDecision(policy, false, false,
+                    !policy.alwaysCaptureErrors() && policy.slowThresholdNanos() == 0, startNanos);
+            case OFF -> new CaptureDecision(policy, false, false, true, startNanos);
+        };
+    }
+
+    /**
+     * Decide al terminar la request si se registra, con el status final y la latencia.
+     */
+    public boolean shouldRecord(CaptureDecision decision, int status, boolean failed) {
+        boolean record = !decision.discarded
+                && !(status >= 0 && status < MAX_STATUS && ignoredStatuses[status])
+                && (decision.sampled || notable(decision, status, failed)
+                || decision.policy.mode() == Mode.TAIL && random.getAsDouble() < decision.policy.sampleRate());
+        (record ? recorded : skipped).increment();
+        return record;
+    }
+
+    public long elapsedNanos(CaptureDecision decision) {
+        return nanoClock.getAsLong() - decision.startNanos;
+    }
+
+    public long executionTimeMs(CaptureDecision decision) {
+        return TimeUnit.NANOSECONDS.toMillis(elapsedNanos(decision));
+    }
+
+    private boolean notable(CaptureDecision decision, int status, boolean failed) {
+        RoutePolicy policy = decision.policy;
+        if (policy.alwaysCaptureErrors() && (failed || status >= 400)) {
+            return true;
+        }
+        return policy.slowThresholdNanos() > 0 && nanoClock.getAsLong() - decision.startNanos >= policy.slowThresholdNanos();
+    }
+
+    private RoutePolicy policyFor(String path) {
+        for (int i = 0; i < policies.length - 1; i++) {
+            if (policies[i].matches(path)) {
+                return policies[i];
+            }
+        }
+        return policies[policies.length - 1];
+    }
+
+    /**
+     * Decisión de captura de una request: si se capturan sus cuerpos, si ya quedó muestreada, si ya
+     * quedó descartada sin importar cómo termine y cuándo empezó.
+     */
+    public static final class CaptureDecision {
+
+        private final RoutePolicy policy;
+        private final boolean sampled;
+        private final boolean capturesBodies;
+        private final boolean discarded;
+        private final long startNanos;
+
+        private CaptureDecision(RoutePolicy policy, boolean sampled, boolean capturesBodies, boolean discarded,
+                                long startNanos) {
+            this.policy = policy;
+            this.sampled = sampled;
+            this.capturesBodies = capturesBodies;
+            this.discarded = discarded;
+            this.startNanos = startNanos;
+        }
+
+        public boolean capturesBodies() {
+            return capturesBodies;
+        }
+    }
+
+    private record RoutePolicy(String pathPrefix, Mode mode, double sampleRate, boolean alwaysCaptureErrors,
+                               long slowThresholdNanos) {
+
+        static RoutePolicy of(String pathPrefix, Policy policy) {
+            return new RoutePolicy(pathPrefix, policy.mode(), policy.sampleRate(), policy.alwaysCaptureErrors(),
+                    policy.slowThreshold() != null ? policy.slowThreshold().toNanos() : 0L);
+        }
+
+        // Igual que en el rate limiting, el prefijo solo cubre segmentos completos de la ruta
+        boolean matches(String path) {
+            if (path == null || !path.startsWith(pathPrefix)) {
+                return false;
+            }
+            return path.length() == pathPrefix.length()
+                    || pathPrefix.endsWith("/")
+                    || path.charAt(pathPrefix.length()) == '/';
+        }
+    }
+}
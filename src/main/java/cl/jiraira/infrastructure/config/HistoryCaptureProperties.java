@@ -0,0 +1,65 @@
+package cl.jiraira.infrastructure.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+import org.springframework.util.unit.DataSize;
+
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * Captura de los cuerpos de request y response para el historial. De cada cuerpo se guardan a lo
+ * más {@code maxBodySize} bytes en buffers reutilizables; {@code poolSize} limita cuántos buffers
+ * libres se conservan entre requests. Las rutas (por prefijo) y los content types excluidos se
+ * registran sin cuerpo.
+ * <p>
+ * Qué llamadas se registran lo decide {@code policy}, reemplazada por la de {@code routes} con el
+ * prefijo más largo que coincida. Las respuestas con un status de {@code ignoredStatuses} no se
+ * registran nunca.
+ */
+@ConfigurationProperties(prefix = "history.capture")
+public record HistoryCaptureProperties(@DefaultValue("true") boolean enabled,
+                                       @DefaultValue("4KB") DataSize maxBodySize,
+                                       @DefaultValue("256") int poolSize,
+                                       @DefaultValue List<String> excludedPaths,
+                                       @DefaultValue({"multipart/*", "application/octet-stream", "text/event-stream"})
+                                       List<String> excludedContentTypes,
+                                       @DefaultValue Policy policy,
+                                       @DefaultValue List<Route> routes,
+                                       @DefaultValue("429") List<Integer> ignoredStatuses) {
+
+    /**
+     * <ul>
+     *     <li>{@code FULL}: todas las llamadas, con cuerpos.</li>
+     *     <li>{@code METADATA}: todas las llamadas, sin cuerpos.</li>
+     *     <li>{@code SAMPLED}: una fracción {@code sampleRate} decidida al llegar la request; las
+     *     descartadas no capturan cuerpos y solo se registran, sin ellos, si fallan o son lentas.</li>
+     *     <li>{@code TAIL}: captura los cuerpos de todas y decide al terminar: se registran las que
+     *     fallan o son lentas y una fracción {@code sampleRate} del resto.</li>
+     *     <li>{@code OFF}: no se registran.</li>
+     * </ul>
+     */
+    public enum Mode {FULL, METADATA, SAMPLED, TAIL, OFF}
+
+    /**
+     * Con {@code alwaysCaptureErrors} se registran las respuestas 4xx/5xx y las que terminan con una
+     * excepción; con {@code slowThreshold} las que tardan al menos eso. Solo aplican a {@code SAMPLED}
+     * y {@code TAIL}.
+     */
+    public record Policy(@DefaultValue("FULL") Mode mode,
+                         @DefaultValue("1.0") double sampleRate,
+                         @DefaultValue("true") boolean alwaysCaptureErrors,
+                         Duration slowThreshold) {
+    }
+
+    public record Route(String path,
+                        @DefaultValue("FULL") Mode mode,
+                        @DefaultValue("1.0") double sampleRate,
+                        @DefaultValue("true") boolean alwaysCaptureErrors,
+                        Duration slowThreshold) {
+
+        public Policy toPolicy() {
+            return new Policy(mode, sampleRate, alwaysCaptureErrors, slowThreshold);
+        }
+    }
+}
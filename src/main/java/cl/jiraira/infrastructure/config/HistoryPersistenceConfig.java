@@ -0,0 +1,68 @@
+package cl.jiraira.infrastructure.config;
+
+import cl.jiraira.domain.port.out.ApiCallArchivePort;
+import cl.jiraira.domain.port.out.ApiCallHistoryExportPort;
+import cl.jiraira.domain.port.out.ApiCallHistoryPort;
+import cl.jiraira.infrastructure.adapter.out.archive.FederatedApiCallHistoryAdapter;
+import cl.jiraira.infrastructure.adapter.out.archive.FederatedApiCallHistoryExportAdapter;
+import cl.jiraira.infrastructure.adapter.out.persistence.ApiCallHistoryPersistenceAdapter;
+import cl.jiraira.infrastructure.adapter.out.persistence.HistoryBodyStore;
+import cl.jiraira.infrastructure.adapter.out.persistence.JdbcApiCallHistoryExportAdapter;
+import cl.jiraira.infrastructure.adapter.out.persistence.PostgresCopyApiCallHistoryAdapter;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import javax.sql.DataSource;
+
+@Configuration
+public class HistoryPersistenceConfig {
+
+    private static final Logger logger = LoggerFactory.getLogger(HistoryPersistenceConfig.class);
+
+    /**
+     * Con {@code history.persistence.mode=copy} la escritura del historial usa COPY sobre PostgreSQL;
+     * en otras bases (H2 en tests) se mantiene el adaptador JPA con INSERT en batch. Con el archivo
+     * frío habilitado, las consultas combinan la base con los segmentos archivados.
+     */
+    @Bean
+    @Primary
+    public ApiCallHistoryPort apiCallHistoryPort(ApiCallHistoryPersistenceAdapter jpaAdapter,
+                                                 DataSource dataSource,
+                                                 HistoryBodyStore bodyStore,
+                                                 ObjectProvider<ApiCallArchivePort> archive,
+                                                 @Value("${history.persistence.mode:jpa}") String mode) {
+        ApiCallHistoryPort hot = hotPort(jpaAdapter, dataSource, bodyStore, mode);
+        ApiCallArchivePort archivePort = archive.getIfAvailable();
+        return archivePort == null ? hot : new FederatedApiCallHistoryAdapter(hot, archivePort);
+    }
+
+    @Bean
+    @Primary
+    public ApiCallHistoryExportPort apiCallHistoryExportPort(JdbcApiCallHistoryExportAdapter jdbcAdapter,
+                                                             ObjectProvider<ApiCallArchivePort> archive) {
+        ApiCallArchivePort archivePort = archive.getIfAvailable();
+        return archivePort == null ? jdbcAdapter : new FederatedApiCallHistoryExportAdapter(jdbcAdapter, archivePort);
+    }
+
+    private ApiCallHistoryPort hotPort(ApiCallHistoryPersistenceAdapter jpaAdapter, DataSource dataSource,
+                                       HistoryBodyStore bodyStore, String mode) {
+        if (!"copy".equalsIgnoreCase(mode)) {
+            return jpaAdapter;
+        }
+        String product = new JdbcTemplate(dataSource).execute((ConnectionCallback<String>) connection ->
+                connection.getMetaData().getDatabaseProductName());
+        if (!"PostgreSQL".equals(product)) {
+            logger.warn("El modo COPY del historial requiere PostgreSQL y la base es {}, se usará JPA", product);
+            return jpaAdapter;
+        }
+        logger.info("Historial de llamadas persistido con COPY de PostgreSQL");
+        return new PostgresCopyApiCallHistoryAdapter(dataSource, jpaAdapter, bodyStore);
+    }
+}
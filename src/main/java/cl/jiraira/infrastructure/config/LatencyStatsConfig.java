@@ -0,0 +1,268 @@
+package cl.jiraira.infrastructure.config;
+
+import cl.jiraira.infrastructure.concurrent.WindowedLatencyHistogram;
+import cl.jiraira.infrastructure.concurrent.WindowedLatencyHistogram.Snapshot;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.Scheduled;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.function.Function;
+import java.util.function.LongSupplier;
+
+/**
+ * Latencias de la API en memoria, por endpoint (el patrón de la ruta, no la URI), método y clase de
+ * status, sobre una ventana deslizante de {@code stats.latency.window} dividida en {@code slots}
+ * intervalos. Cada combinación usa un {@link WindowedLatencyHistogram} de tamaño fijo (~7 KB por
+ * intervalo) que se crea con su primera llamada; después registrar no reserva memoria. Al llegar a
+ * {@code max-histograms} las combinaciones nuevas se agrupan en el endpoint {@link #OTHER}, así la
+ * memoria total queda acotada.
+ * <p>
+ * Los gauges de una combinación comparten una sola lectura de la ventana, que se reutiliza durante
+ * {@link #GAUGE_SNAPSHOT_TTL}: un scrape lee cada histograma una vez y no una por gauge.
+ */
+@Configuration
+public class LatencyStatsConfig {
+
+    private static final Logger logger = LoggerFactory.getLogger(LatencyStatsConfig.class);
+
+    public static final String OTHER = "OTHER";
+
+    /**
+     * Percentiles que se informan, tanto en {@code GET /api/v1/stats} como en los gauges.
+     */
+    public static final double P50 = 0.5;
+    public static final double P90 = 0.9;
+    public static final double P99 = 0.99;
+    private static final double[] QUANTILES = {P50, P90, P99};
+    static final Duration GAUGE_SNAPSHOT_TTL = Duration.ofSeconds(1);
+
+    private static final String[] METHODS = {"GET", "POST", "PUT", "DELETE", "PATCH", "HEAD", "OPTIONS", OTHER};
+    // 0 agrupa los status fuera de 1xx-5xx
+    private static final int STATUS_CLASSES = 6;
+
+    private final int slots;
+    private final long slotNanos;
+    private final int maxHistograms;
+    private final AtomicInteger histograms = new AtomicInteger();
+    private final LongSupplier nanoClock;
+    private final long originNanos;
+    private final MeterRegistry meterRegistry;
+    private final Map<String, AtomicReferenceArray<WindowedLatencyHistogram>> endpoints = new ConcurrentHashMap<>();
+    private final Function<String, AtomicReferenceArray<WindowedLatencyHistogram>> rowFactory =
+            endpoint -> new AtomicReferenceArray<>(METHODS.length * STATUS_CLASSES);
+    // Los gauges guardan referencias débiles: aquí se mantienen vivas las lecturas que comparten
+    private final List<GaugeSnapshot> gaugeSnapshots = new CopyOnWriteArrayList<>();
+    private volatile long preparedEpoch;
+
+    @Autowired
+    public LatencyStatsConfig(ObjectProvider<MeterRegistry> meterRegistry,
+                              @Value("${stats.latency.window:5m}") Duration window,
+                              @Value("${stats.latency.slots:5}") int slots,
+                              @Value("${stats.latency.max-histograms:256}") int maxHistograms) {
+        this(meterRegistry.getIfAvailable(SimpleMeterRegistry::new), window, slots, maxHistograms, System::nanoTime);
+    }
+
+    public LatencyStatsConfig(MeterRegistry meterRegistry, Duration window, int slots, int maxHistograms,
+                              LongSupplier nanoClock) {
+        if (slots <= 0 || window.toNanos() < slots) {
+            throw new IllegalArgumentException("La ventana de latencias debe tener al menos un intervalo");
+        }
+        this.slots = slots;
+        this.slotNanos = window.toNanos() / slots;
+        this.maxHistograms = maxHistograms;
+        this.nanoClock = nanoClock;
+        this.originNanos = nanoClock.getAsLong();
+        this.meterRegistry = meterRegistry;
+    }
+
+    public record EndpointLatency(String endpoint, String method, int statusClass, Snapshot snapshot) {
+
+        /**
+         * Clase de status como se publica: {@code 2xx}, {@code 4xx} o {@code UNKNOWN}.
+         */
+        public String status() {
+            return statusLabel(statusClass);
+        }
+    }
+
+    /**
+     * Registra una llamada terminada. No reserva memoria salvo la primera vez que aparece la combinación.
+     */
+    public void record(String endpoint, String method, int status, long elapsedNanos) {
+        histogram(endpoint, methodIndex(method), statusClass(status))
+                .record(TimeUnit.NANOSECONDS.toMicros(elapsedNanos), epoch());
+    }
+
+    /**
+     * Contenido actual de la ventana, por endpoint, método y clase de status, sin las combinaciones
+     * sin llamadas en la ventana.
+     */
+    public List<EndpointLatency> snapshot() {
+        long epoch = epoch();
+        List<EndpointLatency> stats = new ArrayList<>();
+        endpoints.forEach((endpoint, row) -> {
+            for (int index = 0; index < row.length(); index++) {
+                WindowedLatencyHistogram histogram = row.get(index);
+                if (histogram == null) {
+                    continue;
+                }
+                Snapshot snapshot = histogram.snapshot(epoch);
+                if (snapshot.count() > 0) {
+                    stats.add(new EndpointLatency(endpoint, METHODS[index / STATUS_CLASSES], index % STATUS_CLASSES, snapshot));
+                }
+            }
+        });
+        stats.sort(Comparator.comparing(EndpointLatency::endpoint)
+                .thenComparing(EndpointLatency::method)
+                .thenComparingInt(EndpointLatency::statusClass));
+        return stats;
+    }
+
+    public Duration window() {
+        return Duration.ofNanos(slotNanos * slots);
+    }
+
+    /**
+     * Limpia por adelantado el intervalo siguiente de cada histograma, para que las llamadas no
+     * tengan que hacerlo al cambiar de intervalo.
+     */
+    @Scheduled(fixedRate = 1, timeUnit = TimeUnit.SECONDS)
+    public void rotate() {
+        long next = epoch() + 1;
+        if (next == preparedEpoch) {
+            return;
+        }
+        endpoints.values().forEach(row -> {
+            for (int index = 0; index < row.length(); index++) {
+                WindowedLatencyHistogram histogram = row.get(index);
+                if (histogram != null) {
+                    histogram.prepare(next);
+                }
+            }
+        });
+        preparedEpoch = next;
+    }
+
+    private WindowedLatencyHistogram histogram(String endpoint, int method, int statusClass) {
+        AtomicReferenceArray<WindowedLatencyHistogram> row = endpoints.get(endpoint);
+        if (row == null) {
+            if (full(endpoint)) {
+                return histogram(OTHER, method, statusClass);
+            }
+            row = endpoints.computeIfAbsent(endpoint, rowFactory);
+        }
+        int index = method * STATUS_CLASSES + statusClass;
+        WindowedLatencyHistogram histogram = row.get(index);
+        if (histogram != null) {
+            return histogram;
+        }
+        if (full(endpoint)) {
+            return histogram(OTHER, method, statusClass);
+        }
+        WindowedLatencyHistogram created = new WindowedLatencyHistogram(slots);
+        if (row.compareAndSet(index, null, created)) {
+            histograms.incrementAndGet();
+            register(endpoint, METHODS[method], statusClass, created);
+            return created;
+        }
+        return row.get(index);
+    }
+
+    /**
+     * El endpoint OTHER siempre admite combinaciones nuevas: son a lo más una por método y clase de status.
+     */
+    private boolean full(String endpoint) {
+        return histograms.get() >= maxHistograms && !OTHER.equals(endpoint);
+    }
+
+    private void register(String endpoint, String method, int statusClass, WindowedLatencyHistogram histogram) {
+        Tags tags = Tags.of("endpoint", endpoint, "method", method, "status", statusLabel(statusClass));
+        GaugeSnapshot source = new GaugeSnapshot(histogram);
+        gaugeSnapshots.add(source);
+        for (double quantile : QUANTILES) {
+            Gauge.builder("api.requests.latency", source, s -> s.get().valueAtQuantile(quantile) / 1000.0)
+                    .description("Percentil de latencia de la API en la ventana deslizante")
+                    .tags(tags)
+                    .tag("quantile", Double.toString(quantile))
+                    .baseUnit("milliseconds")
+                    .register(meterRegistry);
+        }
+        Gauge.builder("api.requests.latency.max", source, s -> s.get().maxMicros() / 1000.0)
+                .description("Latencia máxima de la API en la ventana deslizante")
+                .tags(tags)
+                .baseUnit("milliseconds")
+                .register(meterRegistry);
+        Gauge.builder("api.requests.window.count", source, s -> s.get().count())
+                .description("Llamadas a la API en la ventana deslizante")
+                .tags(tags)
+                .register(meterRegistry);
+        logger.debug("Nuevo histograma de latencia: {} {} ({})", method, endpoint, tags);
+    }
+
+    private long epoch() {
+        return Math.floorDiv(nanoClock.getAsLong() - originNanos, slotNanos);
+    }
+
+    private static int methodIndex(String method) {
+        return switch (method) {
+            case "GET" -> 0;
+            case "POST" -> 1;
+            case "PUT" -> 2;
+            case "DELETE" -> 3;
+            case "PATCH" -> 4;
+            case "HEAD" -> 5;
+            case "OPTIONS" -> 6;
+            default -> 7;
+        };
+    }
+
+    private static String statusLabel(int statusClass) {
+        return statusClass == 0 ? "UNKNOWN" : statusClass + "xx";
+    }
+
+    private static int statusClass(int status) {
+        int statusClass = status / 100;
+        return statusClass >= 1 && statusClass < STATUS_CLASSES ? statusClass : 0;
+    }
+
+    /**
+     * Última lectura de un histograma para sus gauges, válida durante {@link #GAUGE_SNAPSHOT_TTL}.
+     */
+    private final class GaugeSnapshot {
+
+        private final WindowedLatencyHistogram histogram;
+        private Snapshot snapshot;
+        private long takenAtNanos;
+
+        private GaugeSnapshot(WindowedLatencyHistogram histogram) {
+            this.histogram = histogram;
+        }
+
+        synchronized Snapshot get() {
+            long now = nanoClock.getAsLong();
+            if (snapshot == null || now - takenAtNanos >= GAUGE_SNAPSHOT_TTL.toNanos()) {
+                snapshot = histogram.snapshot(epoch());
+                takenAtNanos = now;
+            }
+            return snapshot;
+        }
+    }
+}
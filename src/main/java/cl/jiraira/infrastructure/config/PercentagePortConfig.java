@@ -2,14 +2,16 @@ package cl.jiraira.infrastructure.config;
 
 import cl.jiraira.domain.port.out.PercentagePort;
 import cl.jiraira.infrastructure.adapter.out.MockPercentagePort;
+import cl.jiraira.infrastructure.adapter.out.external.CoalescingPercentageAdapter;
+import io.micrometer.core.instrument.MeterRegistry;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 
 @Configuration
 public class PercentagePortConfig {
     @Bean
-    public PercentagePort percentagePort() {
-        return new MockPercentagePort();
+    public PercentagePort percentagePort(MeterRegistry meterRegistry) {
+        return new CoalescingPercentageAdapter(new MockPercentagePort(), meterRegistry);
     }
 }
 
@@ -0,0 +1,68 @@
+package cl.jiraira.infrastructure.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Configuración del rate limiting: límite por defecto y políticas por prefijo de ruta.
+ * Si no se indica burst se usa el mismo valor que las requests por minuto.
+ */
+@ConfigurationProperties(prefix = "rate-limit")
+public record RateLimitProperties(@DefaultValue("3") int requestsPerMinute,
+                                  Integer burst,
+                                  @DefaultValue List<Route> routes,
+                                  @DefaultValue Clients clients,
+                                  @DefaultValue Distributed distributed) {
+
+    public RateLimitPolicy defaultPolicy() {
+        return new RateLimitPolicy("/", requestsPerMinute, burst != null ? burst : requestsPerMinute);
+    }
+
+    public record Route(String path, int requestsPerMinute, Integer burst) {
+
+        public RateLimitPolicy toPolicy() {
+            return new RateLimitPolicy(path, requestsPerMinute, burst != null ? burst : requestsPerMinute);
+        }
+    }
+
+    /**
+     * Límites de la tabla de clientes: tamaño máximo y tiempo sin requests tras el cual se descarta.
+     */
+    public record Clients(@DefaultValue("100000") long maximumSize,
+                          @DefaultValue("10m") Duration idleTimeout) {
+    }
+
+    /**
+     * Modo distribuido: los tokens se reservan en Redis en lotes de {@code leaseSize} que vencen tras
+     * {@code leaseTtl}. Si Redis falla se usa solo el limitador local durante {@code retryAfter}.
+     */
+    public record Distributed(@DefaultValue("false") boolean enabled,
+                              @DefaultValue("5") int leaseSize,
+                              @DefaultValue("1s") Duration leaseTtl,
+                              @DefaultValue("5s") Duration retryAfter) {
+    }
+
+    public record RateLimitPolicy(String pathPrefix, int requestsPerMinute, int burst) {
+
+        /**
+         * Indica si la ruta cae bajo el prefijo respetando los segmentos: {@code /api/v1/history} cubre
+         * {@code /api/v1/history/export} pero no {@code /api/v1/historyfoo}.
+         */
+        public boolean matches(String path) {
+            if (path == null || !path.startsWith(pathPrefix)) {
+                return false;
+            }
+            return path.length() == pathPrefix.length()
+                    || pathPrefix.endsWith("/")
+                    || path.charAt(pathPrefix.length()) == '/';
+        }
+
+        public long emissionIntervalNanos() {
+            return TimeUnit.MINUTES.toNanos(1) / requestsPerMinute;
+        }
+    }
+}
@@ -1,47 +1,184 @@
 package cl.jiraira.infrastructure.config;
 
-import lombok.Getter;
-import org.springframework.beans.factory.annotation.Value;
+import cl.jiraira.infrastructure.adapter.out.ratelimit.DistributedTokenBucket;
+import cl.jiraira.infrastructure.concurrent.GcraRateLimiter;
+import cl.jiraira.infrastructure.concurrent.TokenLease;
+import cl.jiraira.infrastructure.config.RateLimitProperties.RateLimitPolicy;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.RemovalCause;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
 import org.springframework.context.annotation.Configuration;
 
-import java.time.LocalDateTime;
-import java.time.temporal.ChronoUnit;
-import java.util.Map;
-import java.util.concurrent.ConcurrentHashMap;
-import java.util.concurrent.atomic.AtomicInteger;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+import java.util.function.LongSupplier;
 
 @Configuration
+@EnableConfigurationProperties(RateLimitProperties.class)
 public class RateLimitingConfig {
 
-    @Getter
-    @Value("${rate-limit.requests-per-minute:3}")
-    private int requestsPerMinute;
+    private static final Logger logger = LoggerFactory.getLogger(RateLimitingConfig.class);
 
-    private final Map<String, RequestCounter> rateLimiters = new ConcurrentHashMap<>();
+    private final RateLimitPolicy[] policies;
+    private final LongSupplier nanoClock;
+    private final LongAdder evictions = new LongAdder();
+    private final Function<String, RouteLimiter[]> limiterFactory = clientId -> newLimiters();
 
-    public boolean isAllowed(String clientId) {
-        RequestCounter counter = rateLimiters.computeIfAbsent(clientId, k -> new RequestCounter());
-        return counter.tryAcquire(requestsPerMinute);
+    /**
+     * Tabla acotada de limitadores por cliente: se descartan los clientes inactivos y, al llegar al
+     * máximo, los de menor frecuencia según la admisión W-TinyLFU de Caffeine.
+     */
+    private final Cache<String, RouteLimiter[]> rateLimiters;
+
+    private final DistributedTokenBucket distributedBucket;
+    private final int leaseSize;
+    private final long leaseTtlNanos;
+    private final long retryAfterNanos;
+    private final Counter distributedLeases;
+    private final Counter distributedFallbacks;
+    private volatile long distributedRetryAtNanos;
+
+    @Autowired
+    public RateLimitingConfig(RateLimitProperties properties, MeterRegistry meterRegistry,
+                              ObjectProvider<DistributedTokenBucket> distributedBucket) {
+        this(properties, meterRegistry, distributedBucket.getIfAvailable(), System::nanoTime, ForkJoinPool.commonPool());
     }
 
-    private static class RequestCounter {
-        private LocalDateTime windowStart = LocalDateTime.now();
-        private final AtomicInteger count = new AtomicInteger(0);
+    public RateLimitingConfig(RateLimitProperties properties, MeterRegistry meterRegistry,
+                              DistributedTokenBucket distributedBucket,
+                              LongSupplier nanoClock, Executor maintenanceExecutor) {
+        List<RateLimitPolicy> ordered = new ArrayList<>();
+        properties.routes().forEach(route -> ordered.add(route.toPolicy()));
+        // El prefijo más largo gana; la política por defecto queda al final
+        ordered.sort(Comparator.comparingInt((RateLimitPolicy policy) -> policy.pathPrefix().length()).reversed());
+        ordered.add(properties.defaultPolicy());
+        this.policies = ordered.toArray(RateLimitPolicy[]::new);
+        this.nanoClock = nanoClock;
+        this.rateLimiters = Caffeine.newBuilder()
+                .maximumSize(properties.clients().maximumSize())
+                .expireAfterAccess(properties.clients().idleTimeout())
+                .ticker(nanoClock::getAsLong)
+                .executor(maintenanceExecutor)
+                .evictionListener((String clientId, RouteLimiter[] limiters, RemovalCause cause) -> evictions.increment())
+                .build();
 
-        public synchronized boolean tryAcquire(int maxRequests) {
-            LocalDateTime now = LocalDateTime.now();
+        this.distributedBucket = properties.distributed().enabled() ? distributedBucket : null;
+        this.leaseSize = Math.max(1, properties.distributed().leaseSize());
+        this.leaseTtlNanos = properties.distributed().leaseTtl().toNanos();
+        this.retryAfterNanos = properties.distributed().retryAfter().toNanos();
+        this.distributedRetryAtNanos = nanoClock.getAsLong();
+        if (properties.distributed().enabled() && distributedBucket == null) {
+            logger.warn("Rate limiting distribuido habilitado sin Redis configurado, se usará solo el limitador local");
+        }
 
-            if (ChronoUnit.MINUTES.between(windowStart, now) >= 1) {
-                windowStart = now;
-                count.set(0);
-            }
+        Gauge.builder("rate.limit.clients", rateLimiters, Cache::estimatedSize)
+                .description("Clientes con limitador activo en memoria")
+                .register(meterRegistry);
+        FunctionCounter.builder("rate.limit.clients.evictions", evictions, LongAdder::sum)
+                .description("Clientes descartados de la tabla por inactividad o por tamaño")
+                .register(meterRegistry);
+        this.distributedLeases = Counter.builder("rate.limit.distributed.leases")
+                .description("Reservas de tokens solicitadas al bucket compartido")
+                .register(meterRegistry);
+        this.distributedFallbacks = Counter.builder("rate.limit.distributed.fallbacks")
+                .description("Requests resueltas solo con el limitador local por falla del bucket compartido")
+                .register(meterRegistry);
+    }
+
+    public boolean isAllowed(String clientId, String path) {
+        return tryAcquire(clientId, path) >= 0;
+    }
+
+    /**
+     * Igual que {@link GcraRateLimiter#acquire()}: 0 o más son los permisos restantes tras conceder la
+     * request; un valor negativo indica rechazo y son los nanosegundos a esperar.
+     */
+    public long tryAcquire(String clientId, String path) {
+        int index = policyIndex(path);
+        RouteLimiter limiter = rateLimiters.get(clientId, limiterFactory)[index];
+        // Pre-chequeo local: si esta réplica ya rechaza, no hace falta consultar el bucket compartido
+        long local = limiter.local().acquire();
+        if (local < 0 || distributedBucket == null) {
+            return local;
+        }
+        return acquireDistributed(clientId, index, limiter.lease()) ? local : -policies[index].emissionIntervalNanos();
+    }
+
+    public RateLimitPolicy policyFor(String path) {
+        return policies[policyIndex(path)];
+    }
+
+    long clientCount() {
+        rateLimiters.cleanUp();
+        return rateLimiters.estimatedSize();
+    }
 
-            if (count.get() < maxRequests) {
-                count.incrementAndGet();
+    private boolean acquireDistributed(String clientId, int index, TokenLease lease) {
+        long now = nanoClock.getAsLong();
+        if (lease.tryTake(now)) {
+            return true;
+        }
+        if (now - distributedRetryAtNanos < 0) {
+            distributedFallbacks.increment();
+            return true;
+        }
+
+        synchronized (lease) {
+            if (lease.tryTake(now)) {
                 return true;
             }
+            RateLimitPolicy policy = policies[index];
+            try {
+                distributedLeases.increment();
+                int granted = distributedBucket.lease(policy.pathPrefix() + ":" + clientId,
+                        policy.requestsPerMinute(), policy.burst(), Math.min(leaseSize, policy.burst()));
+                if (granted <= 0) {
+                    return false;
+                }
+                lease.refill(granted - 1, now + leaseTtlNanos);
+                return true;
+            } catch (Exception e) {
+                distributedRetryAtNanos = now + retryAfterNanos;
+                distributedFallbacks.increment();
+                logger.warn("Bucket compartido de rate limiting no disponible, se usa el limitador local: {}", e.getMessage());
+                return true;
+            }
+        }
+    }
 
-            return false;
+    private RouteLimiter[] newLimiters() {
+        RouteLimiter[] limiters = new RouteLimiter[policies.length];
+        for (int i = 0; i < policies.length; i++) {
+            limiters[i] = new RouteLimiter(
+                    new GcraRateLimiter(policies[i].requestsPerMinute(), policies[i].burst(), nanoClock),
+                    new TokenLease());
         }
+        return limiters;
+    }
+
+    private int policyIndex(String path) {
+        for (int i = 0; i < policies.length - 1; i++) {
+            if (policies[i].matches(path)) {
+                return i;
+            }
+        }
+        return policies.length - 1;
+    }
+
+    private record RouteLimiter(GcraRateLimiter local, TokenLease lease) {
     }
 }
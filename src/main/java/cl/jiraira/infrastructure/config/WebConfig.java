@@ -1,29 +1,51 @@
 package cl.jiraira.infrastructure.config;
 
+import cl.jiraira.infrastructure.filter.BodyCaptureFilter;
+import cl.jiraira.infrastructure.filter.RateLimitFilter;
 import cl.jiraira.infrastructure.interceptor.ApiCallLoggingInterceptor;
-import cl.jiraira.infrastructure.interceptor.RateLimitInterceptor;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
 import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
 import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
 
 @Configuration
 public class WebConfig implements WebMvcConfigurer {
 
-    private final RateLimitInterceptor rateLimitInterceptor;
     private final ApiCallLoggingInterceptor apiCallLoggingInterceptor;
 
-    public WebConfig(RateLimitInterceptor rateLimitInterceptor,
-                    ApiCallLoggingInterceptor apiCallLoggingInterceptor) {
-        this.rateLimitInterceptor = rateLimitInterceptor;
+    public WebConfig(ApiCallLoggingInterceptor apiCallLoggingInterceptor) {
         this.apiCallLoggingInterceptor = apiCallLoggingInterceptor;
     }
 
+    @Bean
+    public FilterRegistrationBean<RateLimitFilter> rateLimitFilter(RateLimitingConfig rateLimitingConfig,
+                                                                   ObjectMapper objectMapper) {
+        FilterRegistrationBean<RateLimitFilter> registration =
+                new FilterRegistrationBean<>(new RateLimitFilter(rateLimitingConfig, objectMapper));
+        registration.addUrlPatterns("/api/*");
+        // Justo después del filtro de encoding, antes del resto, para que los rechazos cuesten lo mínimo
+        registration.setOrder(Ordered.HIGHEST_PRECEDENCE + 1);
+        return registration;
+    }
+
+    @Bean
+    @ConditionalOnProperty(name = "history.capture.enabled", havingValue = "true", matchIfMissing = true)
+    public FilterRegistrationBean<BodyCaptureFilter> bodyCaptureFilter(HistoryCaptureProperties historyCaptureProperties,
+                                                                       HistoryCaptureConfig historyCaptureConfig) {
+        FilterRegistrationBean<BodyCaptureFilter> registration =
+                new FilterRegistrationBean<>(new BodyCaptureFilter(historyCaptureProperties, historyCaptureConfig));
+        registration.addUrlPatterns("/api/*");
+        // Después del rate limiting: las requests rechazadas no toman buffers de captura
+        registration.setOrder(Ordered.HIGHEST_PRECEDENCE + 2);
+        return registration;
+    }
+
     @Override
     public void addInterceptors(InterceptorRegistry registry) {
-        registry.addInterceptor(rateLimitInterceptor)
-                .addPathPatterns("/api/**")
-                .excludePathPatterns("/actuator/**", "/swagger-ui/**", "/v3/api-docs/**");
-
         registry.addInterceptor(apiCallLoggingInterceptor)
                 .addPathPatterns("/api/**");
     }
@@ -34,6 +34,19 @@ public class GlobalExceptionHandler {
 
     private static final Logger logger = LoggerFactory.getLogger(GlobalExceptionHandler.class);
 
+    @ExceptionHandler(cl.jiraira.domain.exception.ApiCallNotFoundException.class)
+    public ResponseEntity<ErrorResponse> handleApiCallNotFoundException(
+            cl.jiraira.domain.exception.ApiCallNotFoundException ex, WebRequest request) {
+        logger.warn("Llamada API no encontrada: {}", ex.getMessage());
+        ErrorResponse errorResponse = new ErrorResponse(
+            HttpStatus.NOT_FOUND.value(),
+            "Not Found",
+            ex.getMessage(),
+            request.getDescription(false).replace("uri=", "")
+        );
+        return new ResponseEntity<>(errorResponse, HttpStatus.NOT_FOUND);
+    }
+
     @ExceptionHandler(IllegalArgumentException.class)
     public ResponseEntity<ErrorResponse> handleIllegalArgumentException(
             IllegalArgumentException ex, WebRequest request) {
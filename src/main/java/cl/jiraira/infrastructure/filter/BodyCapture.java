@@ -0,0 +1,133 @@
+package cl.jiraira.infrastructure.filter;
+
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.charset.Charset;
+import java.nio.charset.CharsetEncoder;
+import java.nio.charset.CoderResult;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Prefijo de un cuerpo de request o response, guardado en un buffer del {@link CaptureBufferPool}.
+ * El buffer se toma con el primer byte escrito y se devuelve al pool en {@link #release()}, por lo
+ * que la memoria por request queda acotada al tamaño del buffer sin importar el tamaño del cuerpo.
+ * No es thread-safe: las escrituras, la lectura y la liberación de una request ocurren en secuencia.
+ */
+public final class BodyCapture {
+
+    private final CaptureBufferPool pool;
+    private byte[] buffer;
+    private int length;
+    private boolean truncated;
+    private boolean released;
+    private CharsetEncoder encoder;
+
+    BodyCapture(CaptureBufferPool pool) {
+        this.pool = pool;
+    }
+
+    public int length() {
+        return length;
+    }
+
+    /**
+     * Indica si el cuerpo tenía más bytes de los que se guardaron.
+     */
+    public boolean truncated() {
+        return truncated;
+    }
+
+    /**
+     * Decodifica el prefijo directo desde el buffer, sin copias intermedias. Si el cuerpo fue
+     * truncado en medio de un carácter UTF-8, ese carácter se omite. Retorna {@code null} si no se
+     * capturó nada o el buffer ya fue devuelto.
+     */
+    public String asString(Charset charset) {
+        if (length == 0 || released) {
+            return null;
+        }
+        int end = truncated && StandardCharsets.UTF_8.equals(charset) ? completeUtf8Prefix(buffer, length) : length;
+        return new String(buffer, 0, end, charset);
+    }
+
+    void write(int b) {
+        if (ensureCapacity()) {
+            buffer[length++] = (byte) b;
+        }
+    }
+
+    void write(byte[] bytes, int offset, int count) {
+        if (count <= 0 || !ensureCapacity()) {
+            return;
+        }
+        int copied = Math.min(count, buffer.length - length);
+        System.arraycopy(bytes, offset, buffer, length, copied);
+        length += copied;
+        truncated = copied < count;
+    }
+
+    /**
+     * Codifica los caracteres de un {@code Reader} o {@code Writer} directo en el buffer; se detiene
+     * en el límite de un carácter al llenarse.
+     */
+    void write(CharBuffer chars, Charset charset) {
+        if (!chars.hasRemaining() || !ensureCapacity()) {
+            return;
+        }
+        if (encoder == null || !encoder.charset().equals(charset)) {
+            encoder = charset.newEncoder()
+                    .onMalformedInput(CodingErrorAction.REPLACE)
+                    .onUnmappableCharacter(CodingErrorAction.REPLACE);
+        }
+        ByteBuffer target = ByteBuffer.wrap(buffer, length, buffer.length - length);
+        CoderResult result = encoder.encode(chars, target, false);
+        length = target.position();
+        truncated = result.isOverflow();
+    }
+
+    void reset() {
+        length = 0;
+        truncated = false;
+    }
+
+    void release() {
+        if (!released) {
+            released = true;
+            if (buffer != null) {
+                pool.release(buffer);
+                buffer = null;
+            }
+        }
+    }
+
+    private boolean ensureCapacity() {
+        if (released || truncated) {
+            return false;
+        }
+        if (buffer == null) {
+            buffer = pool.acquire();
+        }
+        if (length == buffer.length) {
+            truncated = true;
+            return false;
+        }
+        return true;
+    }
+
+    /**
+     * Largo del prefijo sin la secuencia UTF-8 incompleta del final, si la hay.
+     */
+    static int completeUtf8Prefix(byte[] bytes, int length) {
+        int lead = length - 1;
+        while (lead >= 0 && length - lead < 4 && (bytes[lead] & 0xC0) == 0x80) {
+            lead--;
+        }
+        if (lead < 0) {
+            return length;
+        }
+        int first = bytes[lead] & 0xFF;
+        int expected = first >= 0xF0 ? 4 : first >= 0xE0 ? 3 : first >= 0xC0 ? 2 : 1;
+        return length - lead >= expected ? length : lead;
+    }
+}
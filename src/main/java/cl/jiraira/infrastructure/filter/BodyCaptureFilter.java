@@ -0,0 +1,142 @@
+package cl.jiraira.infrastructure.filter;
+
+import cl.jiraira.infrastructure.config.HistoryCaptureConfig;
+import cl.jiraira.infrastructure.config.HistoryCaptureConfig.CaptureDecision;
+import cl.jiraira.infrastructure.config.HistoryCaptureProperties;
+import jakarta.servlet.AsyncEvent;
+import jakarta.servlet.AsyncListener;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.InvalidMediaTypeException;
+import org.springframework.http.MediaType;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+
+/**
+ * Captura un prefijo acotado de los cuerpos de request y response para el historial. Los cuerpos
+ * pasan completos hacia el handler y el cliente; solo los primeros bytes se copian a buffers del
+ * {@link CaptureBufferPool}, que se devuelven al terminar la request (o al completarse, si es
+ * asíncrona). El interceptor del historial los lee desde los atributos {@link #REQUEST_BODY_ATTRIBUTE}
+ * y {@link #RESPONSE_BODY_ATTRIBUTE}.
+ * <p>
+ * Aquí se toma la decisión de captura de la request: las que no capturan cuerpos (descartadas por
+ * muestreo o con política de solo metadatos) pasan sin wrappers ni buffers.
+ */
+public class BodyCaptureFilter extends OncePerRequestFilter {
+
+    public static final String REQUEST_BODY_ATTRIBUTE = BodyCaptureFilter.class.getName() + ".request";
+    public static final String RESPONSE_BODY_ATTRIBUTE = BodyCaptureFilter.class.getName() + ".response";
+
+    private final CaptureBufferPool pool;
+    private final HistoryCaptureConfig historyCaptureConfig;
+    private final String[] excludedPaths;
+    private final MediaType[] excludedContentTypes;
+
+    public BodyCaptureFilter(HistoryCaptureProperties properties, HistoryCaptureConfig historyCaptureConfig) {
+        this(new CaptureBufferPool((int) properties.maxBodySize().toBytes(), properties.poolSize()), properties,
+                historyCaptureConfig);
+    }
+
+    BodyCaptureFilter(CaptureBufferPool pool, HistoryCaptureProperties properties, HistoryCaptureConfig historyCaptureConfig) {
+        this.pool = pool;
+        this.historyCaptureConfig = historyCaptureConfig;
+        this.excludedPaths = properties.excludedPaths().toArray(String[]::new);
+        this.excludedContentTypes = properties.excludedContentTypes().stream()
+                .map(MediaType::parseMediaType)
+                .toArray(MediaType[]::new);
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        String path = request.getRequestURI();
+        for (String excluded : excludedPaths) {
+            if (path.startsWith(excluded)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        CaptureDecision decision = historyCaptureConfig.decide(request.getRequestURI());
+        request.setAttribute(HistoryCaptureConfig.DECISION_ATTRIBUTE, decision);
+        if (!decision.capturesBodies()) {
+            filterChain.doFilter(request, response);
+            return;
+        }
+
+        BodyCapture requestBody = null;
+        HttpServletRequest requestToUse = request;
+        if (isCapturable(request.getContentType())) {
+            requestBody = new BodyCapture(pool);
+            requestToUse = new CapturingRequestWrapper(request, requestBody);
+            request.setAttribute(REQUEST_BODY_ATTRIBUTE, requestBody);
+        }
+        BodyCapture responseBody = new BodyCapture(pool);
+        request.setAttribute(RESPONSE_BODY_ATTRIBUTE, responseBody);
+
+        try {
+            filterChain.doFilter(requestToUse, new CapturingResponseWrapper(response, responseBody, this::isCapturable));
+        } finally {
+            if (requestToUse.isAsyncStarted()) {
+                // El interceptor registra la llamada en el dispatch asíncrono: los buffers se liberan al completarse
+                requestToUse.getAsyncContext().addListener(new ReleaseOnComplete(requestBody, responseBody));
+            } else {
+                release(requestBody, responseBody);
+            }
+        }
+    }
+
+    private boolean isCapturable(String contentType) {
+        if (contentType == null) {
+            return true;
+        }
+        MediaType mediaType;
+        try {
+            mediaType = MediaType.parseMediaType(contentType);
+        } catch (InvalidMediaTypeException e) {
+            return false;
+        }
+        for (MediaType excluded : excludedContentTypes) {
+            if (excluded.includes(mediaType)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static void release(BodyCapture requestBody, BodyCapture responseBody) {
+        if (requestBody != null) {
+            requestBody.release();
+        }
+        responseBody.release();
+    }
+
+    private record ReleaseOnComplete(BodyCapture requestBody, BodyCapture responseBody) implements AsyncListener {
+
+        @Override
+        public void onComplete(AsyncEvent event) {
+            release(requestBody, responseBody);
+        }
+
+        @Override
+        public void onTimeout(AsyncEvent event) {
+            // onComplete se invoca después
+        }
+
+        @Override
+        public void onError(AsyncEvent event) {
+            // onComplete se invoca después
+        }
+
+        @Override
+        public void onStartAsync(AsyncEvent event) {
+            event.getAsyncContext().addListener(this);
+        }
+    }
+}
@@ -0,0 +1,40 @@
+package cl.jiraira.infrastructure.filter;
+
+import java.util.concurrent.ArrayBlockingQueue;
+
+/**
+ * Pool acotado de buffers de captura, todos del mismo tamaño. Si el pool está vacío se crea un
+ * buffer nuevo; al devolverlos solo se conservan hasta {@code maxPooled}, el resto queda para el GC.
+ */
+public class CaptureBufferPool {
+
+    private final int bufferSize;
+    private final ArrayBlockingQueue<byte[]> free;
+
+    public CaptureBufferPool(int bufferSize, int maxPooled) {
+        if (bufferSize <= 0) {
+            throw new IllegalArgumentException("El tamaño del buffer de captura debe ser positivo");
+        }
+        this.bufferSize = bufferSize;
+        this.free = new ArrayBlockingQueue<>(Math.max(1, maxPooled));
+    }
+
+    public int bufferSize() {
+        return bufferSize;
+    }
+
+    public int available() {
+        return free.size();
+    }
+
+    byte[] acquire() {
+        byte[] buffer = free.poll();
+        return buffer != null ? buffer : new byte[bufferSize];
+    }
+
+    void release(byte[] buffer) {
+        if (buffer.length == bufferSize) {
+            free.offer(buffer);
+        }
+    }
+}
@@ -0,0 +1,129 @@
+package cl.jiraira.infrastructure.filter;
+
+import jakarta.servlet.ReadListener;
+import jakarta.servlet.ServletInputStream;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletRequestWrapper;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.CharBuffer;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Copia en un {@link BodyCapture} el prefijo del cuerpo a medida que el handler lo lee; el cuerpo
+ * no se bufferiza ni se lee por adelantado.
+ */
+final class CapturingRequestWrapper extends HttpServletRequestWrapper {
+
+    private final BodyCapture capture;
+    private ServletInputStream inputStream;
+    private BufferedReader reader;
+
+    CapturingRequestWrapper(HttpServletRequest request, BodyCapture capture) {
+        super(request);
+        this.capture = capture;
+    }
+
+    @Override
+    public ServletInputStream getInputStream() throws IOException {
+        if (inputStream == null) {
+            inputStream = new CapturingInputStream(super.getInputStream(), capture);
+        }
+        return inputStream;
+    }
+
+    @Override
+    public BufferedReader getReader() throws IOException {
+        if (reader == null) {
+            // Los caracteres se vuelven a codificar con el charset que usará el historial para decodificarlos
+            String encoding = getCharacterEncoding();
+            Charset charset = encoding != null ? Charset.forName(encoding) : StandardCharsets.UTF_8;
+            reader = new BufferedReader(new CapturingReader(super.getReader(), capture, charset));
+        }
+        return reader;
+    }
+
+    private static final class CapturingInputStream extends ServletInputStream {
+
+        private final ServletInputStream delegate;
+        private final BodyCapture capture;
+
+        private CapturingInputStream(ServletInputStream delegate, BodyCapture capture) {
+            this.delegate = delegate;
+            this.capture = capture;
+        }
+
+        @Override
+        public int read() throws IOException {
+            int b = delegate.read();
+            if (b >= 0) {
+                capture.write(b);
+            }
+            return b;
+        }
+
+        @Override
+        public int read(byte[] bytes, int offset, int length) throws IOException {
+            int read = delegate.read(bytes, offset, length);
+            if (read > 0) {
+                capture.write(bytes, offset, read);
+            }
+            return read;
+        }
+
+        @Override
+        public boolean isFinished() {
+            return delegate.isFinished();
+        }
+
+        @Override
+        public boolean isReady() {
+            return delegate.isReady();
+        }
+
+        @Override
+        public void setReadListener(ReadListener readListener) {
+            delegate.setReadListener(readListener);
+        }
+
+        @Override
+        public int available() throws IOException {
+            return delegate.available();
+        }
+
+        @Override
+        public void close() throws IOException {
+            delegate.close();
+        }
+    }
+
+    private static final class CapturingReader extends Reader {
+
+        private final Reader delegate;
+        private final BodyCapture capture;
+        private final Charset charset;
+
+        private CapturingReader(Reader delegate, BodyCapture capture, Charset charset) {
+            this.delegate = delegate;
+            this.capture = capture;
+            this.charset = charset;
+        }
+
+        @Override
+        public int read(char[] chars, int offset, int length) throws IOException {
+            int read = delegate.read(chars, offset, length);
+            if (read > 0 && !capture.truncated()) {
+                capture.write(CharBuffer.wrap(chars, offset, read), charset);
+            }
+            return read;
+        }
+
+        @Override
+        public void close() throws IOException {
+            delegate.close();
+        }
+    }
+}
@@ -0,0 +1,155 @@
+package cl.jiraira.infrastructure.filter;
+
+import jakarta.servlet.ServletOutputStream;
+import jakarta.servlet.WriteListener;
+import jakarta.servlet.http.HttpServletResponse;
+import jakarta.servlet.http.HttpServletResponseWrapper;
+
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.io.Writer;
+import java.nio.CharBuffer;
+import java.nio.charset.Charset;
+import java.util.function.Predicate;
+
+/**
+ * Copia en un {@link BodyCapture} el prefijo de lo que se escribe en la response, sin retener ni
+ * demorar la escritura real. El content type se evalúa con el primer byte escrito, cuando el handler
+ * ya lo fijó; si está excluido no se captura nada.
+ */
+final class CapturingResponseWrapper extends HttpServletResponseWrapper {
+
+    private final BodyCapture capture;
+    private final Predicate<String> capturable;
+    private boolean decided;
+    private boolean excluded;
+    private ServletOutputStream outputStream;
+    private PrintWriter writer;
+
+    CapturingResponseWrapper(HttpServletResponse response, BodyCapture capture, Predicate<String> capturable) {
+        super(response);
+        this.capture = capture;
+        this.capturable = capturable;
+    }
+
+    @Override
+    public ServletOutputStream getOutputStream() throws IOException {
+        if (outputStream == null) {
+            outputStream = new CapturingOutputStream(super.getOutputStream());
+        }
+        return outputStream;
+    }
+
+    @Override
+    public PrintWriter getWriter() throws IOException {
+        if (writer == null) {
+            // El writer del container ya maneja el buffer y el charset; solo se intercepta lo escrito
+            writer = new PrintWriter(new CapturingWriter(super.getWriter(), Charset.forName(getCharacterEncoding())));
+        }
+        return writer;
+    }
+
+    @Override
+    public void reset() {
+        super.reset();
+        capture.reset();
+        decided = false;
+        excluded = false;
+    }
+
+    @Override
+    public void resetBuffer() {
+        super.resetBuffer();
+        capture.reset();
+    }
+
+    private boolean capturing() {
+        if (!decided) {
+            decided = true;
+            excluded = !capturable.test(getContentType());
+        }
+        return !excluded && !capture.truncated();
+    }
+
+    private final class CapturingOutputStream extends ServletOutputStream {
+
+        private final ServletOutputStream delegate;
+
+        private CapturingOutputStream(ServletOutputStream delegate) {
+            this.delegate = delegate;
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            delegate.write(b);
+            if (capturing()) {
+                capture.write(b);
+            }
+        }
+
+        @Override
+        public void write(byte[] bytes, int offset, int length) throws IOException {
+            delegate.write(bytes, offset, length);
+            if (capturing()) {
+                capture.write(bytes, offset, length);
+            }
+        }
+
+        @Override
+        public void flush() throws IOException {
+            delegate.flush();
+        }
+
+        @Override
+        public void close() throws IOException {
+            delegate.close();
+        }
+
+        @Override
+        public boolean isReady() {
+            return delegate.isReady();
+        }
+
+        @Override
+        public void setWriteListener(WriteListener writeListener) {
+            delegate.setWriteListener(writeListener);
+        }
+    }
+
+    private final class CapturingWriter extends Writer {
+
+        private final Writer delegate;
+        private final Charset charset;
+
+        private CapturingWriter(Writer delegate, Charset charset) {
+            this.delegate = delegate;
+            this.charset = charset;
+        }
+
+        @Override
+        public void write(char[] chars, int offset, int length) throws IOException {
+            delegate.write(chars, offset, length);
+            if (capturing()) {
+                capture.write(CharBuffer.wrap(chars, offset, length), charset);
+            }
+        }
+
+        @Override
+        public void write(String value, int offset, int length) throws IOException {
+            delegate.write(value, offset, length);
+            if (capturing()) {
+                capture.write(CharBuffer.wrap(value, offset, offset + length), charset);
+            }
+        }
+
+        @Override
+        public void flush() throws IOException {
+            delegate.flush();
+        }
+
+        @Override
+        public void close() throws IOException {
+            delegate.close();
+        }
+    }
+}
@@ -0,0 +1,105 @@
+package cl.jiraira.infrastructure.filter;
+
+import cl.jiraira.infrastructure.config.RateLimitProperties.RateLimitPolicy;
+import cl.jiraira.infrastructure.config.RateLimitingConfig;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+/**
+ * Aplica el rate limiting antes del DispatcherServlet. Las requests rechazadas se responden con un
+ * 429 cuyo body se serializa una sola vez por política, más los headers {@code Retry-After} y
+ * {@code RateLimit-*} calculados desde el estado del limitador.
+ */
+public class RateLimitFilter extends OncePerRequestFilter {
+
+    private static final Logger logger = LoggerFactory.getLogger(RateLimitFilter.class);
+
+    static final String RATE_LIMIT_LIMIT = "RateLimit-Limit";
+    static final String RATE_LIMIT_REMAINING = "RateLimit-Remaining";
+    static final String RATE_LIMIT_RESET = "RateLimit-Reset";
+
+    private final RateLimitingConfig rateLimitingConfig;
+    private final ObjectMapper objectMapper;
+    private final Map<RateLimitPolicy, byte[]> rejectionBodies = new ConcurrentHashMap<>();
+    private final Function<RateLimitPolicy, byte[]> rejectionBodyFactory = this::serializeRejection;
+
+    public RateLimitFilter(RateLimitingConfig rateLimitingConfig, ObjectMapper objectMapper) {
+        this.rateLimitingConfig = rateLimitingConfig;
+        this.objectMapper = objectMapper;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        String path = request.getRequestURI();
+        String clientId = getClientId(request);
+        long decision = rateLimitingConfig.tryAcquire(clientId, path);
+        RateLimitPolicy policy = rateLimitingConfig.policyFor(path);
+
+        if (decision >= 0) {
+            response.setIntHeader(RATE_LIMIT_LIMIT, policy.burst());
+            response.setHeader(RATE_LIMIT_REMAINING, Long.toString(decision));
+            filterChain.doFilter(request, response);
+            return;
+        }
+
+        logger.debug("Rate limit excedido para cliente: {}", clientId);
+        long retryAfterSeconds = Math.max(1L, TimeUnit.NANOSECONDS.toSeconds(-decision + TimeUnit.SECONDS.toNanos(1) - 1));
+        byte[] body = rejectionBodies.computeIfAbsent(policy, rejectionBodyFactory);
+
+        response.setStatus(HttpStatus.TOO_MANY_REQUESTS.value());
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        response.setCharacterEncoding(StandardCharsets.UTF_8.name());
+        response.setContentLength(body.length);
+        response.setHeader("Retry-After", Long.toString(retryAfterSeconds));
+        response.setIntHeader(RATE_LIMIT_LIMIT, policy.burst());
+        response.setIntHeader(RATE_LIMIT_REMAINING, 0);
+        response.setHeader(RATE_LIMIT_RESET, Long.toString(retryAfterSeconds));
+        response.getOutputStream().write(body);
+    }
+
+    private byte[] serializeRejection(RateLimitPolicy policy) {
+        Map<String, Object> body = new LinkedHashMap<>();
+        body.put("status", HttpStatus.TOO_MANY_REQUESTS.value());
+        body.put("error", "Rate limit excedido");
+        body.put("message", String.format("Máximo %d requests por minuto permitidos", policy.requestsPerMinute()));
+        try {
+            return objectMapper.writeValueAsBytes(body);
+        } catch (JsonProcessingException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private String getClientId(HttpServletRequest request) {
+        String xForwardedFor = request.getHeader("X-Forwarded-For");
+        if (xForwardedFor != null && !xForwardedFor.isEmpty()) {
+            int comma = xForwardedFor.indexOf(',');
+            return (comma < 0 ? xForwardedFor : xForwardedFor.substring(0, comma)).trim();
+        }
+
+        String xRealIp = request.getHeader("X-Real-IP");
+        if (xRealIp != null && !xRealIp.isEmpty()) {
+            return xRealIp;
+        }
+
+        return request.getRemoteAddr();
+    }
+}
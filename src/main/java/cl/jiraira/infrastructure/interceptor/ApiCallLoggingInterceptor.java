@@ -2,6 +2,11 @@ package cl.jiraira.infrastructure.interceptor;
 
 import cl.jiraira.domain.model.ApiCall;
 import cl.jiraira.domain.port.in.ApiCallHistoryUseCase;
+import cl.jiraira.infrastructure.config.HistoryCaptureConfig;
+import cl.jiraira.infrastructure.config.HistoryCaptureConfig.CaptureDecision;
+import cl.jiraira.infrastructure.config.LatencyStatsConfig;
+import cl.jiraira.infrastructure.filter.BodyCapture;
+import cl.jiraira.infrastructure.filter.BodyCaptureFilter;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
@@ -9,12 +14,12 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.stereotype.Component;
 import org.springframework.web.servlet.HandlerInterceptor;
+import org.springframework.web.servlet.HandlerMapping;
 import org.springframework.web.servlet.ModelAndView;
-import org.springframework.web.util.ContentCachingRequestWrapper;
-import org.springframework.web.util.ContentCachingResponseWrapper;
 
-import java.time.LocalDateTime;
+import java.nio.charset.Charset;
 import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
 
 @Component
 public class ApiCallLoggingInterceptor implements HandlerInterceptor {
@@ -22,14 +27,22 @@ public class ApiCallLoggingInterceptor implements HandlerInterceptor {
     private static final Logger logger = LoggerFactory.getLogger(ApiCallLoggingInterceptor.class);
 
     private final ApiCallHistoryUseCase apiCallHistoryUseCase;
+    private final HistoryCaptureConfig historyCaptureConfig;
+    private final LatencyStatsConfig latencyStatsConfig;
 
-    public ApiCallLoggingInterceptor(ApiCallHistoryUseCase apiCallHistoryUseCase, ObjectMapper objectMapper) {
+    public ApiCallLoggingInterceptor(ApiCallHistoryUseCase apiCallHistoryUseCase, ObjectMapper objectMapper,
+                                     HistoryCaptureConfig historyCaptureConfig, LatencyStatsConfig latencyStatsConfig) {
         this.apiCallHistoryUseCase = apiCallHistoryUseCase;
+        this.historyCaptureConfig = historyCaptureConfig;
+        this.latencyStatsConfig = latencyStatsConfig;
     }
 
     @Override
     public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) throws Exception {
-        request.setAttribute("startTime", System.currentTimeMillis());
+        // Normalmente la decidió el filtro de captura; no existe si el filtro está deshabilitado o excluye la ruta
+        if (request.getAttribute(HistoryCaptureConfig.DECISION_ATTRIBUTE) == null) {
+            request.setAttribute(HistoryCaptureConfig.DECISION_ATTRIBUTE, historyCaptureConfig.decide(request.getRequestURI()));
+        }
         return true;
     }
 
@@ -40,14 +53,20 @@ public class ApiCallLoggingInterceptor implements HandlerInterceptor {
 
     @Override
     public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler, Exception ex) throws Exception {
+        if (!(request.getAttribute(HistoryCaptureConfig.DECISION_ATTRIBUTE) instanceof CaptureDecision decision)) {
+            return;
+        }
+        recordLatency(request, response, decision);
+        if (!historyCaptureConfig.shouldRecord(decision, response.getStatus(), ex != null)) {
+            return;
+        }
         try {
-            Long startTime = (Long) request.getAttribute("startTime");
-            Long executionTime = startTime != null ? System.currentTimeMillis() - startTime : null;
+            Long executionTime = historyCaptureConfig.executionTimeMs(decision);
 
             String endpoint = request.getRequestURI();
             String method = request.getMethod();
             String parameters = extractParameters(request);
-            String responseBody = extractResponseBody(response);
+            String responseBody = extractResponseBody(request, response);
             //String errorMessage = ex != null ? ex.getMessage() : null;
             Integer statusCode = response.getStatus();
 
@@ -67,13 +86,25 @@ public class ApiCallLoggingInterceptor implements HandlerInterceptor {
         }
     }
 
+    /**
+     * Todas las llamadas, se registren o no en el historial, cuentan en las estadísticas de latencia.
+     * Se agrupan por el patrón de la ruta ({@code /api/v1/history/{id}}) para no crear una serie por id.
+     */
+    private void recordLatency(HttpServletRequest request, HttpServletResponse response, CaptureDecision decision) {
+        try {
+            Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+            latencyStatsConfig.record(pattern instanceof String endpoint ? endpoint : LatencyStatsConfig.OTHER,
+                    request.getMethod(), response.getStatus(), historyCaptureConfig.elapsedNanos(decision));
+        } catch (Exception e) {
+            logger.warn("Error al registrar la latencia de la llamada API: {}", e.getMessage());
+        }
+    }
+
     private String extractParameters(HttpServletRequest request) {
         try {
-            if (request instanceof ContentCachingRequestWrapper wrapper) {
-                byte[] content = wrapper.getContentAsByteArray();
-                if (content.length > 0) {
-                    return new String(content, StandardCharsets.UTF_8);
-                }
+            String body = decode(request.getAttribute(BodyCaptureFilter.REQUEST_BODY_ATTRIBUTE), request.getCharacterEncoding());
+            if (body != null) {
+                return body;
             }
 
             String queryString = request.getQueryString();
@@ -88,18 +119,23 @@ public class ApiCallLoggingInterceptor implements HandlerInterceptor {
         }
     }
 
-    private String extractResponseBody(HttpServletResponse response) {
+    private String extractResponseBody(HttpServletRequest request, HttpServletResponse response) {
         try {
-            if (response instanceof ContentCachingResponseWrapper wrapper) {
-                byte[] content = wrapper.getContentAsByteArray();
-                if (content.length > 0) {
-                    return new String(content, StandardCharsets.UTF_8);
-                }
-            }
-            return null;
+            return decode(request.getAttribute(BodyCaptureFilter.RESPONSE_BODY_ATTRIBUTE), response.getCharacterEncoding());
         } catch (Exception e) {
             logger.warn("Error al extraer el body de la response: {}", e.getMessage());
             return null;
         }
     }
+
+    /**
+     * Decodifica el prefijo capturado por {@link BodyCaptureFilter} directo desde su buffer; el buffer
+     * vuelve al pool cuando termina la request, después de este interceptor.
+     */
+    private static String decode(Object capture, String encoding) {
+        if (!(capture instanceof BodyCapture body)) {
+            return null;
+        }
+        return body.asString(encoding != null ? Charset.forName(encoding) : StandardCharsets.UTF_8);
+    }
 }
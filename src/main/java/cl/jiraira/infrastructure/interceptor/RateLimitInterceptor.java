@@ -1,64 +0,0 @@
-package cl.jiraira.infrastructure.interceptor;
-
-import cl.jiraira.infrastructure.config.RateLimitingConfig;
-import cl.jiraira.infrastructure.adapter.in.web.dto.ErrorResponse;
-import com.fasterxml.jackson.databind.ObjectMapper;
-import jakarta.servlet.http.HttpServletRequest;
-import jakarta.servlet.http.HttpServletResponse;
-import org.slf4j.Logger;
-import org.slf4j.LoggerFactory;
-import org.springframework.http.HttpStatus;
-import org.springframework.stereotype.Component;
-import org.springframework.web.servlet.HandlerInterceptor;
-
-@Component
-public class RateLimitInterceptor implements HandlerInterceptor {
-
-    private static final Logger logger = LoggerFactory.getLogger(RateLimitInterceptor.class);
-
-    private final RateLimitingConfig rateLimitingConfig;
-    private final ObjectMapper objectMapper;
-
-    public RateLimitInterceptor(RateLimitingConfig rateLimitingConfig, ObjectMapper objectMapper) {
-        this.rateLimitingConfig = rateLimitingConfig;
-        this.objectMapper = objectMapper;
-    }
-
-    @Override
-    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) throws Exception {
-        String clientId = getClientId(request);
-
-        if (!rateLimitingConfig.isAllowed(clientId)) {
-            logger.warn("Rate limit excedido para cliente: {}", clientId);
-
-            response.setStatus(HttpStatus.TOO_MANY_REQUESTS.value());
-            response.setContentType("application/json");
-
-            ErrorResponse errorResponse = new ErrorResponse(
-                HttpStatus.TOO_MANY_REQUESTS.value(),
-                "Rate limit excedido",
-                String.format("Máximo %d requests por minuto permitidos", rateLimitingConfig.getRequestsPerMinute()),
-                request.getRequestURI()
-            );
-
-            response.getWriter().write(objectMapper.writeValueAsString(errorResponse));
-            return false;
-        }
-
-        return true;
-    }
-
-    private String getClientId(HttpServletRequest request) {
-        String xForwardedFor = request.getHeader("X-Forwarded-For");
-        if (xForwardedFor != null && !xForwardedFor.isEmpty()) {
-            return xForwardedFor.split(",")[0].trim();
-        }
-
-        String xRealIp = request.getHeader("X-Real-IP");
-        if (xRealIp != null && !xRealIp.isEmpty()) {
-            return xRealIp;
-        }
-
-        return request.getRemoteAddr();
-    }
-}
@@ -0,0 +1,21 @@
+-- Esquema equivalente para H2 (tests y ejecución local). H2 no soporta particionado ni índices
+-- parciales o BRIN; se mantienen los índices que usa el listado.
+
+CREATE SEQUENCE IF NOT EXISTS api_call_history_seq START WITH 1 INCREMENT BY 50;
+
+CREATE TABLE api_call_history (
+    id                BIGINT       NOT NULL,
+    timestamp         TIMESTAMP(6) NOT NULL,
+    endpoint          VARCHAR(255) NOT NULL,
+    method            VARCHAR(255) NOT NULL,
+    request_body      CLOB,
+    response_body     CLOB,
+    response_status   INTEGER,
+    execution_time_ms BIGINT,
+    CONSTRAINT api_call_history_pkey PRIMARY KEY (id)
+);
+
+CREATE INDEX idx_api_call_history_listing
+    ON api_call_history (timestamp DESC, id DESC, endpoint, method, response_status, execution_time_ms);
+CREATE INDEX idx_api_call_history_endpoint ON api_call_history (endpoint, timestamp DESC, id DESC);
+CREATE INDEX idx_api_call_history_execution_time ON api_call_history (execution_time_ms);
@@ -0,0 +1,13 @@
+-- Cuerpos del historial direccionados por contenido (history.bodies.storage=CONTENT_ADDRESSED).
+
+CREATE TABLE api_call_body (
+    hash      VARBINARY(16) NOT NULL,
+    content   BLOB          NOT NULL,
+    last_used TIMESTAMP(6)  NOT NULL,
+    CONSTRAINT api_call_body_pkey PRIMARY KEY (hash)
+);
+
+CREATE INDEX idx_api_call_body_last_used ON api_call_body (last_used);
+
+ALTER TABLE api_call_history ADD COLUMN request_body_hash VARBINARY(16);
+ALTER TABLE api_call_history ADD COLUMN response_body_hash VARBINARY(16);
@@ -0,0 +1,80 @@
+-- Historial de llamadas particionado por rango de timestamp.
+-- Las particiones por día o semana las crea y elimina ApiCallHistoryPartitionMaintainer; la
+-- partición DEFAULT recibe las filas que caen fuera de ellas hasta que se crea su partición.
+
+-- Con el optimizador pooled de Hibernate, nextval = v entrega los ids (v - 50, v]
+CREATE SEQUENCE IF NOT EXISTS api_call_history_seq START WITH 1 INCREMENT BY 50;
+
+-- Bases creadas antes con ddl-auto: update tienen una tabla sin particionar; se aparta para copiar
+-- sus filas y se liberan los nombres de índices y de la clave primaria
+DO $$
+BEGIN
+    IF EXISTS (SELECT 1
+               FROM pg_class c
+               JOIN pg_namespace n ON n.oid = c.relnamespace
+               WHERE n.nspname = current_schema()
+                 AND c.relname = 'api_call_history'
+                 AND c.relkind = 'r') THEN
+        ALTER TABLE api_call_history RENAME TO api_call_history_legacy;
+        DROP INDEX IF EXISTS idx_api_call_history_listing;
+        DROP INDEX IF EXISTS idx_api_call_history_endpoint;
+        DROP INDEX IF EXISTS idx_api_call_history_execution_time;
+        DROP INDEX IF EXISTS idx_api_call_history_server_errors;
+        DROP INDEX IF EXISTS idx_api_call_history_timestamp_brin;
+        IF EXISTS (SELECT 1 FROM pg_constraint WHERE conname = 'api_call_history_pkey') THEN
+            ALTER TABLE api_call_history_legacy RENAME CONSTRAINT api_call_history_pkey TO api_call_history_legacy_pkey;
+        END IF;
+    END IF;
+END $$;
+
+-- La clave de partición debe formar parte de la clave primaria
+CREATE TABLE api_call_history (
+    id                BIGINT       NOT NULL,
+    timestamp         TIMESTAMP(6) NOT NULL,
+    endpoint          VARCHAR(255) NOT NULL,
+    method            VARCHAR(255) NOT NULL,
+    request_body      TEXT,
+    response_body     TEXT,
+    response_status   INTEGER,
+    execution_time_ms BIGINT,
+    CONSTRAINT api_call_history_pkey PRIMARY KEY (id, timestamp)
+) PARTITION BY RANGE (timestamp);
+
+CREATE TABLE api_call_history_default PARTITION OF api_call_history DEFAULT;
+
+-- Los índices del padre se propagan a cada partición.
+-- Paginación por keyset: incluye las columnas del resumen para resolver el listado con un
+-- index-only scan, sin leer los cuerpos TEXT
+CREATE INDEX idx_api_call_history_listing ON api_call_history (timestamp DESC, id DESC)
+    INCLUDE (endpoint, method, response_status, execution_time_ms);
+-- Filtro por endpoint manteniendo el orden del keyset
+CREATE INDEX idx_api_call_history_endpoint ON api_call_history (endpoint, timestamp DESC, id DESC);
+-- Búsqueda de llamadas lentas
+CREATE INDEX idx_api_call_history_execution_time ON api_call_history (execution_time_ms);
+-- Parcial sobre las respuestas 5xx, que son pocas y se consultan seguido
+CREATE INDEX idx_api_call_history_server_errors ON api_call_history (timestamp DESC, id DESC)
+    WHERE response_status >= 500;
+-- BRIN sobre timestamp para los rangos de fecha dentro de una partición
+CREATE INDEX idx_api_call_history_timestamp_brin ON api_call_history USING brin (timestamp)
+    WITH (pages_per_range = 32);
+
+-- Las filas heredadas quedan en DEFAULT; el mantenimiento de particiones las mueve a su
+-- partición o las elimina según la retención
+DO $$
+BEGIN
+    IF to_regclass('api_call_history_legacy') IS NOT NULL THEN
+        INSERT INTO api_call_history (id, timestamp, endpoint, method, request_body, response_body,
+                                      response_status, execution_time_ms)
+        SELECT id, timestamp, endpoint, method, request_body, response_body, response_status, execution_time_ms
+        FROM api_call_history_legacy;
+
+        -- Los ids anteriores pudieron venir de IDENTITY; la secuencia debe quedar por sobre ellos
+        PERFORM setval('api_call_history_seq', m.max_id + 50, false)
+        FROM (SELECT MAX(id) AS max_id FROM api_call_history_legacy) m
+        WHERE m.max_id IS NOT NULL
+          AND m.max_id >= (SELECT COALESCE(last_value, 0) FROM pg_sequences
+                           WHERE schemaname = current_schema() AND sequencename = 'api_call_history_seq');
+
+        DROP TABLE api_call_history_legacy;
+    END IF;
+END $$;
@@ -0,0 +1,20 @@
+-- Cuerpos del historial direccionados por contenido (history.bodies.storage=CONTENT_ADDRESSED): cada
+-- cuerpo distinto se guarda una vez, comprimido, y las filas del historial solo llevan su hash.
+
+CREATE TABLE api_call_body (
+    hash      BYTEA        NOT NULL,
+    content   BYTEA        NOT NULL,
+    last_used TIMESTAMP(6) NOT NULL,
+    CONSTRAINT api_call_body_pkey PRIMARY KEY (hash)
+);
+
+-- El contenido ya viene comprimido: TOAST no intenta volver a comprimirlo
+ALTER TABLE api_call_body ALTER COLUMN content SET STORAGE EXTERNAL;
+
+-- Limpieza de los cuerpos que ninguna fila dentro de la retención referencia
+CREATE INDEX idx_api_call_body_last_used ON api_call_body (last_used);
+
+-- Columnas nulas sin default: en PostgreSQL 11+ solo cambia el catálogo, también en las particiones
+ALTER TABLE api_call_history
+    ADD COLUMN request_body_hash  BYTEA,
+    ADD COLUMN response_body_hash BYTEA;
@@ -0,0 +1,324 @@
+package cl.jiraira.application.service;
+
+import cl.jiraira.application.service.ApiCallHistoryPipeline.OverflowPolicy;
+import cl.jiraira.domain.model.ApiCall;
+import cl.jiraira.domain.model.ApiCallSummary;
+import cl.jiraira.domain.model.HistoryCursor;
+import cl.jiraira.domain.model.HistoryFilter;
+import cl.jiraira.domain.model.HistorySlice;
+import cl.jiraira.domain.port.out.ApiCallHistoryListener;
+import cl.jiraira.domain.port.out.ApiCallHistoryPort;
+import cl.jiraira.domain.port.out.ApiCallSpoolPort;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.dao.DataIntegrityViolationException;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.OptionalLong;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Predicate;
+
+import static java.util.concurrent.TimeUnit.SECONDS;
+import static org.awaitility.Awaitility.await;
+import static org.junit.jupiter.api.Assertions.*;
+
+class ApiCallHistoryPipelineTest {
+
+    private final RecordingPort port = new RecordingPort();
+    private final MeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private ApiCallHistoryPipeline pipeline;
+
+    @AfterEach
+    void tearDown() {
+        pipeline.stop();
+    }
+
+    @Test
+    void submit_ShouldFlushFullBatchesInSingleWrites() {
+        pipeline = pipeline(100, 10, Duration.ofMinutes(1), OverflowPolicy.DROP_NEWEST);
+        pipeline.start();
+
+        for (int i = 0; i < 30; i++) {
+            pipeline.submit(call(i));
+        }
+
+        await().atMost(5, SECONDS).until(() -> port.saved().size() == 30);
+        assertEquals(3, port.batches.size());
+        assertTrue(port.batches.stream().allMatch(batch -> batch.size() == 10));
+    }
+
+    @Test
+    void submit_WithPartialBatch_ShouldFlushAfterInterval() {
+        pipeline = pipeline(100, 50, Duration.ofMillis(50), OverflowPolicy.DROP_NEWEST);
+        pipeline.start();
+
+        pipeline.submit(call(1));
+        pipeline.submit(call(2));
+
+        await().atMost(5, SECONDS).until(() -> port.saved().size() == 2);
+        assertEquals(1, port.batches.size());
+    }
+
+    @Test
+    void submit_WhenFullWithDropNewest_ShouldRejectNewCalls() {
+        pipeline = pipeline(3, 10, Duration.ofMillis(10), OverflowPolicy.DROP_NEWEST);
+
+        for (int i = 0; i < 5; i++) {
+            pipeline.submit(call(i));
+        }
+        assertEquals(3, pipeline.queueDepth());
+        pipeline.start();
+
+        await().atMost(5, SECONDS).until(() -> port.saved().size() == 3);
+        assertEquals(List.of(0L, 1L, 2L), port.saved().stream().map(ApiCall::executionTimeMs).toList());
+        assertEquals(2.0, meterRegistry.get("api.history.dropped").counter().count());
+    }
+
+    @Test
+    void submit_WhenFullWithDropOldest_ShouldKeepNewestCalls() {
+        pipeline = pipeline(3, 10, Duration.ofMillis(10), OverflowPolicy.DROP_OLDEST);
+
+        for (int i = 0; i < 5; i++) {
+            assertTrue(pipeline.submit(call(i)));
+        }
+        pipeline.start();
+
+        await().atMost(5, SECONDS).until(() -> port.saved().size() == 3);
+        assertEquals(List.of(2L, 3L, 4L), port.saved().stream().map(ApiCall::executionTimeMs).toList());
+        assertEquals(2.0, meterRegistry.get("api.history.dropped").counter().count());
+    }
+
+    @Test
+    void submit_WhenFullWithBlock_ShouldGiveUpAfterTimeout() {
+        pipeline = pipeline(1, 10, Duration.ofMillis(10), OverflowPolicy.BLOCK);
+
+        assertTrue(pipeline.submit(call(1)));
+        assertFalse(pipeline.submit(call(2)));
+        assertEquals(1, pipeline.queueDepth());
+    }
+
+    @Test
+    void flush_WhenDatabaseFails_ShouldSpoolBatchAndReplayLater() {
+        InMemorySpool spool = new InMemorySpool();
+        port.failures.set(1);
+        pipeline = new ApiCallHistoryPipeline(port, spool, meterRegistry, 100, 2, Duration.ofMillis(10),
+                OverflowPolicy.DROP_NEWEST, Duration.ofMillis(20), Duration.ofMillis(50));
+        pipeline.start();
+
+        pipeline.submit(call(1));
+        pipeline.submit(call(2));
+
+        await().atMost(5, SECONDS).until(() -> port.saved().size() == 2);
+        assertEquals(List.of(1L, 2L), port.saved().stream().map(ApiCall::executionTimeMs).toList());
+        assertFalse(spool.hasPending());
+        assertEquals(2.0, meterRegistry.get("api.history.spooled").counter().count());
+        assertEquals(2.0, meterRegistry.get("api.history.spool.replayed").counter().count());
+        assertEquals(0.0, meterRegistry.get("api.history.failed").counter().count());
+    }
+
+    @Test
+    void flush_WhenDatabaseRejectsOneRow_ShouldSaveTheRestOfTheBatch() {
+        port.rejects = apiCall -> apiCall.executionTimeMs() == 2L;
+        pipeline = pipeline(100, 3, Duration.ofMinutes(1), OverflowPolicy.DROP_NEWEST);
+        pipeline.start();
+
+        pipeline.submit(call(1));
+        pipeline.submit(call(2));
+        pipeline.submit(call(3));
+
+        await().atMost(5, SECONDS).until(() -> port.saved().size() == 2);
+        assertEquals(List.of(1L, 3L), port.saved().stream().map(ApiCall::executionTimeMs).toList());
+        assertEquals(1.0, meterRegistry.get("api.history.rejected").counter().count());
+        assertEquals(0.0, meterRegistry.get("api.history.failed").counter().count());
+    }
+
+    @Test
+    void submit_WhenFullWithSpool_ShouldHandOverflowToWriterInsteadOfDropping() {
+        InMemorySpool spool = new InMemorySpool();
+        pipeline = new ApiCallHistoryPipeline(port, spool, meterRegistry, 1, 10, Duration.ofMillis(10),
+                OverflowPolicy.DROP_NEWEST, Duration.ofMillis(20), Duration.ofMillis(50));
+
+        assertTrue(pipeline.submit(call(1)));
+        assertTrue(pipeline.submit(call(2)));
+
+        // La request no escribe en el spool: lo hace el escritor
+        assertEquals(1, pipeline.queueDepth());
+        assertEquals(0, spool.appends.get());
+        assertEquals(0.0, meterRegistry.get("api.history.dropped").counter().count());
+
+        pipeline.start();
+        await().atMost(5, SECONDS).until(() -> port.saved().size() == 2);
+        assertEquals(1, spool.appends.get());
+        assertEquals(1.0, meterRegistry.get("api.history.spooled").counter().count());
+        assertEquals(1.0, meterRegistry.get("api.history.spool.replayed").counter().count());
+    }
+
+    @Test
+    void drain_WhenQueueNeverEmpties_ShouldStillReplaySpool() {
+        InMemorySpool spool = new InMemorySpool();
+        spool.append(List.of(call(100), call(101), call(102)));
+        pipeline = new ApiCallHistoryPipeline(port, spool, meterRegistry, 100, 2, Duration.ofMinutes(1),
+                OverflowPolicy.DROP_NEWEST, Duration.ofMillis(20), Duration.ofMillis(50));
+        // Cada lote guardado deja otro lote completo en la cola mientras el spool tenga pendientes
+        port.onSave = () -> {
+            if (spool.hasPending()) {
+                pipeline.submit(call(1));
+                pipeline.submit(call(2));
+            }
+        };
+        pipeline.submit(call(1));
+        pipeline.submit(call(2));
+        pipeline.start();
+
+        await().atMost(5, SECONDS).until(() -> !spool.hasPending());
+        assertEquals(3.0, meterRegistry.get("api.history.spool.replayed").counter().count());
+        assertTrue(port.saved().stream().map(ApiCall::executionTimeMs).toList().containsAll(List.of(100L, 101L, 102L)));
+    }
+
+    @Test
+    void replay_WhenSpoolHeadHasRejectedRow_ShouldSkipItAndKeepSavingDirectly() {
+        InMemorySpool spool = new InMemorySpool();
+        spool.append(List.of(call(100), call(101), call(102)));
+        port.rejects = apiCall -> apiCall.executionTimeMs() == 101L;
+        pipeline = new ApiCallHistoryPipeline(port, spool, meterRegistry, 100, 3, Duration.ofMillis(10),
+                OverflowPolicy.DROP_NEWEST, Duration.ofMillis(20), Duration.ofMinutes(1));
+        pipeline.start();
+
+        await().atMost(5, SECONDS).until(() -> !spool.hasPending());
+        pipeline.submit(call(1));
+        pipeline.submit(call(2));
+
+        // Con un reintento de un minuto, las llamadas nuevas solo llegan a la base si el rechazo no lo activó
+        await().atMost(5, SECONDS).until(() -> port.saved().size() == 4);
+        assertEquals(List.of(100L, 102L, 1L, 2L), port.saved().stream().map(ApiCall::executionTimeMs).toList());
+        assertEquals(1.0, meterRegistry.get("api.history.rejected").counter().count());
+        assertEquals(2.0, meterRegistry.get("api.history.spool.replayed").counter().count());
+        assertEquals(0.0, meterRegistry.get("api.history.spooled").counter().count());
+    }
+
+    @Test
+    void submit_ShouldNotifyListenersEvenWhenDropped() {
+        List<ApiCall> notified = new CopyOnWriteArrayList<>();
+        List<ApiCallHistoryListener> listeners = List.of(notified::add);
+        pipeline = new ApiCallHistoryPipeline(port, (ApiCallSpoolPort) null, listeners, meterRegistry, 1, 10, Duration.ofMillis(10),
+                OverflowPolicy.DROP_NEWEST, Duration.ofMillis(20), Duration.ofSeconds(5));
+
+        assertTrue(pipeline.submit(call(1)));
+        assertFalse(pipeline.submit(call(2)));
+
+        assertEquals(List.of(1L, 2L), notified.stream().map(ApiCall::executionTimeMs).toList());
+    }
+
+    private ApiCallHistoryPipeline pipeline(int capacity, int batchSize, Duration flushInterval, OverflowPolicy policy) {
+        return new ApiCallHistoryPipeline(port, (ApiCallSpoolPort) null, meterRegistry, capacity, batchSize, flushInterval, policy,
+                Duration.ofMillis(20), Duration.ofSeconds(5));
+    }
+
+    private static ApiCall call(long order) {
+        return ApiCall.builder()
+                .endpoint("/api/v1/calculations/calculate")
+                .method("POST")
+                .responseStatus(200)
+                .executionTimeMs(order)
+                .build();
+    }
+
+    private static class RecordingPort implements ApiCallHistoryPort {
+
+        private final List<List<ApiCall>> batches = new CopyOnWriteArrayList<>();
+        private final AtomicInteger failures = new AtomicInteger();
+        private volatile Runnable onSave = () -> {
+        };
+        private volatile Predicate<ApiCall> rejects = apiCall -> false;
+
+        @Override
+        public void save(ApiCall apiCall) {
+            saveAll(List.of(apiCall));
+        }
+
+        @Override
+        public void saveAll(List<ApiCall> apiCalls) {
+            if (failures.getAndUpdate(remaining -> Math.max(0, remaining - 1)) > 0) {
+                throw new DataAccessResourceFailureException("Base de datos no disponible");
+            }
+            if (apiCalls.stream().anyMatch(rejects)) {
+                throw new DataIntegrityViolationException("Valor demasiado largo para la columna endpoint");
+            }
+            batches.add(apiCalls);
+            onSave.run();
+        }
+
+        @Override
+        public List<ApiCallSummary> findHistory(int page, int size) {
+            return List.of();
+        }
+
+        @Override
+        public HistorySlice findHistory(HistoryFilter filter, HistoryCursor cursor, int size) {
+            return new HistorySlice(List.of(), null);
+        }
+
+        @Override
+        public Optional<ApiCall> findById(long id) {
+            return Optional.empty();
+        }
+
+        @Override
+        public Optional<ApiCall> findById(long id, LocalDateTime timestamp) {
+            return Optional.empty();
+        }
+
+        List<ApiCall> saved() {
+            return batches.stream().flatMap(List::stream).toList();
+        }
+    }
+
+    private static class InMemorySpool implements ApiCallSpoolPort {
+
+        private final List<ApiCall> records = new ArrayList<>();
+        private final AtomicInteger appends = new AtomicInteger();
+        private int peeked;
+
+        @Override
+        public synchronized boolean append(List<ApiCall> apiCalls) {
+            appends.incrementAndGet();
+            records.addAll(apiCalls);
+            return true;
+        }
+
+        @Override
+        public synchronized List<ApiCall> readPending(int maxRecords) {
+            peeked = Math.min(maxRecords, records.size());
+            return List.copyOf(records.subList(0, peeked));
+        }
+
+        @Override
+        public synchronized void acknowledge() {
+            records.subList(0, peeked).clear();
+            peeked = 0;
+        }
+
+        @Override
+        public synchronized boolean hasPending() {
+            return !records.isEmpty();
+        }
+
+        @Override
+        public synchronized long pendingBytes() {
+            return records.size();
+        }
+
+        @Override
+        public OptionalLong oldestPendingAppendedAt() {
+            return OptionalLong.empty();
+        }
+    }
+}
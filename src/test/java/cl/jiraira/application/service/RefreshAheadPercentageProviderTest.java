@@ -0,0 +1,169 @@
+package cl.jiraira.application.service;
+
+import cl.jiraira.application.service.RefreshAheadPercentageProvider.PercentageSnapshot;
+import cl.jiraira.domain.model.CachedPercentage;
+import cl.jiraira.domain.port.out.CachePort;
+import cl.jiraira.domain.port.out.PercentagePort;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class RefreshAheadPercentageProviderTest {
+
+    @Mock
+    private PercentagePort percentagePort;
+
+    @Mock
+    private CachePort cachePort;
+
+    private final AtomicLong clock = new AtomicLong();
+    private final Deque<Runnable> pendingRefreshes = new ArrayDeque<>();
+
+    private RefreshAheadPercentageProvider provider;
+
+    @BeforeEach
+    void setUp() {
+        provider = new RefreshAheadPercentageProvider(percentagePort, cachePort,
+                Duration.ofMinutes(25), Duration.ofMinutes(30), pendingRefreshes::add, clock::get);
+    }
+
+    @Test
+    void getPercentage_WhenLoaded_ShouldServeFromMemory() {
+        when(percentagePort.getPercentage()).thenReturn(BigDecimal.TEN);
+
+        provider.getPercentage();
+        clock.addAndGet(Duration.ofMinutes(10).toNanos());
+        PercentageSnapshot snapshot = provider.getPercentage();
+
+        assertEquals(BigDecimal.TEN, snapshot.value());
+        assertFalse(snapshot.stale());
+        assertTrue(pendingRefreshes.isEmpty());
+        verify(percentagePort, times(1)).getPercentage();
+    }
+
+    @Test
+    void getPercentage_AfterRefreshAheadThreshold_ShouldRefreshInBackground() {
+        when(percentagePort.getPercentage())
+                .thenReturn(BigDecimal.TEN)
+                .thenReturn(BigDecimal.valueOf(12));
+
+        provider.getPercentage();
+        clock.addAndGet(Duration.ofMinutes(26).toNanos());
+
+        // Mientras el refresco está pendiente se sigue sirviendo el valor actual
+        assertEquals(BigDecimal.TEN, provider.getPercentage().value());
+        assertEquals(1, pendingRefreshes.size());
+
+        pendingRefreshes.poll().run();
+
+        assertEquals(BigDecimal.valueOf(12), provider.getPercentage().value());
+        verify(percentagePort, times(2)).getPercentage();
+    }
+
+    @Test
+    void getPercentage_WhenRefreshIsPending_ShouldNotScheduleAnotherOne() {
+        when(percentagePort.getPercentage()).thenReturn(BigDecimal.TEN);
+
+        provider.getPercentage();
+        clock.addAndGet(Duration.ofMinutes(27).toNanos());
+        provider.getPercentage();
+        provider.getPercentage();
+
+        assertEquals(1, pendingRefreshes.size());
+    }
+
+    @Test
+    void getPercentage_WhenRefreshFailsPastTtl_ShouldServeLastValueAsStale() {
+        when(percentagePort.getPercentage())
+                .thenReturn(BigDecimal.TEN)
+                .thenThrow(new RuntimeException("Servicio externo caído"));
+
+        provider.getPercentage();
+        clock.addAndGet(Duration.ofMinutes(31).toNanos());
+
+        PercentageSnapshot snapshot = provider.getPercentage();
+        pendingRefreshes.poll().run();
+
+        assertEquals(BigDecimal.TEN, snapshot.value());
+        assertTrue(snapshot.stale());
+        assertTrue(provider.getPercentage().stale());
+    }
+
+    @Test
+    void getPercentage_WhileServiceKeepsFailing_ShouldBackOffBetweenRefreshes() {
+        when(percentagePort.getPercentage())
+                .thenReturn(BigDecimal.TEN)
+                .thenThrow(new RuntimeException("Servicio externo caído"));
+
+        provider.getPercentage();
+        clock.addAndGet(Duration.ofMinutes(31).toNanos());
+        provider.getPercentage();
+        pendingRefreshes.poll().run();
+
+        // Dentro del backoff ningún request vuelve a agendar el refresco
+        for (int i = 0; i < 100; i++) {
+            provider.getPercentage();
+        }
+        assertTrue(pendingRefreshes.isEmpty());
+
+        clock.addAndGet(Duration.ofSeconds(1).toNanos());
+        provider.getPercentage();
+        pendingRefreshes.poll().run();
+
+        // El segundo fallo duplica la espera
+        clock.addAndGet(Duration.ofSeconds(1).toNanos());
+        provider.getPercentage();
+        assertTrue(pendingRefreshes.isEmpty());
+        clock.addAndGet(Duration.ofSeconds(1).toNanos());
+        provider.getPercentage();
+        assertEquals(1, pendingRefreshes.size());
+        verify(percentagePort, times(3)).getPercentage();
+    }
+
+    @Test
+    void getPercentage_AfterFailedInitialLoad_ShouldServeSharedValueAndBackOff() {
+        Instant now = Instant.now();
+        when(percentagePort.getPercentage()).thenThrow(new RuntimeException("Servicio externo caído"));
+        when(cachePort.getPercentageEntry("percentage")).thenReturn(Optional.empty())
+                .thenReturn(Optional.of(new CachedPercentage(
+                        BigDecimal.valueOf(15), now.plus(Duration.ofMinutes(20)), now.plus(Duration.ofMinutes(25)))));
+
+        PercentageSnapshot snapshot = provider.getPercentage();
+        provider.getPercentage();
+
+        assertEquals(BigDecimal.valueOf(15), snapshot.value());
+        assertTrue(snapshot.stale());
+        assertTrue(pendingRefreshes.isEmpty());
+        verify(percentagePort, times(3)).getPercentage();
+    }
+
+    @Test
+    void getPercentage_WhenSharedEntryIsFresh_ShouldAdoptItWithoutCallingService() {
+        Instant now = Instant.now();
+        when(cachePort.getPercentageEntry("percentage")).thenReturn(Optional.of(
+                new CachedPercentage(BigDecimal.valueOf(15), now.plus(Duration.ofMinutes(20)), now.plus(Duration.ofMinutes(25)))));
+
+        PercentageSnapshot snapshot = provider.getPercentage();
+
+        assertEquals(BigDecimal.valueOf(15), snapshot.value());
+        assertFalse(snapshot.stale());
+        assertTrue(pendingRefreshes.isEmpty());
+        verify(percentagePort, never()).getPercentage();
+        verify(cachePort, never()).putPercentage(anyString(), any(), any(Duration.class), any(Duration.class));
+    }
+}
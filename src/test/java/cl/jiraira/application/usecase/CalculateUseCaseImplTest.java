@@ -1,5 +1,7 @@
 package cl.jiraira.application.usecase;
 
+import cl.jiraira.application.service.RefreshAheadPercentageProvider;
+import cl.jiraira.domain.model.CachedPercentage;
 import cl.jiraira.domain.model.Calculation;
 import cl.jiraira.domain.port.out.CachePort;
 import cl.jiraira.domain.port.out.PercentagePort;
@@ -10,6 +12,8 @@ import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 
 import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.Instant;
 import java.util.Optional;
 
 import static org.junit.jupiter.api.Assertions.*;
@@ -31,7 +35,9 @@ class CalculateUseCaseImplTest {
 
     @BeforeEach
     void setUp() {
-        calculateUseCase = new CalculateUseCaseImpl(percentagePort, cachePort);
+        RefreshAheadPercentageProvider percentageProvider = new RefreshAheadPercentageProvider(
+                percentagePort, cachePort, Duration.ofMinutes(25), Duration.ofMinutes(30), Runnable::run, System::nanoTime);
+        calculateUseCase = new CalculateUseCaseImpl(percentageProvider);
     }
 
     @Test
@@ -52,7 +58,7 @@ class CalculateUseCaseImplTest {
         System.out.println("DEBUG details: " + result.getDetails());
         assertTrue(result.getDetails().contains("(5.0 + 5.0) + 10.0%"));
 
-        verify(cachePort).putPercentage(anyString(), eq(percentage), any(Long.class));
+        verify(cachePort).putPercentage(anyString(), eq(percentage), any(Duration.class), any(Duration.class));
     }
 
     @Test
@@ -74,7 +80,7 @@ class CalculateUseCaseImplTest {
 
         // La implementación siempre intenta obtener del servicio externo primero
         verify(percentagePort).getPercentage();
-        verify(cachePort).putPercentage(anyString(), eq(cachedPercentage), any(Long.class));
+        verify(cachePort).putPercentage(anyString(), eq(cachedPercentage), any(Duration.class), any(Duration.class));
     }
 
     @Test
@@ -85,7 +91,8 @@ class CalculateUseCaseImplTest {
         BigDecimal cachedPercentage = BigDecimal.valueOf(15.0);
 
         when(percentagePort.getPercentage()).thenThrow(new RuntimeException("External service error"));
-        when(cachePort.getPercentage(anyString())).thenReturn(Optional.of(cachedPercentage));
+        when(cachePort.getPercentageEntry(anyString())).thenReturn(Optional.empty())
+                .thenReturn(Optional.of(sharedEntry(cachedPercentage)));
 
         // When
         Calculation result = calculateUseCase.calculate(num1, num2);
@@ -103,7 +110,8 @@ class CalculateUseCaseImplTest {
         BigDecimal cachedPercentage = BigDecimal.valueOf(15.0);
 
         when(percentagePort.getPercentage()).thenThrow(new RuntimeException("Servicio externo caído"));
-        when(cachePort.getPercentage(anyString())).thenReturn(Optional.of(cachedPercentage));
+        when(cachePort.getPercentageEntry(anyString())).thenReturn(Optional.empty())
+                .thenReturn(Optional.of(sharedEntry(cachedPercentage)));
 
         Calculation result = calculateUseCase.calculate(num1, num2);
 
@@ -120,7 +128,7 @@ class CalculateUseCaseImplTest {
         BigDecimal num2 = BigDecimal.valueOf(3.0);
 
         when(percentagePort.getPercentage()).thenThrow(new RuntimeException("Servicio externo caído"));
-        when(cachePort.getPercentage(anyString())).thenReturn(Optional.empty());
+        when(cachePort.getPercentageEntry(anyString())).thenReturn(Optional.empty());
 
         Exception exception = assertThrows(Exception.class, () -> calculateUseCase.calculate(num1, num2));
         assertTrue(exception.getMessage().contains("No se pudo obtener el porcentaje dinámico ni existe valor previo en caché"));
@@ -142,7 +150,7 @@ class CalculateUseCaseImplTest {
         assertEquals(0, BigDecimal.valueOf(2.2).compareTo(result.getResult()));
         assertEquals(percentage, result.getPercentage());
         verify(percentagePort, times(3)).getPercentage();
-        verify(cachePort).putPercentage(anyString(), eq(percentage), any(Long.class));
+        verify(cachePort).putPercentage(anyString(), eq(percentage), any(Duration.class), any(Duration.class));
     }
 
     @Test
@@ -156,7 +164,8 @@ class CalculateUseCaseImplTest {
             .thenThrow(new RuntimeException("Fallo 1"))
             .thenThrow(new RuntimeException("Fallo 2"))
             .thenThrow(new RuntimeException("Fallo 3"));
-        when(cachePort.getPercentage(anyString())).thenReturn(Optional.of(cachedPercentage));
+        when(cachePort.getPercentageEntry(anyString())).thenReturn(Optional.empty())
+                .thenReturn(Optional.of(sharedEntry(cachedPercentage)));
 
         Calculation result = calculateUseCase.calculate(num1, num2);
         assertEquals(cachedPercentage, result.getPercentage());
@@ -169,7 +178,7 @@ class CalculateUseCaseImplTest {
         BigDecimal num1 = BigDecimal.valueOf(2.0);
         BigDecimal num2 = BigDecimal.valueOf(8.0);
 
-        when(cachePort.getPercentage(anyString())).thenReturn(Optional.empty());
+        when(cachePort.getPercentageEntry(anyString())).thenReturn(Optional.empty());
         when(percentagePort.getPercentage()).thenThrow(new RuntimeException("Servicio externo caído"));
 
         assertThrows(cl.jiraira.domain.exception.PercentageUnavailableException.class, () -> {
@@ -178,4 +187,10 @@ class CalculateUseCaseImplTest {
         
         verify(percentagePort, times(3)).getPercentage();
     }
+
+    // Valor que otra réplica dejó en el caché compartido mientras se reintentaba el servicio externo
+    private static CachedPercentage sharedEntry(BigDecimal value) {
+        Instant now = Instant.now();
+        return new CachedPercentage(value, now.plus(Duration.ofMinutes(25)), now.plus(Duration.ofMinutes(30)));
+    }
 }
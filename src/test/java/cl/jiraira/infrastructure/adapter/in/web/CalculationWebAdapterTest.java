@@ -4,10 +4,12 @@ import cl.jiraira.domain.model.Calculation;
 import cl.jiraira.domain.port.in.ApiCallHistoryUseCase;
 import cl.jiraira.domain.port.in.CalculateUseCase;
 import cl.jiraira.infrastructure.adapter.in.web.dto.CalculationRequest;
+import cl.jiraira.infrastructure.config.HistoryCaptureConfig;
+import cl.jiraira.infrastructure.config.LatencyStatsConfig;
+import cl.jiraira.infrastructure.config.RateLimitProperties.RateLimitPolicy;
 import cl.jiraira.infrastructure.config.RateLimitingConfig;
-import cl.jiraira.infrastructure.interceptor.RateLimitInterceptor;
+import cl.jiraira.infrastructure.filter.RateLimitFilter;
 import com.fasterxml.jackson.databind.ObjectMapper;
-import jakarta.servlet.http.HttpServletResponse;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -20,16 +22,20 @@ import org.springframework.test.web.servlet.setup.MockMvcBuilders;
 import org.springframework.web.context.WebApplicationContext;
 
 import java.math.BigDecimal;
+import java.util.concurrent.TimeUnit;
 
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
 import static org.mockito.Mockito.when;
-import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
 @WebMvcTest(CalculationWebAdapter.class)
-@Import({RateLimitInterceptor.class})
+@Import({HistoryCaptureConfig.class, LatencyStatsConfig.class})
 class CalculationWebAdapterTest {
 
     @Autowired
@@ -41,9 +47,6 @@ class CalculationWebAdapterTest {
     @MockBean
     private CalculateUseCase calculateUseCase;
 
-    @MockBean
-    private RateLimitInterceptor rateLimitInterceptor;
-
     @MockBean
     private RateLimitingConfig rateLimitingConfig;
 
@@ -53,9 +56,11 @@ class CalculationWebAdapterTest {
     @BeforeEach
     public void setUp() throws Exception {
         mockMvc = MockMvcBuilders.webAppContextSetup(webApplicationContext)
+                .addFilter(new RateLimitFilter(rateLimitingConfig, new ObjectMapper()), "/api/*")
                 .build();
 
-        when(rateLimitInterceptor.preHandle(any(), any(), any())).thenReturn(true);
+        when(rateLimitingConfig.policyFor(anyString())).thenReturn(new RateLimitPolicy("/", 3, 3));
+        when(rateLimitingConfig.tryAcquire(anyString(), anyString())).thenReturn(2L);
     }
 
     @Test
@@ -74,6 +79,7 @@ class CalculationWebAdapterTest {
                         .contentType(MediaType.APPLICATION_JSON)
                         .content(new ObjectMapper().writeValueAsString(request)))
                 .andExpect(status().isOk())
+                .andExpect(header().string("RateLimit-Remaining", "2"))
                 .andExpect(jsonPath("$.result").exists())
                 .andExpect(jsonPath("$.percentage").exists())
                 .andExpect(jsonPath("$.details").exists());
@@ -106,19 +112,20 @@ class CalculationWebAdapterTest {
 
     @Test
     void calculate_WhenRateLimitExceeded_ShouldReturn429() throws Exception {
-        doAnswer(invocation -> {
-            HttpServletResponse response = invocation.getArgument(1);
-            response.setStatus(429);
-            response.setContentType("application/json");
-            response.getWriter().write("{\"status\":429,\"error\":\"Rate limit excedido\"}");
-            return false;
-        }).when(rateLimitInterceptor).preHandle(any(), any(), any());
+        when(rateLimitingConfig.tryAcquire(anyString(), anyString())).thenReturn(-TimeUnit.MILLISECONDS.toNanos(19_500));
 
         CalculationRequest request = new CalculationRequest(5.0, 6.0);
         mockMvc.perform(post("/api/v1/calculations/calculate")
                         .contentType(MediaType.APPLICATION_JSON)
                         .content(new ObjectMapper().writeValueAsString(request)))
-                .andExpect(status().isTooManyRequests());
+                .andExpect(status().isTooManyRequests())
+                .andExpect(header().string("Retry-After", "20"))
+                .andExpect(header().string("RateLimit-Limit", "3"))
+                .andExpect(header().string("RateLimit-Remaining", "0"))
+                .andExpect(jsonPath("$.status").value(429))
+                .andExpect(jsonPath("$.message").value("Máximo 3 requests por minuto permitidos"));
+
+        verify(calculateUseCase, never()).calculate(any(BigDecimal.class), any(BigDecimal.class));
     }
 
     @Test
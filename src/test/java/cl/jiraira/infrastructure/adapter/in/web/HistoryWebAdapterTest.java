@@ -1,27 +1,46 @@
 package cl.jiraira.infrastructure.adapter.in.web;
 
+import cl.jiraira.domain.exception.ApiCallNotFoundException;
 import cl.jiraira.domain.model.ApiCall;
+import cl.jiraira.domain.model.ApiCallSummary;
+import cl.jiraira.domain.model.HistoryCursor;
+import cl.jiraira.domain.model.HistoryFilter;
+import cl.jiraira.domain.model.HistorySlice;
 import cl.jiraira.domain.port.in.ApiCallHistoryUseCase;
 import cl.jiraira.infrastructure.adapter.in.web.dto.ApiCallHistoryResponse;
 import cl.jiraira.infrastructure.adapter.in.web.dto.ErrorResponse;
+import cl.jiraira.infrastructure.config.HistoryCaptureConfig;
+import cl.jiraira.infrastructure.config.LatencyStatsConfig;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 
 import java.time.LocalDateTime;
 import java.util.Arrays;
 import java.util.Collections;
+import java.util.function.Consumer;
 
+import static org.hamcrest.Matchers.containsString;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
 import static org.mockito.Mockito.when;
+import static org.mockito.Mockito.verify;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
 
 @WebMvcTest(HistoryWebAdapter.class)
+@Import({HistoryCaptureConfig.class, LatencyStatsConfig.class})
 class HistoryWebAdapterTest {
 
     @Autowired
@@ -35,20 +54,21 @@ class HistoryWebAdapterTest {
 
     @org.junit.jupiter.api.BeforeEach
     void setUp() {
-        org.mockito.Mockito.when(rateLimitingConfig.isAllowed(org.mockito.ArgumentMatchers.anyString())).thenReturn(true);
+        org.mockito.Mockito.when(rateLimitingConfig.tryAcquire(org.mockito.ArgumentMatchers.anyString(), org.mockito.ArgumentMatchers.anyString())).thenReturn(1L);
+        org.mockito.Mockito.when(rateLimitingConfig.policyFor(org.mockito.ArgumentMatchers.anyString())).thenReturn(new cl.jiraira.infrastructure.config.RateLimitProperties.RateLimitPolicy("/", 3, 3));
     }
 
     @Test
     void getHistory_ShouldReturnPagedHistory() throws Exception {
-        ApiCall call = new ApiCall(1L, "/api/v1/calculations/calculate", "POST", "{\"num1\":5,\"num2\":5}", "{\"result\":11}", 200, LocalDateTime.now(), 50L);
+        ApiCallSummary call = new ApiCallSummary(1L, LocalDateTime.now(), "/api/v1/calculations/calculate", "POST", 200, 50L);
         when(apiCallHistoryUseCase.getHistory(anyInt(), anyInt())).thenReturn(Collections.singletonList(call));
 
         mockMvc.perform(get("/api/v1/history?page=0&size=1"))
                 .andExpect(status().isOk())
                 .andExpect(jsonPath("$[0].endpoint").value("/api/v1/calculations/calculate"))
                 .andExpect(jsonPath("$[0].method").value("POST"))
-                .andExpect(jsonPath("$[0].parameters").exists())
-                .andExpect(jsonPath("$[0].response").exists())
+                .andExpect(jsonPath("$[0].parameters").doesNotExist())
+                .andExpect(jsonPath("$[0].response").doesNotExist())
                 .andExpect(jsonPath("$[0].statusCode").value(200));
     }
 
@@ -62,29 +82,168 @@ class HistoryWebAdapterTest {
 
     @Test
     void getHistory_ShouldReturnPaginatedApiCallHistory() throws Exception {
-        ApiCall call1 = ApiCall.builder()
-                .timestamp(LocalDateTime.of(2025,8,6,10,0))
-                .endpoint("/api/v1/calculations/calculate")
-                .requestBody("{num1:5,num2:5}")
-                .responseBody("{result:11}")
-                .build();
-        ApiCall call2 = ApiCall.builder()
-                .timestamp(LocalDateTime.of(2025,8,6,10,1))
-                .endpoint("/api/v1/calculations/calculate")
-                .requestBody("{num1:2,num2:3}")
-                .responseBody(null)
-                .build();
+        ApiCallSummary call1 = new ApiCallSummary(2L, LocalDateTime.of(2025,8,6,10,1), "/api/v1/calculations/calculate", "POST", 200, 40L);
+        ApiCallSummary call2 = new ApiCallSummary(1L, LocalDateTime.of(2025,8,6,10,0), "/api/v1/calculations/calculate", "POST", 400, 5L);
         when(apiCallHistoryUseCase.getHistory(0, 2)).thenReturn(Arrays.asList(call1, call2));
 
         mockMvc.perform(get("/api/v1/history?page=0&size=2")
                 .contentType(MediaType.APPLICATION_JSON))
             .andExpect(status().isOk())
             .andExpect(jsonPath("$[0].endpoint").value("/api/v1/calculations/calculate"))
-            .andExpect(jsonPath("$[0].parameters").value("{num1:5,num2:5}"))
-            .andExpect(jsonPath("$[0].response").value("{result:11}"))
+            .andExpect(jsonPath("$[0].statusCode").value(200))
             .andExpect(jsonPath("$[0].error").doesNotExist())
             .andExpect(jsonPath("$[1].endpoint").value("/api/v1/calculations/calculate"))
-            .andExpect(jsonPath("$[1].parameters").value("{num1:2,num2:3}"))
-            .andExpect(jsonPath("$[1].response").doesNotExist());
+            .andExpect(jsonPath("$[1].statusCode").value(400))
+            .andExpect(jsonPath("$[1].executionTimeMs").value(5));
+    }
+
+    @Test
+    void getApiCall_ShouldReturnFullBodies() throws Exception {
+        ApiCall call = new ApiCall(7L, "/api/v1/calculations/calculate", "POST", "{\"num1\":5,\"num2\":5}", "{\"result\":11}", 200, LocalDateTime.now(), 50L);
+        when(apiCallHistoryUseCase.getApiCall(7L, null)).thenReturn(call);
+
+        mockMvc.perform(get("/api/v1/history/7"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.id").value(7))
+                .andExpect(jsonPath("$.parameters").value("{\"num1\":5,\"num2\":5}"))
+                .andExpect(jsonPath("$.response").value("{\"result\":11}"));
+    }
+
+    @Test
+    void getApiCall_WhenMissing_ShouldReturnNotFound() throws Exception {
+        when(apiCallHistoryUseCase.getApiCall(99L, null)).thenThrow(new ApiCallNotFoundException(99L));
+
+        mockMvc.perform(get("/api/v1/history/99"))
+                .andExpect(status().isNotFound())
+                .andExpect(jsonPath("$.status").value(404));
+    }
+
+    @Test
+    void getApiCall_WithTimestamp_ShouldBoundTheLookup() throws Exception {
+        LocalDateTime timestamp = LocalDateTime.of(2025, 8, 6, 10, 0, 0, 123456000);
+        ApiCall call = new ApiCall(7L, "/api/v1/calculations/calculate", "POST", null, "{\"result\":11}", 200, timestamp, 50L);
+        when(apiCallHistoryUseCase.getApiCall(7L, timestamp)).thenReturn(call);
+
+        mockMvc.perform(get("/api/v1/history/7").param("timestamp", "2025-08-06T10:00:00.123456"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.id").value(7));
+    }
+
+    @Test
+    void getHistory_WithoutPage_ShouldUseCursorAndReturnNextCursorHeader() throws Exception {
+        ApiCallSummary call = new ApiCallSummary(42L, LocalDateTime.of(2025, 8, 6, 10, 0), "/api/v1/calculations/calculate", "POST", 200, 50L);
+        HistoryCursor next = HistoryCursor.after(call);
+        when(apiCallHistoryUseCase.getHistory(eq(HistoryFilter.NONE), isNull(HistoryCursor.class), eq(1)))
+                .thenReturn(new HistorySlice(Collections.singletonList(call), next));
+
+        mockMvc.perform(get("/api/v1/history?size=1"))
+                .andExpect(status().isOk())
+                .andExpect(header().string("X-Next-Cursor", next.encode()))
+                .andExpect(jsonPath("$[0].id").value(42));
+    }
+
+    @Test
+    void getHistory_WithCursor_ShouldContinueFromCursorPosition() throws Exception {
+        HistoryCursor cursor = new HistoryCursor(LocalDateTime.of(2025, 8, 6, 10, 0), 42L);
+        when(apiCallHistoryUseCase.getHistory(HistoryFilter.NONE, cursor, 10)).thenReturn(new HistorySlice(Collections.emptyList(), null));
+
+        mockMvc.perform(get("/api/v1/history").param("cursor", cursor.encode()))
+                .andExpect(status().isOk())
+                .andExpect(header().doesNotExist("X-Next-Cursor"))
+                .andExpect(jsonPath("$").isEmpty());
+    }
+
+    @Test
+    void getHistory_WithFilters_ShouldPassThemToUseCase() throws Exception {
+        HistoryFilter filter = new HistoryFilter(LocalDateTime.of(2025, 8, 6, 0, 0), null,
+                "/api/v1/calculations/calculate", "POST", null, 5, 1000L);
+        when(apiCallHistoryUseCase.getHistory(filter, null, 10)).thenReturn(new HistorySlice(Collections.emptyList(), null));
+
+        mockMvc.perform(get("/api/v1/history")
+                        .param("from", "2025-08-06T00:00:00")
+                        .param("endpoint", "/api/v1/calculations/calculate")
+                        .param("method", "POST")
+                        .param("statusClass", "5")
+                        .param("minExecutionTimeMs", "1000"))
+                .andExpect(status().isOk());
+
+        verify(apiCallHistoryUseCase).getHistory(filter, null, 10);
+    }
+
+    @Test
+    void getHistory_WithFiltersAndPage_ShouldReturnBadRequest() throws Exception {
+        mockMvc.perform(get("/api/v1/history").param("page", "0").param("statusClass", "5"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void getHistory_InvalidStatusClass_ShouldReturnBadRequest() throws Exception {
+        mockMvc.perform(get("/api/v1/history").param("statusClass", "7"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.status").value(400));
+    }
+
+    @Test
+    void getHistory_InvalidCursor_ShouldReturnBadRequest() throws Exception {
+        mockMvc.perform(get("/api/v1/history").param("cursor", "no-es-un-cursor"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.status").value(400));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void exportHistory_AsNdjson_ShouldStreamOneObjectPerLine() throws Exception {
+        ApiCall call = new ApiCall(1L, "/api/v1/calculations/calculate", "POST", "{\"num1\":5}", null, 200, LocalDateTime.of(2025, 8, 6, 10, 0), 50L);
+        when(apiCallHistoryUseCase.exportHistory(any(HistoryFilter.class), any())).thenAnswer(invocation -> {
+            Consumer<ApiCall> sink = invocation.getArgument(1);
+            sink.accept(call);
+            sink.accept(call);
+            return 2L;
+        });
+
+        MvcResult started = mockMvc.perform(get("/api/v1/history/export")
+                        .param("from", "2025-08-06T00:00:00")
+                        .param("status", "200"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        String body = mockMvc.perform(asyncDispatch(started))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType("application/x-ndjson"))
+                .andReturn().getResponse().getContentAsString();
+
+        String[] lines = body.split("\n");
+        assertEquals(2, lines.length);
+        assertTrue(lines[0].contains("\"parameters\":\"{\\\"num1\\\":5}\""));
+        verify(apiCallHistoryUseCase).exportHistory(
+                eq(new HistoryFilter(LocalDateTime.of(2025, 8, 6, 0, 0), null, null, null, 200, null, null)), any());
+    }
+
+    @Test
+    void exportHistory_AsCsv_ShouldQuoteValuesWithSeparators() throws Exception {
+        ApiCall call = new ApiCall(1L, "/api/v1/calculations/calculate", "POST", "{\"num1\":5,\"num2\":5}", null, 200, LocalDateTime.of(2025, 8, 6, 10, 0), 50L);
+        when(apiCallHistoryUseCase.exportHistory(any(HistoryFilter.class), any())).thenAnswer(invocation -> {
+            Consumer<ApiCall> sink = invocation.getArgument(1);
+            sink.accept(call);
+            return 1L;
+        });
+
+        MvcResult started = mockMvc.perform(get("/api/v1/history/export").param("format", "csv"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mockMvc.perform(asyncDispatch(started))
+                .andExpect(status().isOk())
+                .andExpect(header().string("Content-Disposition", containsString("api-call-history.csv")))
+                .andExpect(content().string(
+                        "id,timestamp,endpoint,method,statusCode,executionTimeMs,parameters,response\r\n"
+                                + "1,2025-08-06T10:00,/api/v1/calculations/calculate,POST,200,50,\"{\"\"num1\"\":5,\"\"num2\"\":5}\",\r\n"));
+    }
+
+    @Test
+    void exportHistory_WithInvalidFormat_ShouldReturnBadRequest() throws Exception {
+        mockMvc.perform(get("/api/v1/history/export").param("format", "xml"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.status").value(400));
     }
 }
@@ -0,0 +1,71 @@
+package cl.jiraira.infrastructure.adapter.in.web;
+
+import cl.jiraira.domain.port.in.ApiCallHistoryUseCase;
+import cl.jiraira.infrastructure.config.HistoryCaptureConfig;
+import cl.jiraira.infrastructure.config.LatencyStatsConfig;
+import cl.jiraira.infrastructure.config.RateLimitProperties.RateLimitPolicy;
+import cl.jiraira.infrastructure.config.RateLimitingConfig;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@WebMvcTest(StatsWebAdapter.class)
+@Import({HistoryCaptureConfig.class, LatencyStatsConfig.class})
+class StatsWebAdapterTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private LatencyStatsConfig latencyStatsConfig;
+
+    @MockBean
+    private RateLimitingConfig rateLimitingConfig;
+
+    @MockBean
+    private ApiCallHistoryUseCase apiCallHistoryUseCase;
+
+    @BeforeEach
+    void setUp() {
+        when(rateLimitingConfig.policyFor(anyString())).thenReturn(new RateLimitPolicy("/", 3, 3));
+        when(rateLimitingConfig.tryAcquire(anyString(), anyString())).thenReturn(2L);
+    }
+
+    @Test
+    void getStats_ShouldReportWindowPercentilesPerEndpoint() throws Exception {
+        latencyStatsConfig.record("/api/v1/calculations/calculate", "POST", 201, TimeUnit.MILLISECONDS.toNanos(10));
+
+        mockMvc.perform(get("/api/v1/stats"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.windowSeconds").value(300))
+                .andExpect(jsonPath("$.endpoints[0].endpoint").value("/api/v1/calculations/calculate"))
+                .andExpect(jsonPath("$.endpoints[0].method").value("POST"))
+                .andExpect(jsonPath("$.endpoints[0].status").value("2xx"))
+                .andExpect(jsonPath("$.endpoints[0].count").value(1))
+                .andExpect(jsonPath("$.endpoints[0].p50Ms").value(10.0))
+                .andExpect(jsonPath("$.endpoints[0].p90Ms").value(10.0))
+                .andExpect(jsonPath("$.endpoints[0].p99Ms").value(10.0))
+                .andExpect(jsonPath("$.endpoints[0].maxMs").value(10.0));
+    }
+
+    @Test
+    void getStats_ShouldIncludeCallsRecordedByTheInterceptor() throws Exception {
+        mockMvc.perform(get("/api/v1/stats")).andExpect(status().isOk());
+
+        // La ruta /api/v1/stats no se registra en el historial, pero sí cuenta en las latencias
+        mockMvc.perform(get("/api/v1/stats"))
+                .andExpect(jsonPath("$.endpoints[?(@.endpoint == '/api/v1/stats' && @.method == 'GET')]").isNotEmpty());
+    }
+}
@@ -0,0 +1,72 @@
+package cl.jiraira.infrastructure.adapter.in.web.stream;
+
+import cl.jiraira.domain.model.ApiCall;
+import cl.jiraira.domain.model.HistoryFilter;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class HistoryStreamBroadcasterTest {
+
+    private final MeterRegistry meterRegistry = new SimpleMeterRegistry();
+    // Los envíos quedan pendientes hasta que el test los ejecuta, como un cliente que no lee
+    private final List<Runnable> pendingSends = new ArrayList<>();
+    private final HistoryStreamBroadcaster broadcaster = new HistoryStreamBroadcaster(new ObjectMapper().findAndRegisterModules(),
+            meterRegistry, 2, 2, Duration.ofMinutes(1), pendingSends::add);
+
+    @Test
+    void onApiCall_ShouldBufferMatchingCallsAndDropWhenSubscriberIsFull() {
+        broadcaster.subscribe(new HistoryFilter(null, null, null, null, null, 5, null));
+
+        broadcaster.onApiCall(call(200));
+        for (int i = 0; i < 4; i++) {
+            broadcaster.onApiCall(call(503));
+        }
+
+        // Un solo envío programado aunque lleguen varias llamadas
+        assertEquals(1, pendingSends.size());
+        assertEquals(2.0, meterRegistry.get("api.history.stream.dropped").counter().count());
+
+        pendingSends.remove(0).run();
+        assertEquals(2.0, meterRegistry.get("api.history.stream.sent").counter().count());
+
+        broadcaster.onApiCall(call(500));
+        assertEquals(1, pendingSends.size());
+    }
+
+    @Test
+    void subscribe_ShouldRejectSubscribersOverTheLimit() {
+        broadcaster.subscribe(HistoryFilter.NONE);
+        broadcaster.subscribe(HistoryFilter.NONE);
+
+        assertThrows(SubscriberLimitExceededException.class, () -> broadcaster.subscribe(HistoryFilter.NONE));
+        assertEquals(2, broadcaster.subscriberCount());
+        assertEquals(2.0, meterRegistry.get("api.history.stream.subscribers").gauge().value());
+    }
+
+    @Test
+    void onApiCall_WithoutSubscribers_ShouldDoNothing() {
+        broadcaster.onApiCall(call(200));
+
+        assertTrue(pendingSends.isEmpty());
+        assertEquals(0.0, meterRegistry.get("api.history.stream.dropped").counter().count());
+    }
+
+    private static ApiCall call(int status) {
+        return ApiCall.builder()
+                .endpoint("/api/v1/calculations/calculate")
+                .method("POST")
+                .responseStatus(status)
+                .timestamp(LocalDateTime.of(2025, 8, 6, 10, 0))
+                .executionTimeMs(5L)
+                .build();
+    }
+}
@@ -0,0 +1,156 @@
+package cl.jiraira.infrastructure.adapter.out.archive;
+
+import cl.jiraira.domain.model.ApiCall;
+import cl.jiraira.domain.model.ApiCallSummary;
+import cl.jiraira.domain.model.HistoryCursor;
+import cl.jiraira.domain.model.HistoryFilter;
+import cl.jiraira.domain.port.out.ApiCallArchivePort;
+import cl.jiraira.domain.port.out.ApiCallArchivePort.SegmentWriter;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.util.unit.DataSize;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ColumnarSegmentArchiveTest {
+
+    private static final LocalDateTime DAY_ONE = LocalDateTime.of(2025, 5, 1, 0, 0);
+    private static final LocalDateTime DAY_TWO = DAY_ONE.plusDays(1);
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void findById_AfterReopen_ShouldReturnCallWithBodies() {
+        ColumnarSegmentArchive archive = open();
+        archive(archive, "day-one", DAY_ONE, 1, 100);
+
+        ApiCall found = open().findById(42).orElseThrow();
+
+        assertEquals(DAY_ONE.plusSeconds(41), found.timestamp());
+        assertEquals("{\"num1\":41}", found.requestBody());
+        assertNull(found.responseBody());
+        assertEquals("/api/v1/calculations/calculate", found.endpoint());
+        assertTrue(open().findById(500).isEmpty());
+        assertEquals(found, open().findById(42, DAY_ONE.plusSeconds(41)).orElseThrow());
+        assertTrue(open().findById(42, DAY_ONE.plusSeconds(40)).isEmpty());
+        assertTrue(open().findById(42, DAY_ONE.minusDays(1)).isEmpty());
+    }
+
+    @Test
+    void findHistory_ShouldPageAcrossSegmentsNewestFirst() {
+        ColumnarSegmentArchive archive = open();
+        archive(archive, "day-one", DAY_ONE, 1, 30);
+        archive(archive, "day-two", DAY_TWO, 31, 30);
+
+        List<ApiCallSummary> first = archive.findHistory(HistoryFilter.NONE, null, 40);
+        List<ApiCallSummary> second = archive.findHistory(HistoryFilter.NONE, HistoryCursor.after(first.get(39)), 40);
+
+        assertEquals(60L, first.get(0).id());
+        assertEquals(21L, first.get(39).id());
+        assertEquals(List.of(20L, 19L), second.subList(0, 2).stream().map(ApiCallSummary::id).toList());
+        assertEquals(20, second.size());
+    }
+
+    @Test
+    void findHistory_WhenSummariesDoNotFitTheCache_ShouldStillPageCorrectly() {
+        ColumnarSegmentArchive archive = new ColumnarSegmentArchive(directory, DataSize.ofBytes(1), new SimpleMeterRegistry());
+        archive(archive, "day-one", DAY_ONE, 1, 30);
+
+        List<ApiCallSummary> first = archive.findHistory(HistoryFilter.NONE, null, 20);
+        List<ApiCallSummary> second = archive.findHistory(HistoryFilter.NONE, HistoryCursor.after(first.get(19)), 20);
+
+        assertEquals(30L, first.get(0).id());
+        assertEquals(List.of(10L, 9L), second.subList(0, 2).stream().map(ApiCallSummary::id).toList());
+        assertEquals(10, second.size());
+    }
+
+    @Test
+    void findHistory_ShouldApplyFiltersAndSkipSegmentsByMetadata() {
+        ColumnarSegmentArchive archive = open();
+        archive(archive, "day-one", DAY_ONE, 1, 50);
+        archive(archive, "day-two", DAY_TWO, 51, 50);
+
+        HistoryFilter serverErrorsOnDayTwo = new HistoryFilter(DAY_TWO, null, null, "POST", null, 5, null);
+        List<ApiCallSummary> errors = archive.findHistory(serverErrorsOnDayTwo, null, 100);
+
+        assertFalse(errors.isEmpty());
+        assertTrue(errors.stream().allMatch(call -> call.responseStatus() >= 500 && call.id() > 50));
+        assertTrue(archive.findHistory(new HistoryFilter(null, null, "/unknown", null, null, null, null), null, 10).isEmpty());
+    }
+
+    @Test
+    void export_ShouldStreamMatchingCallsInChronologicalOrder() {
+        ColumnarSegmentArchive archive = open();
+        archive(archive, "day-two", DAY_TWO, 51, 50);
+        archive(archive, "day-one", DAY_ONE, 1, 50);
+        List<ApiCall> exported = new ArrayList<>();
+
+        long count = archive.export(new HistoryFilter(null, null, "/api/v1/history", null, null, null, 10L), exported::add);
+
+        assertEquals(count, exported.size());
+        assertTrue(exported.stream().allMatch(call -> call.endpoint().equals("/api/v1/history") && call.executionTimeMs() >= 10));
+        assertEquals(exported.stream().map(ApiCall::id).sorted().toList(), exported.stream().map(ApiCall::id).toList());
+    }
+
+    @Test
+    void snapshot_ShouldOnlySeeSegmentsPublishedBeforeIt() {
+        ColumnarSegmentArchive archive = open();
+        archive(archive, "day-one", DAY_ONE, 1, 50);
+        ApiCallArchivePort.Snapshot snapshot = archive.snapshot();
+        archive(archive, "day-two", DAY_TWO, 51, 50);
+
+        assertTrue(snapshot.contains(1));
+        assertTrue(snapshot.contains(50));
+        assertFalse(snapshot.contains(51));
+        assertEquals(50, snapshot.export(HistoryFilter.NONE, call -> { }));
+        assertTrue(archive.snapshot().contains(51));
+    }
+
+    @Test
+    void openSegment_WhenNotCommitted_ShouldLeaveNoFiles() throws IOException {
+        ColumnarSegmentArchive archive = open();
+        try (SegmentWriter writer = archive.openSegment("abandoned")) {
+            writer.append(call(1, DAY_ONE));
+        }
+
+        try (Stream<Path> files = Files.list(directory)) {
+            assertEquals(0, files.count());
+        }
+        assertTrue(archive.findById(1).isEmpty());
+    }
+
+    private ColumnarSegmentArchive open() {
+        return new ColumnarSegmentArchive(directory, DataSize.ofMegabytes(64), new SimpleMeterRegistry());
+    }
+
+    private static void archive(ColumnarSegmentArchive archive, String segmentId, LocalDateTime start, long firstId, int count) {
+        try (SegmentWriter writer = archive.openSegment(segmentId)) {
+            for (int i = 0; i < count; i++) {
+                writer.append(call(firstId + i, start.plusSeconds(i)));
+            }
+            writer.commit();
+        }
+    }
+
+    private static ApiCall call(long id, LocalDateTime timestamp) {
+        boolean calculation = id % 2 == 0;
+        return new ApiCall(id,
+                calculation ? "/api/v1/calculations/calculate" : "/api/v1/history",
+                calculation ? "POST" : "GET",
+                calculation ? "{\"num1\":" + (id - 1) + "}" : null,
+                null,
+                id % 7 == 0 ? 503 : 200,
+                timestamp,
+                id % 20);
+    }
+}
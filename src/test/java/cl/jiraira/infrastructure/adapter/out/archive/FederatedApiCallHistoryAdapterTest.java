@@ -0,0 +1,101 @@
+package cl.jiraira.infrastructure.adapter.out.archive;
+
+import cl.jiraira.domain.model.ApiCall;
+import cl.jiraira.domain.model.ApiCallSummary;
+import cl.jiraira.domain.model.HistoryCursor;
+import cl.jiraira.domain.model.HistoryFilter;
+import cl.jiraira.domain.model.HistorySlice;
+import cl.jiraira.domain.port.out.ApiCallArchivePort;
+import cl.jiraira.domain.port.out.ApiCallHistoryPort;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class FederatedApiCallHistoryAdapterTest {
+
+    private static final LocalDateTime BASE = LocalDateTime.of(2025, 8, 6, 10, 0);
+
+    @Mock
+    private ApiCallHistoryPort hot;
+
+    @Mock
+    private ApiCallArchivePort archive;
+
+    private FederatedApiCallHistoryAdapter adapter;
+
+    @BeforeEach
+    void setUp() {
+        adapter = new FederatedApiCallHistoryAdapter(hot, archive);
+    }
+
+    @Test
+    void findHistory_ShouldMergeHotAndArchivedRowsNewestFirst() {
+        when(hot.findHistory(HistoryFilter.NONE, null, 3)).thenReturn(new HistorySlice(List.of(summary(10, 60)), null));
+        when(archive.findHistory(HistoryFilter.NONE, null, 4)).thenReturn(List.of(summary(5, 30), summary(4, 20), summary(3, 10)));
+
+        HistorySlice slice = adapter.findHistory(HistoryFilter.NONE, null, 3);
+
+        assertEquals(List.of(10L, 5L, 4L), slice.items().stream().map(ApiCallSummary::id).toList());
+        assertEquals(new HistoryCursor(BASE.plusMinutes(20), 4), slice.next());
+    }
+
+    @Test
+    void findHistory_WhenBothSourcesAreExhausted_ShouldHaveNoNextPage() {
+        when(hot.findHistory(HistoryFilter.NONE, null, 3)).thenReturn(new HistorySlice(List.of(summary(10, 60)), null));
+        when(archive.findHistory(HistoryFilter.NONE, null, 4)).thenReturn(List.of(summary(10, 60), summary(5, 30)));
+
+        HistorySlice slice = adapter.findHistory(HistoryFilter.NONE, null, 3);
+
+        // La llamada 10 quedó en ambos lados por un archivado interrumpido
+        assertEquals(List.of(10L, 5L), slice.items().stream().map(ApiCallSummary::id).toList());
+        assertFalse(slice.hasNext());
+    }
+
+    @Test
+    void findHistory_WhenDatabaseFillsThePage_ShouldOnlyAskArchiveForCallsNotOlderThanIt() {
+        HistoryCursor next = new HistoryCursor(BASE.plusMinutes(50), 9);
+        when(hot.findHistory(HistoryFilter.NONE, null, 2))
+                .thenReturn(new HistorySlice(List.of(summary(10, 60), summary(9, 50)), next));
+        HistoryFilter bounded = HistoryFilter.NONE.notBefore(BASE.plusMinutes(50));
+        when(archive.findHistory(bounded, null, 3)).thenReturn(List.of());
+
+        HistorySlice slice = adapter.findHistory(HistoryFilter.NONE, null, 2);
+
+        assertEquals(List.of(10L, 9L), slice.items().stream().map(ApiCallSummary::id).toList());
+        assertEquals(next, slice.next());
+        verify(archive).findHistory(bounded, null, 3);
+    }
+
+    @Test
+    void findById_WhenNotInDatabase_ShouldLookInArchive() {
+        ApiCall archived = new ApiCall(7L, "/api/v1/history", "GET", null, null, 200, BASE, 3L);
+        when(hot.findById(7)).thenReturn(Optional.empty());
+        when(archive.findById(7)).thenReturn(Optional.of(archived));
+
+        assertEquals(Optional.of(archived), adapter.findById(7));
+    }
+
+    @Test
+    void saveAll_ShouldOnlyWriteToDatabase() {
+        List<ApiCall> calls = List.of(new ApiCall(null, "/api/v1/history", "GET", null, null, 200, BASE, 3L));
+
+        adapter.saveAll(calls);
+
+        verify(hot).saveAll(calls);
+        verifyNoInteractions(archive);
+    }
+
+    private static ApiCallSummary summary(long id, int minutes) {
+        return new ApiCallSummary(id, BASE.plusMinutes(minutes), "/api/v1/history", "GET", 200, 1L);
+    }
+}
@@ -0,0 +1,75 @@
+package cl.jiraira.infrastructure.adapter.out.archive;
+
+import cl.jiraira.domain.model.ApiCall;
+import cl.jiraira.domain.model.HistoryFilter;
+import cl.jiraira.domain.port.out.ApiCallArchivePort;
+import cl.jiraira.domain.port.out.ApiCallHistoryExportPort;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class FederatedApiCallHistoryExportAdapterTest {
+
+    private static final LocalDateTime BASE = LocalDateTime.of(2025, 8, 6, 10, 0);
+
+    @Mock
+    private ApiCallHistoryExportPort hot;
+
+    @Mock
+    private ApiCallArchivePort archive;
+
+    private FederatedApiCallHistoryExportAdapter adapter;
+
+    @BeforeEach
+    void setUp() {
+        adapter = new FederatedApiCallHistoryExportAdapter(hot, archive);
+    }
+
+    @Test
+    void export_WhenArchivedPartitionIsStillInDatabase_ShouldExportEachCallOnce() {
+        // Las llamadas 3 y 4 ya se archivaron pero su partición todavía no se elimina
+        when(archive.snapshot()).thenReturn(new FixedSnapshot(List.of(call(1), call(2), call(3), call(4))));
+        when(hot.export(eq(HistoryFilter.NONE), any())).thenAnswer(invocation -> {
+            Consumer<ApiCall> sink = invocation.getArgument(1);
+            List.of(call(3), call(4), call(5), call(6)).forEach(sink);
+            return 4L;
+        });
+        List<ApiCall> exported = new ArrayList<>();
+
+        long count = adapter.export(HistoryFilter.NONE, exported::add);
+
+        assertEquals(List.of(1L, 2L, 3L, 4L, 5L, 6L), exported.stream().map(ApiCall::id).toList());
+        assertEquals(6, count);
+    }
+
+    private static ApiCall call(long id) {
+        return new ApiCall(id, "/api/v1/history", "GET", null, null, 200, BASE.plusMinutes(id), 1L);
+    }
+
+    private record FixedSnapshot(List<ApiCall> calls) implements ApiCallArchivePort.Snapshot {
+
+        @Override
+        public long export(HistoryFilter filter, Consumer<ApiCall> sink) {
+            calls.forEach(sink);
+            return calls.size();
+        }
+
+        @Override
+        public boolean contains(long id) {
+            return calls.stream().anyMatch(call -> call.id() == id);
+        }
+    }
+}
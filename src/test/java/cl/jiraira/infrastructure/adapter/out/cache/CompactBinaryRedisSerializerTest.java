@@ -0,0 +1,52 @@
+package cl.jiraira.infrastructure.adapter.out.cache;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.serializer.GenericJackson2JsonRedisSerializer;
+import org.springframework.data.redis.serializer.SerializationException;
+
+import java.math.BigDecimal;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CompactBinaryRedisSerializerTest {
+
+    private final CompactBinaryRedisSerializer serializer = new CompactBinaryRedisSerializer();
+
+    @Test
+    void roundTrip_WithPercentageEntry_ShouldPreserveExactDecimalAndExpirations() {
+        PercentageCacheEntry entry = new PercentageCacheEntry(new BigDecimal("10.125"), 1_000L, 2_000L);
+
+        byte[] bytes = serializer.serialize(entry);
+
+        assertEquals(entry, serializer.deserialize(bytes));
+        assertTrue(bytes.length < new GenericJackson2JsonRedisSerializer().serialize(entry).length);
+    }
+
+    @Test
+    void roundTrip_WithDecimalWiderThanLong_ShouldKeepUnscaledValueAndScale() {
+        BigDecimal wide = new BigDecimal("123456789012345678901234567890.000000001");
+
+        Object decoded = serializer.deserialize(serializer.serialize(wide));
+
+        assertEquals(wide, decoded);
+        assertEquals(wide.scale(), ((BigDecimal) decoded).scale());
+    }
+
+    @Test
+    void deserialize_WithLegacyJsonValue_ShouldFallBackToJson() {
+        byte[] json = new GenericJackson2JsonRedisSerializer().serialize(new HashMap<>(Map.of("percentage", 10)));
+
+        assertEquals(Map.of("percentage", 10), serializer.deserialize(json));
+    }
+
+    @Test
+    void deserialize_WithTruncatedValue_ShouldFail() {
+        byte[] bytes = serializer.serialize(BigDecimal.TEN);
+
+        assertThrows(SerializationException.class,
+                () -> serializer.deserialize(Arrays.copyOf(bytes, bytes.length - 3)));
+    }
+}
@@ -0,0 +1,121 @@
+package cl.jiraira.infrastructure.adapter.out.cache;
+
+import cl.jiraira.domain.model.CachedPercentage;
+import cl.jiraira.domain.port.out.CachePort;
+import cl.jiraira.infrastructure.adapter.out.cache.invalidation.CacheInvalidation;
+import cl.jiraira.infrastructure.adapter.out.cache.invalidation.LocalCacheInvalidationBus;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class TieredCacheAdapterTest {
+
+    @Mock
+    private CachePort sharedCache;
+
+    private MeterRegistry meterRegistry;
+    private LocalCacheInvalidationBus invalidationBus;
+    private TieredCacheAdapter cache;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        invalidationBus = new LocalCacheInvalidationBus();
+        cache = new TieredCacheAdapter(sharedCache, 10, Duration.ofMinutes(1), invalidationBus, meterRegistry);
+    }
+
+    @Test
+    void getPercentage_WhenOnlyInSharedCache_ShouldLoadIntoNearCache() {
+        when(sharedCache.getPercentageEntry("percentage")).thenReturn(Optional.of(entry(BigDecimal.TEN, Duration.ofMinutes(30))));
+
+        assertEquals(Optional.of(BigDecimal.TEN), cache.getPercentage("percentage"));
+        assertEquals(Optional.of(BigDecimal.TEN), cache.getPercentage("percentage"));
+
+        verify(sharedCache, times(1)).getPercentageEntry("percentage");
+        assertEquals(1.0, count("l1", "hit"));
+        assertEquals(1.0, count("l1", "miss"));
+        assertEquals(1.0, count("l2", "hit"));
+        assertEquals(1.0, meterRegistry.get("percentage.cache.loads").counter().count());
+    }
+
+    @Test
+    void putPercentage_ShouldWriteBothTiersAndServeFromNearCache() {
+        cache.putPercentage("percentage", BigDecimal.TEN, Duration.ofMinutes(25), Duration.ofMinutes(30));
+
+        assertEquals(Optional.of(BigDecimal.TEN), cache.getPercentage("percentage"));
+        verify(sharedCache).putPercentage("percentage", BigDecimal.TEN, Duration.ofMinutes(25), Duration.ofMinutes(30));
+        verify(sharedCache, never()).getPercentageEntry(anyString());
+    }
+
+    @Test
+    void getPercentageEntry_WhenNearEntryIsHardExpired_ShouldGoToSharedCache() {
+        cache.putPercentage("percentage", BigDecimal.TEN, Duration.ZERO, Duration.ZERO);
+
+        assertEquals(Optional.empty(), cache.getPercentageEntry("percentage"));
+        verify(sharedCache).getPercentageEntry("percentage");
+    }
+
+    @Test
+    void getPercentageEntry_ShouldKeepSoftExpiration() {
+        cache.putPercentage("percentage", BigDecimal.TEN, Duration.ZERO, Duration.ofMinutes(30));
+
+        CachedPercentage entry = cache.getPercentageEntry("percentage").orElseThrow();
+
+        assertTrue(entry.isStale(Instant.now()));
+        assertFalse(entry.isExpired(Instant.now()));
+    }
+
+    @Test
+    void evictPercentage_ShouldEvictBothTiers() {
+        cache.putPercentage("percentage", BigDecimal.TEN, Duration.ofMinutes(25), Duration.ofMinutes(30));
+        cache.evictPercentage("percentage");
+
+        assertEquals(Optional.empty(), cache.getPercentage("percentage"));
+        verify(sharedCache).evictPercentage("percentage");
+        assertEquals(1.0, count("l2", "miss"));
+    }
+
+    @Test
+    void invalidation_FromAnotherNode_ShouldDropNearCacheEntry() {
+        cache.putPercentage("percentage", BigDecimal.TEN, Duration.ofMinutes(25), Duration.ofMinutes(30));
+        when(sharedCache.getPercentageEntry("percentage")).thenReturn(Optional.of(entry(BigDecimal.valueOf(12), Duration.ofMinutes(30))));
+
+        invalidationBus.publish(new CacheInvalidation("otra-replica", "percentage", System.currentTimeMillis()));
+
+        assertEquals(Optional.of(BigDecimal.valueOf(12)), cache.getPercentage("percentage"));
+        assertEquals(1.0, meterRegistry.get("percentage.cache.invalidations").counter().count());
+        assertEquals(1L, meterRegistry.get("percentage.cache.invalidation.lag").timer().count());
+    }
+
+    @Test
+    void invalidation_FromSameNode_ShouldKeepNearCacheEntry() {
+        cache.putPercentage("percentage", BigDecimal.TEN, Duration.ofMinutes(25), Duration.ofMinutes(30));
+
+        invalidationBus.publish("percentage");
+
+        assertEquals(Optional.of(BigDecimal.TEN), cache.getPercentage("percentage"));
+        verify(sharedCache, never()).getPercentageEntry(anyString());
+    }
+
+    private double count(String tier, String result) {
+        return meterRegistry.get("percentage.cache.gets").tag("tier", tier).tag("result", result).counter().count();
+    }
+
+    private static CachedPercentage entry(BigDecimal value, Duration ttl) {
+        Instant now = Instant.now();
+        return new CachedPercentage(value, now.plus(ttl), now.plus(ttl));
+    }
+}
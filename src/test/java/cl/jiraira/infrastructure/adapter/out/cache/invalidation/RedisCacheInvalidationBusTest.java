@@ -0,0 +1,73 @@
+package cl.jiraira.infrastructure.adapter.out.cache.invalidation;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.connection.lettuce.LettuceConnectionFactory;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.testcontainers.containers.GenericContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+import org.testcontainers.utility.DockerImageName;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.awaitility.Awaitility.await;
+import static java.util.concurrent.TimeUnit.SECONDS;
+import static org.junit.jupiter.api.Assertions.*;
+
+@Testcontainers(disabledWithoutDocker = true)
+class RedisCacheInvalidationBusTest {
+
+    @Container
+    private static final GenericContainer<?> redis =
+            new GenericContainer<>(DockerImageName.parse("redis:7-alpine")).withExposedPorts(6379);
+
+    private LettuceConnectionFactory connectionFactory;
+    private RedisMessageListenerContainer containerA;
+    private RedisMessageListenerContainer containerB;
+
+    @BeforeEach
+    void setUp() {
+        connectionFactory = new LettuceConnectionFactory(redis.getHost(), redis.getMappedPort(6379));
+        connectionFactory.afterPropertiesSet();
+        containerA = listenerContainer();
+        containerB = listenerContainer();
+    }
+
+    @AfterEach
+    void tearDown() throws Exception {
+        containerA.destroy();
+        containerB.destroy();
+        connectionFactory.destroy();
+    }
+
+    @Test
+    void publish_ShouldReachOtherNodes() {
+        StringRedisTemplate template = new StringRedisTemplate(connectionFactory);
+        RedisCacheInvalidationBus nodeA = new RedisCacheInvalidationBus(template, containerA, "cache-invalidation-test");
+        RedisCacheInvalidationBus nodeB = new RedisCacheInvalidationBus(template, containerB, "cache-invalidation-test");
+        List<CacheInvalidation> received = new CopyOnWriteArrayList<>();
+        nodeB.subscribe(received::add);
+
+        await().atMost(10, SECONDS).until(() -> {
+            nodeA.publish("percentage");
+            return !received.isEmpty();
+        });
+
+        CacheInvalidation invalidation = received.get(0);
+        assertEquals(nodeA.nodeId(), invalidation.origin());
+        assertEquals("percentage", invalidation.key());
+        assertNotEquals(nodeB.nodeId(), invalidation.origin());
+    }
+
+    private RedisMessageListenerContainer listenerContainer() {
+        RedisMessageListenerContainer container = new RedisMessageListenerContainer();
+        container.setConnectionFactory(connectionFactory);
+        container.afterPropertiesSet();
+        container.start();
+        return container;
+    }
+}
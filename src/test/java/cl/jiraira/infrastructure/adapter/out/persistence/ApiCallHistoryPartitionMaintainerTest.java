@@ -0,0 +1,192 @@
+package cl.jiraira.infrastructure.adapter.out.persistence;
+
+import cl.jiraira.domain.model.ApiCallSummary;
+import cl.jiraira.domain.model.HistoryFilter;
+import cl.jiraira.infrastructure.adapter.out.archive.ColumnarSegmentArchive;
+import cl.jiraira.infrastructure.adapter.out.persistence.ApiCallHistoryPartitionMaintainer.Interval;
+import cl.jiraira.infrastructure.adapter.out.persistence.ApiCallHistoryPartitionMaintainer.Partition;
+import cl.jiraira.infrastructure.adapter.out.persistence.ApiCallHistoryPartitionMaintainer.RetentionMode;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.util.unit.DataSize;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@Testcontainers(disabledWithoutDocker = true)
+class ApiCallHistoryPartitionMaintainerTest {
+
+    private static final LocalDateTime NOW = LocalDateTime.of(2025, 8, 6, 10, 30);
+
+    @Container
+    private static final PostgreSQLContainer<?> postgres = new PostgreSQLContainer<>("postgres:16-alpine");
+
+    @DynamicPropertySource
+    static void datasource(DynamicPropertyRegistry registry) {
+        registry.add("spring.datasource.url", postgres::getJdbcUrl);
+        registry.add("spring.datasource.username", postgres::getUsername);
+        registry.add("spring.datasource.password", postgres::getPassword);
+        registry.add("spring.datasource.driver-class-name", () -> "org.postgresql.Driver");
+        registry.add("spring.jpa.hibernate.ddl-auto", () -> "none");
+    }
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private final AtomicReference<LocalDateTime> clock = new AtomicReference<>(NOW);
+
+    @AfterEach
+    void tearDown() {
+        jdbcTemplate.execute("TRUNCATE api_call_history");
+        jdbcTemplate.execute("TRUNCATE api_call_body");
+        for (Partition partition : maintainer(Interval.DAY, Duration.ZERO, RetentionMode.DROP).listPartitions()) {
+            jdbcTemplate.execute("DROP TABLE " + partition.name());
+        }
+        jdbcTemplate.queryForList("SELECT tablename FROM pg_tables WHERE tablename LIKE 'api_call_history_p%'", String.class)
+                .forEach(table -> jdbcTemplate.execute("DROP TABLE " + table));
+    }
+
+    @Test
+    void maintain_ShouldPreCreatePartitionsAndMoveRowsOutOfDefault() {
+        insert(1, NOW.minusDays(2));
+        insert(2, NOW);
+
+        maintainer(Interval.DAY, Duration.ofDays(30), RetentionMode.DROP).maintain();
+
+        List<Partition> partitions = maintainer(Interval.DAY, Duration.ofDays(30), RetentionMode.DROP).listPartitions();
+        // Desde el día de la fila más antigua hasta hoy más 3 días por adelantado
+        assertEquals(6, partitions.size());
+        assertTrue(partitions.stream().anyMatch(p -> p.name().equals("api_call_history_p20250804")));
+        assertTrue(partitions.stream().anyMatch(p -> p.name().equals("api_call_history_p20250809")));
+        assertEquals(0, count("api_call_history_default"));
+        assertEquals(1, count("api_call_history_p20250804"));
+        assertEquals(2, count("api_call_history"));
+    }
+
+    @Test
+    void maintain_WithWeeklyInterval_ShouldAlignPartitionsToMonday() {
+        maintainer(Interval.WEEK, Duration.ZERO, RetentionMode.DROP).maintain();
+
+        List<Partition> partitions = maintainer(Interval.WEEK, Duration.ZERO, RetentionMode.DROP).listPartitions();
+        assertEquals(4, partitions.size());
+        assertTrue(partitions.stream().anyMatch(p -> p.from().equals(LocalDateTime.of(2025, 8, 4, 0, 0))
+                && p.to().equals(LocalDateTime.of(2025, 8, 11, 0, 0))));
+    }
+
+    @Test
+    void maintain_ShouldDropPartitionsPastRetention() {
+        insert(1, NOW.minusDays(2));
+        ApiCallHistoryPartitionMaintainer maintainer = maintainer(Interval.DAY, Duration.ofDays(7), RetentionMode.DROP);
+        maintainer.maintain();
+
+        clock.set(NOW.plusDays(6));
+        maintainer.maintain();
+
+        List<Partition> partitions = maintainer.listPartitions();
+        assertTrue(partitions.stream().noneMatch(p -> p.name().equals("api_call_history_p20250804")));
+        assertTrue(partitions.stream().allMatch(p -> p.to().isAfter(clock.get().minusDays(7))));
+        assertEquals(0, count("api_call_history"));
+    }
+
+    @Test
+    void maintain_ShouldDeleteBodiesUnusedSinceRetention() {
+        insertBody(new byte[]{1}, NOW.minusDays(20));
+        insertBody(new byte[]{2}, NOW.minusDays(8));
+
+        maintainer(Interval.DAY, Duration.ofDays(7), RetentionMode.DROP).maintain();
+
+        // Queda el que aún puede estar referenciado por filas dentro de la retención
+        assertEquals(List.of(2), jdbcTemplate.queryForList("SELECT get_byte(hash, 0) FROM api_call_body", Integer.class));
+    }
+
+    @Test
+    void maintain_WithDetachMode_ShouldKeepExpiredPartitionAsStandaloneTable() {
+        insert(1, NOW.minusDays(10));
+        maintainer(Interval.DAY, Duration.ofDays(7), RetentionMode.DETACH).maintain();
+
+        assertTrue(maintainer(Interval.DAY, Duration.ofDays(7), RetentionMode.DETACH).listPartitions().stream()
+                .noneMatch(p -> p.name().equals("api_call_history_p20250727")));
+        assertEquals(0, count("api_call_history"));
+        assertEquals(1, count("api_call_history_p20250727"));
+    }
+
+    @Test
+    void maintain_WithArchiveMode_ShouldMoveExpiredPartitionToColdSegment(@TempDir Path directory) {
+        insert(1, NOW.minusDays(10));
+        insert(2, NOW.minusDays(10).plusMinutes(1));
+        insert(3, NOW);
+        ColumnarSegmentArchive archive = new ColumnarSegmentArchive(directory, DataSize.ofMegabytes(64), new SimpleMeterRegistry());
+
+        new ApiCallHistoryPartitionMaintainer(jdbcTemplate, transactionManager, Interval.DAY, 3, Duration.ofDays(7),
+                RetentionMode.ARCHIVE, bodies(), archive, clock::get).maintain();
+
+        assertEquals(1, count("api_call_history"));
+        assertNull(jdbcTemplate.queryForObject("SELECT to_regclass('api_call_history_p20250727')", String.class));
+        assertTrue(Files.exists(directory.resolve("api_call_history_p20250727.seg")));
+        assertEquals(List.of(2L, 1L), archive.findHistory(HistoryFilter.NONE, null, 10).stream().map(ApiCallSummary::id).toList());
+    }
+
+    @Test
+    void filteredQuery_ShouldOnlyScanPartitionsInTimeRange() {
+        maintainer(Interval.DAY, Duration.ZERO, RetentionMode.DROP).maintain();
+
+        HistoryQuery query = HistoryQuery.select(HistoryQuery.SUMMARY_COLUMNS)
+                .where(new HistoryFilter(NOW.minusHours(1), NOW, null, null, null, null, null))
+                .orderBy("timestamp DESC, id DESC")
+                .limit(51);
+        String plan = String.join("\n", jdbcTemplate.queryForList("EXPLAIN " + query.sql(), String.class, query.args()));
+
+        assertTrue(plan.contains("api_call_history_p20250806"), plan);
+        assertFalse(plan.contains("api_call_history_p20250807"), plan);
+        assertFalse(plan.contains("api_call_history_default"), plan);
+    }
+
+    private ApiCallHistoryPartitionMaintainer maintainer(Interval interval, Duration retention, RetentionMode mode) {
+        return new ApiCallHistoryPartitionMaintainer(jdbcTemplate, transactionManager, interval, 3, retention, mode, bodies(), null, clock::get);
+    }
+
+    private HistoryBodyStore bodies() {
+        return new HistoryBodyStore(jdbcTemplate.getDataSource(), HistoryBodyStore.Storage.INLINE, 32, 100, new SimpleMeterRegistry());
+    }
+
+    private void insert(long id, LocalDateTime timestamp) {
+        jdbcTemplate.update("INSERT INTO api_call_history (id, timestamp, endpoint, method, response_status, execution_time_ms) "
+                + "VALUES (?, ?, '/api/v1/calculations/calculate', 'POST', 200, 5)", id, Timestamp.valueOf(timestamp));
+    }
+
+    private void insertBody(byte[] hash, LocalDateTime lastUsed) {
+        jdbcTemplate.update("INSERT INTO api_call_body (hash, content, last_used) VALUES (?, ?, ?)",
+                hash, new byte[]{HistoryBodyCodec.RAW}, Timestamp.valueOf(lastUsed));
+    }
+
+    private long count(String table) {
+        return jdbcTemplate.queryForObject("SELECT count(*) FROM " + table, Long.class);
+    }
+}
@@ -0,0 +1,145 @@
+package cl.jiraira.infrastructure.adapter.out.persistence;
+
+import cl.jiraira.domain.model.ApiCall;
+import cl.jiraira.domain.model.ApiCallSummary;
+import cl.jiraira.domain.model.HistoryCursor;
+import cl.jiraira.domain.model.HistoryFilter;
+import cl.jiraira.domain.model.HistorySlice;
+import cl.jiraira.infrastructure.adapter.out.persistence.entity.ApiCallHistory;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DataJpaTest(properties = {
+        "spring.jpa.properties.hibernate.jdbc.batch_size=50",
+        "spring.jpa.properties.hibernate.order_inserts=true"
+})
+@Import({ApiCallHistoryPersistenceAdapter.class, HistoryBodyStore.class})
+@ActiveProfiles("test")
+class ApiCallHistoryPersistenceAdapterTest {
+
+    @Autowired
+    private ApiCallHistoryPersistenceAdapter adapter;
+
+    @Autowired
+    private ApiCallHistoryRepository repository;
+
+    @Test
+    void saveAll_ShouldAssignSequenceIdsAndKeepCallTimestamp() {
+        LocalDateTime calledAt = LocalDateTime.now().minusMinutes(5).truncatedTo(ChronoUnit.MILLIS);
+        List<ApiCall> calls = IntStream.range(0, 120)
+                .mapToObj(i -> ApiCall.builder()
+                        .endpoint("/api/v1/calculations/calculate")
+                        .method("POST")
+                        .responseStatus(200)
+                        .timestamp(calledAt)
+                        .executionTimeMs((long) i)
+                        .build())
+                .toList();
+
+        adapter.saveAll(calls);
+
+        List<ApiCallHistory> saved = repository.findAll();
+        assertEquals(120, saved.size());
+        assertEquals(120, saved.stream().map(ApiCallHistory::getId).distinct().count());
+        assertTrue(saved.stream().allMatch(entity -> calledAt.equals(entity.getTimestamp())));
+    }
+
+    @Test
+    void findHistory_WithCursor_ShouldWalkAllRowsNewestFirstWithoutGapsOrDuplicates() {
+        LocalDateTime base = LocalDateTime.now().minusHours(1).truncatedTo(ChronoUnit.MILLIS);
+        // Varios registros comparten timestamp para verificar el desempate por id
+        adapter.saveAll(IntStream.range(0, 25)
+                .mapToObj(i -> ApiCall.builder()
+                        .endpoint("/api/v1/calculations/calculate")
+                        .method("POST")
+                        .timestamp(base.plusSeconds(i / 3))
+                        .executionTimeMs((long) i)
+                        .build())
+                .toList());
+
+        List<ApiCallSummary> walked = new ArrayList<>();
+        HistoryCursor cursor = null;
+        int pages = 0;
+        do {
+            HistorySlice slice = adapter.findHistory(HistoryFilter.NONE, cursor, 4);
+            walked.addAll(slice.items());
+            cursor = slice.next();
+            pages++;
+        } while (cursor != null);
+
+        assertEquals(7, pages);
+        assertEquals(25, walked.size());
+        assertEquals(25, walked.stream().map(ApiCallSummary::id).distinct().count());
+        for (int i = 1; i < walked.size(); i++) {
+            ApiCallSummary previous = walked.get(i - 1);
+            ApiCallSummary current = walked.get(i);
+            assertTrue(previous.timestamp().isAfter(current.timestamp())
+                    || (previous.timestamp().equals(current.timestamp()) && previous.id() > current.id()));
+        }
+    }
+
+    @Test
+    void findHistory_WithFilter_ShouldReturnOnlyMatchingRowsAcrossPages() {
+        LocalDateTime base = LocalDateTime.now().minusHours(1).truncatedTo(ChronoUnit.MILLIS);
+        adapter.saveAll(IntStream.range(0, 60)
+                .mapToObj(i -> ApiCall.builder()
+                        .endpoint(i % 3 == 0 ? "/api/v1/history" : "/api/v1/calculations/calculate")
+                        .method(i % 3 == 0 ? "GET" : "POST")
+                        .responseStatus(i % 4 == 0 ? 503 : 200)
+                        .timestamp(base.plusSeconds(i))
+                        .executionTimeMs((long) i * 10)
+                        .build())
+                .toList());
+        repository.flush();
+        HistoryFilter filter = new HistoryFilter(null, null, "/api/v1/calculations/calculate", "POST", null, 5, 100L);
+
+        List<ApiCallSummary> walked = new ArrayList<>();
+        HistoryCursor cursor = null;
+        do {
+            HistorySlice slice = adapter.findHistory(filter, cursor, 3);
+            walked.addAll(slice.items());
+            cursor = slice.next();
+        } while (cursor != null);
+
+        // i en [10, 60), múltiplo de 4 y no de 3
+        List<Long> expected = IntStream.range(10, 60)
+                .filter(i -> i % 4 == 0 && i % 3 != 0)
+                .mapToObj(i -> (long) i * 10)
+                .sorted((a, b) -> Long.compare(b, a))
+                .toList();
+        assertEquals(expected, walked.stream().map(ApiCallSummary::executionTimeMs).toList());
+    }
+
+    @Test
+    void findById_ShouldReturnFullBodies() {
+        LocalDateTime calledAt = LocalDateTime.now().minusMinutes(5).truncatedTo(ChronoUnit.MILLIS);
+        adapter.saveAll(List.of(ApiCall.builder()
+                .endpoint("/api/v1/calculations/calculate")
+                .method("POST")
+                .requestBody("{\"num1\":5,\"num2\":5}")
+                .responseBody("{\"result\":11}")
+                .responseStatus(200)
+                .timestamp(calledAt)
+                .build()));
+        Long id = repository.findAll().get(0).getId();
+
+        ApiCall found = adapter.findById(id).orElseThrow();
+
+        assertEquals("{\"num1\":5,\"num2\":5}", found.requestBody());
+        assertEquals("{\"result\":11}", found.responseBody());
+        assertTrue(adapter.findById(id + 1000).isEmpty());
+        assertEquals(found, adapter.findById(id, calledAt).orElseThrow());
+        assertTrue(adapter.findById(id, calledAt.plusSeconds(1)).isEmpty());
+    }
+}
@@ -0,0 +1,151 @@
+package cl.jiraira.infrastructure.adapter.out.persistence;
+
+import cl.jiraira.domain.model.ApiCall;
+import cl.jiraira.domain.model.HistoryFilter;
+import cl.jiraira.infrastructure.adapter.out.persistence.entity.ApiCallHistory;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DataJpaTest(properties = "history.bodies.storage=CONTENT_ADDRESSED")
+@Import({ApiCallHistoryPersistenceAdapter.class, JdbcApiCallHistoryExportAdapter.class, HistoryBodyStore.class})
+@ActiveProfiles("test")
+class HistoryBodyStoreTest {
+
+    private void store(LocalDateTime usedAt) {
+        // Cada réplica tiene su propia memoria de blobs escritos, así cada escritura llega a la base
+        new HistoryBodyStore(dataSource, HistoryBodyStore.Storage.CONTENT_ADDRESSED, 32, 100, new SimpleMeterRegistry())
+                .storeAll(List.of(ApiCall.builder().responseBody(RESPONSE).timestamp(usedAt).build()));
+    }
+
+    private LocalDateTime lastUsed() {
+        return jdbcTemplate.queryForObject("SELECT last_used FROM api_call_body", LocalDateTime.class);
+    }
+
+    private static final LocalDateTime BASE = LocalDateTime.of(2025, 8, 6, 10, 0);
+    private static final String RESPONSE = "{\"result\":16.5,\"percentage\":10.0,\"details\":\"(5.0 + 10.0) + 10.0%\"}";
+
+    @Autowired
+    private ApiCallHistoryPersistenceAdapter adapter;
+
+    @Autowired
+    private JdbcApiCallHistoryExportAdapter exportAdapter;
+
+    @Autowired
+    private ApiCallHistoryRepository repository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private DataSource dataSource;
+
+    @Test
+    void saveAll_ShouldStoreEachDistinctBodyOnceAndResolveItOnRead() {
+        adapter.saveAll(IntStream.range(0, 30)
+                .mapToObj(i -> call(i, "{\"num1\":5.0,\"num2\":10.0}", i % 3 == 0 ? RESPONSE + " " : RESPONSE))
+                .toList());
+        adapter.save(call(30, "{\"num1\":5.0,\"num2\":10.0}", RESPONSE));
+
+        assertEquals(2, jdbcTemplate.queryForObject("SELECT count(*) FROM api_call_body", Integer.class));
+        ApiCallHistory row = repository.findAll().get(0);
+        assertNull(row.getResponseBody());
+        assertEquals(HistoryBodyCodec.HASH_BYTES, row.getResponseBodyHash().length);
+        // Más corto que inline-threshold: sigue en la fila
+        assertEquals("{\"num1\":5.0,\"num2\":10.0}", row.getRequestBody());
+        assertNull(row.getRequestBodyHash());
+
+        ApiCall read = adapter.findById(row.getId()).orElseThrow();
+        assertEquals("{\"num1\":5.0,\"num2\":10.0}", read.requestBody());
+        assertTrue(read.responseBody().startsWith(RESPONSE));
+    }
+
+    @Test
+    void export_ShouldResolveInlineAndHashedBodies() {
+        // Fila escrita antes de activar el modo por contenido
+        jdbcTemplate.update("INSERT INTO api_call_history (id, timestamp, endpoint, method, response_body) "
+                + "VALUES (-1, ?, '/api/v1/history', 'GET', 'legacy')", BASE.minusDays(1));
+        adapter.save(call(0, null, RESPONSE));
+        repository.flush();
+
+        List<ApiCall> exported = new ArrayList<>();
+        exportAdapter.export(HistoryFilter.NONE, exported::add);
+
+        assertEquals(List.of("legacy", RESPONSE), exported.stream().map(ApiCall::responseBody).toList());
+    }
+
+    @Test
+    void storeAll_AfterRollback_ShouldWriteBlobAgain() {
+        TransactionTemplate requiresNew = new TransactionTemplate(transactionManager);
+        requiresNew.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        requiresNew.executeWithoutResult(status -> {
+            adapter.save(call(0, null, RESPONSE));
+            status.setRollbackOnly();
+        });
+
+        adapter.save(call(1, null, RESPONSE));
+        repository.flush();
+
+        assertEquals(1, jdbcTemplate.queryForObject("SELECT count(*) FROM api_call_body", Integer.class));
+        assertEquals(RESPONSE, adapter.findById(repository.findAll().get(0).getId()).orElseThrow().responseBody());
+    }
+
+    @Test
+    void storeAll_ShouldOnlyMoveLastUsedForwardByMoreThanTouchInterval() {
+        store(BASE);
+        store(BASE.plusHours(12));
+        assertEquals(BASE, lastUsed());
+
+        store(BASE.plusDays(2));
+        assertEquals(BASE.plusDays(2), lastUsed());
+
+        // Una réplica atrasada no hace retroceder last_used
+        store(BASE);
+        assertEquals(BASE.plusDays(2), lastUsed());
+    }
+
+    @Test
+    void codec_ShouldRoundTripAndFallBackToRawWhenDeflateDoesNotHelp() {
+        byte[] json = RESPONSE.getBytes(StandardCharsets.UTF_8);
+        byte[] encoded = HistoryBodyCodec.encode(json);
+        assertEquals(HistoryBodyCodec.DEFLATE_JSON_V1, encoded[0]);
+        assertTrue(encoded.length < json.length);
+        assertEquals(RESPONSE, HistoryBodyCodec.decode(encoded));
+
+        byte[] noise = {(byte) 0x9f, 0x12, 0x7e, 0x01, (byte) 0xc3};
+        byte[] raw = HistoryBodyCodec.encode(noise);
+        assertEquals(HistoryBodyCodec.RAW, raw[0]);
+        assertEquals(noise.length + 1, raw.length);
+    }
+
+    private static ApiCall call(int i, String request, String response) {
+        return ApiCall.builder()
+                .endpoint("/api/v1/calculations/calculate")
+                .method("POST")
+                .requestBody(request)
+                .responseBody(response)
+                .responseStatus(200)
+                .timestamp(BASE.plusSeconds(i))
+                .executionTimeMs(5L)
+                .build();
+    }
+}
@@ -0,0 +1,79 @@
+package cl.jiraira.infrastructure.adapter.out.persistence;
+
+import cl.jiraira.domain.model.ApiCall;
+import cl.jiraira.domain.model.HistoryFilter;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DataJpaTest(properties = "history.export.fetch-size=100")
+@Import({ApiCallHistoryPersistenceAdapter.class, JdbcApiCallHistoryExportAdapter.class, HistoryBodyStore.class})
+@ActiveProfiles("test")
+class JdbcApiCallHistoryExportAdapterTest {
+
+    private static final LocalDateTime BASE = LocalDateTime.of(2025, 8, 6, 10, 0);
+
+    @Autowired
+    private ApiCallHistoryPersistenceAdapter persistenceAdapter;
+
+    @Autowired
+    private ApiCallHistoryRepository repository;
+
+    @Autowired
+    private JdbcApiCallHistoryExportAdapter exportAdapter;
+
+    @BeforeEach
+    void setUp() {
+        persistenceAdapter.saveAll(IntStream.range(0, 1000)
+                .mapToObj(i -> ApiCall.builder()
+                        .endpoint(i % 2 == 0 ? "/api/v1/calculations/calculate" : "/api/v1/history")
+                        .method(i % 2 == 0 ? "POST" : "GET")
+                        .requestBody(i % 2 == 0 ? "{\"num1\":" + i + "}" : null)
+                        .responseStatus(i % 10 == 0 ? 429 : 200)
+                        .timestamp(BASE.plusSeconds(i))
+                        .executionTimeMs((long) i)
+                        .build())
+                .toList());
+        repository.flush();
+    }
+
+    @Test
+    void export_WithoutFilter_ShouldStreamAllRowsInChronologicalOrder() {
+        List<ApiCall> exported = new ArrayList<>();
+
+        long count = exportAdapter.export(HistoryFilter.NONE, exported::add);
+
+        assertEquals(1000, count);
+        assertEquals(1000, exported.size());
+        for (int i = 1; i < exported.size(); i++) {
+            assertTrue(exported.get(i - 1).timestamp().isBefore(exported.get(i).timestamp()));
+        }
+        assertEquals("{\"num1\":0}", exported.get(0).requestBody());
+        assertNull(exported.get(1).requestBody());
+    }
+
+    @Test
+    void export_WithFilters_ShouldApplyAllOfThem() {
+        List<ApiCall> exported = new ArrayList<>();
+        HistoryFilter filter = new HistoryFilter(BASE.plusSeconds(100), BASE.plusSeconds(200),
+                "/api/v1/calculations/calculate", null, 429, null, null);
+
+        long count = exportAdapter.export(filter, exported::add);
+
+        assertEquals(10, count);
+        assertTrue(exported.stream().allMatch(call -> call.responseStatus() == 429
+                && "/api/v1/calculations/calculate".equals(call.endpoint())
+                && !call.timestamp().isBefore(BASE.plusSeconds(100))
+                && call.timestamp().isBefore(BASE.plusSeconds(200))));
+    }
+}
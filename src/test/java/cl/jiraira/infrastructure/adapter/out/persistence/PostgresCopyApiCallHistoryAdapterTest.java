@@ -0,0 +1,227 @@
+package cl.jiraira.infrastructure.adapter.out.persistence;
+
+import cl.jiraira.domain.model.ApiCall;
+import cl.jiraira.domain.port.out.ApiCallHistoryPort;
+import cl.jiraira.infrastructure.adapter.out.persistence.HistoryBodyStore.Storage;
+import cl.jiraira.infrastructure.adapter.out.persistence.entity.ApiCallHistory;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import javax.sql.DataSource;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Random;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@Import({ApiCallHistoryPersistenceAdapter.class, HistoryBodyStore.class})
+@Testcontainers(disabledWithoutDocker = true)
+class PostgresCopyApiCallHistoryAdapterTest {
+
+    private static final Logger logger = LoggerFactory.getLogger(PostgresCopyApiCallHistoryAdapterTest.class);
+
+    @Container
+    private static final PostgreSQLContainer<?> postgres = new PostgreSQLContainer<>("postgres:16-alpine");
+
+    @DynamicPropertySource
+    static void datasource(DynamicPropertyRegistry registry) {
+        registry.add("spring.datasource.url", () -> postgres.getJdbcUrl() + "&reWriteBatchedInserts=true");
+        registry.add("spring.datasource.username", postgres::getUsername);
+        registry.add("spring.datasource.password", postgres::getPassword);
+        registry.add("spring.datasource.driver-class-name", () -> "org.postgresql.Driver");
+        registry.add("spring.jpa.hibernate.ddl-auto", () -> "none");
+        registry.add("spring.jpa.properties.hibernate.jdbc.batch_size", () -> "50");
+        registry.add("spring.jpa.properties.hibernate.order_inserts", () -> "true");
+    }
+
+    @Autowired
+    private ApiCallHistoryPersistenceAdapter jpaAdapter;
+
+    @Autowired
+    private ApiCallHistoryRepository repository;
+
+    @Autowired
+    private HistoryBodyStore inlineBodies;
+
+    @Autowired
+    private DataSource dataSource;
+
+    private PostgresCopyApiCallHistoryAdapter copyAdapter;
+    private HistoryBodyStore contentAddressedBodies;
+
+    @BeforeEach
+    void setUp() {
+        copyAdapter = new PostgresCopyApiCallHistoryAdapter(dataSource, jpaAdapter, inlineBodies);
+        contentAddressedBodies = new HistoryBodyStore(dataSource, Storage.CONTENT_ADDRESSED, 32, 10_000, new SimpleMeterRegistry());
+    }
+
+    @AfterEach
+    void tearDown() {
+        repository.deleteAllInBatch();
+        new JdbcTemplate(dataSource).execute("DELETE FROM api_call_body");
+    }
+
+    @Test
+    void saveAll_ShouldCopyRowsAndShareIdSequenceWithJpa() {
+        LocalDateTime calledAt = LocalDateTime.now().truncatedTo(ChronoUnit.MILLIS);
+        ApiCall tricky = new ApiCall(null, "/api/v1/calculations/calculate", "POST",
+                "{\"num1\":5,\n\"num2\":\"a,b\"}", "", null, calledAt, null);
+
+        copyAdapter.saveAll(calls(120, calledAt));
+        copyAdapter.save(tricky);
+        jpaAdapter.saveAll(calls(10, calledAt));
+
+        List<ApiCallHistory> saved = repository.findAll();
+        assertEquals(131, saved.size());
+        assertEquals(131, saved.stream().map(ApiCallHistory::getId).distinct().count());
+
+        ApiCallHistory copied = saved.stream().filter(row -> row.getResponseStatus() == null).findFirst().orElseThrow();
+        assertEquals(tricky.requestBody(), copied.getRequestBody());
+        assertEquals("", copied.getResponseBody());
+        assertNull(copied.getExecutionTimeMs());
+        assertEquals(calledAt, copied.getTimestamp());
+    }
+
+    @Test
+    void saveAll_WithContentAddressedBodies_ShouldCopyHashesAndResolveThemOnRead() {
+        LocalDateTime calledAt = LocalDateTime.now().truncatedTo(ChronoUnit.MILLIS);
+        String response = "{\"result\":11.0,\"percentage\":10.0,\"details\":\"(5.0 + 5.0) + 10.0%\"}";
+        PostgresCopyApiCallHistoryAdapter adapter = new PostgresCopyApiCallHistoryAdapter(dataSource,
+                new ApiCallHistoryPersistenceAdapter(repository, dataSource, contentAddressedBodies), contentAddressedBodies);
+
+        adapter.saveAll(IntStream.range(0, 50)
+                .mapToObj(i -> new ApiCall(null, "/api/v1/calculations/calculate", "POST", "{\"num1\":5,\"num2\":5}",
+                        response, 200, calledAt, (long) i))
+                .toList());
+
+        JdbcTemplate jdbcTemplate = new JdbcTemplate(dataSource);
+        assertEquals(1, jdbcTemplate.queryForObject("SELECT count(*) FROM api_call_body", Integer.class));
+        assertEquals(50, jdbcTemplate.queryForObject(
+                "SELECT count(*) FROM api_call_history WHERE response_body IS NULL AND response_body_hash IS NOT NULL", Integer.class));
+        ApiCall read = adapter.findById(repository.findAll().get(0).getId()).orElseThrow();
+        assertEquals(response, read.responseBody());
+        // Más corto que el hash: queda en la fila
+        assertEquals("{\"num1\":5,\"num2\":5}", read.requestBody());
+    }
+
+    /**
+     * Mismo tráfico sintético con los cuerpos en la fila y direccionados por contenido: filas por
+     * segundo con COPY y bytes que ocupan los cuerpos (columnas de la fila más {@code api_call_body}).
+     */
+    @Test
+    void loadTest_InlineVersusContentAddressedBodies() {
+        List<ApiCall> traffic = generatedTraffic(4_000, LocalDateTime.now());
+        PostgresCopyApiCallHistoryAdapter contentAddressed = new PostgresCopyApiCallHistoryAdapter(dataSource, jpaAdapter,
+                contentAddressedBodies);
+        JdbcTemplate jdbcTemplate = new JdbcTemplate(dataSource);
+        String bodyBytes = "SELECT coalesce(sum(coalesce(pg_column_size(request_body), 0) + coalesce(pg_column_size(response_body), 0)"
+                + " + coalesce(pg_column_size(request_body_hash), 0) + coalesce(pg_column_size(response_body_hash), 0)), 0)"
+                + " FROM api_call_history";
+
+        double inlineRowsPerSecond = rowsPerSecond(copyAdapter, traffic);
+        long inlineBytes = jdbcTemplate.queryForObject(bodyBytes, Long.class);
+        repository.deleteAllInBatch();
+
+        double contentAddressedRowsPerSecond = rowsPerSecond(contentAddressed, traffic);
+        long contentAddressedBytes = jdbcTemplate.queryForObject(bodyBytes, Long.class)
+                + jdbcTemplate.queryForObject("SELECT coalesce(sum(pg_column_size(hash) + pg_column_size(content)), 0) FROM api_call_body", Long.class);
+
+        logger.info("Cuerpos del historial: en la fila {} filas/s y {} bytes; por contenido {} filas/s y {} bytes ({}x)",
+                Math.round(inlineRowsPerSecond), inlineBytes, Math.round(contentAddressedRowsPerSecond), contentAddressedBytes,
+                String.format(Locale.US, "%.1f", (double) inlineBytes / contentAddressedBytes));
+        assertTrue(contentAddressedBytes < inlineBytes);
+    }
+
+    @Test
+    void loadTest_CopyVersusBatchedJpaInserts() {
+        LocalDateTime calledAt = LocalDateTime.now();
+        int batches = 20;
+        int batchSize = 200;
+
+        double jpaRowsPerSecond = rowsPerSecond(jpaAdapter, batches, batchSize, calledAt);
+        double copyRowsPerSecond = rowsPerSecond(copyAdapter, batches, batchSize, calledAt);
+        logger.info("Historial: JPA batch {} filas/s, COPY {} filas/s", Math.round(jpaRowsPerSecond), Math.round(copyRowsPerSecond));
+
+        assertEquals(2L * batches * batchSize, repository.count());
+    }
+
+    private static double rowsPerSecond(ApiCallHistoryPort port, int batches, int batchSize, LocalDateTime calledAt) {
+        List<ApiCall> batch = calls(batchSize, calledAt);
+        port.saveAll(batch);
+        long start = System.nanoTime();
+        for (int i = 1; i < batches; i++) {
+            port.saveAll(batch);
+        }
+        return (batches - 1) * batchSize / ((System.nanoTime() - start) / 1e9);
+    }
+
+    private static double rowsPerSecond(ApiCallHistoryPort port, List<ApiCall> traffic) {
+        long start = System.nanoTime();
+        for (int from = 0; from < traffic.size(); from += 200) {
+            port.saveAll(traffic.subList(from, Math.min(from + 200, traffic.size())));
+        }
+        return traffic.size() / ((System.nanoTime() - start) / 1e9);
+    }
+
+    /**
+     * 80% de cálculos con pocos operandos distintos y 20% de páginas del listado del historial.
+     */
+    static List<ApiCall> generatedTraffic(int count, LocalDateTime start) {
+        Random random = new Random(42);
+        List<ApiCall> traffic = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            LocalDateTime timestamp = start.plusNanos(i * 1_000_000L);
+            if (random.nextInt(10) < 8) {
+                int num1 = random.nextInt(20);
+                int num2 = random.nextInt(20);
+                String request = String.format(Locale.US, "{\"num1\":%d.0,\"num2\":%d.0}", num1, num2);
+                String response = String.format(Locale.US, "{\"result\":%.1f,\"percentage\":10.0,\"details\":\"(%d.0 + %d.0) + 10.0%%\"}",
+                        (num1 + num2) * 1.1, num1, num2);
+                traffic.add(new ApiCall(null, "/api/v1/calculations/calculate", "POST", request, response, 200,
+                        timestamp, 5L + random.nextInt(20)));
+            } else {
+                StringBuilder page = new StringBuilder("[");
+                for (int row = 0; row < 10; row++) {
+                    page.append(row == 0 ? "" : ",")
+                            .append("{\"id\":").append(10_000 + i - row)
+                            .append(",\"endpoint\":\"/api/v1/calculations/calculate\",\"method\":\"POST\",\"statusCode\":200,")
+                            .append("\"timestamp\":\"").append(timestamp.minusSeconds(row).truncatedTo(ChronoUnit.MILLIS))
+                            .append("\",\"executionTimeMs\":").append(5 + random.nextInt(20)).append('}');
+                }
+                traffic.add(new ApiCall(null, "/api/v1/history", "GET", "page=0&size=10", page.append(']').toString(), 200,
+                        timestamp, 3L));
+            }
+        }
+        return traffic;
+    }
+
+    private static List<ApiCall> calls(int count, LocalDateTime calledAt) {
+        return IntStream.range(0, count)
+                .mapToObj(i -> new ApiCall(null, "/api/v1/calculations/calculate", "POST",
+                        "{\"num1\":5,\"num2\":5}", "{\"result\":11.00}", 200, calledAt, (long) i))
+                .toList();
+    }
+}
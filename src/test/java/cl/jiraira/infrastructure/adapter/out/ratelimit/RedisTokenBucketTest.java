@@ -0,0 +1,55 @@
+package cl.jiraira.infrastructure.adapter.out.ratelimit;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.connection.lettuce.LettuceConnectionFactory;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.testcontainers.containers.GenericContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+import org.testcontainers.utility.DockerImageName;
+
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@Testcontainers(disabledWithoutDocker = true)
+class RedisTokenBucketTest {
+
+    @Container
+    private static final GenericContainer<?> redis =
+            new GenericContainer<>(DockerImageName.parse("redis:7-alpine")).withExposedPorts(6379);
+
+    private LettuceConnectionFactory connectionFactory;
+    private RedisTokenBucket replicaA;
+    private RedisTokenBucket replicaB;
+
+    @BeforeEach
+    void setUp() {
+        connectionFactory = new LettuceConnectionFactory(redis.getHost(), redis.getMappedPort(6379));
+        connectionFactory.afterPropertiesSet();
+        replicaA = new RedisTokenBucket(new StringRedisTemplate(connectionFactory));
+        replicaB = new RedisTokenBucket(new StringRedisTemplate(connectionFactory));
+    }
+
+    @AfterEach
+    void tearDown() {
+        connectionFactory.destroy();
+    }
+
+    @Test
+    void lease_ShouldShareBurstAcrossReplicas() {
+        String key = "/:" + UUID.randomUUID();
+
+        assertEquals(3, replicaA.lease(key, 3, 5, 3));
+        assertEquals(2, replicaB.lease(key, 3, 5, 3));
+        assertEquals(0, replicaA.lease(key, 3, 5, 3));
+    }
+
+    @Test
+    void lease_ShouldKeepBucketsPerKey() {
+        assertEquals(2, replicaA.lease("/:" + UUID.randomUUID(), 3, 2, 5));
+        assertEquals(2, replicaA.lease("/:" + UUID.randomUUID(), 3, 2, 5));
+    }
+}
@@ -0,0 +1,142 @@
+package cl.jiraira.infrastructure.adapter.out.spool;
+
+import cl.jiraira.domain.model.ApiCall;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.util.unit.DataSize;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MappedFileApiCallSpoolTest {
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void readPending_ShouldReturnAppendedCallsInOrder() {
+        MappedFileApiCallSpool spool = open(DataSize.ofKilobytes(64));
+        ApiCall first = call(1, "{\"num1\":5,\"num2\":5}");
+        ApiCall second = call(2, null);
+
+        assertTrue(spool.append(List.of(first, second)));
+
+        List<ApiCall> pending = spool.readPending(10);
+        assertEquals(List.of(first, second), pending);
+        assertTrue(spool.oldestPendingAppendedAt().isPresent());
+        spool.close();
+    }
+
+    @Test
+    void acknowledge_ShouldSurviveReopen() {
+        MappedFileApiCallSpool spool = open(DataSize.ofKilobytes(64));
+        spool.append(IntStream.range(0, 5).mapToObj(i -> call(i, null)).toList());
+        assertEquals(2, spool.readPending(2).size());
+        spool.acknowledge();
+        spool.close();
+
+        MappedFileApiCallSpool reopened = open(DataSize.ofKilobytes(64));
+
+        assertEquals(List.of(2L, 3L, 4L), reopened.readPending(10).stream().map(ApiCall::executionTimeMs).toList());
+        reopened.acknowledge();
+        assertFalse(reopened.hasPending());
+        assertEquals(0L, reopened.pendingBytes());
+        reopened.close();
+    }
+
+    @Test
+    void open_WithCorruptedTail_ShouldKeepOnlyValidRecords() throws IOException {
+        MappedFileApiCallSpool spool = open(DataSize.ofKilobytes(64));
+        spool.append(List.of(call(1, null), call(2, null)));
+        spool.close();
+
+        // Se corrompe el payload del segundo registro, como si la escritura hubiera quedado a medias
+        Path segment = segments().get(0);
+        int firstRecordBytes = MappedFileApiCallSpool.HEADER_BYTES + ApiCallRecordCodec.encode(call(1, null)).length;
+        try (FileChannel channel = FileChannel.open(segment, StandardOpenOption.WRITE)) {
+            channel.write(ByteBuffer.wrap(new byte[]{0x7F, 0x7F}), firstRecordBytes + MappedFileApiCallSpool.HEADER_BYTES);
+        }
+
+        MappedFileApiCallSpool reopened = open(DataSize.ofKilobytes(64));
+        assertEquals(List.of(1L), reopened.readPending(10).stream().map(ApiCall::executionTimeMs).toList());
+
+        // Las escrituras nuevas continúan tras el último registro válido
+        assertTrue(reopened.append(List.of(call(3, null))));
+        assertEquals(List.of(1L, 3L), reopened.readPending(10).stream().map(ApiCall::executionTimeMs).toList());
+        reopened.close();
+    }
+
+    @Test
+    void append_WhenSegmentIsFull_ShouldRollOverAndDeleteConsumedSegments() throws IOException {
+        MappedFileApiCallSpool spool = open(DataSize.ofBytes(256));
+        List<ApiCall> calls = IntStream.range(0, 10).mapToObj(i -> call(i, null)).toList();
+
+        assertTrue(spool.append(calls));
+        assertTrue(segments().size() > 1);
+
+        assertEquals(calls, spool.readPending(100));
+        spool.acknowledge();
+
+        assertEquals(1, segments().size());
+        assertFalse(spool.hasPending());
+        spool.close();
+    }
+
+    @Test
+    void append_WhenMaxSizeReached_ShouldReject() {
+        MappedFileApiCallSpool spool = new MappedFileApiCallSpool(directory, DataSize.ofKilobytes(64),
+                DataSize.ofBytes(150), new SimpleMeterRegistry());
+
+        assertTrue(spool.append(List.of(call(1, null))));
+        assertFalse(spool.append(List.of(call(2, "x".repeat(200)))));
+        assertEquals(1, spool.readPending(10).size());
+        spool.close();
+    }
+
+    @Test
+    void append_WhenBatchDoesNotFit_ShouldWriteNone() {
+        MappedFileApiCallSpool spool = new MappedFileApiCallSpool(directory, DataSize.ofKilobytes(64),
+                DataSize.ofBytes(150), new SimpleMeterRegistry());
+
+        // El primero cabe por sí solo, pero el lote completo no
+        assertFalse(spool.append(List.of(call(1, null), call(2, "x".repeat(200)))));
+
+        assertFalse(spool.hasPending());
+        assertEquals(0L, spool.pendingBytes());
+        assertTrue(spool.append(List.of(call(3, null))));
+        assertEquals(List.of(3L), spool.readPending(10).stream().map(ApiCall::executionTimeMs).toList());
+        spool.close();
+    }
+
+    private MappedFileApiCallSpool open(DataSize segmentSize) {
+        return new MappedFileApiCallSpool(directory, segmentSize, DataSize.ofMegabytes(10), new SimpleMeterRegistry());
+    }
+
+    private List<Path> segments() throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.filter(path -> path.getFileName().toString().endsWith(".spool")).sorted().toList();
+        }
+    }
+
+    private static ApiCall call(long order, String requestBody) {
+        return ApiCall.builder()
+                .endpoint("/api/v1/calculations/calculate")
+                .method("POST")
+                .requestBody(requestBody)
+                .responseStatus(200)
+                .timestamp(LocalDateTime.of(2024, 1, 1, 12, 0).plusSeconds(order))
+                .executionTimeMs(order)
+                .build();
+    }
+}
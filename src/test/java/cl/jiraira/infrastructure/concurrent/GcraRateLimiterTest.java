@@ -0,0 +1,89 @@
+package cl.jiraira.infrastructure.concurrent;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class GcraRateLimiterTest {
+
+    private final AtomicLong clock = new AtomicLong(Long.MAX_VALUE - Duration.ofSeconds(30).toNanos());
+
+    @Test
+    void tryAcquire_ShouldAllowBurstAndThenRejectUntilNextEmission() {
+        GcraRateLimiter limiter = new GcraRateLimiter(3, 3, clock::get);
+
+        assertTrue(limiter.tryAcquire());
+        assertTrue(limiter.tryAcquire());
+        assertTrue(limiter.tryAcquire());
+        assertFalse(limiter.tryAcquire());
+
+        // Con 3 por minuto se libera un permiso cada 20 segundos, aun cruzando el overflow del reloj
+        clock.addAndGet(Duration.ofSeconds(19).toNanos());
+        assertFalse(limiter.tryAcquire());
+        clock.addAndGet(Duration.ofSeconds(1).toNanos());
+        assertTrue(limiter.tryAcquire());
+        assertFalse(limiter.tryAcquire());
+    }
+
+    @Test
+    void acquire_ShouldReportRemainingPermitsAndWaitTime() {
+        GcraRateLimiter limiter = new GcraRateLimiter(3, 3, clock::get);
+
+        assertEquals(2, limiter.acquire());
+        assertEquals(1, limiter.acquire());
+        assertEquals(0, limiter.acquire());
+        assertEquals(-Duration.ofSeconds(20).toNanos(), limiter.acquire());
+
+        clock.addAndGet(Duration.ofSeconds(15).toNanos());
+        assertEquals(-Duration.ofSeconds(5).toNanos(), limiter.acquire());
+    }
+
+    @Test
+    void tryAcquire_AtWindowBoundary_ShouldNotAllowDoubleBurst() {
+        GcraRateLimiter limiter = new GcraRateLimiter(60, 1, clock::get);
+
+        assertTrue(limiter.tryAcquire());
+        clock.addAndGet(Duration.ofMillis(999).toNanos());
+        assertFalse(limiter.tryAcquire());
+        clock.addAndGet(Duration.ofMillis(1).toNanos());
+        assertTrue(limiter.tryAcquire());
+    }
+
+    @Test
+    void tryAcquire_WithConcurrentCallers_ShouldGrantExactlyTheBurst() throws Exception {
+        GcraRateLimiter limiter = new GcraRateLimiter(100, 100, clock::get);
+        int threads = 8;
+        AtomicInteger granted = new AtomicInteger();
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+
+        try {
+            for (int t = 0; t < threads; t++) {
+                executor.submit(() -> {
+                    start.await();
+                    for (int i = 0; i < 1_000; i++) {
+                        if (limiter.tryAcquire()) {
+                            granted.incrementAndGet();
+                        }
+                    }
+                    return null;
+                });
+            }
+            start.countDown();
+            executor.shutdown();
+            assertTrue(executor.awaitTermination(10, TimeUnit.SECONDS));
+        } finally {
+            executor.shutdownNow();
+        }
+
+        assertEquals(100, granted.get());
+    }
+}
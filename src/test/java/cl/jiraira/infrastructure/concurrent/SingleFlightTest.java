@@ -0,0 +1,77 @@
+package cl.jiraira.infrastructure.concurrent;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SingleFlightTest {
+
+    @Test
+    void execute_WithConcurrentCallers_ShouldIssueSingleLoadAndShareResult() throws Exception {
+        SingleFlight<String, Integer> singleFlight = new SingleFlight<>();
+        AtomicInteger loads = new AtomicInteger();
+        CountDownLatch loaderStarted = new CountDownLatch(1);
+        CountDownLatch releaseLoader = new CountDownLatch(1);
+        int callers = 8;
+        ExecutorService executor = Executors.newFixedThreadPool(callers);
+
+        try {
+            List<Future<Integer>> results = new ArrayList<>();
+            results.add(executor.submit(() -> singleFlight.execute("percentage", () -> {
+                loads.incrementAndGet();
+                loaderStarted.countDown();
+                await(releaseLoader);
+                return 10;
+            })));
+            assertTrue(loaderStarted.await(5, TimeUnit.SECONDS));
+
+            for (int i = 1; i < callers; i++) {
+                results.add(executor.submit(() -> singleFlight.execute("percentage", () -> {
+                    loads.incrementAndGet();
+                    return -1;
+                })));
+            }
+            while (singleFlight.coalescedCount() < callers - 1) {
+                Thread.onSpinWait();
+            }
+            releaseLoader.countDown();
+
+            for (Future<Integer> result : results) {
+                assertEquals(10, result.get(5, TimeUnit.SECONDS));
+            }
+            assertEquals(1, loads.get());
+            assertEquals(1, singleFlight.issuedCount());
+            assertEquals(callers - 1, singleFlight.coalescedCount());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void execute_WhenLoaderFails_ShouldPropagateAndAllowNewAttempt() {
+        SingleFlight<String, Integer> singleFlight = new SingleFlight<>();
+
+        assertThrows(IllegalStateException.class,
+                () -> singleFlight.execute("percentage", () -> { throw new IllegalStateException("caído"); }));
+
+        assertEquals(5, singleFlight.execute("percentage", () -> 5));
+        assertEquals(2, singleFlight.issuedCount());
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,73 @@
+package cl.jiraira.infrastructure.concurrent;
+
+import cl.jiraira.infrastructure.concurrent.WindowedLatencyHistogram.Snapshot;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class WindowedLatencyHistogramTest {
+
+    @Test
+    void bucketIndex_ShouldBeContiguousAndBoundRelativeError() {
+        int previous = -1;
+        for (long value = 0; value < 1 << 20; value++) {
+            int index = WindowedLatencyHistogram.bucketIndex(value);
+            assertTrue(index == previous || index == previous + 1, "salto en " + value);
+            long highest = WindowedLatencyHistogram.highestEquivalentValue(index);
+            assertTrue(highest >= value && highest - value <= value / 32, "error en " + value);
+            previous = index;
+        }
+        assertEquals(WindowedLatencyHistogram.BUCKETS - 1, WindowedLatencyHistogram.bucketIndex(WindowedLatencyHistogram.MAX_VALUE));
+        assertEquals(WindowedLatencyHistogram.MAX_VALUE,
+                WindowedLatencyHistogram.highestEquivalentValue(WindowedLatencyHistogram.BUCKETS - 1));
+    }
+
+    @Test
+    void valueAtQuantile_ShouldStayWithinBucketErrorOfExact() {
+        WindowedLatencyHistogram histogram = new WindowedLatencyHistogram(5);
+        Random random = new Random(42);
+        long[] values = new long[100_000];
+        for (int i = 0; i < values.length; i++) {
+            // Log-normal centrada en ~5 ms, con cola hasta segundos
+            values[i] = (long) Math.exp(8.5 + 1.2 * random.nextGaussian());
+            histogram.record(values[i], 0);
+        }
+        Arrays.sort(values);
+
+        Snapshot snapshot = histogram.snapshot(0);
+        assertEquals(values.length, snapshot.count());
+        assertEquals(values[values.length - 1], snapshot.maxMicros());
+        assertEquals(Arrays.stream(values).average().orElseThrow(), snapshot.meanMicros(), 0.001);
+        for (double quantile : new double[]{0.5, 0.9, 0.99, 0.999}) {
+            long exact = values[(int) Math.ceil(quantile * values.length) - 1];
+            assertEquals(exact, snapshot.valueAtQuantile(quantile), exact / 32.0, "p" + quantile);
+        }
+    }
+
+    @Test
+    void snapshot_ShouldOnlyIncludeIntervalsInsideTheWindow() {
+        WindowedLatencyHistogram histogram = new WindowedLatencyHistogram(3);
+        histogram.record(1_000, 10);
+        histogram.record(2_000, 11);
+        histogram.record(3_000, 12);
+        assertEquals(3, histogram.snapshot(12).count());
+
+        // El intervalo 13 reutiliza el lugar del 9 y, al prepararlo, no arrastra datos viejos
+        histogram.prepare(13);
+        histogram.record(4_000, 13);
+        Snapshot snapshot = histogram.snapshot(13);
+        assertEquals(3, snapshot.count());
+        assertEquals(9_000, snapshot.sumMicros());
+        assertEquals(4_000, snapshot.maxMicros());
+
+        // Un registro atrasado no limpia un intervalo más nuevo
+        histogram.record(100, 9);
+        assertEquals(3, histogram.snapshot(13).count());
+
+        assertEquals(0, histogram.snapshot(20).count());
+        assertEquals(0, histogram.snapshot(20).valueAtQuantile(0.99));
+    }
+}
@@ -0,0 +1,115 @@
+package cl.jiraira.infrastructure.config;
+
+import cl.jiraira.infrastructure.config.HistoryCaptureConfig.CaptureDecision;
+import cl.jiraira.infrastructure.config.HistoryCaptureProperties.Mode;
+import cl.jiraira.infrastructure.config.HistoryCaptureProperties.Policy;
+import cl.jiraira.infrastructure.config.HistoryCaptureProperties.Route;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.boot.context.properties.source.ConfigurationPropertySources;
+import org.springframework.boot.env.YamlPropertySourceLoader;
+import org.springframework.core.io.ByteArrayResource;
+import org.springframework.util.unit.DataSize;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class HistoryCaptureConfigTest {
+
+    private final AtomicLong clock = new AtomicLong();
+    private final MeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private double nextRandom = 0.5;
+
+    private final HistoryCaptureConfig config = new HistoryCaptureConfig(new HistoryCaptureProperties(true,
+            DataSize.ofKilobytes(4), 16, List.of(), List.of(), new Policy(Mode.FULL, 1.0, true, null), List.of(
+            new Route("/api/v1/history", Mode.SAMPLED, 0.1, true, Duration.ofMillis(500)),
+            new Route("/api/v1/history/export", Mode.METADATA, 1.0, true, null),
+            new Route("/api/v1/calculations", Mode.TAIL, 0.25, true, Duration.ofSeconds(1)),
+            new Route("/actuator", Mode.OFF, 1.0, true, null)), List.of(429)),
+            meterRegistry, clock::get, () -> nextRandom);
+
+    @Test
+    void decide_ShouldPickLongestMatchingPrefixOrDefault() {
+        assertTrue(config.decide("/api/v1/other").capturesBodies());
+        assertFalse(config.decide("/api/v1/history/export").capturesBodies());
+        assertTrue(config.decide("/api/v1/calculations/calculate").capturesBodies());
+        // Muestreo: 0.5 no queda bajo la tasa de 0.1
+        assertFalse(config.decide("/api/v1/history").capturesBodies());
+    }
+
+    @Test
+    void decide_ShouldOnlyMatchWholePathSegments() {
+        assertFalse(config.shouldRecord(config.decide("/actuator/health"), 200, false));
+        assertTrue(config.decide("/actuatorfoo").capturesBodies());
+        assertTrue(config.decide("/api/v1/historyfoo").capturesBodies());
+    }
+
+    @Test
+    void shouldRecord_WhenSampledOut_ShouldKeepOnlyErrorsAndSlowCallsWithoutBodies() {
+        CaptureDecision fast = config.decide("/api/v1/history");
+        assertFalse(config.shouldRecord(fast, 200, false));
+        assertTrue(config.shouldRecord(config.decide("/api/v1/history"), 500, false));
+
+        CaptureDecision slow = config.decide("/api/v1/history");
+        clock.addAndGet(TimeUnit.MILLISECONDS.toNanos(700));
+        assertTrue(config.shouldRecord(slow, 200, false));
+        assertEquals(700, config.executionTimeMs(slow));
+        assertFalse(slow.capturesBodies());
+
+        nextRandom = 0.05;
+        assertTrue(config.shouldRecord(config.decide("/api/v1/history"), 200, false));
+    }
+
+    @Test
+    void shouldRecord_WithTailPolicy_ShouldDecideAtCompletion() {
+        CaptureDecision decision = config.decide("/api/v1/calculations/calculate");
+        assertFalse(config.shouldRecord(decision, 200, false));
+        assertTrue(config.shouldRecord(decision, 200, true));
+        assertTrue(config.shouldRecord(decision, 400, false));
+
+        nextRandom = 0.2;
+        assertTrue(config.shouldRecord(decision, 200, false));
+    }
+
+    @Test
+    void shouldRecord_ShouldSkipIgnoredStatusesAndDisabledRoutes() {
+        assertFalse(config.shouldRecord(config.decide("/api/v1/other"), 429, false));
+        assertTrue(config.shouldRecord(config.decide("/api/v1/other"), 404, false));
+        CaptureDecision disabled = config.decide("/actuator/health");
+        assertFalse(disabled.capturesBodies());
+        assertFalse(config.shouldRecord(disabled, 500, true));
+
+        assertEquals(2.0, meterRegistry.get("api.history.capture.decisions").tag("outcome", "skipped").counter().count());
+    }
+
+    @Test
+    void properties_ShouldBindOffModeFromYaml() throws IOException {
+        // YAML 1.1 lee OFF y off como el booleano false; el binder lo convierte igual al enum
+        String yaml = """
+                history:
+                  capture:
+                    policy:
+                      mode: OFF
+                    routes:
+                      - path: /api/v1/history/stream
+                        mode: off
+                      - path: /api/v1/history
+                        mode: sampled
+                """;
+        HistoryCaptureProperties properties = new Binder(ConfigurationPropertySources.from(new YamlPropertySourceLoader()
+                .load("application.yml", new ByteArrayResource(yaml.getBytes(StandardCharsets.UTF_8)))))
+                .bind("history.capture", HistoryCaptureProperties.class)
+                .get();
+
+        assertEquals(Mode.OFF, properties.policy().mode());
+        assertEquals(List.of(Mode.OFF, Mode.SAMPLED), properties.routes().stream().map(Route::mode).toList());
+    }
+}
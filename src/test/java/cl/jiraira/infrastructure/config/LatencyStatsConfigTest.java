@@ -0,0 +1,108 @@
+package cl.jiraira.infrastructure.config;
+
+import cl.jiraira.infrastructure.config.LatencyStatsConfig.EndpointLatency;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LatencyStatsConfigTest {
+
+    private static final long TEN_MS = TimeUnit.MILLISECONDS.toNanos(10);
+
+    private final AtomicLong clock = new AtomicLong(Long.MAX_VALUE - Duration.ofSeconds(2).toNanos());
+    private final MeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    @Test
+    void snapshot_ShouldGroupByEndpointMethodAndStatusClass() {
+        LatencyStatsConfig config = new LatencyStatsConfig(meterRegistry, Duration.ofSeconds(5), 5, 16, clock::get);
+
+        config.record("/api/v1/history/{id}", "GET", 200, TEN_MS);
+        config.record("/api/v1/history/{id}", "GET", 204, 3 * TEN_MS);
+        config.record("/api/v1/history/{id}", "GET", 404, TEN_MS);
+        config.record("/api/v1/calculations/calculate", "POST", 201, TEN_MS);
+        config.record("/api/v1/calculations/calculate", "TRACE", 0, TEN_MS);
+
+        List<EndpointLatency> stats = config.snapshot();
+        assertEquals(List.of("/api/v1/calculations/calculate OTHER UNKNOWN", "/api/v1/calculations/calculate POST 2xx",
+                "/api/v1/history/{id} GET 2xx", "/api/v1/history/{id} GET 4xx"), stats.stream()
+                .map(latency -> latency.endpoint() + " " + latency.method() + " " + latency.status())
+                .toList());
+        EndpointLatency history = stats.get(2);
+        assertEquals(2, history.snapshot().count());
+        assertEquals(20_000, history.snapshot().meanMicros(), 0.001);
+        assertEquals(30_000, history.snapshot().maxMicros());
+    }
+
+    @Test
+    void snapshot_ShouldForgetCallsOlderThanTheWindow() {
+        LatencyStatsConfig config = new LatencyStatsConfig(meterRegistry, Duration.ofSeconds(5), 5, 16, clock::get);
+
+        config.record("/api/v1/history", "GET", 200, TEN_MS);
+        // Cruza el overflow de System.nanoTime
+        clock.addAndGet(Duration.ofSeconds(4).toNanos());
+        config.rotate();
+        config.record("/api/v1/history", "GET", 200, TEN_MS);
+        assertEquals(2, config.snapshot().get(0).snapshot().count());
+
+        clock.addAndGet(Duration.ofSeconds(1).toNanos());
+        config.rotate();
+        assertEquals(1, config.snapshot().get(0).snapshot().count());
+
+        clock.addAndGet(Duration.ofSeconds(5).toNanos());
+        assertTrue(config.snapshot().isEmpty());
+        assertEquals(Duration.ofSeconds(5), config.window());
+    }
+
+    @Test
+    void record_WhenHistogramLimitReached_ShouldGroupNewCombinationsUnderOther() {
+        LatencyStatsConfig config = new LatencyStatsConfig(meterRegistry, Duration.ofSeconds(5), 5, 2, clock::get);
+
+        config.record("/a", "GET", 200, TEN_MS);
+        config.record("/b", "GET", 200, TEN_MS);
+        config.record("/c", "GET", 200, TEN_MS);
+        config.record("/d", "GET", 200, TEN_MS);
+        config.record("/a", "POST", 200, TEN_MS);
+        config.record("/a", "GET", 200, TEN_MS);
+
+        assertEquals(List.of("/a GET 2", "/b GET 1", "OTHER GET 2", "OTHER POST 1"), config.snapshot().stream()
+                .map(latency -> latency.endpoint() + " " + latency.method() + " " + latency.snapshot().count())
+                .toList());
+    }
+
+    @Test
+    void record_ShouldPublishWindowGaugesPerCombination() {
+        LatencyStatsConfig config = new LatencyStatsConfig(meterRegistry, Duration.ofSeconds(5), 5, 16, clock::get);
+
+        config.record("/api/v1/history", "GET", 200, TEN_MS);
+        config.record("/api/v1/history", "GET", 200, TEN_MS);
+
+        assertEquals(10.0, meterRegistry.get("api.requests.latency")
+                .tags("endpoint", "/api/v1/history", "method", "GET", "status", "2xx", "quantile", "0.99")
+                .gauge().value());
+        assertEquals(10.0, meterRegistry.get("api.requests.latency.max").gauge().value());
+        assertEquals(2.0, meterRegistry.get("api.requests.window.count").gauge().value());
+        assertEquals(List.of("0.5", "0.9", "0.99"), meterRegistry.get("api.requests.latency").gauges().stream()
+                .map(gauge -> gauge.getId().getTag("quantile"))
+                .sorted()
+                .toList());
+
+        // Dentro del mismo scrape todos los gauges leen la misma lectura de la ventana
+        config.record("/api/v1/history", "GET", 200, 5 * TEN_MS);
+        assertEquals(2.0, meterRegistry.get("api.requests.window.count").gauge().value());
+        assertEquals(10.0, meterRegistry.get("api.requests.latency.max").gauge().value());
+
+        clock.addAndGet(LatencyStatsConfig.GAUGE_SNAPSHOT_TTL.toNanos());
+        assertEquals(3.0, meterRegistry.get("api.requests.window.count").gauge().value());
+        assertEquals(50.0, meterRegistry.get("api.requests.latency.max").gauge().value());
+
+        clock.addAndGet(Duration.ofSeconds(5).toNanos());
+        assertEquals(0.0, meterRegistry.get("api.requests.window.count").gauge().value());
+    }
+}
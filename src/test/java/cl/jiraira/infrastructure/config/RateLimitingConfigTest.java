@@ -0,0 +1,117 @@
+package cl.jiraira.infrastructure.config;
+
+import cl.jiraira.infrastructure.adapter.out.ratelimit.DistributedTokenBucket;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RateLimitingConfigTest {
+
+    private final AtomicLong clock = new AtomicLong();
+    private final MeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    private final RateLimitingConfig config = new RateLimitingConfig(new RateLimitProperties(2, null, List.of(
+            new RateLimitProperties.Route("/api/v1/history", 10, 5),
+            new RateLimitProperties.Route("/api/v1/history/export", 1, null)),
+            new RateLimitProperties.Clients(100, Duration.ofMinutes(10)), localOnly()),
+            meterRegistry, null, clock::get, Runnable::run);
+
+    @Test
+    void policyFor_ShouldPickLongestMatchingPrefixOrDefault() {
+        assertEquals(1, config.policyFor("/api/v1/history/export").requestsPerMinute());
+        assertEquals(10, config.policyFor("/api/v1/history").requestsPerMinute());
+        assertEquals(2, config.policyFor("/api/v1/calculations/calculate").requestsPerMinute());
+        assertEquals(2, config.policyFor("/api/v1/calculations/calculate").burst());
+    }
+
+    @Test
+    void policyFor_ShouldOnlyMatchWholePathSegments() {
+        assertEquals(10, config.policyFor("/api/v1/history/123").requestsPerMinute());
+        assertEquals(10, config.policyFor("/api/v1/history/exports").requestsPerMinute());
+        assertEquals(2, config.policyFor("/api/v1/historyfoo").requestsPerMinute());
+        assertEquals(1, config.policyFor("/api/v1/history/export/").requestsPerMinute());
+    }
+
+    @Test
+    void isAllowed_ShouldTrackEachClientAndRouteIndependently() {
+        assertTrue(config.isAllowed("10.0.0.1", "/api/v1/calculations/calculate"));
+        assertTrue(config.isAllowed("10.0.0.1", "/api/v1/calculations/calculate"));
+        assertFalse(config.isAllowed("10.0.0.1", "/api/v1/calculations/calculate"));
+
+        assertTrue(config.isAllowed("10.0.0.1", "/api/v1/history"));
+        assertTrue(config.isAllowed("10.0.0.2", "/api/v1/calculations/calculate"));
+    }
+
+    @Test
+    void isAllowed_WithIdleClients_ShouldEvictThemAndReportMetrics() {
+        config.isAllowed("10.0.0.1", "/api/v1/calculations/calculate");
+        config.isAllowed("10.0.0.2", "/api/v1/calculations/calculate");
+        assertEquals(2, config.clientCount());
+
+        clock.addAndGet(Duration.ofMinutes(11).toNanos());
+        config.isAllowed("10.0.0.3", "/api/v1/calculations/calculate");
+
+        assertEquals(1, config.clientCount());
+        assertEquals(1.0, meterRegistry.get("rate.limit.clients").gauge().value());
+        assertEquals(2.0, meterRegistry.get("rate.limit.clients.evictions").functionCounter().count());
+    }
+
+    @Test
+    void isAllowed_BeyondMaximumSize_ShouldKeepTableBounded() {
+        for (int i = 0; i < 1_000; i++) {
+            config.isAllowed("spoofed-" + i, "/api/v1/calculations/calculate");
+        }
+
+        assertTrue(config.clientCount() <= 100);
+    }
+
+    @Test
+    void isAllowed_InDistributedMode_ShouldLeaseTokensInBatches() {
+        AtomicInteger leaseCalls = new AtomicInteger();
+        RateLimitingConfig distributed = distributedConfig((key, rpm, burst, requested) -> {
+            leaseCalls.incrementAndGet();
+            return leaseCalls.get() == 1 ? requested : 0;
+        });
+
+        for (int i = 0; i < 5; i++) {
+            assertTrue(distributed.isAllowed("10.0.0.1", "/api/v1/calculations/calculate"));
+        }
+        assertFalse(distributed.isAllowed("10.0.0.1", "/api/v1/calculations/calculate"));
+
+        assertEquals(2, leaseCalls.get());
+    }
+
+    @Test
+    void isAllowed_WhenSharedBucketFails_ShouldFallBackToLocalLimiter() {
+        AtomicInteger leaseCalls = new AtomicInteger();
+        RateLimitingConfig distributed = distributedConfig((key, rpm, burst, requested) -> {
+            leaseCalls.incrementAndGet();
+            throw new IllegalStateException("Redis no disponible");
+        });
+
+        assertTrue(distributed.isAllowed("10.0.0.1", "/api/v1/calculations/calculate"));
+        assertTrue(distributed.isAllowed("10.0.0.1", "/api/v1/calculations/calculate"));
+
+        // Mientras no pasa retry-after no se vuelve a consultar el bucket compartido
+        assertEquals(1, leaseCalls.get());
+        assertEquals(2.0, meterRegistry.get("rate.limit.distributed.fallbacks").counter().count());
+    }
+
+    private RateLimitingConfig distributedConfig(DistributedTokenBucket bucket) {
+        return new RateLimitingConfig(new RateLimitProperties(60, 10, List.of(),
+                new RateLimitProperties.Clients(100, Duration.ofMinutes(10)),
+                new RateLimitProperties.Distributed(true, 5, Duration.ofSeconds(1), Duration.ofSeconds(5))),
+                meterRegistry, bucket, clock::get, Runnable::run);
+    }
+
+    private static RateLimitProperties.Distributed localOnly() {
+        return new RateLimitProperties.Distributed(false, 5, Duration.ofSeconds(1), Duration.ofSeconds(5));
+    }
+}
@@ -0,0 +1,130 @@
+package cl.jiraira.infrastructure.filter;
+
+import cl.jiraira.infrastructure.config.HistoryCaptureConfig;
+import cl.jiraira.infrastructure.config.HistoryCaptureProperties;
+import cl.jiraira.infrastructure.config.HistoryCaptureProperties.Mode;
+import cl.jiraira.infrastructure.config.HistoryCaptureProperties.Policy;
+import cl.jiraira.infrastructure.config.HistoryCaptureProperties.Route;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.servlet.FilterChain;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.util.unit.DataSize;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BodyCaptureFilterTest {
+
+    private final CaptureBufferPool pool = new CaptureBufferPool(16, 4);
+    private final HistoryCaptureProperties properties = new HistoryCaptureProperties(true, DataSize.ofBytes(16), 4,
+            List.of("/api/v1/history/export"), List.of("multipart/*", "text/event-stream"),
+            new Policy(Mode.FULL, 1.0, true, null),
+            List.of(new Route("/api/v1/history/", Mode.SAMPLED, 0.5, true, null)), List.of(429));
+    private final BodyCaptureFilter filter = new BodyCaptureFilter(pool, properties,
+            new HistoryCaptureConfig(properties, new SimpleMeterRegistry(), System::nanoTime, () -> 0.9));
+
+    @Test
+    void doFilter_ShouldCaptureBoundedPrefixAndPassFullBodiesThrough() throws Exception {
+        MockHttpServletRequest request = request("/api/v1/calculations/calculate", "{\"num1\": 5.0, \"num2\": 10.0}");
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        AtomicReference<String> read = new AtomicReference<>();
+        AtomicReference<String> captured = new AtomicReference<>();
+
+        FilterChain chain = (req, res) -> {
+            read.set(new String(req.getInputStream().readAllBytes(), StandardCharsets.UTF_8));
+            res.setContentType("application/json");
+            res.getOutputStream().write("{\"result\": 16.5, \"extra\": true}".getBytes(StandardCharsets.UTF_8));
+            BodyCapture requestBody = (BodyCapture) req.getAttribute(BodyCaptureFilter.REQUEST_BODY_ATTRIBUTE);
+            BodyCapture responseBody = (BodyCapture) req.getAttribute(BodyCaptureFilter.RESPONSE_BODY_ATTRIBUTE);
+            assertTrue(requestBody.truncated());
+            captured.set(requestBody.asString(StandardCharsets.UTF_8) + "|" + responseBody.asString(StandardCharsets.UTF_8));
+        };
+        filter.doFilter(request, response, chain);
+
+        assertEquals("{\"num1\": 5.0, \"num2\": 10.0}", read.get());
+        assertEquals("{\"result\": 16.5, \"extra\": true}", response.getContentAsString());
+        assertEquals("{\"num1\": 5.0, \"n|{\"result\": 16.5,", captured.get());
+        // Los dos buffers vuelven al pool al terminar la request
+        assertEquals(2, pool.available());
+    }
+
+    @Test
+    void doFilter_WithWriter_ShouldCaptureEncodedCharacters() throws Exception {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        AtomicReference<String> captured = new AtomicReference<>();
+
+        filter.doFilter(request("/api/v1/history", null), response, (req, res) -> {
+            res.setContentType("application/json");
+            res.setCharacterEncoding("UTF-8");
+            res.getWriter().write("[\"cálculo\"]");
+            captured.set(((BodyCapture) req.getAttribute(BodyCaptureFilter.RESPONSE_BODY_ATTRIBUTE)).asString(StandardCharsets.UTF_8));
+        });
+
+        assertEquals("[\"cálculo\"]", captured.get());
+        assertEquals("[\"cálculo\"]", response.getContentAsString());
+    }
+
+    @Test
+    void doFilter_WithExcludedContentType_ShouldNotCapture() throws Exception {
+        MockHttpServletRequest request = request("/api/v1/upload", "--boundary");
+        request.setContentType("multipart/form-data; boundary=boundary");
+        AtomicReference<Object> captured = new AtomicReference<>();
+
+        filter.doFilter(request, new MockHttpServletResponse(), (req, res) -> {
+            req.getInputStream().readAllBytes();
+            res.setContentType("text/event-stream");
+            res.getOutputStream().write("data: {}\n\n".getBytes(StandardCharsets.UTF_8));
+            captured.set(req.getAttribute(BodyCaptureFilter.REQUEST_BODY_ATTRIBUTE));
+            assertNull(((BodyCapture) req.getAttribute(BodyCaptureFilter.RESPONSE_BODY_ATTRIBUTE)).asString(StandardCharsets.UTF_8));
+        });
+
+        assertNull(captured.get());
+        assertEquals(0, pool.available());
+    }
+
+    @Test
+    void doFilter_WithExcludedPath_ShouldNotWrap() throws Exception {
+        MockHttpServletRequest request = request("/api/v1/history/export", null);
+
+        filter.doFilter(request, new MockHttpServletResponse(), (req, res) -> assertSame(request, req));
+
+        assertNull(request.getAttribute(BodyCaptureFilter.RESPONSE_BODY_ATTRIBUTE));
+    }
+
+    @Test
+    void doFilter_WhenSampledOut_ShouldNotWrapNorTakeBuffers() throws Exception {
+        MockHttpServletRequest request = request("/api/v1/history/42", null);
+
+        filter.doFilter(request, new MockHttpServletResponse(), (req, res) -> {
+            assertSame(request, req);
+            res.getOutputStream().write("{}".getBytes(StandardCharsets.UTF_8));
+        });
+
+        assertNull(request.getAttribute(BodyCaptureFilter.RESPONSE_BODY_ATTRIBUTE));
+        assertFalse(((HistoryCaptureConfig.CaptureDecision) request.getAttribute(HistoryCaptureConfig.DECISION_ATTRIBUTE))
+                .capturesBodies());
+        assertEquals(0, pool.available());
+    }
+
+    @Test
+    void completeUtf8Prefix_ShouldDropTrailingPartialCharacter() {
+        byte[] bytes = "añ".getBytes(StandardCharsets.UTF_8);
+
+        assertEquals(1, BodyCapture.completeUtf8Prefix(bytes, 2));
+        assertEquals(3, BodyCapture.completeUtf8Prefix(bytes, 3));
+    }
+
+    private static MockHttpServletRequest request(String uri, String body) {
+        MockHttpServletRequest request = new MockHttpServletRequest("POST", uri);
+        if (body != null) {
+            request.setContentType("application/json");
+            request.setContent(body.getBytes(StandardCharsets.UTF_8));
+        }
+        return request;
+    }
+}